@@ -1,26 +1,54 @@
 package org.veenix.timer;
 
-import org.veenix.timer.cli.ActivityCommand;
-import org.veenix.timer.cli.TimerCommand;
+import org.veenix.timer.cli.CommandTree;
+import org.veenix.timer.cli.DatabaseCommand;
+import org.veenix.timer.metrics.CommandExecutionEvent;
+import org.veenix.timer.metrics.FlightRecording;
+import org.veenix.timer.metrics.MetricsRegistry;
+import org.veenix.timer.metrics.MetricsReport;
+import org.veenix.timer.metrics.Timer;
+import org.veenix.timer.persistence.DatabaseConnection;
+import org.veenix.timer.persistence.DatabaseMaintenance;
+import org.veenix.timer.persistence.RetryPolicy;
+import org.veenix.timer.persistence.SqliteStorageProvider;
+import org.veenix.timer.persistence.StorageProviders;
+import org.veenix.timer.service.ConfigurationService;
 import picocli.CommandLine;
 import picocli.CommandLine.IVersionProvider;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParseResult;
+import picocli.CommandLine.ScopeType;
+import picocli.CommandLine.Spec;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import java.util.Properties;
+import java.util.stream.Collectors;
 
 @CommandLine.Command(
     name = "timer-app",
     mixinStandardHelpOptions = true,
-    versionProvider = Main.VersionProvider.class,
-    subcommands = {
-        TimerCommand.class,
-        ActivityCommand.class,
-        CommandLine.HelpCommand.class
-    }
+    versionProvider = Main.VersionProvider.class
 )
 public class Main implements Runnable {
 
+    @Option(names = {"--timings"}, scope = ScopeType.INHERIT,
+            description = "Print a breakdown of where the command spent its time")
+    boolean timings;
+
+    @Option(names = {"--metrics-out"}, scope = ScopeType.INHERIT, paramLabel = "<file>",
+            description = "Append the collected metrics to this CSV file")
+    Path metricsOut;
+
+    @Option(names = {"--jfr"}, scope = ScopeType.INHERIT, paramLabel = "<file>",
+            description = "Record a Java Flight Recorder profile of the command to this file")
+    Path jfrOut;
+
     static class VersionProvider implements IVersionProvider {
         @Override
         public String[] getVersion() {
@@ -38,13 +66,161 @@ public class Main implements Runnable {
         }
     }
 
+    @Spec
+    CommandSpec spec;
+
+    private int maintenanceThreshold;
+
     @Override
     public void run() {
-        CommandLine.usage(this, System.out);
+        spec.commandLine().usage(System.out);
     }
 
     public static void main(String[] args) {
-        int exitCode = new CommandLine(new Main()).execute(args);
+        long mainStartNanos = System.nanoTime();
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        recordJvmStartup(metrics);
+
+        Main main = new Main();
+        CommandLine commandLine = CommandTree.build(main, args);
+        commandLine.setExecutionStrategy(parseResult -> main.execute(parseResult, metrics, mainStartNanos));
+        int exitCode = commandLine.execute(args);
         System.exit(exitCode);
     }
+
+    /**
+     * Runs the selected subcommand like picocli's default strategy, timing it as {@code command.<name>}
+     * and reporting the collected metrics when --timings or --metrics-out is given.
+     * With --jfr the command runs inside a flight recording. Usage and version requests are answered
+     * without reading the configuration.
+     */
+    private int execute(ParseResult parseResult, MetricsRegistry metrics, long mainStartNanos) {
+        metrics.timer("cli.init").record(System.nanoTime() - mainStartNanos);
+        String command = commandName(parseResult);
+        FlightRecording recording = startRecording();
+        CommandExecutionEvent event = new CommandExecutionEvent();
+        event.begin();
+        int exitCode = CommandLine.ExitCode.SOFTWARE;
+        try (Timer.Sample ignored = metrics.timer("command." + command).start()) {
+            if (!helpRequested(parseResult)) {
+                exitCode = configureDatabase(parseResult);
+                if (exitCode != CommandLine.ExitCode.OK) {
+                    return exitCode;
+                }
+            }
+            exitCode = new CommandLine.RunLast().execute(parseResult);
+            maintainDatabase();
+            return exitCode;
+        } finally {
+            if (event.shouldCommit()) {
+                event.command = command;
+                event.exitCode = exitCode;
+                event.commit();
+            }
+            if (recording != null) {
+                recording.close();
+                System.err.println("Flight recording written to " + jfrOut);
+            }
+            report(metrics, command);
+        }
+    }
+
+    /**
+     * Applies the storage settings from the configuration and returns the exit code to stop with, or
+     * {@link CommandLine.ExitCode#OK} to run the command. A {@link DatabaseCommand} is refused when the
+     * configured backend does not keep its activities in the SQLite database.
+     */
+    private int configureDatabase(ParseResult parseResult) {
+        ConfigurationService config = new ConfigurationService();
+        maintenanceThreshold = config.getMaintenanceThreshold();
+        try {
+            StorageProviders.configure(config.getStorageBackend());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            return CommandLine.ExitCode.SOFTWARE;
+        }
+        if (parseResult.asCommandLineList().getLast().getCommand() instanceof DatabaseCommand
+                && !StorageProviders.usesDatabase()) {
+            System.err.println("Error: this command works on the " + SqliteStorageProvider.NAME
+                + " database, but storage.backend is " + StorageProviders.backend() + ".");
+            return CommandLine.ExitCode.SOFTWARE;
+        }
+        DatabaseConnection.configureSlowQueryLog(
+            Duration.ofMillis(config.getSlowQueryThresholdMillis()), Path.of(config.getSlowQueryLogFile()));
+        DatabaseConnection.configureBusyHandling(
+            Duration.ofMillis(config.getBusyTimeoutMillis()), RetryPolicy.withRetries(config.getBusyRetries()));
+        return CommandLine.ExitCode.OK;
+    }
+
+    /**
+     * Returns whether picocli answers the invocation itself with usage help or the version, from an option
+     * or the help command.
+     */
+    private static boolean helpRequested(ParseResult parseResult) {
+        for (CommandLine commandLine : parseResult.asCommandLineList()) {
+            if (commandLine.isUsageHelpRequested() || commandLine.isVersionHelpRequested()
+                    || commandLine.getCommandSpec().helpCommand()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the rows the command changed to the persisted mutation counter, which runs maintenance once
+     * it crosses the configured threshold. Commands that did not open the database skip this.
+     */
+    private void maintainDatabase() {
+        DatabaseConnection.getExistingInstance().ifPresent(dbConnection -> {
+            try {
+                new DatabaseMaintenance(dbConnection).recordMutations(maintenanceThreshold);
+            } catch (RuntimeException e) {
+                // Maintenance is opportunistic; a busy or read-only database is maintained by a later command
+            }
+        });
+    }
+
+    private FlightRecording startRecording() {
+        if (jfrOut == null) {
+            return null;
+        }
+        try {
+            return FlightRecording.start(jfrOut);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to start flight recording: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void report(MetricsRegistry metrics, String command) {
+        if (timings) {
+            MetricsReport.printTimings(metrics, System.err);
+        }
+        if (metricsOut != null) {
+            try {
+                MetricsReport.appendCsv(metrics, metricsOut, command);
+            } catch (IOException e) {
+                System.err.println("Failed to write metrics to " + metricsOut + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static String commandName(ParseResult parseResult) {
+        List<CommandLine> commands = parseResult.asCommandLineList();
+        if (commands.size() == 1) {
+            return commands.get(0).getCommandName();
+        }
+        return commands.stream()
+            .skip(1)
+            .map(CommandLine::getCommandName)
+            .collect(Collectors.joining(" "));
+    }
+
+    /**
+     * Records the time between process start and entering main, which covers JVM boot and class loading.
+     */
+    private static void recordJvmStartup(MetricsRegistry metrics) {
+        ProcessHandle.current().info().startInstant().ifPresent(start ->
+            metrics.timer("jvm.startup").record(Duration.between(start, Instant.now()).toNanos()));
+    }
 }
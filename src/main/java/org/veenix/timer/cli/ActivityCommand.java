@@ -1,28 +1,24 @@
 package org.veenix.timer.cli;
 
-import picocli.CommandLine;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Spec;
 
 @Command(
     name = "activity",
     aliases = {"a", "act"},
     description = "Activity management commands",
     mixinStandardHelpOptions = true,
-    version = "1.0",
-    subcommands = {
-        ActivityListCommand.class,
-        EditCommand.class,
-        DeleteCommand.class,
-        ExportCommand.class,
-        AddCommand.class,
-        CopyCommand.class
-    }
+    version = "1.0"
 )
 public class ActivityCommand implements Runnable {
 
+    @Spec
+    CommandSpec spec;
+
     @Override
     public void run() {
-        // Show help when no subcommand is provided
-        CommandLine.usage(this, System.out);
+        // Show help when no subcommand is provided; the spec knows the subcommands registered by CommandTree
+        spec.commandLine().usage(System.out);
     }
 }
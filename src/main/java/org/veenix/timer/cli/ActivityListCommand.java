@@ -1,14 +1,22 @@
 package org.veenix.timer.cli;
 
+import org.veenix.timer.cli.util.ReplicaReader;
+import org.veenix.timer.json.ActivityJson;
+import org.veenix.timer.json.JsonWriter;
 import org.veenix.timer.model.Activity;
 import org.veenix.timer.model.ActivityStatus;
 import org.veenix.timer.persistence.ActivityRepository;
 import org.veenix.timer.persistence.ActivityRepositoryImpl;
+import org.veenix.timer.persistence.DatabaseChangeNotifier;
 import org.veenix.timer.persistence.DatabaseConnection;
+import org.veenix.timer.persistence.PageCursor;
+import org.veenix.timer.persistence.SqliteStorageProvider;
+import org.veenix.timer.persistence.StorageProviders;
 import picocli.CommandLine.ArgGroup;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 
+import java.io.IOException;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -16,6 +24,9 @@ import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Optional;
+import java.util.Scanner;
+import java.util.concurrent.Semaphore;
 
 @Command(
     name = "list",
@@ -28,6 +39,8 @@ public class ActivityListCommand implements Runnable {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
     private static final DateTimeFormatter DATE_DISPLAY_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter FOLLOW_TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final int DEFAULT_PAGE_SIZE = 50;
 
     @ArgGroup(exclusive = true, multiplicity = "0..1")
     DateOptions dateOptions;
@@ -46,121 +59,382 @@ public class ActivityListCommand implements Runnable {
         boolean yesterday;
     }
 
+    @ArgGroup(exclusive = true, multiplicity = "0..1")
+    CursorOptions cursorOptions;
+
+    static class CursorOptions {
+        @Option(names = {"--after-id"}, description = "Start listing after the activity with this ID")
+        Long afterId;
+
+        @Option(names = {"--before-id", "--before"}, description = "List the activities directly before the activity with this ID")
+        Long beforeId;
+    }
+
+    @Option(names = {"-n", "--limit"}, description = "Maximum number of activities per page")
+    Integer limit;
+
+    @Option(names = {"--page"}, description = "Show one page at a time and wait for Enter before fetching the next")
+    boolean page;
+
+    @Option(names = {"-f", "--follow"}, description = "Keep running and reprint the list whenever the data changes")
+    boolean follow;
+
+    @Option(names = {"--json"}, description = "Print the activities and their totals as a JSON object instead of a table")
+    boolean json;
+
+    @Option(names = {"--replica"}, description = "Read from the replica kept by 'activity db replicate' instead of the database")
+    boolean replica;
+
     @Override
     public void run() {
-        ActivityRepository activityRepository = new ActivityRepositoryImpl(
-            DatabaseConnection.getInstance()
-        );
+        if (json && (follow || page)) {
+            System.err.println("--json cannot be combined with --follow or --page.");
+            System.exit(1);
+            return;
+        }
+        if (follow && (limit != null || page || cursorOptions != null)) {
+            System.err.println("--follow cannot be combined with --limit, --page, --after-id or --before-id.");
+            System.exit(1);
+            return;
+        }
+        // Only SQLite reports commits to a follower
+        if (follow && !replica && !StorageProviders.usesDatabase()) {
+            System.err.println("--follow needs the " + SqliteStorageProvider.NAME + " storage backend.");
+            System.exit(1);
+            return;
+        }
 
-        // Get activities
-        List<Activity> activities;
+        DatabaseConnection dbConnection = replica ? ReplicaReader.open() : null;
+        ActivityRepository activityRepository = replica
+            ? new ActivityRepositoryImpl(dbConnection) : StorageProviders.repository();
+
+        if (limit != null || page || cursorOptions != null) {
+            runPaged(activityRepository);
+            return;
+        }
+
+        if (follow) {
+            follow(replica ? dbConnection : DatabaseConnection.getInstance(), activityRepository);
+            return;
+        }
+        if (json) {
+            printJson(findActivities(activityRepository));
+            return;
+        }
+        printActivities(findActivities(activityRepository));
+    }
 
+    private List<Activity> findActivities(ActivityRepository activityRepository) {
         if (dateOptions != null && dateOptions.all) {
             // Show all activities in chronological order
-            activities = activityRepository.findAll();
-        } else {
-            LocalDate targetDate;
-            LocalDate endDate;
-
-            try {
-                if (dateOptions == null || (dateOptions.date == null && dateOptions.from == null && !dateOptions.yesterday)) {
-                    // Default: show today's activities
-                    targetDate = LocalDate.now();
-                    endDate = targetDate;
-                } else if (dateOptions.yesterday) {
-                    // Show yesterday's activities
-                    targetDate = LocalDate.now().minusDays(1);
-                    endDate = targetDate;
-                } else if (dateOptions.date != null) {
-                    // Show activities for specific date
-                    targetDate = LocalDate.parse(dateOptions.date, DATE_FORMATTER);
-                    endDate = targetDate;
-                } else {
-                    // Show activities from date to today
-                    targetDate = LocalDate.parse(dateOptions.from, DATE_FORMATTER);
-                    endDate = LocalDate.now();
+            return activityRepository.findAll();
+        }
+
+        LocalDate targetDate;
+        LocalDate endDate;
+
+        try {
+            if (dateOptions == null || (dateOptions.date == null && dateOptions.from == null && !dateOptions.yesterday)) {
+                // Default: show today's activities
+                targetDate = LocalDate.now();
+                endDate = targetDate;
+            } else if (dateOptions.yesterday) {
+                // Show yesterday's activities
+                targetDate = LocalDate.now().minusDays(1);
+                endDate = targetDate;
+            } else if (dateOptions.date != null) {
+                // Show activities for specific date
+                targetDate = LocalDate.parse(dateOptions.date, DATE_FORMATTER);
+                endDate = targetDate;
+            } else {
+                // Show activities from date to today
+                targetDate = LocalDate.parse(dateOptions.from, DATE_FORMATTER);
+                endDate = LocalDate.now();
+            }
+        } catch (DateTimeParseException e) {
+            System.err.println("Invalid date format. Please use yyyyMMdd format.");
+            System.exit(1);
+            return List.of();
+        }
+
+        if (targetDate.equals(endDate)) {
+            LocalDateTime startOfDay = targetDate.atStartOfDay();
+            return activityRepository.findByStartTime(startOfDay);
+        }
+        LocalDateTime fromDateTime = targetDate.atStartOfDay();
+        LocalDateTime toDateTime = endDate.atTime(LocalTime.MAX);
+        return activityRepository.findByDateRange(fromDateTime, toDateTime);
+    }
+
+    private void printActivities(List<Activity> activities) {
+        if (activities.isEmpty()) {
+            System.out.println("No activities found for the specified date range.");
+            return;
+        }
+
+        printHeader();
+
+        // Print activities and calculate total duration
+        long totalMinutes = 0;
+        for (Activity activity : activities) {
+            totalMinutes += printActivity(activity);
+        }
+
+        printTotal(totalMinutes, activities.size());
+    }
+
+    /**
+     * Waits for commits from other processes and reprints the list when its contents changed.
+     * The change notifier does not read any table; the list is only queried again after a commit.
+     */
+    private void follow(DatabaseConnection dbConnection, ActivityRepository activityRepository) {
+        Semaphore changed = new Semaphore(0);
+        try (DatabaseChangeNotifier notifier = new DatabaseChangeNotifier(dbConnection);
+             DatabaseChangeNotifier.Subscription ignored = notifier.subscribe(event -> changed.release())) {
+            // Start watching before the first query so a commit in between is not missed
+            notifier.start();
+            List<Activity> shown = findActivities(activityRepository);
+            printActivities(shown);
+            while (true) {
+                changed.acquire();
+                // Several commits in a row need only one query
+                changed.drainPermits();
+                List<Activity> activities = findActivities(activityRepository);
+                if (!activities.equals(shown)) {
+                    System.out.println();
+                    System.out.println("-- Changed at " + LocalTime.now().format(FOLLOW_TIME_FORMATTER) + " --");
+                    printActivities(activities);
+                    shown = activities;
                 }
-            } catch (DateTimeParseException e) {
-                System.err.println("Invalid date format. Please use yyyyMMdd format.");
-                System.exit(1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Lists one page at a time using keyset queries, so each page costs the same regardless of
+     * how deep into the history it is. With --page the next page is only fetched on request.
+     */
+    private void runPaged(ActivityRepository activityRepository) {
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (pageSize <= 0) {
+            System.err.println("Limit must be greater than 0.");
+            System.exit(1);
+            return;
+        }
+
+        // A cursor without date options pages through the whole history; --all does the same without one
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+        LocalDate firstDay = null;
+        boolean unbounded = dateOptions != null ? dateOptions.all : cursorOptions != null;
+        if (!unbounded) {
+            LocalDate[] range = resolveDateRange();
+            if (range == null) {
                 return;
             }
+            firstDay = range[0];
+            from = range[0].atStartOfDay();
+            to = range[1].plusDays(1).atStartOfDay();
+        }
 
-            if (targetDate.equals(endDate)) {
-                LocalDateTime startOfDay = targetDate.atStartOfDay();
-                activities = activityRepository.findByStartTime(startOfDay);
-            } else {
-                LocalDateTime fromDateTime = targetDate.atStartOfDay();
-                LocalDateTime toDateTime = endDate.atTime(LocalTime.MAX);
-                activities = activityRepository.findByDateRange(fromDateTime, toDateTime);
+        List<Activity> activities;
+        if (cursorOptions != null) {
+            Long cursorId = cursorOptions.afterId != null ? cursorOptions.afterId : cursorOptions.beforeId;
+            Optional<Activity> cursorActivity = activityRepository.findById(cursorId);
+            if (cursorActivity.isEmpty()) {
+                System.out.println("Activity with ID " + cursorId + " not found.");
+                return;
             }
+            PageCursor cursor = PageCursor.of(cursorActivity.get());
+            activities = cursorOptions.afterId != null
+                ? activityRepository.findPageAfter(from, to, cursor, pageSize)
+                : activityRepository.findPageBefore(from, to, cursor, pageSize);
+        } else {
+            activities = activityRepository.findPageAfter(from, to, null, pageSize);
         }
 
+        if (json) {
+            printJson(activities);
+            return;
+        }
         if (activities.isEmpty()) {
             System.out.println("No activities found for the specified date range.");
-        } else {
-            // Print header
-            System.out.printf("%-5s | %-10s | %-5s | %-5s | %-8s | %-15s | %-10s | %s%n",
-                "ID", "Date", "Start", "End", "Duration", "Type", "Status", "Description");
-            System.out.println("------+------------+-------+-------+----------+-----------------+------------+------------------");
+            return;
+        }
 
-            // Print activities and calculate total duration
-            long totalMinutes = 0;
+        printHeader();
+        Scanner scanner = page ? new Scanner(System.in) : null;
+        long totalMinutes = 0;
+        int count = 0;
+        while (true) {
             for (Activity activity : activities) {
-                String id = String.valueOf(activity.id());
-                String date = activity.startTime() != null
-                    ? activity.startTime().format(DATE_DISPLAY_FORMATTER)
-                    : "-";
-                String startTime = activity.startTime() != null
-                    ? activity.startTime().format(TIME_FORMATTER)
-                    : "-";
-                String endTime = activity.endTime() != null
-                    ? activity.endTime().format(TIME_FORMATTER)
-                    : "-";
-                String duration = formatDuration(activity);
-                String type = activity.activityType() != null ? activity.activityType().toString() : "-";
-                String status;
-                if (activity.status() != null) {
-                    status = switch (activity.status()) {
-                        case ACTIVE -> "Active";
-                        case PAUSED -> "Paused";
-                        case COMPLETED -> "Done";
-                    };
-                } else {
-                    status = "-";
-                }
-                String description = activity.description() != null ? activity.description() : "";
-
-                System.out.printf("%-5s | %-10s | %-5s | %-5s | %-8s | %-15s | %-10s | %s%n",
-                    id, date, startTime, endTime, duration, type, status, description);
-
-                // Add to total - for ACTIVE activities, calculate to now
-                if (activity.startTime() != null) {
-                    LocalDateTime effectiveEndTime;
-                    if (activity.status() == ActivityStatus.ACTIVE && activity.endTime() == null) {
-                        effectiveEndTime = LocalDateTime.now();
-                    } else {
-                        effectiveEndTime = activity.endTime();
-                    }
-
-                    if (effectiveEndTime != null) {
-                        Duration activityDuration = Duration.between(activity.startTime(), effectiveEndTime);
-                        totalMinutes += activityDuration.toMinutes();
-                    }
+                totalMinutes += printActivity(activity);
+            }
+            count += activities.size();
+
+            Activity last = activities.get(activities.size() - 1);
+            boolean morePossible = activities.size() == pageSize;
+            if (!page || !morePossible) {
+                printTotal(totalMinutes, count);
+                if (morePossible) {
+                    System.out.println("Next page: " + rangeArguments(dateOptions, firstDay) + "--after-id " + last.id()
+                        + " --limit " + pageSize);
                 }
+                return;
+            }
+
+            System.out.print("-- More (Enter for next page, q to quit) --");
+            if (!scanner.hasNextLine() || scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                printTotal(totalMinutes, count);
+                return;
+            }
+
+            activities = activityRepository.findPageAfter(from, to, PageCursor.of(last), pageSize);
+            if (activities.isEmpty()) {
+                printTotal(totalMinutes, count);
+                return;
             }
+        }
+    }
 
-            // Print total line
-            System.out.println("------+------------+-------+-------+----------+-----------------+------------+------------------");
-            long hours = totalMinutes / 60;
-            long remainingMinutes = totalMinutes % 60;
-            System.out.printf("%-5s | %-10s | %-5s | %-5s | %-8s%n",
-                "", "", "", "TOTAL:", totalMinutes + " min (" + hours + "h " + remainingMinutes + "m)");
+    /**
+     * Returns the date options that select the same range again, for the next page hint: the first day
+     * as a fixed date, so the hint still works tomorrow, and nothing when the listing is unbounded.
+     */
+    static String rangeArguments(DateOptions dateOptions, LocalDate firstDay) {
+        if (dateOptions != null && dateOptions.all) {
+            return "--all ";
+        }
+        if (firstDay == null) {
+            return "";
+        }
+        String option = dateOptions != null && dateOptions.from != null ? "--from " : "--date ";
+        return option + firstDay.format(DATE_FORMATTER) + " ";
+    }
 
-            System.out.println("\nTotal activities: " + activities.size());
+    private LocalDate[] resolveDateRange() {
+        try {
+            if (dateOptions == null || (dateOptions.date == null && dateOptions.from == null && !dateOptions.yesterday)) {
+                LocalDate today = LocalDate.now();
+                return new LocalDate[]{today, today};
+            } else if (dateOptions.yesterday) {
+                LocalDate yesterday = LocalDate.now().minusDays(1);
+                return new LocalDate[]{yesterday, yesterday};
+            } else if (dateOptions.date != null) {
+                LocalDate date = LocalDate.parse(dateOptions.date, DATE_FORMATTER);
+                return new LocalDate[]{date, date};
+            } else {
+                return new LocalDate[]{LocalDate.parse(dateOptions.from, DATE_FORMATTER), LocalDate.now()};
+            }
+        } catch (DateTimeParseException e) {
+            System.err.println("Invalid date format. Please use yyyyMMdd format.");
+            System.exit(1);
+            return null;
         }
     }
 
+    /**
+     * Writes the activities to standard output as one JSON array; an empty list prints {@code []}.
+     */
+    private void printJson(List<Activity> activities) {
+        try {
+            JsonWriter writer = new JsonWriter(System.out);
+            writeJson(writer, activities);
+            writer.newline().flush();
+        } catch (IOException e) {
+            System.err.println("Error writing JSON: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Writes the activities with the same totals the table ends with, as
+     * {@code {"activities":[...],"totalMinutes":N,"count":N}}.
+     */
+    static void writeJson(JsonWriter json, List<Activity> activities) throws IOException {
+        long totalMinutes = 0;
+        for (Activity activity : activities) {
+            totalMinutes += durationMinutes(activity);
+        }
+        json.beginObject().name("activities");
+        ActivityJson.writeArray(json, activities);
+        json.name("totalMinutes").value(totalMinutes)
+            .name("count").value(activities.size())
+            .endObject();
+    }
+
+    private void printHeader() {
+        System.out.printf("%-5s | %-10s | %-5s | %-5s | %-8s | %-15s | %-10s | %s%n",
+            "ID", "Date", "Start", "End", "Duration", "Type", "Status", "Description");
+        System.out.println("------+------------+-------+-------+----------+-----------------+------------+------------------");
+    }
+
+    /**
+     * Prints one row and returns its duration in minutes for the total line.
+     */
+    private long printActivity(Activity activity) {
+        String id = String.valueOf(activity.id());
+        String date = activity.startTime() != null
+            ? activity.startTime().format(DATE_DISPLAY_FORMATTER)
+            : "-";
+        String startTime = activity.startTime() != null
+            ? activity.startTime().format(TIME_FORMATTER)
+            : "-";
+        String endTime = activity.endTime() != null
+            ? activity.endTime().format(TIME_FORMATTER)
+            : "-";
+        String duration = formatDuration(activity);
+        String type = activity.activityType() != null ? activity.activityType().toString() : "-";
+        String status;
+        if (activity.status() != null) {
+            status = switch (activity.status()) {
+                case ACTIVE -> "Active";
+                case PAUSED -> "Paused";
+                case COMPLETED -> "Done";
+            };
+        } else {
+            status = "-";
+        }
+        String description = activity.description() != null ? activity.description() : "";
+
+        System.out.printf("%-5s | %-10s | %-5s | %-5s | %-8s | %-15s | %-10s | %s%n",
+            id, date, startTime, endTime, duration, type, status, description);
+        return durationMinutes(activity);
+    }
+
+    /**
+     * Returns the minutes an activity counts towards the total.
+     */
+    private static long durationMinutes(Activity activity) {
+        // Add to total - for ACTIVE activities, calculate to now
+        if (activity.startTime() != null) {
+            LocalDateTime effectiveEndTime;
+            if (activity.status() == ActivityStatus.ACTIVE && activity.endTime() == null) {
+                effectiveEndTime = LocalDateTime.now();
+            } else {
+                effectiveEndTime = activity.endTime();
+            }
+
+            if (effectiveEndTime != null) {
+                Duration activityDuration = Duration.between(activity.startTime(), effectiveEndTime);
+                return activityDuration.toMinutes();
+            }
+        }
+        return 0;
+    }
+
+    private void printTotal(long totalMinutes, int count) {
+        System.out.println("------+------------+-------+-------+----------+-----------------+------------+------------------");
+        long hours = totalMinutes / 60;
+        long remainingMinutes = totalMinutes % 60;
+        System.out.printf("%-5s | %-10s | %-5s | %-5s | %-8s%n",
+            "", "", "", "TOTAL:", totalMinutes + " min (" + hours + "h " + remainingMinutes + "m)");
+
+        System.out.println("\nTotal activities: " + count);
+    }
+
     private String formatDuration(Activity activity) {
         if (activity.startTime() == null) {
             return "-";
@@ -1,11 +1,13 @@
 package org.veenix.timer.cli;
 
 import org.veenix.timer.cli.util.ActivityTypePrompt;
+import org.veenix.timer.cli.util.OverlapPrompt;
 import org.veenix.timer.model.Activity;
 import org.veenix.timer.model.ActivityStatus;
 import org.veenix.timer.model.ActivityType;
-import org.veenix.timer.persistence.ActivityRepositoryImpl;
-import org.veenix.timer.persistence.DatabaseConnection;
+import org.veenix.timer.persistence.ActivityRepository;
+import org.veenix.timer.persistence.StorageProviders;
+import org.veenix.timer.service.ActivityIntervalIndex;
 import org.veenix.timer.service.ConfigurationService;
 import picocli.CommandLine.Command;
 
@@ -26,9 +28,7 @@ public class AddCommand implements Runnable {
     @Override
     public void run() {
         ConfigurationService configService = new ConfigurationService();
-        ActivityRepositoryImpl activityRepository = new ActivityRepositoryImpl(
-            DatabaseConnection.getInstance()
-        );
+        ActivityRepository activityRepository = StorageProviders.repository();
 
         // Prompt for activity type
         ActivityType activityType = promptForActivityType(configService);
@@ -58,6 +58,12 @@ public class AddCommand implements Runnable {
                 .description(description)
                 .build();
 
+        // Warn before creating an overlap
+        if (!OverlapPrompt.confirmSave(ActivityIntervalIndex.findConflicts(activityRepository, activity))) {
+            System.out.println("Activity not added.");
+            return;
+        }
+
         Activity savedActivity = activityRepository.save(activity);
 
         System.out.println("Activity " + savedActivity.id() + " added: " +
@@ -0,0 +1,69 @@
+package org.veenix.timer.cli;
+
+import org.veenix.timer.persistence.ActivityArchive;
+import org.veenix.timer.persistence.DatabaseConnection;
+import org.veenix.timer.service.ConfigurationService;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+@Command(
+    name = "archive",
+    description = "Move completed activities of past years into per-year archive databases",
+    mixinStandardHelpOptions = true
+)
+public class ArchiveCommand implements Runnable, DatabaseCommand {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    @Option(names = {"--before"},
+            description = "Archive activities that started before this date, in format yyyyMMdd "
+                + "(default: archive.after.days before today)")
+    private String before;
+
+    @Option(names = {"--list"}, description = "Only show the archives")
+    private boolean listOnly;
+
+    @Override
+    public void run() {
+        ActivityArchive archive = new ActivityArchive(DatabaseConnection.getInstance());
+
+        if (!listOnly) {
+            LocalDate cutoff = cutoff();
+            ActivityArchive.Result result = archive.archive(cutoff);
+            System.out.println("Archived " + result.activities() + " activities that started before " + cutoff);
+            for (Path file : result.files()) {
+                System.out.println("  " + file);
+            }
+            System.out.println();
+        }
+
+        var partitions = archive.partitions();
+        if (partitions.isEmpty()) {
+            System.out.println("No archives.");
+            return;
+        }
+        System.out.printf("%-6s %-17s %-17s %10s%n", "Year", "First", "Last", "Activities");
+        for (ActivityArchive.Partition partition : partitions) {
+            System.out.printf("%-6d %-17s %-17s %10d%n", partition.year(), partition.firstStart(),
+                partition.lastStart(), partition.activityCount());
+        }
+    }
+
+    private LocalDate cutoff() {
+        if (before == null) {
+            return LocalDate.now().minusDays(new ConfigurationService().getArchiveAfterDays());
+        }
+        try {
+            return LocalDate.parse(before, DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            System.err.println("Invalid date format. Use yyyyMMdd");
+            System.exit(1);
+            return null;
+        }
+    }
+}
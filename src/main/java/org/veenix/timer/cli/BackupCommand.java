@@ -0,0 +1,61 @@
+package org.veenix.timer.cli;
+
+import org.veenix.timer.persistence.DatabaseBackup;
+import org.veenix.timer.persistence.DatabaseConnection;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+import java.nio.file.Path;
+import java.util.List;
+
+@Command(
+    name = "backup",
+    description = "Copy the database to a snapshot file while the timer keeps running",
+    mixinStandardHelpOptions = true
+)
+public class BackupCommand implements Runnable, DatabaseCommand {
+
+    @Parameters(index = "0", arity = "0..1",
+                description = "Snapshot file (default: a timestamped file in the backup directory)")
+    private Path target;
+
+    @Option(names = {"--dir"}, description = "Backup directory (default: ${DEFAULT-VALUE})", defaultValue = "backups")
+    private Path directory;
+
+    @Option(names = {"-z", "--compress"}, description = "Gzip the snapshot")
+    private boolean compress;
+
+    @Option(names = {"--keep"}, description = "Keep only the newest N snapshots in the backup directory")
+    private Integer keep;
+
+    @Option(names = {"--pages-per-step"},
+            description = "Database pages copied per step; smaller steps block writers for less time (default: ${DEFAULT-VALUE})",
+            defaultValue = "64")
+    private int pagesPerStep;
+
+    @Override
+    public void run() {
+        if (pagesPerStep <= 0) {
+            System.err.println("Pages per step must be greater than 0.");
+            System.exit(1);
+        }
+        if (keep != null && keep <= 0) {
+            System.err.println("Number of snapshots to keep must be greater than 0.");
+            System.exit(1);
+        }
+
+        Path file = target != null ? target : DatabaseBackup.snapshotPath(directory, compress);
+        DatabaseBackup backup = new DatabaseBackup(DatabaseConnection.getInstance());
+        DatabaseBackup.Result result = backup.backup(file, pagesPerStep, compress);
+        System.out.printf("Backed up %d pages to %s (%d bytes) in %d ms%n",
+            result.pages(), result.file(), result.bytes(), result.duration().toMillis());
+
+        if (keep != null) {
+            List<Path> deleted = DatabaseBackup.rotate(directory, keep);
+            for (Path old : deleted) {
+                System.out.println("Deleted old snapshot " + old);
+            }
+        }
+    }
+}
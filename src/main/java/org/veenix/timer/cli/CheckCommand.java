@@ -0,0 +1,81 @@
+package org.veenix.timer.cli;
+
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.persistence.ActivityRepository;
+import org.veenix.timer.persistence.StorageProviders;
+import org.veenix.timer.service.ActivityIntervalIndex;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.time.Duration;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+@Command(
+    name = "check",
+    description = "Report overlapping activities and uncovered gaps across the full history",
+    mixinStandardHelpOptions = true
+)
+public class CheckCommand implements Runnable {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+
+    @Option(names = {"--min-gap"}, description = "Ignore gaps of this many minutes or less (default: ${DEFAULT-VALUE})", defaultValue = "1")
+    private int minGapMinutes;
+
+    @Option(names = {"--no-gaps"}, description = "Only report overlaps")
+    private boolean noGaps;
+
+    @Override
+    public void run() {
+        ActivityRepository activityRepository = StorageProviders.repository();
+
+        ActivityIntervalIndex index = ActivityIntervalIndex.build(activityRepository.findAll());
+
+        List<ActivityIntervalIndex.Overlap> overlaps = index.findOverlaps();
+        if (overlaps.isEmpty()) {
+            System.out.println("No overlapping activities found.");
+        } else {
+            System.out.println("Overlapping activities:");
+            System.out.printf("%-10s | %-11s | %-8s | %s%n", "Date", "Overlap", "Duration", "Activities");
+            System.out.println("-----------+-------------+----------+------------------");
+            for (ActivityIntervalIndex.Overlap overlap : overlaps) {
+                System.out.printf("%-10s | %-11s | %-8s | %s / %s%n",
+                    overlap.start().format(DATE_FORMATTER),
+                    overlap.start().format(TIME_FORMATTER) + "-" + overlap.end().format(TIME_FORMATTER),
+                    overlap.duration().toMinutes() + " min",
+                    describe(overlap.first()),
+                    describe(overlap.second()));
+            }
+        }
+
+        int gapCount = 0;
+        if (!noGaps) {
+            List<ActivityIntervalIndex.Gap> gaps = index.findGaps(Duration.ofMinutes(Math.max(0, minGapMinutes)));
+            gapCount = gaps.size();
+            System.out.println();
+            if (gaps.isEmpty()) {
+                System.out.println("No gaps found.");
+            } else {
+                System.out.println("Gaps:");
+                System.out.printf("%-10s | %-11s | %s%n", "Date", "Gap", "Duration");
+                System.out.println("-----------+-------------+----------");
+                for (ActivityIntervalIndex.Gap gap : gaps) {
+                    System.out.printf("%-10s | %-11s | %s%n",
+                        gap.date().format(DATE_FORMATTER),
+                        gap.start().format(TIME_FORMATTER) + "-" + gap.end().format(TIME_FORMATTER),
+                        gap.duration().toMinutes() + " min");
+                }
+            }
+        }
+
+        System.out.println("\nChecked " + index.size() + " activities: " +
+            overlaps.size() + " overlap(s), " + gapCount + " gap(s)");
+    }
+
+    private String describe(Activity activity) {
+        return activity.id() + " " + activity.activityType() +
+            (activity.description() != null ? " " + activity.description() : "");
+    }
+}
@@ -0,0 +1,154 @@
+package org.veenix.timer.cli;
+
+import picocli.CommandLine;
+import picocli.CommandLine.Model.OptionSpec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Builds the picocli command hierarchy for one invocation.
+ * Only the commands on the path named by the arguments are instantiated, so {@code timer stop}
+ * does not load or parse the annotations of every other command. When the arguments do not name
+ * a subcommand (no arguments, usage help, the help command or a typo) the full level is built so
+ * usage and error messages list every command.
+ */
+public final class CommandTree {
+
+    private static final String HELP_COMMAND = "help";
+
+    // Factories are lambdas rather than constructor references: a constructor reference resolves
+    // (and so loads) its class when the list is created, a lambda body only when it is called.
+    private static final List<Node> COMMANDS = List.of(
+        group("timer", List.of("t", "tmr"), () -> new TimerCommand(),
+            leaf("start", List.of("st"), () -> new StartCommand()),
+            leaf("stop", List.of("sp"), () -> new StopCommand()),
+            leaf("list", List.of("ls"), () -> new ListCommand()),
+            leaf("restart", List.of(), () -> new RestartCommand()),
+            leaf("watch", List.of(), () -> new WatchCommand())
+        ),
+        group("activity", List.of("a", "act"), () -> new ActivityCommand(),
+            leaf("list", List.of("ls"), () -> new ActivityListCommand()),
+            leaf("edit", List.of(), () -> new EditCommand()),
+            leaf("delete", List.of("rm"), () -> new DeleteCommand()),
+            leaf("export", List.of(), () -> new ExportCommand()),
+            leaf("import", List.of(), () -> new ImportCommand()),
+            leaf("add", List.of(), () -> new AddCommand()),
+            leaf("copy", List.of("cp"), () -> new CopyCommand()),
+            leaf("check", List.of(), () -> new CheckCommand()),
+            leaf("search", List.of("find"), () -> new SearchCommand()),
+            group("db", List.of(), () -> new DbCommand(),
+                leaf("diagnose", List.of(), () -> new DiagnoseCommand()),
+                leaf("backup", List.of(), () -> new BackupCommand()),
+                leaf("restore", List.of(), () -> new RestoreCommand()),
+                leaf("archive", List.of(), () -> new ArchiveCommand()),
+                leaf("optimize", List.of(), () -> new OptimizeCommand()),
+                leaf("sync", List.of(), () -> new SyncCommand()),
+                leaf("replicate", List.of(), () -> new ReplicateCommand())
+            )
+        ),
+        leaf("serve", List.of(), () -> new ServeCommand()),
+        leaf("jfr-report", List.of(), () -> new JfrReportCommand()),
+        leaf(HELP_COMMAND, List.of(), () -> new CommandLine.HelpCommand())
+    );
+
+    private CommandTree() {
+        // Utility class
+    }
+
+    /**
+     * Returns a command line for the root command with the subcommands needed to parse the arguments.
+     */
+    public static CommandLine build(Object root, String[] args) {
+        CommandLine commandLine = new CommandLine(root);
+        addSubcommands(commandLine, COMMANDS, args, 0);
+        return commandLine;
+    }
+
+    /**
+     * Returns a command line with every subcommand registered.
+     */
+    public static CommandLine buildAll(Object root) {
+        CommandLine commandLine = new CommandLine(root);
+        addAll(commandLine, COMMANDS);
+        return commandLine;
+    }
+
+    // Package-private for testing
+    static List<String> names(List<Node> nodes) {
+        List<String> names = new ArrayList<>();
+        for (Node node : nodes) {
+            names.add(node.name());
+        }
+        return names;
+    }
+
+    static List<Node> commands() {
+        return COMMANDS;
+    }
+
+    private static void addSubcommands(CommandLine parent, List<Node> children, String[] args, int start) {
+        for (int i = start; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--")) {
+                break;
+            }
+            if (arg.startsWith("-")) {
+                if (takesParameter(parent, arg)) {
+                    i++;
+                }
+                continue;
+            }
+            Node node = find(children, arg);
+            if (node == null || node.name().equals(HELP_COMMAND)) {
+                break;
+            }
+            CommandLine child = create(node);
+            parent.addSubcommand(child);
+            addSubcommands(child, node.children(), args, i + 1);
+            return;
+        }
+        addAll(parent, children);
+    }
+
+    private static void addAll(CommandLine parent, List<Node> children) {
+        for (Node node : children) {
+            CommandLine child = create(node);
+            parent.addSubcommand(child);
+            addAll(child, node.children());
+        }
+    }
+
+    private static CommandLine create(Node node) {
+        return new CommandLine(node.factory().get());
+    }
+
+    private static Node find(List<Node> nodes, String token) {
+        for (Node node : nodes) {
+            if (node.name().equals(token) || node.aliases().contains(token)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private static boolean takesParameter(CommandLine commandLine, String arg) {
+        if (arg.contains("=")) {
+            return false;
+        }
+        OptionSpec option = commandLine.getCommandSpec().findOption(arg);
+        return option != null && option.arity().max() > 0;
+    }
+
+    private static Node leaf(String name, List<String> aliases, Supplier<Object> factory) {
+        return new Node(name, aliases, factory, List.of());
+    }
+
+    private static Node group(String name, List<String> aliases, Supplier<Object> factory, Node... children) {
+        return new Node(name, aliases, factory, List.of(children));
+    }
+
+    record Node(String name, List<String> aliases, Supplier<Object> factory, List<Node> children) {
+    }
+}
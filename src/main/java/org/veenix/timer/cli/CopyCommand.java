@@ -1,12 +1,13 @@
 package org.veenix.timer.cli;
 
 import org.veenix.timer.cli.util.ActivityTypePrompt;
+import org.veenix.timer.cli.util.OverlapPrompt;
 import org.veenix.timer.model.Activity;
 import org.veenix.timer.model.ActivityStatus;
 import org.veenix.timer.model.ActivityType;
 import org.veenix.timer.persistence.ActivityRepository;
-import org.veenix.timer.persistence.ActivityRepositoryImpl;
-import org.veenix.timer.persistence.DatabaseConnection;
+import org.veenix.timer.persistence.StorageProviders;
+import org.veenix.timer.service.ActivityIntervalIndex;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Parameters;
 
@@ -42,9 +43,7 @@ public class CopyCommand implements Runnable {
         }
 
         // Step 2: Initialize repository
-        ActivityRepository activityRepository = new ActivityRepositoryImpl(
-            DatabaseConnection.getInstance()
-        );
+        ActivityRepository activityRepository = StorageProviders.repository();
 
         // Step 3: Look up the activity by ID
         Optional<Activity> optionalActivity = activityRepository.findById(activityId);
@@ -78,7 +77,12 @@ public class CopyCommand implements Runnable {
                 .description(newDescription)
                 .build();
 
-        // Step 7: Save the new activity
+        // Step 7: Warn about overlaps, then save the new activity
+        if (!OverlapPrompt.confirmSave(ActivityIntervalIndex.findConflicts(activityRepository, newActivity))) {
+            System.out.println("Copy cancelled");
+            return;
+        }
+
         Activity savedActivity = activityRepository.save(newActivity);
 
         // Step 8: Calculate duration for display
@@ -0,0 +1,8 @@
+package org.veenix.timer.cli;
+
+/**
+ * Marks a command that works on the SQLite database itself rather than through the activity repository.
+ * {@code Main} refuses to run it when the configured storage backend keeps its activities elsewhere.
+ */
+public interface DatabaseCommand {
+}
@@ -0,0 +1,22 @@
+package org.veenix.timer.cli;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Spec;
+
+@Command(
+    name = "db",
+    description = "Database maintenance and diagnostics",
+    mixinStandardHelpOptions = true
+)
+public class DbCommand implements Runnable {
+
+    @Spec
+    CommandSpec spec;
+
+    @Override
+    public void run() {
+        // Show help when no subcommand is provided; the spec knows the subcommands registered by CommandTree
+        spec.commandLine().usage(System.out);
+    }
+}
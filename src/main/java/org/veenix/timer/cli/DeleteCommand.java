@@ -2,8 +2,7 @@ package org.veenix.timer.cli;
 
 import org.veenix.timer.model.Activity;
 import org.veenix.timer.persistence.ActivityRepository;
-import org.veenix.timer.persistence.ActivityRepositoryImpl;
-import org.veenix.timer.persistence.DatabaseConnection;
+import org.veenix.timer.persistence.StorageProviders;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Parameters;
 
@@ -27,9 +26,7 @@ public class DeleteCommand implements Runnable {
             return;
         }
 
-        ActivityRepository activityRepository = new ActivityRepositoryImpl(
-            DatabaseConnection.getInstance()
-        );
+        ActivityRepository activityRepository = StorageProviders.repository();
 
         // Check if activity exists
         Optional<Activity> optionalActivity = activityRepository.findById(activityId);
@@ -0,0 +1,62 @@
+package org.veenix.timer.cli;
+
+import org.veenix.timer.cli.util.AnsiColors;
+import org.veenix.timer.persistence.DatabaseConnection;
+import org.veenix.timer.persistence.QueryPlanAnalyzer;
+import org.veenix.timer.persistence.QueryPlanAnalyzer.Plan;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.util.List;
+
+@Command(
+    name = "diagnose",
+    description = "Show the query plan of every SQL statement and flag full table scans",
+    mixinStandardHelpOptions = true
+)
+public class DiagnoseCommand implements Runnable, DatabaseCommand {
+
+    @Option(names = {"--flagged"}, description = "Only show statements with a full scan or temporary sort")
+    boolean flaggedOnly;
+
+    @Override
+    public void run() {
+        QueryPlanAnalyzer analyzer = new QueryPlanAnalyzer(DatabaseConnection.getInstance());
+        List<Plan> plans = analyzer.analyzeAll();
+
+        int fullScans = 0;
+        int tempSorts = 0;
+        for (Plan plan : plans) {
+            if (plan.fullScan()) {
+                fullScans++;
+            }
+            if (plan.tempSort()) {
+                tempSorts++;
+            }
+            if (flaggedOnly && !plan.fullScan() && !plan.tempSort()) {
+                continue;
+            }
+
+            System.out.printf("%-40s %s%n", plan.name(), verdict(plan));
+            for (String step : plan.steps()) {
+                System.out.println("    " + step);
+            }
+        }
+
+        System.out.println();
+        System.out.println("Statements analyzed: " + plans.size());
+        System.out.println("Full table scans: " + fullScans);
+        System.out.println("Temporary sorts: " + tempSorts);
+    }
+
+    private String verdict(Plan plan) {
+        if (plan.fullScan() && plan.tempSort()) {
+            return AnsiColors.BOLD_RED + "FULL SCAN, TEMP SORT" + AnsiColors.RESET;
+        } else if (plan.fullScan()) {
+            return AnsiColors.BOLD_RED + "FULL SCAN" + AnsiColors.RESET;
+        } else if (plan.tempSort()) {
+            return AnsiColors.BOLD_RED + "TEMP SORT" + AnsiColors.RESET;
+        }
+        return "OK";
+    }
+}
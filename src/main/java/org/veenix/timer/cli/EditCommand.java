@@ -1,12 +1,13 @@
 package org.veenix.timer.cli;
 
 import org.veenix.timer.cli.util.ActivityTypePrompt;
+import org.veenix.timer.cli.util.OverlapPrompt;
 import org.veenix.timer.model.Activity;
 import org.veenix.timer.model.ActivityStatus;
 import org.veenix.timer.model.ActivityType;
 import org.veenix.timer.persistence.ActivityRepository;
-import org.veenix.timer.persistence.ActivityRepositoryImpl;
-import org.veenix.timer.persistence.DatabaseConnection;
+import org.veenix.timer.persistence.StorageProviders;
+import org.veenix.timer.service.ActivityIntervalIndex;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
@@ -38,9 +39,7 @@ public class EditCommand implements Runnable {
 
     @Override
     public void run() {
-        ActivityRepository activityRepository = new ActivityRepositoryImpl(
-            DatabaseConnection.getInstance()
-        );
+        ActivityRepository activityRepository = StorageProviders.repository();
 
         // Find the activity by ID
         Optional<Activity> optionalActivity = activityRepository.findById(activityId);
@@ -89,6 +88,12 @@ public class EditCommand implements Runnable {
                 .description(newDescription)
                 .build();
 
+        // Warn before creating an overlap
+        if (!OverlapPrompt.confirmSave(ActivityIntervalIndex.findConflicts(activityRepository, updatedActivity))) {
+            System.out.println("Edit cancelled");
+            return;
+        }
+
         activityRepository.update(updatedActivity);
 
         // Calculate final duration for display
@@ -1,14 +1,20 @@
 package org.veenix.timer.cli;
 
+import org.veenix.timer.cli.util.ReplicaReader;
+import org.veenix.timer.json.ActivityJson;
+import org.veenix.timer.json.JsonWriter;
+import org.veenix.timer.metrics.ExportEvent;
 import org.veenix.timer.model.Activity;
 import org.veenix.timer.persistence.ActivityRepository;
 import org.veenix.timer.persistence.ActivityRepositoryImpl;
-import org.veenix.timer.persistence.DatabaseConnection;
+import org.veenix.timer.persistence.StorageProviders;
 import org.veenix.timer.service.ConfigurationService;
 import picocli.CommandLine.ArgGroup;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.time.LocalDate;
@@ -21,7 +27,7 @@ import java.util.UUID;
 
 @Command(
     name = "export",
-    description = "Export activities to CSV",
+    description = "Export activities to CSV or JSON",
     mixinStandardHelpOptions = true
 )
 public class ExportCommand implements Runnable {
@@ -45,11 +51,23 @@ public class ExportCommand implements Runnable {
         String to;
     }
 
+    @Option(names = {"--format"}, description = "Output format: csv or json (default: ${DEFAULT-VALUE})",
+            defaultValue = "csv")
+    String format;
+
+    @Option(names = {"--replica"}, description = "Read from the replica kept by 'activity db replicate' instead of the database")
+    boolean replica;
+
     @Override
     public void run() {
-        ActivityRepository activityRepository = new ActivityRepositoryImpl(
-            DatabaseConnection.getInstance()
-        );
+        boolean jsonFormat = format.equalsIgnoreCase("json");
+        if (!jsonFormat && !format.equalsIgnoreCase("csv")) {
+            System.err.println("Error: unknown format '" + format + "'. Use csv or json.");
+            System.exit(1);
+        }
+
+        ActivityRepository activityRepository = replica
+            ? new ActivityRepositoryImpl(ReplicaReader.open()) : StorageProviders.repository();
         ConfigurationService configService = new ConfigurationService();
 
         // Determine date range
@@ -114,12 +132,11 @@ public class ExportCommand implements Runnable {
         }
 
         // Generate filename
-        String filename = generateFilename();
+        String filename = generateFilename(jsonFormat ? "json" : "csv");
 
-        // Export to CSV
         String delimiter = configService.getCsvDelimiter();
         try {
-            exportToCsv(activities, filename, delimiter);
+            export(activities, filename, jsonFormat, delimiter);
             System.out.println("Data has been exported to file " + filename);
         } catch (IOException e) {
             System.out.println("Error exporting data: " + e.getMessage());
@@ -135,15 +152,39 @@ public class ExportCommand implements Runnable {
         }
     }
 
-    private String generateFilename() {
+    private String generateFilename(String extension) {
         LocalDateTime now = LocalDateTime.now();
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
         String timestamp = now.format(formatter);
         String randomPart = UUID.randomUUID().toString().substring(0, 8);
-        return "activities_" + timestamp + "_" + randomPart + ".csv";
+        return "activities_" + timestamp + "_" + randomPart + "." + extension;
+    }
+
+    private void export(List<Activity> activities, String filename, boolean jsonFormat, String delimiter) throws IOException {
+        ExportEvent event = new ExportEvent();
+        event.begin();
+        if (jsonFormat) {
+            writeJson(activities, filename);
+        } else {
+            writeCsv(activities, filename, delimiter);
+        }
+        if (event.shouldCommit()) {
+            event.file = filename;
+            event.rows = activities.size();
+            event.bytes = new File(filename).length();
+            event.commit();
+        }
+    }
+
+    private void writeJson(List<Activity> activities, String filename) throws IOException {
+        // The writer buffers itself, so the file stream needs no buffering of its own
+        try (JsonWriter writer = new JsonWriter(new FileOutputStream(filename))) {
+            ActivityJson.writeArray(writer, activities);
+            writer.newline();
+        }
     }
 
-    private void exportToCsv(List<Activity> activities, String filename, String delimiter) throws IOException {
+    private void writeCsv(List<Activity> activities, String filename, String delimiter) throws IOException {
         try (FileWriter writer = new FileWriter(filename)) {
             // Write header
             writer.append("id")
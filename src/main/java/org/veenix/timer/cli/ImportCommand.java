@@ -0,0 +1,53 @@
+package org.veenix.timer.cli;
+
+import org.veenix.timer.persistence.StorageProviders;
+import org.veenix.timer.service.ConfigurationService;
+import org.veenix.timer.service.CsvImporter;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Parameters;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@Command(
+    name = "import",
+    description = "Import activities from a CSV file in the format written by 'activity export'",
+    mixinStandardHelpOptions = true
+)
+public class ImportCommand implements Runnable {
+
+    @Parameters(index = "0", description = "CSV file to import")
+    private Path file;
+
+    @Override
+    public void run() {
+        if (!Files.isRegularFile(file)) {
+            System.err.println("File " + file + " does not exist.");
+            System.exit(1);
+        }
+
+        ConfigurationService configService = new ConfigurationService();
+        CsvImporter.Result result;
+        try {
+            CsvImporter importer = new CsvImporter(StorageProviders.repository(), configService.getCsvDelimiter());
+            result = importer.importFile(file);
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("Error importing " + file + ": " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        System.out.printf("Imported %d activities from %s in %d ms (%.0f rows/s)%n",
+            result.imported(), file, result.nanos() / 1_000_000, result.rowsPerSecond());
+        if (result.rejected() > 0) {
+            System.out.println("Rejected " + result.rejected() + " rows:");
+            for (String reject : result.rejects()) {
+                System.out.println("  " + reject);
+            }
+            if (result.rejected() > result.rejects().size()) {
+                System.out.println("  ...");
+            }
+        }
+    }
+}
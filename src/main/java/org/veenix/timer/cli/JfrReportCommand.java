@@ -0,0 +1,48 @@
+package org.veenix.timer.cli;
+
+import org.veenix.timer.metrics.JfrReport;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@Command(
+    name = "jfr-report",
+    description = "Summarize a recording made with --jfr into a hot-path report",
+    mixinStandardHelpOptions = true
+)
+public class JfrReportCommand implements Runnable {
+
+    @Parameters(index = "0", paramLabel = "<file>", description = "JFR recording to analyze")
+    Path recording;
+
+    @Option(names = {"-n", "--top"}, description = "Number of hot methods to show (default: 10)", defaultValue = "10")
+    int top;
+
+    @Override
+    public void run() {
+        if (!Files.isRegularFile(recording)) {
+            System.err.println("Recording not found: " + recording);
+            System.exit(1);
+            return;
+        }
+
+        JfrReport report;
+        try {
+            report = JfrReport.read(recording);
+        } catch (IOException e) {
+            System.err.println("Failed to read recording: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        if (report.isEmpty()) {
+            System.out.println("No timer events or execution samples found in " + recording + ".");
+            return;
+        }
+        report.print(System.out, top);
+    }
+}
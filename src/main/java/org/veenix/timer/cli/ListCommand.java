@@ -1,11 +1,13 @@
 package org.veenix.timer.cli;
 
+import org.veenix.timer.cli.util.ReplicaReader;
 import org.veenix.timer.model.Activity;
 import org.veenix.timer.model.ActivityStatus;
 import org.veenix.timer.persistence.ActivityRepository;
 import org.veenix.timer.persistence.ActivityRepositoryImpl;
-import org.veenix.timer.persistence.DatabaseConnection;
+import org.veenix.timer.persistence.StorageProviders;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
@@ -19,11 +21,13 @@ import java.util.List;
 )
 public class ListCommand implements Runnable {
 
+    @Option(names = {"--replica"}, description = "Read from the replica kept by 'activity db replicate' instead of the database")
+    boolean replica;
+
     @Override
     public void run() {
-        ActivityRepository activityRepository = new ActivityRepositoryImpl(
-            DatabaseConnection.getInstance()
-        );
+        ActivityRepository activityRepository = replica
+            ? new ActivityRepositoryImpl(ReplicaReader.open()) : StorageProviders.repository();
 
         List<Activity> activeActivities = activityRepository.findByStatus(ActivityStatus.ACTIVE);
 
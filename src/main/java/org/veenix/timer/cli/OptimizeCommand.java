@@ -0,0 +1,80 @@
+package org.veenix.timer.cli;
+
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.persistence.ActivityRepository;
+import org.veenix.timer.persistence.ActivityRepositoryImpl;
+import org.veenix.timer.persistence.DatabaseConnection;
+import org.veenix.timer.persistence.DatabaseMaintenance;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Command(
+    name = "optimize",
+    description = "Free unused pages and refresh the query planner statistics",
+    mixinStandardHelpOptions = true
+)
+public class OptimizeCommand implements Runnable, DatabaseCommand {
+
+    private static final int TIMING_RUNS = 5;
+
+    @Option(names = {"--full"}, description = "Rewrite the whole file with VACUUM instead of only freeing unused pages")
+    private boolean full;
+
+    @Override
+    public void run() {
+        DatabaseConnection dbConnection = DatabaseConnection.getInstance();
+        // Times the SQLite queries that optimize affects, whatever storage backend is configured
+        ActivityRepository activityRepository = new ActivityRepositoryImpl(dbConnection);
+        DatabaseMaintenance maintenance = new DatabaseMaintenance(dbConnection);
+
+        Map<String, Long> timingsBefore = timeQueries(activityRepository);
+        DatabaseMaintenance.Report report = maintenance.optimize(full);
+        Map<String, Long> timingsAfter = timeQueries(activityRepository);
+
+        System.out.printf("%-22s %12s %12s%n", "", "Before", "After");
+        System.out.printf("%-22s %12d %12d%n", "Pages", report.before().pageCount(), report.after().pageCount());
+        System.out.printf("%-22s %12d %12d%n", "Free pages", report.before().freelistCount(),
+            report.after().freelistCount());
+        System.out.printf("%-22s %12d %12d%n", "Size (bytes)", report.before().bytes(), report.after().bytes());
+        System.out.println();
+        System.out.printf("%-22s %12s %12s%n", "Query (median us)", "Before", "After");
+        for (Map.Entry<String, Long> timing : timingsBefore.entrySet()) {
+            System.out.printf("%-22s %12d %12d%n", timing.getKey(), timing.getValue(),
+                timingsAfter.get(timing.getKey()));
+        }
+        System.out.println();
+        System.out.println((full ? "Vacuumed" : "Optimized") + " in " + report.duration().toMillis() + " ms");
+        if (!maintenance.incrementalAutoVacuum()) {
+            System.out.println("Free pages are only returned on a full vacuum; run 'activity db optimize --full' "
+                + "once to switch to incremental auto-vacuum.");
+        }
+    }
+
+    private static Map<String, Long> timeQueries(ActivityRepository activityRepository) {
+        LocalDate today = LocalDate.now();
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("today", () -> activityRepository.findByStartTime(today.atStartOfDay()));
+        queries.put("active", () -> activityRepository.findByStatus(ActivityStatus.ACTIVE));
+        queries.put("last 30 days", () -> activityRepository.findByDateRange(
+            today.minusDays(30).atStartOfDay(), today.atStartOfDay()));
+        queries.put("first page", () -> activityRepository.findPageAfter(null, null, null, 50));
+
+        Map<String, Long> timings = new LinkedHashMap<>();
+        for (Map.Entry<String, Runnable> query : queries.entrySet()) {
+            long[] micros = new long[TIMING_RUNS];
+            for (int run = 0; run < TIMING_RUNS; run++) {
+                long startNanos = System.nanoTime();
+                query.getValue().run();
+                micros[run] = (System.nanoTime() - startNanos) / 1_000;
+            }
+            Arrays.sort(micros);
+            timings.put(query.getKey(), micros[TIMING_RUNS / 2]);
+        }
+        return timings;
+    }
+}
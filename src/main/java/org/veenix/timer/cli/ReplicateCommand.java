@@ -0,0 +1,126 @@
+package org.veenix.timer.cli;
+
+import org.veenix.timer.cli.util.ReplicaReader;
+import org.veenix.timer.persistence.ActivityReplica;
+import org.veenix.timer.persistence.DatabaseChangeNotifier;
+import org.veenix.timer.persistence.DatabaseConnection;
+import org.veenix.timer.service.ConfigurationService;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.Semaphore;
+
+@Command(
+    name = "replicate",
+    description = "Keep a read-only replica of the database up to date for reports read with --replica",
+    mixinStandardHelpOptions = true
+)
+public class ReplicateCommand implements Runnable, DatabaseCommand {
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    @Option(names = {"--file"}, description = "Replica file (default: replica.file from the configuration)")
+    private Path file;
+
+    @Option(names = {"--once"}, description = "Ship the changes made so far and exit instead of following the database")
+    private boolean once;
+
+    @Option(names = {"--status"}, description = "Show how far the replica is behind and exit")
+    private boolean status;
+
+    @Override
+    public void run() {
+        if (once && status) {
+            System.err.println("--once cannot be combined with --status.");
+            System.exit(1);
+        }
+
+        DatabaseConnection dbConnection = DatabaseConnection.getInstance();
+        Path replicaFile = file != null ? file : Path.of(new ConfigurationService().getReplicaFile());
+        if (isSameFile(dbConnection, replicaFile)) {
+            System.err.println("The replica cannot be the database itself.");
+            System.exit(1);
+        }
+
+        try (ActivityReplica replica = new ActivityReplica(dbConnection, replicaFile)) {
+            if (status) {
+                printStatus(replica);
+                return;
+            }
+            if (once) {
+                print(replica.ship());
+                return;
+            }
+            follow(dbConnection, replica);
+        } catch (IllegalStateException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Ships again after every commit to the database until the process is interrupted.
+     */
+    private void follow(DatabaseConnection dbConnection, ActivityReplica replica) {
+        Semaphore changed = new Semaphore(0);
+        try (DatabaseChangeNotifier notifier = new DatabaseChangeNotifier(dbConnection);
+             DatabaseChangeNotifier.Subscription ignored = notifier.subscribe(event -> changed.release())) {
+            // Start watching before the first ship so a commit in between is not missed
+            notifier.start();
+            print(replica.ship());
+            System.out.println("Replicating to " + replica.getFile() + "; press Ctrl+C to stop");
+            while (true) {
+                changed.acquire();
+                // Several commits in a row need only one ship
+                changed.drainPermits();
+                print(replica.ship());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void print(ActivityReplica.Result result) {
+        String time = LocalDateTime.now().format(TIME_FORMATTER);
+        if (result.bootstrapped()) {
+            System.out.printf("%s Copied the database to the replica in %d ms%n", time, result.duration().toMillis());
+        }
+        if (result.changes() > 0) {
+            System.out.printf("%s Shipped %d changes to %d activities in %d ms; lag %d ms%n", time, result.changes(),
+                result.activities(), result.duration().toMillis(), result.lag().toMillis());
+        }
+    }
+
+    private void printStatus(ActivityReplica replica) {
+        ActivityReplica.Lag lag = replica.lag();
+        System.out.println("Replica: " + replica.getFile());
+        System.out.println("Position: " + lag.position());
+        if (lag.lastShipped() != null) {
+            System.out.println("Last shipped: "
+                + LocalDateTime.ofInstant(lag.lastShipped(), ZoneId.systemDefault()).format(TIME_FORMATTER));
+        }
+        if (!lag.current()) {
+            System.out.println("The replica will be copied again on the next ship.");
+        } else if (lag.pendingChanges() == 0) {
+            System.out.println("Up to date.");
+        } else {
+            System.out.println("Behind by " + lag.pendingChanges() + " changes; the oldest was made "
+                + ReplicaReader.formatDuration(lag.behind()) + " ago.");
+        }
+    }
+
+    private static boolean isSameFile(DatabaseConnection dbConnection, Path replicaFile) {
+        try {
+            return dbConnection.getDatabaseFile().isPresent() && Files.isSameFile(dbConnection.getDatabaseFile().get(), replicaFile);
+        } catch (IOException e) {
+            // No replica yet
+            return false;
+        }
+    }
+}
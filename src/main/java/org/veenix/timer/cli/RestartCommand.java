@@ -2,8 +2,8 @@ package org.veenix.timer.cli;
 
 import org.veenix.timer.model.Activity;
 import org.veenix.timer.model.ActivityStatus;
-import org.veenix.timer.persistence.ActivityRepositoryImpl;
-import org.veenix.timer.persistence.DatabaseConnection;
+import org.veenix.timer.persistence.ActivityRepository;
+import org.veenix.timer.persistence.StorageProviders;
 import org.veenix.timer.service.ActivityService;
 import org.veenix.timer.service.ConfigurationService;
 import picocli.CommandLine.Command;
@@ -31,9 +31,7 @@ public class RestartCommand implements Runnable {
         }
 
         ConfigurationService configurationService = new ConfigurationService();
-        ActivityRepositoryImpl activityRepository = new ActivityRepositoryImpl(
-            DatabaseConnection.getInstance()
-        );
+        ActivityRepository activityRepository = StorageProviders.repository();
         ActivityService activityService = new ActivityService(
             activityRepository,
             configurationService
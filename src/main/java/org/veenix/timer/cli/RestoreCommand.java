@@ -0,0 +1,89 @@
+package org.veenix.timer.cli;
+
+import org.veenix.timer.persistence.DatabaseBackup;
+import org.veenix.timer.persistence.DatabaseConnection;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Scanner;
+
+@Command(
+    name = "restore",
+    description = "Replace the database with a snapshot made by 'activity db backup'",
+    mixinStandardHelpOptions = true
+)
+public class RestoreCommand implements Runnable, DatabaseCommand {
+
+    @Parameters(index = "0", description = "Snapshot file, optionally gzipped")
+    private Path snapshot;
+
+    @Option(names = {"--dir"},
+            description = "Directory for the backup taken before restoring (default: ${DEFAULT-VALUE})",
+            defaultValue = "backups")
+    private Path directory;
+
+    @Option(names = {"--keep"}, description = "Keep only the newest N snapshots in the backup directory")
+    private Integer keep;
+
+    @Option(names = {"-y", "--yes"}, description = "Do not ask for confirmation")
+    private boolean yes;
+
+    @Override
+    public void run() {
+        if (!Files.isRegularFile(snapshot)) {
+            System.err.println("Snapshot " + snapshot + " does not exist.");
+            System.exit(1);
+            return;
+        }
+        if (keep != null && keep <= 0) {
+            System.err.println("Number of snapshots to keep must be greater than 0.");
+            System.exit(1);
+            return;
+        }
+        if (!yes && !confirmRestore()) {
+            System.out.println("Restore cancelled.");
+            return;
+        }
+
+        DatabaseBackup backup = new DatabaseBackup(DatabaseConnection.getInstance());
+        try {
+            // Keep the current data, so a restore of the wrong snapshot can be undone; a snapshot that
+            // fails verification leaves the backup directory untouched
+            DatabaseBackup.Result result = backup.restore(snapshot, () -> saveCurrentDatabase(backup));
+            System.out.printf("Restored %d pages from %s in %d ms%n",
+                result.pages(), snapshot, result.duration().toMillis());
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage() + (e.getCause() != null ? ": " + e.getCause().getMessage() : ""));
+            System.exit(1);
+        }
+    }
+
+    private void saveCurrentDatabase(DatabaseBackup backup) {
+        DatabaseBackup.Result safety = backup.backup(DatabaseBackup.snapshotPath(directory, false),
+            DatabaseBackup.DEFAULT_PAGES_PER_STEP, false);
+        System.out.println("Current database saved to " + safety.file());
+        if (keep != null) {
+            for (Path old : DatabaseBackup.rotate(directory, keep)) {
+                System.out.println("Deleted old snapshot " + old);
+            }
+        }
+    }
+
+    private boolean confirmRestore() {
+        System.out.print("Replace all activities with the contents of " + snapshot + "? (Y/N): ");
+        Scanner scanner = new Scanner(System.in);
+        while (true) {
+            String response = scanner.nextLine().trim().toUpperCase();
+            if (response.equals("Y")) {
+                return true;
+            }
+            if (response.equals("N")) {
+                return false;
+            }
+            System.out.print("Please enter Y or N: ");
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package org.veenix.timer.cli;
+
+import org.veenix.timer.cli.util.AnsiColors;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityType;
+import org.veenix.timer.persistence.ActivitySearch;
+import org.veenix.timer.persistence.DatabaseConnection;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+@Command(
+    name = "search",
+    aliases = {"find"},
+    description = "Search activity descriptions",
+    mixinStandardHelpOptions = true
+)
+public class SearchCommand implements Runnable, DatabaseCommand {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter DATE_DISPLAY_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+
+    @Parameters(arity = "1..*", description = "Search terms (all terms must match)")
+    private List<String> terms;
+
+    @Option(names = {"--from"}, description = "Only activities on or after this date (format: yyyyMMdd)")
+    private String from;
+
+    @Option(names = {"--to"}, description = "Only activities on or before this date (format: yyyyMMdd)")
+    private String to;
+
+    @Option(names = {"-t", "--type"}, description = "Only activities of this type (BUG, DEVELOP, GENERAL, INFRA, MEETING, OUT_OF_OFFICE, PROBLEM, SUPPORT)")
+    private String type;
+
+    @Option(names = {"-n", "--limit"}, description = "Maximum number of results (default: ${DEFAULT-VALUE})", defaultValue = "50")
+    private int limit;
+
+    @Option(names = {"--raw"}, description = "Pass the terms to SQLite FTS5 as a query expression (OR, NOT, NEAR, prefix*)")
+    private boolean raw;
+
+    @Override
+    public void run() {
+        LocalDate fromDate;
+        LocalDate toDate;
+        try {
+            fromDate = from != null ? LocalDate.parse(from, DATE_FORMATTER) : null;
+            toDate = to != null ? LocalDate.parse(to, DATE_FORMATTER) : null;
+        } catch (DateTimeParseException e) {
+            System.err.println("Invalid date format. Please use yyyyMMdd format.");
+            System.exit(1);
+            return;
+        }
+
+        ActivityType activityType = null;
+        if (type != null) {
+            try {
+                activityType = ActivityType.valueOf(type.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                System.err.println("Invalid activity type: " + type);
+                System.err.println("Valid types: BUG, DEVELOP, GENERAL, INFRA, MEETING, OUT_OF_OFFICE, PROBLEM, SUPPORT");
+                System.exit(1);
+                return;
+            }
+        }
+
+        if (limit <= 0) {
+            System.err.println("Limit must be greater than 0.");
+            System.exit(1);
+            return;
+        }
+
+        ActivitySearch activitySearch = new ActivitySearch(DatabaseConnection.getInstance());
+        ActivitySearch.Filter filter = new ActivitySearch.Filter(
+            fromDate, toDate, activityType, limit, AnsiColors.BOLD_RED, AnsiColors.RESET
+        );
+
+        String query = String.join(" ", terms);
+        List<ActivitySearch.Hit> hits;
+        try {
+            hits = raw ? activitySearch.searchMatch(query, filter) : activitySearch.search(query, filter);
+        } catch (RuntimeException e) {
+            System.err.println("Search failed: " + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage()));
+            System.exit(1);
+            return;
+        }
+
+        if (hits.isEmpty()) {
+            System.out.println("No activities found matching \"" + query + "\".");
+            return;
+        }
+
+        System.out.printf("%-5s | %-10s | %-5s | %-5s | %-15s | %s%n",
+            "ID", "Date", "Start", "End", "Type", "Description");
+        System.out.println("------+------------+-------+-------+-----------------+------------------");
+
+        for (ActivitySearch.Hit hit : hits) {
+            Activity activity = hit.activity();
+            System.out.printf("%-5s | %-10s | %-5s | %-5s | %-15s | %s%n",
+                activity.id(),
+                activity.startTime() != null ? activity.startTime().format(DATE_DISPLAY_FORMATTER) : "-",
+                activity.startTime() != null ? activity.startTime().format(TIME_FORMATTER) : "-",
+                activity.endTime() != null ? activity.endTime().format(TIME_FORMATTER) : "-",
+                activity.activityType() != null ? activity.activityType().toString() : "-",
+                hit.snippet() != null ? hit.snippet() : "");
+        }
+
+        System.out.println("\nMatching activities: " + hits.size() +
+            (hits.size() == limit ? " (limit reached, use --limit to see more)" : ""));
+    }
+}
@@ -0,0 +1,64 @@
+package org.veenix.timer.cli;
+
+import org.veenix.timer.metrics.MetricsRegistry;
+import org.veenix.timer.persistence.StorageProviders;
+import org.veenix.timer.server.ApiServer;
+import org.veenix.timer.service.ActivityService;
+import org.veenix.timer.service.ConfigurationService;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+
+@Command(
+    name = "serve",
+    description = "Serve the activities as a JSON API on localhost until interrupted",
+    mixinStandardHelpOptions = true
+)
+public class ServeCommand implements Runnable {
+
+    @Option(names = {"-p", "--port"},
+            description = "Port to listen on, 0 for any free port (default: ${DEFAULT-VALUE})",
+            defaultValue = "" + ApiServer.DEFAULT_PORT)
+    private int port;
+
+    @Override
+    public void run() {
+        if (port < 0 || port > 65535) {
+            System.err.println("Port must be between 0 and 65535.");
+            System.exit(1);
+        }
+
+        ConfigurationService configService = new ConfigurationService();
+        // The server runs until interrupted; edits to the configuration apply to the next request
+        configService.watchForChanges();
+        ActivityService activityService = new ActivityService(StorageProviders.repository(), configService);
+        ApiServer server;
+        try {
+            server = new ApiServer(port, StorageProviders.repository(), activityService,
+                configService::getDefaultActivityType, MetricsRegistry.getInstance());
+        } catch (IOException e) {
+            System.err.println("Error: could not listen on port " + port + ": " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            configService.stopWatching();
+            stopped.countDown();
+        }));
+        server.start();
+        System.out.println("Listening on http://127.0.0.1:" + server.address().getPort() + "/api");
+        System.out.println("POST and DELETE requests need an " + ApiServer.CLIENT_HEADER + " header.");
+
+        try {
+            // The shutdown hook stops the server when the process is interrupted
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -4,8 +4,7 @@ import org.veenix.timer.cli.util.ActivityTypePrompt;
 import org.veenix.timer.model.Activity;
 import org.veenix.timer.model.ActivityType;
 import org.veenix.timer.persistence.ActivityRepository;
-import org.veenix.timer.persistence.ActivityRepositoryImpl;
-import org.veenix.timer.persistence.DatabaseConnection;
+import org.veenix.timer.persistence.StorageProviders;
 import org.veenix.timer.service.ActivityService;
 import org.veenix.timer.service.ConfigurationService;
 import picocli.CommandLine.ArgGroup;
@@ -48,7 +47,7 @@ public class StartCommand implements Runnable {
     @Override
     public void run() {
         ConfigurationService configService = new ConfigurationService();
-        ActivityRepository activityRepository = new ActivityRepositoryImpl(DatabaseConnection.getInstance());
+        ActivityRepository activityRepository = StorageProviders.repository();
         ActivityService activityService = new ActivityService(activityRepository, configService);
 
         // Determine activity type
@@ -1,8 +1,6 @@
 package org.veenix.timer.cli;
 
 import org.veenix.timer.model.Activity;
-import org.veenix.timer.persistence.ActivityRepositoryImpl;
-import org.veenix.timer.persistence.DatabaseConnection;
 import org.veenix.timer.service.ActivityService;
 import org.veenix.timer.service.ConfigurationService;
 import picocli.CommandLine.Command;
@@ -20,10 +18,7 @@ public class StopCommand implements Runnable {
     @Override
     public void run() {
         ConfigurationService configurationService = new ConfigurationService();
-        ActivityService activityService = new ActivityService(
-            new ActivityRepositoryImpl(DatabaseConnection.getInstance()),
-            configurationService
-        );
+        ActivityService activityService = new ActivityService(configurationService);
 
         Activity stoppedActivity = activityService.stopActivity();
 
@@ -0,0 +1,80 @@
+package org.veenix.timer.cli;
+
+import org.veenix.timer.persistence.DatabaseConnection;
+import org.veenix.timer.persistence.DatabaseSync;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+@Command(
+    name = "sync",
+    description = "Merge the activities of this database and another timer database in both directions",
+    mixinStandardHelpOptions = true
+)
+public class SyncCommand implements Runnable, DatabaseCommand {
+
+    private static final int LISTED_DAYS = 20;
+
+    @Parameters(index = "0", description = "The other timer database file")
+    private Path other;
+
+    @Option(names = {"-n", "--dry-run"}, description = "Only show which days differ")
+    private boolean dryRun;
+
+    @Override
+    public void run() {
+        if (!Files.isRegularFile(other)) {
+            System.err.println("Database " + other + " does not exist.");
+            System.exit(1);
+        }
+        DatabaseConnection local = DatabaseConnection.getInstance();
+        if (isSameFile(local, other)) {
+            System.err.println("Cannot sync the database with itself.");
+            System.exit(1);
+        }
+
+        DatabaseConnection remote = new DatabaseConnection("jdbc:sqlite:" + other);
+        DatabaseSync.Report report;
+        try {
+            report = new DatabaseSync(local, remote).sync(dryRun);
+        } finally {
+            remote.close();
+        }
+
+        System.out.printf("Compared %d days with %d digest comparisons in %d ms%n",
+            report.days(), report.comparisons(), report.duration().toMillis());
+        if (report.differingDays().isEmpty()) {
+            System.out.println("Databases are in sync.");
+            return;
+        }
+
+        System.out.println("Days that differ: " + report.differingDays().size());
+        for (LocalDate day : report.differingDays().subList(0, Math.min(LISTED_DAYS, report.differingDays().size()))) {
+            System.out.println("  " + day);
+        }
+        if (report.differingDays().size() > LISTED_DAYS) {
+            System.out.println("  ...");
+        }
+        String verb = dryRun ? "Would copy" : "Copied";
+        System.out.printf("%s %d activities to this database and %d to %s; %d conflicts%n",
+            verb, report.copiedToLocal(), report.copiedToRemote(), other, report.conflicts());
+        if (!dryRun && !report.inSync()) {
+            System.err.println("Databases still differ after the sync; another process may have changed them.");
+            System.exit(1);
+        }
+    }
+
+    private static boolean isSameFile(DatabaseConnection local, Path other) {
+        try {
+            return local.getDatabaseFile().isPresent() && Files.isSameFile(local.getDatabaseFile().get(), other);
+        } catch (IOException e) {
+            // No local database yet; it is created on first use
+            return false;
+        }
+    }
+}
@@ -1,26 +1,24 @@
 package org.veenix.timer.cli;
 
-import picocli.CommandLine;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Spec;
 
 @Command(
     name = "timer",
     aliases = {"t", "tmr"},
     description = "Timer application for tracking activities",
     mixinStandardHelpOptions = true,
-    version = "1.0",
-    subcommands = {
-        StartCommand.class,
-        StopCommand.class,
-        ListCommand.class,
-        RestartCommand.class
-    }
+    version = "1.0"
 )
 public class TimerCommand implements Runnable {
 
+    @Spec
+    CommandSpec spec;
+
     @Override
     public void run() {
-        // Show help when no subcommand is provided
-        CommandLine.usage(this, System.out);
+        // Show help when no subcommand is provided; the spec knows the subcommands registered by CommandTree
+        spec.commandLine().usage(System.out);
     }
 }
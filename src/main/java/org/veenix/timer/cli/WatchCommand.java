@@ -0,0 +1,218 @@
+package org.veenix.timer.cli;
+
+import org.veenix.timer.cli.util.AnsiColors;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+import org.veenix.timer.persistence.ActivityRepository;
+import org.veenix.timer.persistence.DataChangeMonitor;
+import org.veenix.timer.persistence.DatabaseConnection;
+import org.veenix.timer.persistence.StorageProviders;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Command(
+    name = "watch",
+    description = "Show a live dashboard of the running activity and today's totals",
+    mixinStandardHelpOptions = true
+)
+public class WatchCommand implements Runnable {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final DateTimeFormatter START_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    @Option(names = {"-i", "--interval"},
+            description = "Seconds between redraws (default: ${DEFAULT-VALUE})",
+            defaultValue = "1")
+    private long intervalSeconds;
+
+    @Option(names = {"--once"}, description = "Draw the dashboard once and exit")
+    private boolean once;
+
+    private ActivityRepository activityRepository;
+    private DataChangeMonitor changeMonitor;
+    private List<Activity> activeActivities = List.of();
+    private List<Activity> todayActivities = List.of();
+    private LocalDate loadedDate;
+
+    @Override
+    public void run() {
+        if (intervalSeconds <= 0) {
+            System.err.println("Interval must be greater than 0.");
+            System.exit(1);
+            return;
+        }
+
+        activityRepository = StorageProviders.repository();
+        // Only the SQLite database reports commits; other backends are read again on every redraw
+        if (StorageProviders.usesDatabase()) {
+            changeMonitor = new DataChangeMonitor(DatabaseConnection.getInstance());
+        }
+
+        try {
+            if (once) {
+                refresh(LocalDateTime.now());
+                System.out.print(render(activeActivities, todayActivities, LocalDateTime.now()));
+                return;
+            }
+            watch();
+        } finally {
+            if (changeMonitor != null) {
+                changeMonitor.close();
+            }
+        }
+    }
+
+    /**
+     * Redraws on a fixed schedule until the process is interrupted. The elapsed times are recomputed from
+     * the last query on every redraw; SQLite is only queried again when the change monitor reports a
+     * commit or the day rolls over, other backends on every redraw.
+     */
+    private void watch() {
+        boolean terminal = System.console() != null;
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "timer-watch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            scheduler.shutdownNow();
+            if (terminal) {
+                System.out.print(AnsiColors.SHOW_CURSOR);
+                System.out.flush();
+            }
+        }));
+
+        if (terminal) {
+            System.out.print(AnsiColors.HIDE_CURSOR);
+        }
+        scheduler.scheduleAtFixedRate(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            StringBuilder screen = new StringBuilder();
+            if (terminal) {
+                screen.append(AnsiColors.CLEAR_SCREEN);
+            }
+            try {
+                refresh(now);
+                screen.append(render(activeActivities, todayActivities, now));
+            } catch (RuntimeException e) {
+                // Keep the schedule alive; a locked or briefly missing database recovers on a later tick
+                screen.append(render(activeActivities, todayActivities, now));
+                screen.append(AnsiColors.BOLD_RED).append("Refresh failed: ").append(e.getMessage())
+                    .append(AnsiColors.RESET).append('\n');
+            }
+            System.out.print(screen);
+            System.out.flush();
+        }, 0, intervalSeconds, TimeUnit.SECONDS);
+
+        try {
+            // The shutdown hook ends the schedule when the process is interrupted
+            scheduler.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void refresh(LocalDateTime now) {
+        LocalDate today = now.toLocalDate();
+        boolean changed = changeMonitor == null || changeMonitor.poll();
+        if (!changed && today.equals(loadedDate)) {
+            return;
+        }
+        activeActivities = activityRepository.findByStatus(ActivityStatus.ACTIVE);
+        todayActivities = activityRepository.findByDateRange(today.atStartOfDay(), today.atStartOfDay());
+        loadedDate = today;
+    }
+
+    // Package-private for testing
+    static String render(List<Activity> active, List<Activity> today, LocalDateTime now) {
+        StringBuilder out = new StringBuilder();
+        out.append(AnsiColors.BOLD).append("Timer").append(AnsiColors.RESET)
+            .append("  ").append(now.format(TIME_FORMAT)).append("\n\n");
+
+        if (active.isEmpty()) {
+            out.append(AnsiColors.DIM).append("No activity running.").append(AnsiColors.RESET).append('\n');
+        }
+        for (Activity activity : active) {
+            out.append(AnsiColors.BOLD_CYAN).append(activity.activityType()).append(AnsiColors.RESET)
+                .append("  #").append(activity.id());
+            if (activity.description() != null && !activity.description().isEmpty()) {
+                out.append("  ").append(activity.description());
+            }
+            out.append('\n');
+            out.append("  started ").append(activity.startTime().format(START_FORMAT)).append(", running ")
+                .append(AnsiColors.BOLD_GREEN)
+                .append(formatElapsed(Duration.between(activity.startTime(), now)))
+                .append(AnsiColors.RESET).append('\n');
+        }
+
+        Map<ActivityType, Duration> totals = totalsByType(active, today, now);
+        out.append('\n').append(AnsiColors.BOLD).append("Today").append(AnsiColors.RESET).append('\n');
+        if (totals.isEmpty()) {
+            out.append(AnsiColors.DIM).append("  Nothing recorded yet.").append(AnsiColors.RESET).append('\n');
+            return out.toString();
+        }
+        Duration total = Duration.ZERO;
+        for (Map.Entry<ActivityType, Duration> entry : totals.entrySet()) {
+            out.append(String.format("  %-14s %9s\n", entry.getKey(), formatElapsed(entry.getValue())));
+            total = total.plus(entry.getValue());
+        }
+        out.append(String.format("  %-14s %9s\n", "--------------", "---------"));
+        out.append(AnsiColors.BOLD)
+            .append(String.format("  %-14s %9s", "Total", formatElapsed(total)))
+            .append(AnsiColors.RESET).append('\n');
+        return out.toString();
+    }
+
+    /**
+     * Sums today's time per type. Active activities run until now and an activity that started
+     * before midnight only counts from midnight.
+     */
+    static Map<ActivityType, Duration> totalsByType(List<Activity> active, List<Activity> today, LocalDateTime now) {
+        // An active activity that started before midnight is not part of today's query
+        List<Activity> activities = new ArrayList<>(today);
+        Set<Long> seen = new HashSet<>();
+        today.forEach(activity -> seen.add(activity.id()));
+        for (Activity activity : active) {
+            if (seen.add(activity.id())) {
+                activities.add(activity);
+            }
+        }
+
+        LocalDateTime midnight = now.toLocalDate().atStartOfDay();
+        Map<ActivityType, Duration> totals = new EnumMap<>(ActivityType.class);
+        for (Activity activity : activities) {
+            if (activity.startTime() == null || activity.activityType() == null) {
+                continue;
+            }
+            LocalDateTime end = activity.status() == ActivityStatus.ACTIVE && activity.endTime() == null
+                ? now : activity.endTime();
+            if (end == null) {
+                continue;
+            }
+            LocalDateTime start = activity.startTime().isBefore(midnight) ? midnight : activity.startTime();
+            if (end.isAfter(start)) {
+                totals.merge(activity.activityType(), Duration.between(start, end), Duration::plus);
+            }
+        }
+        return totals;
+    }
+
+    static String formatElapsed(Duration duration) {
+        return String.format("%d:%02d:%02d", duration.toHours(), duration.toMinutesPart(), duration.toSecondsPart());
+    }
+}
@@ -1,6 +1,15 @@
 package org.veenix.timer.cli.util;
 
 public class AnsiColors {
+    public static final String BOLD = "\u001B[1m";
     public static final String BOLD_RED = "\u001B[1;31m";
+    public static final String BOLD_GREEN = "\u001B[1;32m";
+    public static final String BOLD_CYAN = "\u001B[1;36m";
+    public static final String DIM = "\u001B[2m";
     public static final String RESET = "\u001B[0m";
+
+    // Cursor and screen control
+    public static final String CLEAR_SCREEN = "\u001B[H\u001B[2J";
+    public static final String HIDE_CURSOR = "\u001B[?25l";
+    public static final String SHOW_CURSOR = "\u001B[?25h";
 }
@@ -0,0 +1,48 @@
+package org.veenix.timer.cli.util;
+
+import org.veenix.timer.model.Activity;
+
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Scanner;
+
+public class OverlapPrompt {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+
+    /**
+     * Lists the conflicting activities and asks whether to save anyway.
+     * Returns true immediately when there are no conflicts.
+     */
+    public static boolean confirmSave(List<Activity> conflicts) {
+        if (conflicts.isEmpty()) {
+            return true;
+        }
+
+        System.out.println("\nThis activity overlaps with:");
+        for (Activity conflict : conflicts) {
+            System.out.println("  " + formatConflict(conflict));
+        }
+        System.out.print("Save anyway? (Y/N): ");
+
+        Scanner scanner = new Scanner(System.in);
+        while (true) {
+            String response = scanner.nextLine().trim().toUpperCase();
+            if (response.equals("Y")) {
+                return true;
+            }
+            if (response.equals("N")) {
+                return false;
+            }
+            System.out.print("Please enter Y or N: ");
+        }
+    }
+
+    // Package-private for testing
+    static String formatConflict(Activity activity) {
+        String end = activity.endTime() != null ? activity.endTime().format(TIME_FORMATTER) : "now";
+        return activity.id() + " - " + activity.startTime().format(DATE_TIME_FORMATTER) + "-" + end +
+            " - " + activity.activityType() + " - " + activity.description();
+    }
+}
@@ -0,0 +1,52 @@
+package org.veenix.timer.cli.util;
+
+import org.veenix.timer.persistence.ActivityReplica;
+import org.veenix.timer.persistence.DatabaseConnection;
+import org.veenix.timer.persistence.SqliteStorageProvider;
+import org.veenix.timer.persistence.StorageProviders;
+import org.veenix.timer.service.ConfigurationService;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+public class ReplicaReader {
+
+    /**
+     * Opens the replica kept by {@code activity db replicate} for a command run with --replica, and warns on
+     * stderr when it is behind the database. Exits when there is no replica.
+     */
+    public static DatabaseConnection open() {
+        ConfigurationService configService = new ConfigurationService();
+        if (!StorageProviders.provider(configService.getStorageBackend()).usesDatabase()) {
+            System.err.println("--replica needs the " + SqliteStorageProvider.NAME + " storage backend.");
+            System.exit(1);
+        }
+
+        DatabaseConnection primary = DatabaseConnection.getInstance();
+        Path file = Path.of(configService.getReplicaFile());
+        try (ActivityReplica replica = new ActivityReplica(primary, file)) {
+            ActivityReplica.Lag lag = replica.lag();
+            if (!lag.current()) {
+                System.err.println("Warning: the replica has to be copied again; run 'activity db replicate'.");
+            } else if (lag.pendingChanges() > 0) {
+                System.err.println("Warning: the replica is " + lag.pendingChanges() + " changes behind; the oldest was made "
+                    + formatDuration(lag.behind()) + " ago.");
+            }
+            return ActivityReplica.openReader(file, primary.getDatabaseFile().orElseThrow());
+        } catch (IllegalStateException e) {
+            System.err.println("Error: " + e.getMessage() + ". Create it with 'activity db replicate'.");
+            System.exit(1);
+            return null;
+        }
+    }
+
+    public static String formatDuration(Duration duration) {
+        if (duration.toSeconds() < 1) {
+            return duration.toMillis() + " ms";
+        }
+        if (duration.toMinutes() < 1) {
+            return duration.toSeconds() + " s";
+        }
+        return duration.toMinutes() + " min " + duration.toSecondsPart() + " s";
+    }
+}
@@ -0,0 +1,42 @@
+package org.veenix.timer.json;
+
+import org.veenix.timer.model.Activity;
+
+import java.io.IOException;
+
+/**
+ * JSON representation of an activity, shared by the list and export commands and the HTTP API.
+ * Times are ISO-8601 local date-times, as stored.
+ */
+public final class ActivityJson {
+
+    private ActivityJson() {
+        // Utility class
+    }
+
+    public static void write(JsonWriter json, Activity activity) throws IOException {
+        json.beginObject().name("id");
+        if (activity.id() != null) {
+            json.value(activity.id().longValue());
+        } else {
+            json.nullValue();
+        }
+        json.name("startTime").value(activity.startTime())
+            .name("endTime").value(activity.endTime())
+            .name("activityType").value(activity.activityType())
+            .name("status").value(activity.status())
+            .name("description").value(activity.description())
+            .endObject();
+    }
+
+    /**
+     * Writes the activities as one array.
+     */
+    public static void writeArray(JsonWriter json, Iterable<Activity> activities) throws IOException {
+        json.beginArray();
+        for (Activity activity : activities) {
+            write(json, activity);
+        }
+        json.endArray();
+    }
+}
@@ -0,0 +1,333 @@
+package org.veenix.timer.json;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+/**
+ * Writes JSON as UTF-8 straight into a byte buffer that is handed to the stream whenever it fills up,
+ * so a long array can be sent while it is still being read. Commas between members and elements are
+ * inserted automatically; callers only open and close objects and arrays and write names and values.
+ * Strings, integers and date-times are encoded without allocating, so writing a row costs no garbage
+ * once the writer exists; only {@link #value(double)} goes through {@link Double#toString(double)}.
+ * A writer is not thread-safe.
+ */
+public class JsonWriter implements Closeable, Flushable {
+
+    static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private static final int MAX_DEPTH = 32;
+    // Longest single write that does not go through the string encoder: Long.MIN_VALUE or a date-time
+    private static final int MAX_TOKEN = 32;
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final byte[] HEX = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int count;
+    // Per nesting level: whether the next member or element needs a comma first
+    private final boolean[] separate = new boolean[MAX_DEPTH];
+    private int depth;
+    private boolean afterName;
+
+    public JsonWriter(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    public JsonWriter(OutputStream out, int bufferSize) {
+        if (bufferSize < MAX_TOKEN) {
+            throw new IllegalArgumentException("Buffer must hold at least " + MAX_TOKEN + " bytes");
+        }
+        this.out = out;
+        this.buffer = new byte[bufferSize];
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    public JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    public JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    public JsonWriter name(String name) throws IOException {
+        separator();
+        string(name);
+        write(':');
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) throws IOException {
+        separator();
+        if (value == null) {
+            write(NULL);
+        } else {
+            string(value);
+        }
+        return this;
+    }
+
+    public JsonWriter value(long value) throws IOException {
+        separator();
+        if (value == Long.MIN_VALUE) {
+            // Cannot be negated; rare enough to take the slow path
+            ascii(Long.toString(value));
+            return this;
+        }
+        ensure(MAX_TOKEN);
+        if (value < 0) {
+            buffer[count++] = '-';
+            value = -value;
+        }
+        digits(value, digitCount(value));
+        return this;
+    }
+
+    public JsonWriter value(double value) throws IOException {
+        if (!Double.isFinite(value)) {
+            return nullValue();
+        }
+        separator();
+        ascii(Double.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(boolean value) throws IOException {
+        separator();
+        write(value ? TRUE : FALSE);
+        return this;
+    }
+
+    /**
+     * Writes the date-time as an ISO-8601 string, exactly as {@link LocalDateTime#toString()} would.
+     */
+    public JsonWriter value(LocalDateTime value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            // toString signs and widens these years; not worth encoding by hand
+            return value(value.toString());
+        }
+        separator();
+        ensure(MAX_TOKEN);
+        buffer[count++] = '"';
+        digits(year, 4);
+        buffer[count++] = '-';
+        digits(value.getMonthValue(), 2);
+        buffer[count++] = '-';
+        digits(value.getDayOfMonth(), 2);
+        buffer[count++] = 'T';
+        digits(value.getHour(), 2);
+        buffer[count++] = ':';
+        digits(value.getMinute(), 2);
+        int second = value.getSecond();
+        int nano = value.getNano();
+        if (second > 0 || nano > 0) {
+            buffer[count++] = ':';
+            digits(second, 2);
+            if (nano > 0) {
+                buffer[count++] = '.';
+                if (nano % 1_000_000 == 0) {
+                    digits(nano / 1_000_000, 3);
+                } else if (nano % 1_000 == 0) {
+                    digits(nano / 1_000, 6);
+                } else {
+                    digits(nano, 9);
+                }
+            }
+        }
+        buffer[count++] = '"';
+        return this;
+    }
+
+    /**
+     * Writes the constant's name, or null.
+     */
+    public JsonWriter value(Enum<?> value) throws IOException {
+        return value == null ? nullValue() : value(value.name());
+    }
+
+    public JsonWriter nullValue() throws IOException {
+        separator();
+        write(NULL);
+        return this;
+    }
+
+    /**
+     * Writes a line break between top-level values, for output read line by line.
+     */
+    public JsonWriter newline() throws IOException {
+        if (depth != 0) {
+            throw new IllegalStateException("Newlines only go between top-level values");
+        }
+        write('\n');
+        separate[0] = false;
+        return this;
+    }
+
+    /**
+     * Hands the buffered bytes to the stream and flushes it.
+     */
+    @Override
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    /**
+     * Hands over the buffered bytes and closes the stream; for an HTTP response this ends the body.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            out.close();
+        }
+    }
+
+    private JsonWriter open(char bracket) throws IOException {
+        separator();
+        if (depth == MAX_DEPTH - 1) {
+            throw new IllegalStateException("JSON nested too deeply");
+        }
+        write(bracket);
+        separate[++depth] = false;
+        return this;
+    }
+
+    private JsonWriter close(char bracket) throws IOException {
+        if (depth == 0) {
+            throw new IllegalStateException("No open object or array to close");
+        }
+        depth--;
+        write(bracket);
+        return this;
+    }
+
+    private void separator() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (separate[depth]) {
+            write(',');
+        }
+        separate[depth] = true;
+    }
+
+    private void string(String value) throws IOException {
+        write('"');
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            // Worst case is a \\uXXXX escape or a four-byte sequence
+            ensure(6);
+            if (c >= 0x20 && c < 0x80) {
+                if (c == '"' || c == '\\') {
+                    buffer[count++] = '\\';
+                }
+                buffer[count++] = (byte) c;
+            } else if (c < 0x20) {
+                escapeControl(c);
+            } else if (c < 0x800) {
+                buffer[count++] = (byte) (0xC0 | c >> 6);
+                buffer[count++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[count++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[count++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[count++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[count++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                // An unpaired surrogate is not valid UTF-8; write it as '?' like String.getBytes does
+                buffer[count++] = '?';
+            } else {
+                buffer[count++] = (byte) (0xE0 | c >> 12);
+                buffer[count++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[count++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        write('"');
+    }
+
+    private void escapeControl(char c) {
+        buffer[count++] = '\\';
+        switch (c) {
+            case '\n' -> buffer[count++] = 'n';
+            case '\r' -> buffer[count++] = 'r';
+            case '\t' -> buffer[count++] = 't';
+            default -> {
+                buffer[count++] = 'u';
+                buffer[count++] = '0';
+                buffer[count++] = '0';
+                buffer[count++] = HEX[c >> 4];
+                buffer[count++] = HEX[c & 0xF];
+            }
+        }
+    }
+
+    // Writes a non-negative number as exactly width digits, zero-padded; the space must be ensured
+    private void digits(long value, int width) {
+        for (int i = count + width - 1; i >= count; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        count += width;
+    }
+
+    private static int digitCount(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    private void ascii(String value) throws IOException {
+        ensure(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            buffer[count++] = (byte) value.charAt(i);
+        }
+    }
+
+    private void write(char c) throws IOException {
+        ensure(1);
+        buffer[count++] = (byte) c;
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (count + bytes > buffer.length) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+}
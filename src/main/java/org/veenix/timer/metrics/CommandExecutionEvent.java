@@ -0,0 +1,23 @@
+package org.veenix.timer.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning the execution of one CLI command.
+ */
+@Name("org.veenix.timer.CommandExecution")
+@Label("Command Execution")
+@Category({"Timer", "CLI"})
+@StackTrace(false)
+public final class CommandExecutionEvent extends Event {
+
+    @Label("Command")
+    public String command;
+
+    @Label("Exit Code")
+    public int exitCode;
+}
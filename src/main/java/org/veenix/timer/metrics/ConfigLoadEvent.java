@@ -0,0 +1,26 @@
+package org.veenix.timer.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for reading (or creating) the configuration file.
+ */
+@Name("org.veenix.timer.ConfigLoad")
+@Label("Configuration Load")
+@Category({"Timer", "IO"})
+@StackTrace(false)
+public final class ConfigLoadEvent extends Event {
+
+    @Label("File")
+    public String file;
+
+    @Label("Properties")
+    public int properties;
+
+    @Label("Created Defaults")
+    public boolean createdDefaults;
+}
@@ -0,0 +1,37 @@
+package org.veenix.timer.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic counter, e.g. rows mapped or cache hits.
+ */
+public final class Counter implements Metric {
+
+    private final String name;
+    private final LongAdder value = new LongAdder();
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    public long count() {
+        return value.sum();
+    }
+
+    public void reset() {
+        value.reset();
+    }
+}
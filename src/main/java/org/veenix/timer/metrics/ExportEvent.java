@@ -0,0 +1,28 @@
+package org.veenix.timer.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for writing an export file.
+ */
+@Name("org.veenix.timer.Export")
+@Label("Export")
+@Category({"Timer", "IO"})
+@StackTrace(false)
+public final class ExportEvent extends Event {
+
+    @Label("File")
+    public String file;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("Bytes Written")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,53 @@
+package org.veenix.timer.metrics;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+
+/**
+ * In-process JFR recording used by the --jfr option. Uses the JDK "profile" settings,
+ * so method sampling is included, and enables all timer events without a threshold.
+ * Closing the recording writes it to the destination file.
+ */
+public final class FlightRecording implements AutoCloseable {
+
+    static final List<Class<? extends jdk.jfr.Event>> EVENT_TYPES = List.of(
+        CommandExecutionEvent.class,
+        RepositoryOperationEvent.class,
+        ExportEvent.class,
+        ConfigLoadEvent.class
+    );
+
+    private final Recording recording;
+
+    private FlightRecording(Recording recording) {
+        this.recording = recording;
+    }
+
+    public static FlightRecording start(Path destination) throws IOException {
+        Recording recording;
+        try {
+            recording = new Recording(Configuration.getConfiguration("profile"));
+        } catch (ParseException e) {
+            throw new IOException("Invalid JFR configuration", e);
+        }
+        recording.setName("timer");
+        recording.setToDisk(true);
+        recording.setDestination(destination);
+        for (Class<? extends jdk.jfr.Event> eventType : EVENT_TYPES) {
+            recording.enable(eventType).withoutThreshold();
+        }
+        recording.start();
+        return new FlightRecording(recording);
+    }
+
+    @Override
+    public void close() {
+        recording.stop();
+        recording.close();
+    }
+}
@@ -0,0 +1,142 @@
+package org.veenix.timer.metrics;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Summarizes a JFR recording into a hot-path report: time spent per command, per repository
+ * operation, exports and configuration loads, followed by the most frequently sampled methods.
+ */
+public final class JfrReport {
+
+    private static final String EVENT_PREFIX = "org.veenix.timer.";
+    private static final String EXECUTION_SAMPLE = "jdk.ExecutionSample";
+    private static final String APPLICATION_PACKAGE = "org.veenix.timer.";
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private final Map<String, Long> topFrames = new HashMap<>();
+    private final Map<String, Long> applicationFrames = new HashMap<>();
+    private long samples;
+
+    private JfrReport() {
+    }
+
+    public static JfrReport read(Path recording) throws IOException {
+        JfrReport report = new JfrReport();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                report.add(file.readEvent());
+            }
+        }
+        return report;
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty() && samples == 0;
+    }
+
+    public void print(PrintStream out, int top) {
+        out.printf("%-44s | %6s | %10s | %9s | %9s | %9s | %8s | %10s%n",
+            "Event", "Count", "Total ms", "Mean ms", "p99 ms", "Max ms", "Rows", "Bytes");
+        out.println("---------------------------------------------+--------+------------+-----------+-----------+-----------+----------+-----------");
+        entries.values().stream()
+            .sorted(Comparator.comparingLong((Entry entry) -> entry.durations.sum()).reversed())
+            .forEach(entry -> out.printf("%-44s | %6d | %10s | %9s | %9s | %9s | %8s | %10s%n",
+                entry.key, entry.durations.count(), millis(entry.durations.sum()), millis(entry.durations.mean()),
+                millis(entry.durations.percentile(99)), millis(entry.durations.max()),
+                entry.hasRows ? String.valueOf(entry.rows) : "", entry.hasBytes ? String.valueOf(entry.bytes) : ""));
+
+        if (samples > 0) {
+            out.println();
+            out.println("Hot methods (" + samples + " execution samples)");
+            printFrames(out, "Top frame", topFrames, top);
+            printFrames(out, "Application frame", applicationFrames, top);
+        }
+    }
+
+    private void add(RecordedEvent event) {
+        String type = event.getEventType().getName();
+        if (type.equals(EXECUTION_SAMPLE)) {
+            addSample(event.getStackTrace());
+        } else if (type.startsWith(EVENT_PREFIX)) {
+            String name = type.substring(EVENT_PREFIX.length());
+            String key = switch (name) {
+                case "RepositoryOperation" -> name + " " + event.getString("operation");
+                case "CommandExecution" -> name + " " + event.getString("command");
+                default -> name;
+            };
+            Entry entry = entries.computeIfAbsent(key, Entry::new);
+            entry.durations.record(event.getDuration().toNanos());
+            if (event.hasField("rows")) {
+                entry.hasRows = true;
+                entry.rows += event.getLong("rows");
+            }
+            if (event.hasField("bytes")) {
+                entry.hasBytes = true;
+                entry.bytes += event.getLong("bytes");
+            }
+        }
+    }
+
+    private void addSample(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return;
+        }
+        samples++;
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        topFrames.merge(methodName(frames.get(0)), 1L, Long::sum);
+        for (RecordedFrame frame : frames) {
+            String method = methodName(frame);
+            if (method.startsWith(APPLICATION_PACKAGE)) {
+                applicationFrames.merge(method, 1L, Long::sum);
+                break;
+            }
+        }
+    }
+
+    private static void printFrames(PrintStream out, String title, Map<String, Long> frames, int top) {
+        if (frames.isEmpty()) {
+            return;
+        }
+        out.printf("%n%-8s | %s%n", "Samples", title);
+        out.println("---------+--------------------------------------------------");
+        frames.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+            .limit(top)
+            .forEach(e -> out.printf("%8d | %s%n", e.getValue(), e.getKey()));
+    }
+
+    private static String methodName(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+
+    private static String millis(double nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final Histogram durations;
+        private boolean hasRows;
+        private long rows;
+        private boolean hasBytes;
+        private long bytes;
+
+        private Entry(String key) {
+            this.key = key;
+            this.durations = new Histogram(key);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.veenix.timer.metrics;
+
+/**
+ * A named value tracked by the {@link MetricsRegistry}.
+ */
+public sealed interface Metric permits Counter, Histogram, Timer {
+
+    String name();
+}
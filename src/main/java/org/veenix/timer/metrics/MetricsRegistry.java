@@ -0,0 +1,81 @@
+package org.veenix.timer.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Process-wide registry of counters, timers and histograms.
+ * Metrics are created on first use and reported in the order they were registered,
+ * which for a single command run follows the order of its phases.
+ */
+public class MetricsRegistry {
+
+    private static MetricsRegistry instance;
+
+    private final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+    private final List<Metric> registrationOrder = new ArrayList<>();
+
+    public MetricsRegistry() {
+    }
+
+    public static synchronized MetricsRegistry getInstance() {
+        if (instance == null) {
+            instance = new MetricsRegistry();
+        }
+        return instance;
+    }
+
+    public Counter counter(String name) {
+        return register(name, Counter.class, Counter::new);
+    }
+
+    public Timer timer(String name) {
+        return register(name, Timer.class, Timer::new);
+    }
+
+    public Histogram histogram(String name) {
+        return register(name, Histogram.class, Histogram::new);
+    }
+
+    /**
+     * Returns all metrics in registration order.
+     */
+    public synchronized List<Metric> metrics() {
+        return List.copyOf(registrationOrder);
+    }
+
+    /**
+     * Resets every metric to zero. Registered metrics stay registered, so references held by callers remain valid.
+     */
+    public synchronized void reset() {
+        for (Metric metric : registrationOrder) {
+            switch (metric) {
+                case Counter counter -> counter.reset();
+                case Timer timer -> timer.reset();
+                case Histogram histogram -> histogram.reset();
+            }
+        }
+    }
+
+    private <T extends Metric> T register(String name, Class<T> type, Function<String, T> factory) {
+        Metric metric = metrics.get(name);
+        if (metric == null) {
+            synchronized (this) {
+                metric = metrics.get(name);
+                if (metric == null) {
+                    metric = factory.apply(name);
+                    metrics.put(name, metric);
+                    registrationOrder.add(metric);
+                }
+            }
+        }
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as "
+                + metric.getClass().getSimpleName());
+        }
+        return type.cast(metric);
+    }
+}
@@ -0,0 +1,100 @@
+package org.veenix.timer.metrics;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Renders the contents of a {@link MetricsRegistry} for humans (--timings) or as CSV (--metrics-out).
+ */
+public final class MetricsReport {
+
+    static final String CSV_HEADER = "timestamp,command,metric,type,count,total_ms,mean_ms,p50_ms,p99_ms,max_ms";
+
+    private MetricsReport() {
+        // Utility class
+    }
+
+    /**
+     * Prints one line per timer and counter. Timers nest: a command timer includes the
+     * database and service timers recorded while it ran.
+     */
+    public static void printTimings(MetricsRegistry registry, PrintStream out) {
+        out.println();
+        out.printf("%-36s | %6s | %10s | %9s | %9s | %9s%n", "Phase", "Count", "Total ms", "Mean ms", "p99 ms", "Max ms");
+        out.println("-------------------------------------+--------+------------+-----------+-----------+----------");
+        for (Metric metric : registry.metrics()) {
+            switch (metric) {
+                case Timer timer -> printHistogram(out, timer.name(), timer.histogram(), true);
+                case Histogram histogram -> printHistogram(out, histogram.name(), histogram, false);
+                case Counter counter -> {
+                    if (counter.count() > 0) {
+                        out.printf("%-36s | %6d |%n", counter.name(), counter.count());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends the current values to a CSV file, writing the header when the file is new.
+     */
+    public static void appendCsv(MetricsRegistry registry, Path file, String command) throws IOException {
+        boolean writeHeader = !Files.exists(file) || Files.size(file) == 0;
+        String timestamp = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).toString();
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (writeHeader) {
+                writer.write(CSV_HEADER);
+                writer.write(System.lineSeparator());
+            }
+            for (Metric metric : registry.metrics()) {
+                String line = switch (metric) {
+                    case Timer timer -> csvLine(timestamp, command, timer.name(), "timer", timer.histogram(), true);
+                    case Histogram histogram -> csvLine(timestamp, command, histogram.name(), "histogram", histogram, false);
+                    case Counter counter -> String.join(",", timestamp, quote(command), quote(counter.name()),
+                        "counter", String.valueOf(counter.count()), "", "", "", "", "");
+                };
+                writer.write(line);
+                writer.write(System.lineSeparator());
+            }
+        }
+    }
+
+    private static void printHistogram(PrintStream out, String name, Histogram histogram, boolean nanos) {
+        if (histogram.count() == 0) {
+            return;
+        }
+        out.printf("%-36s | %6d | %10s | %9s | %9s | %9s%n", name, histogram.count(),
+            format(histogram.sum(), nanos), format(histogram.mean(), nanos),
+            format(histogram.percentile(99), nanos), format(histogram.max(), nanos));
+    }
+
+    private static String csvLine(String timestamp, String command, String name, String type,
+                                  Histogram histogram, boolean nanos) {
+        return String.join(",", timestamp, quote(command), quote(name), type,
+            String.valueOf(histogram.count()), format(histogram.sum(), nanos), format(histogram.mean(), nanos),
+            format(histogram.percentile(50), nanos), format(histogram.percentile(99), nanos),
+            format(histogram.max(), nanos));
+    }
+
+    private static String format(double value, boolean nanos) {
+        return nanos
+            ? String.format(Locale.ROOT, "%.3f", value / 1_000_000.0)
+            : String.format(Locale.ROOT, "%.0f", value);
+    }
+
+    private static String quote(String value) {
+        if (value.contains(",") || value.contains("\"")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
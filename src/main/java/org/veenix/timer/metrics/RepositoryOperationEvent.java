@@ -0,0 +1,29 @@
+package org.veenix.timer.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for a single statement run by the activity repository.
+ */
+@Name("org.veenix.timer.RepositoryOperation")
+@Label("Repository Operation")
+@Category({"Timer", "Database"})
+@Description("Execution of one SQL statement including row mapping")
+@StackTrace(false)
+public final class RepositoryOperationEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("SQL")
+    public String sql;
+
+    @Label("Rows")
+    @Description("Rows returned by a query or affected by an update")
+    public long rows;
+}
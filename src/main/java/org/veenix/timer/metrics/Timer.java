@@ -0,0 +1,69 @@
+package org.veenix.timer.metrics;
+
+/**
+ * Records durations in nanoseconds into a {@link Histogram}.
+ * Typical use is a try-with-resources block around the measured code:
+ * <pre>{@code
+ * try (Timer.Sample ignored = timer.start()) {
+ *     ...
+ * }
+ * }</pre>
+ */
+public final class Timer implements Metric {
+
+    private final String name;
+    private final Histogram histogram;
+
+    Timer(String name) {
+        this.name = name;
+        this.histogram = new Histogram(name);
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    public Sample start() {
+        return new Sample(this, System.nanoTime());
+    }
+
+    public void record(long nanos) {
+        histogram.record(nanos);
+    }
+
+    public Histogram histogram() {
+        return histogram;
+    }
+
+    public long count() {
+        return histogram.count();
+    }
+
+    public long totalNanos() {
+        return histogram.sum();
+    }
+
+    public void reset() {
+        histogram.reset();
+    }
+
+    /**
+     * A running measurement; closing it records the elapsed time.
+     */
+    public static final class Sample implements AutoCloseable {
+
+        private final Timer timer;
+        private final long startNanos;
+
+        private Sample(Timer timer, long startNanos) {
+            this.timer = timer;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void close() {
+            timer.record(System.nanoTime() - startNanos);
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package org.veenix.timer.persistence;
+
+import org.veenix.timer.metrics.Timer;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Cold storage for completed activities of past years. Each year lives in its own database file in an
+ * {@code archive} directory next to the main database, e.g. {@code archive/timer-2023.db}, and the
+ * {@code activity_archive} table in the main database records the range of start times each file holds.
+ * The hot table only keeps recent activities, so its indexes stay small; range reads consult the catalog
+ * and only ATTACH and union the archives their range overlaps, and DETACH them once read.
+ * Archived activities keep their ids but are read-only: lookups by id, status or type only see the hot table.
+ */
+public class ActivityArchive {
+
+    private static final String DIRECTORY = "archive";
+    private static final String SCHEMA_PREFIX = "archive_";
+
+    // SQLite's default limit on the databases attached to one connection
+    static final int MAX_ATTACHED = 10;
+
+    private static final Comparator<Activity> CHRONOLOGICAL =
+        Comparator.comparing(Activity::startTime).thenComparing(Activity::id);
+
+    private final DatabaseConnection dbConnection;
+    private final SqlExecutor sqlExecutor;
+    private final ActivityRowMapper rowMapper;
+
+    public ActivityArchive(DatabaseConnection dbConnection) {
+        this.dbConnection = dbConnection;
+        this.sqlExecutor = new SqlExecutor(dbConnection);
+        this.rowMapper = new ActivityRowMapper(dbConnection.getDescriptionCache());
+    }
+
+    /**
+     * Moves completed activities that started before {@code before} into the archive of their year.
+     * Each year is copied and then removed from the hot table in two separate transactions, so an
+     * interruption can leave an activity in both places, where the hot copy wins, but never in neither;
+     * running the archive again finishes the move.
+     */
+    public Result archive(LocalDate before) {
+        Path directory = archiveDirectory();
+        LocalDateTime cutoff = before.atStartOfDay();
+        List<Integer> years = new ArrayList<>();
+        List<Path> files = new ArrayList<>();
+        int moved = 0;
+
+        try (Timer.Sample ignored = dbConnection.getMetrics().timer("db.archive").start()) {
+            Connection writer = dbConnection.getConnection();
+            try (PreparedStatement stmt = writer.prepareStatement(SqlQueries.SELECT_ARCHIVABLE_YEARS)) {
+                stmt.setString(1, cutoff.toString());
+                stmt.setString(2, ActivityStatus.COMPLETED.name());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        years.add(rs.getInt("year"));
+                    }
+                }
+            }
+            if (!years.isEmpty()) {
+                Files.createDirectories(directory);
+            }
+
+            for (int year : years) {
+                LocalDateTime from = LocalDate.of(year, 1, 1).atStartOfDay();
+                LocalDateTime to = cutoff.isBefore(from.plusYears(1)) ? cutoff : from.plusYears(1);
+                String schema = schema(year);
+                Path file = directory.resolve(fileName(year));
+                attach(writer, schema, file);
+                try {
+                    dbConnection.inWriteTransaction("archive.copy", () -> {
+                        execute(writer, String.format(SqlQueries.CREATE_ARCHIVE_ACTIVITY_TABLE, schema));
+                        execute(writer, String.format(SqlQueries.CREATE_ARCHIVE_START_TIME_INDEX, schema));
+                        return execute(writer, String.format(SqlQueries.COPY_TO_ARCHIVE, schema),
+                            from.toString(), to.toString(), ActivityStatus.COMPLETED.name());
+                    });
+                    moved += dbConnection.inWriteTransaction("archive.prune", () -> {
+                        int removed = execute(writer, String.format(SqlQueries.PRUNE_ARCHIVED_ACTIVITIES, schema));
+                        dbConnection.countChangedRows(removed);
+                        execute(writer, String.format(SqlQueries.UPSERT_ARCHIVE_CATALOG, schema), year);
+                        return removed;
+                    });
+                } finally {
+                    detach(writer, schema);
+                }
+                files.add(file);
+            }
+        } catch (SQLException | IOException e) {
+            throw new RuntimeException("Failed to archive activities", e);
+        }
+
+        dbConnection.getMetrics().counter("db.archive.activities").add(moved);
+        return new Result(moved, files);
+    }
+
+    /**
+     * Returns the archives in the catalog, oldest year first.
+     */
+    public List<Partition> partitions() {
+        try (ReadConnectionPool.Lease lease = dbConnection.getReadConnection()) {
+            return partitions(lease.connection());
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read archive catalog", e);
+        }
+    }
+
+    /**
+     * Reads the activities matching {@code condition} that start in [from, to), ordered by (start_time, id).
+     * Without an archive that holds start times in that range this is {@code hotSql} itself; otherwise the
+     * overlapping archives are attached and unioned with the hot table, and detached again afterwards.
+     * SQLite attaches at most {@link #MAX_ATTACHED} databases to a connection, so more archives are read in
+     * batches whose rows are merged. A write transaction cannot detach a database it has read, so inside one
+     * the hot table is read on the writer and the archives on a pooled connection.
+     * A null bound is open. {@code limitParameter} is the number of the parameter holding the row limit
+     * {@code limit}, or 0 for none.
+     */
+    List<Activity> rangeQuery(String operation, String hotSql, String condition, LocalDateTime from,
+                              LocalDateTime to, boolean descending, int limitParameter, int limit,
+                              SqlExecutor.Binder binder) throws SQLException {
+        List<Partition> overlapping = new ArrayList<>();
+        for (Partition partition : partitions()) {
+            if (partition.overlaps(from, to)) {
+                overlapping.add(partition);
+            }
+        }
+        if (overlapping.isEmpty()) {
+            return sqlExecutor.query(operation, hotSql, binder, rowMapper::map);
+        }
+
+        dbConnection.getMetrics().counter("db.archive.union").increment();
+        boolean hotOnWriter = dbConnection.isInTransaction();
+        if (!hotOnWriter && overlapping.size() <= MAX_ATTACHED) {
+            return sqlExecutor.query(operation, new Union(overlapping, true, condition, descending, limitParameter),
+                binder, rowMapper::map);
+        }
+
+        List<Activity> activities = new ArrayList<>();
+        if (hotOnWriter) {
+            activities.addAll(sqlExecutor.query(operation, hotSql, binder, rowMapper::map));
+        }
+        for (int i = 0; i < overlapping.size(); i += MAX_ATTACHED) {
+            List<Partition> batch = overlapping.subList(i, Math.min(i + MAX_ATTACHED, overlapping.size()));
+            activities.addAll(sqlExecutor.query(operation,
+                new Union(batch, !hotOnWriter && i == 0, condition, descending, limitParameter), binder, rowMapper::map));
+        }
+        activities.sort(descending ? CHRONOLOGICAL.reversed() : CHRONOLOGICAL);
+        if (limitParameter > 0 && activities.size() > limit) {
+            return new ArrayList<>(activities.subList(0, limit));
+        }
+        return activities;
+    }
+
+    /**
+     * Returns the days on which the archives hold activities, reading one archive at a time.
+     */
+    Set<LocalDate> archivedDays() {
+        List<Partition> partitions = partitions();
+        Set<LocalDate> days = new HashSet<>();
+        if (partitions.isEmpty()) {
+            return days;
+        }
+        try (ReadConnectionPool.Lease lease = dbConnection.getPooledReadConnection()) {
+            Connection connection = lease.connection();
+            Set<String> attached = attachedSchemas(connection);
+            for (Partition partition : partitions) {
+                String schema = schema(partition.year());
+                boolean attachHere = !attached.contains(schema);
+                if (attachHere) {
+                    attach(connection, schema, archiveDirectory().resolve(fileName(partition.year())));
+                }
+                try (Statement stmt = connection.createStatement();
+                     ResultSet rs = stmt.executeQuery(String.format(SqlQueries.SELECT_ARCHIVED_DAYS, schema))) {
+                    while (rs.next()) {
+                        days.add(LocalDate.parse(rs.getString("day")));
+                    }
+                } finally {
+                    if (attachHere) {
+                        detach(connection, schema);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read archived days", e);
+        }
+        return days;
+    }
+
+    private static List<Partition> partitions(Connection connection) throws SQLException {
+        List<Partition> partitions = new ArrayList<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(SqlQueries.SELECT_ARCHIVE_CATALOG)) {
+            while (rs.next()) {
+                partitions.add(new Partition(
+                    rs.getInt("year"),
+                    LocalDateTime.parse(rs.getString("first_start")),
+                    LocalDateTime.parse(rs.getString("last_start")),
+                    rs.getInt("activity_count")));
+            }
+        }
+        return partitions;
+    }
+
+    private Path archiveDirectory() {
+        Path databaseFile = dbConnection.getArchiveBase()
+            .orElseThrow(() -> new IllegalStateException("An in-memory database cannot be archived"))
+            .toAbsolutePath();
+        return databaseFile.resolveSibling(DIRECTORY);
+    }
+
+    private String fileName(int year) {
+        String name = dbConnection.getArchiveBase().orElseThrow().getFileName().toString();
+        int extension = name.lastIndexOf('.');
+        return (extension > 0 ? name.substring(0, extension) : name) + "-" + year + ".db";
+    }
+
+    private static String schema(int year) {
+        return SCHEMA_PREFIX + year;
+    }
+
+    private static Set<String> attachedSchemas(Connection connection) throws SQLException {
+        Set<String> schemas = new HashSet<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(SqlQueries.LIST_ATTACHED_DATABASES)) {
+            while (rs.next()) {
+                schemas.add(rs.getString("name"));
+            }
+        }
+        return schemas;
+    }
+
+    private static void attach(Connection connection, String schema, Path file) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(String.format(SqlQueries.ATTACH_ARCHIVE, schema))) {
+            stmt.setString(1, file.toString());
+            stmt.execute();
+        }
+    }
+
+    private static void detach(Connection connection, String schema) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(String.format(SqlQueries.DETACH_ARCHIVE, schema));
+        }
+    }
+
+    private static int execute(Connection connection, String sql, Object... parameters) {
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                stmt.setObject(i + 1, parameters[i]);
+            }
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to execute archive statement", e);
+        }
+    }
+
+    /**
+     * A union of the archives of one batch, optionally with the hot table, that attaches the archives it
+     * reads and detaches them once the statement has run.
+     */
+    private final class Union implements SqlExecutor.StatementSource {
+
+        private final List<Partition> partitions;
+        private final boolean withHot;
+        private final String condition;
+        private final boolean descending;
+        private final int limitParameter;
+        private final List<String> attachedHere = new ArrayList<>();
+
+        Union(List<Partition> partitions, boolean withHot, String condition, boolean descending, int limitParameter) {
+            this.partitions = partitions;
+            this.withHot = withHot;
+            this.condition = condition;
+            this.descending = descending;
+            this.limitParameter = limitParameter;
+        }
+
+        @Override
+        public String sql(Connection connection) throws SQLException {
+            attachedHere.clear();
+            Set<String> attached = attachedSchemas(connection);
+            StringJoiner branches = new StringJoiner(" UNION ALL ");
+            if (withHot) {
+                branches.add(String.format(SqlQueries.ACTIVITY_HOT_BRANCH, condition));
+            }
+            for (Partition partition : partitions) {
+                String schema = schema(partition.year());
+                if (!attached.contains(schema)) {
+                    attach(connection, schema, archiveDirectory().resolve(fileName(partition.year())));
+                    attachedHere.add(schema);
+                }
+                branches.add(String.format(SqlQueries.ACTIVITY_ARCHIVE_BRANCH, schema, condition));
+            }
+            String order = descending ? "DESC" : "ASC";
+            String sql = String.format(SqlQueries.ACTIVITY_UNION, branches, order, order);
+            return limitParameter > 0 ? sql + "LIMIT ?" + limitParameter : sql;
+        }
+
+        @Override
+        public void release(Connection connection) throws SQLException {
+            for (String schema : attachedHere) {
+                detach(connection, schema);
+            }
+            attachedHere.clear();
+        }
+
+        @Override
+        public boolean changesConnection() {
+            return true;
+        }
+    }
+
+    /**
+     * An archive database: its year, the first and last start time it holds and its number of activities.
+     */
+    public record Partition(int year, LocalDateTime firstStart, LocalDateTime lastStart, int activityCount) {
+
+        boolean overlaps(LocalDateTime from, LocalDateTime to) {
+            return (from == null || !lastStart.isBefore(from)) && (to == null || firstStart.isBefore(to));
+        }
+    }
+
+    /**
+     * Outcome of an archive run: the number of activities moved and the archive files written to.
+     */
+    public record Result(int activities, List<Path> files) {
+    }
+}
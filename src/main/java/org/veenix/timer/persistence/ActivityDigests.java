@@ -0,0 +1,170 @@
+package org.veenix.timer.persistence;
+
+import org.veenix.timer.model.Activity;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * SHA-256 digests of the activities of each day, stored in {@code activity_day_digest}. Triggers on the
+ * activity table clear the digest of every day a change touches, so only those days are read and hashed
+ * again; two databases with the same activities on a day have the same digest for it, whatever their ids.
+ * A day covers the main table and the archives, so archiving activities does not change its digest.
+ */
+public class ActivityDigests {
+
+    static final int DIGEST_BYTES = 32;
+
+    // Same start time, then the rest of the content, so the order does not depend on the ids
+    static final Comparator<Activity> CONTENT_ORDER = Comparator
+        .comparing(Activity::startTime)
+        .thenComparing(Activity::endTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+        .thenComparing(Activity::activityType)
+        .thenComparing(Activity::status)
+        .thenComparing(Activity::description, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final DatabaseConnection dbConnection;
+    private final ActivityArchive archive;
+    private boolean archivesCovered;
+
+    public ActivityDigests(DatabaseConnection dbConnection) {
+        this.dbConnection = dbConnection;
+        this.archive = new ActivityArchive(dbConnection);
+    }
+
+    /**
+     * Returns the digest of every day that has activities, after hashing the days changed since the last call.
+     */
+    public NavigableMap<LocalDate, byte[]> dayDigests() {
+        try {
+            refresh();
+            NavigableMap<LocalDate, byte[]> digests = new TreeMap<>();
+            try (ReadConnectionPool.Lease lease = dbConnection.getReadConnection();
+                 Statement stmt = lease.connection().createStatement();
+                 ResultSet rs = stmt.executeQuery(SqlQueries.SELECT_DAY_DIGESTS)) {
+                while (rs.next()) {
+                    digests.put(LocalDate.parse(rs.getString("day")), rs.getBytes("digest"));
+                }
+            }
+            return digests;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read day digests", e);
+        }
+    }
+
+    /**
+     * Returns the activities starting on the day, from the main table and the archives, in {@link #CONTENT_ORDER}.
+     */
+    public List<Activity> activitiesOn(LocalDate day) {
+        try {
+            List<Activity> activities = archive.rangeQuery("activitiesOfDay", SqlQueries.SELECT_ACTIVITIES_OF_DAY,
+                SqlQueries.PAGE_CONDITION, day.atStartOfDay(), day.plusDays(1).atStartOfDay(), false, 0, 0, stmt -> {
+                    stmt.setString(1, day.atStartOfDay().toString());
+                    stmt.setString(2, day.plusDays(1).atStartOfDay().toString());
+                });
+            activities.sort(CONTENT_ORDER);
+            return activities;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read activities of " + day, e);
+        }
+    }
+
+    /**
+     * Hashes the content of the activities of one day, which must be in {@link #CONTENT_ORDER}.
+     */
+    static byte[] digest(List<Activity> activities) {
+        MessageDigest digest = sha256();
+        for (Activity activity : activities) {
+            field(digest, activity.startTime());
+            field(digest, activity.endTime());
+            field(digest, activity.activityType().name());
+            field(digest, activity.status().name());
+            field(digest, activity.description());
+        }
+        return digest.digest();
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is not available", e);
+        }
+    }
+
+    // Computes the digests of the dirty days in one transaction; a day without activities is dropped
+    private void refresh() {
+        // Archives made before the digests existed have days without a row
+        Set<LocalDate> archivedDays = archivesCovered ? Set.of() : archive.archivedDays();
+        int hashed = dbConnection.inWriteTransaction("refreshDayDigests", () -> {
+            Connection connection = dbConnection.getConnection();
+            try (PreparedStatement add = connection.prepareStatement(SqlQueries.ADD_DAY_DIGEST);
+                 PreparedStatement update = connection.prepareStatement(SqlQueries.UPDATE_DAY_DIGEST);
+                 PreparedStatement delete = connection.prepareStatement(SqlQueries.DELETE_DAY_DIGEST)) {
+                for (LocalDate day : archivedDays) {
+                    add.setString(1, day.toString());
+                    add.executeUpdate();
+                }
+                List<String> dirty = new ArrayList<>();
+                try (Statement stmt = connection.createStatement();
+                     ResultSet rs = stmt.executeQuery(SqlQueries.SELECT_DIRTY_DAYS)) {
+                    while (rs.next()) {
+                        dirty.add(rs.getString("day"));
+                    }
+                }
+                for (String day : dirty) {
+                    List<Activity> activities = activitiesOn(LocalDate.parse(day));
+                    if (activities.isEmpty()) {
+                        delete.setString(1, day);
+                        delete.executeUpdate();
+                    } else {
+                        update.setBytes(1, digest(activities));
+                        update.setString(2, day);
+                        update.executeUpdate();
+                    }
+                }
+                return dirty.size();
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to refresh day digests", e);
+            }
+        });
+        archivesCovered = true;
+        dbConnection.getMetrics().counter("db.sync.days.hashed").add(hashed);
+    }
+
+    private static void field(MessageDigest digest, LocalDateTime value) {
+        field(digest, value != null ? value.toString() : null);
+    }
+
+    // Length-prefixed, so the boundary between two fields cannot move; -1 marks null
+    private static void field(MessageDigest digest, String value) {
+        if (value == null) {
+            length(digest, -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        length(digest, bytes.length);
+        digest.update(bytes);
+    }
+
+    private static void length(MessageDigest digest, int length) {
+        digest.update((byte) (length >>> 24));
+        digest.update((byte) (length >>> 16));
+        digest.update((byte) (length >>> 8));
+        digest.update((byte) length);
+    }
+}
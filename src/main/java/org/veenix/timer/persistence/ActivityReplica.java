@@ -0,0 +1,383 @@
+package org.veenix.timer.persistence;
+
+import org.veenix.timer.metrics.MetricsRegistry;
+import org.veenix.timer.metrics.Timer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A read-only copy of the database for reports, kept up to date by shipping committed changes from the
+ * primary, so reports do not compete with the timer commands for the locks of the primary.
+ * <p>
+ * The first {@link #ship()} turns the change log of the primary on and copies the whole database through the
+ * backup API. After that every change to an activity appends its id to the log, and a ship copies the changed
+ * activities as they are at that moment, with their ids, in one transaction on the replica; a change that was
+ * shipped twice lands the same way both times. The position of the replica is kept in both databases; when they
+ * no longer match, e.g. after the primary was restored from a snapshot, the replica is copied again.
+ * Archived years are not copied: the replica reads the archive files of the primary.
+ * One replica per primary: shipping prunes the change log.
+ */
+public class ActivityReplica implements Closeable {
+
+    static final int BATCH_SIZE = 1000;
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+    private static final String JDBC_PREFIX = "jdbc:sqlite:";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    private final DatabaseConnection primary;
+    private final Path file;
+    private final MetricsRegistry metrics;
+    private DatabaseConnection replica;
+
+    public ActivityReplica(DatabaseConnection primary, Path file) {
+        this.primary = primary;
+        this.file = file.toAbsolutePath();
+        this.metrics = primary.getMetrics();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Opens the replica for reading. Its archives are those of the primary.
+     *
+     * @throws IllegalStateException when there is no replica at the file yet
+     */
+    public static DatabaseConnection openReader(Path file, Path primaryFile) {
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalStateException("No replica at " + file);
+        }
+        DatabaseConnection reader = new DatabaseConnection(JDBC_PREFIX + file.toAbsolutePath());
+        reader.useArchivesOf(primaryFile);
+        return reader;
+    }
+
+    /**
+     * Brings the replica up to date with the changes committed to the primary so far, copying the whole
+     * database first when there is no replica yet or it cannot continue from its position.
+     */
+    public Result ship() {
+        long startNanos = System.nanoTime();
+        try (Timer.Sample ignored = metrics.timer("replica.ship").start()) {
+            Position primaryPosition = position(primary);
+            Position replicaPosition = Files.isRegularFile(file) ? position(replica()) : null;
+            boolean bootstrapped = false;
+            if (replicaPosition == null || !REPLICA.equals(replicaPosition.role()) || primaryPosition == null
+                    || !PRIMARY.equals(primaryPosition.role()) || primaryPosition.position() != replicaPosition.position()) {
+                if (replicaPosition != null && !REPLICA.equals(replicaPosition.role())) {
+                    throw new IllegalStateException(file + " is not a replica");
+                }
+                replicaPosition = bootstrap();
+                bootstrapped = true;
+            }
+
+            int changes = 0;
+            int activities = 0;
+            long oldestChange = Long.MAX_VALUE;
+            long position = replicaPosition.position();
+            while (true) {
+                Batch batch = readBatch(position);
+                if (batch.changes() == 0) {
+                    break;
+                }
+                apply(batch);
+                changes += batch.changes();
+                activities += batch.rows().size();
+                oldestChange = Math.min(oldestChange, batch.oldestChange());
+                position = batch.position();
+            }
+
+            Duration lag = Duration.ZERO;
+            if (changes > 0) {
+                lag = Duration.ofMillis(Math.max(0, System.currentTimeMillis() - oldestChange));
+                metrics.timer("replica.lag").record(lag.toNanos());
+                metrics.counter("replica.changes").add(changes);
+            }
+            return new Result(bootstrapped, changes, activities, position, lag,
+                Duration.ofNanos(System.nanoTime() - startNanos));
+        } catch (SQLException | IOException e) {
+            throw new RuntimeException("Failed to ship changes to replica " + file, e);
+        }
+    }
+
+    /**
+     * Returns how far the replica is behind the primary.
+     *
+     * @throws IllegalStateException when there is no replica at the file yet
+     */
+    public Lag lag() {
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalStateException("No replica at " + file);
+        }
+        try {
+            Position replicaPosition = position(replica());
+            if (replicaPosition == null || !REPLICA.equals(replicaPosition.role())) {
+                throw new IllegalStateException(file + " is not a replica");
+            }
+            Position primaryPosition = position(primary);
+            int pending = 0;
+            Duration behind = Duration.ZERO;
+            try (ReadConnectionPool.Lease lease = primary.getReadConnection();
+                 PreparedStatement stmt = lease.connection().prepareStatement(SqlQueries.SELECT_PENDING_CHANGES)) {
+                stmt.setLong(1, replicaPosition.position());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next() && rs.getInt("changes") > 0) {
+                        pending = rs.getInt("changes");
+                        behind = Duration.ofMillis(Math.max(0, System.currentTimeMillis() - rs.getLong("oldest")));
+                    }
+                }
+            }
+            boolean current = primaryPosition != null && PRIMARY.equals(primaryPosition.role())
+                && primaryPosition.position() == replicaPosition.position();
+            Instant lastShipped = replicaPosition.shippedAt() != null ? Instant.ofEpochMilli(replicaPosition.shippedAt()) : null;
+            return new Lag(replicaPosition.position(), pending, behind, lastShipped, current);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read replication lag of " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (replica != null) {
+            replica.close();
+            replica = null;
+        }
+    }
+
+    private synchronized DatabaseConnection replica() {
+        if (replica == null) {
+            replica = new DatabaseConnection(JDBC_PREFIX + file);
+            replica.useArchivesOf(primary.getDatabaseFile().orElseThrow(
+                () -> new IllegalStateException("An in-memory database cannot be replicated")));
+        }
+        return replica;
+    }
+
+    /**
+     * Turns the change log on and copies the primary. Changes committed while the copy is made are in the
+     * log as well as, possibly, in the copy; shipping them again does no harm.
+     */
+    private Position bootstrap() throws SQLException, IOException {
+        primary.inWriteTransaction("replica.start", () -> execute(primary.getConnection(), SqlQueries.START_REPLICATION));
+        Path snapshot = file.resolveSibling(file.getFileName() + SNAPSHOT_SUFFIX);
+        try {
+            new DatabaseBackup(primary).backup(snapshot, DatabaseBackup.DEFAULT_PAGES_PER_STEP, false);
+            // The last change in the snapshot is where the replica continues; its copy of the log is not needed
+            long position;
+            long shippedAt = System.currentTimeMillis();
+            try (Connection connection = DriverManager.getConnection(JDBC_PREFIX + snapshot)) {
+                position = lastChangeSeq(connection);
+                execute(connection, SqlQueries.PRUNE_CHANGE_LOG, position);
+                execute(connection, SqlQueries.REPLACE_REPLICATION, REPLICA, position, null, shippedAt);
+            }
+            // The restore API replaces the pages under any reader, which sees either the old or the new copy
+            new DatabaseBackup(replica()).restore(snapshot);
+            primary.inWriteTransaction("replica.bootstrap", () -> {
+                Connection writer = primary.getConnection();
+                execute(writer, SqlQueries.PRUNE_CHANGE_LOG, position);
+                return execute(writer, SqlQueries.REPLACE_REPLICATION, PRIMARY, position, null, shippedAt);
+            });
+            metrics.counter("replica.bootstrap").increment();
+            return new Position(REPLICA, position, shippedAt);
+        } finally {
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+    /**
+     * Reads the next changes after {@code position} and the activities they touched in one read transaction,
+     * so the rows are at least as new as the last change in the batch.
+     */
+    private Batch readBatch(long position) throws SQLException {
+        try (ReadConnectionPool.Lease lease = primary.getReadConnection()) {
+            Connection connection = lease.connection();
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                int changes = 0;
+                long last = position;
+                long oldest = Long.MAX_VALUE;
+                Map<Long, Row> rows = new LinkedHashMap<>();
+                try (PreparedStatement stmt = connection.prepareStatement(SqlQueries.SELECT_CHANGES_AFTER)) {
+                    stmt.setLong(1, position);
+                    stmt.setInt(2, BATCH_SIZE);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            changes++;
+                            last = rs.getLong("seq");
+                            oldest = Math.min(oldest, rs.getLong("changed_at"));
+                            rows.put(rs.getLong("activity_id"), null);
+                        }
+                    }
+                }
+                if (changes == 0) {
+                    return new Batch(0, position, oldest, List.of(), List.of());
+                }
+
+                try (PreparedStatement stmt = connection.prepareStatement(SqlQueries.SELECT_ACTIVITY_BY_ID)) {
+                    for (Map.Entry<Long, Row> entry : rows.entrySet()) {
+                        stmt.setLong(1, entry.getKey());
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            // A deleted activity stays without a row
+                            if (rs.next()) {
+                                entry.setValue(new Row(rs.getString("start_time"), rs.getString("end_time"),
+                                    rs.getString("activity_type"), rs.getString("status"), rs.getString("description")));
+                            }
+                        }
+                    }
+                }
+
+                List<Object[]> catalog = new ArrayList<>();
+                try (Statement stmt = connection.createStatement();
+                     ResultSet rs = stmt.executeQuery(SqlQueries.SELECT_ARCHIVE_CATALOG)) {
+                    while (rs.next()) {
+                        catalog.add(new Object[]{rs.getInt("year"), rs.getString("first_start"),
+                            rs.getString("last_start"), rs.getInt("activity_count")});
+                    }
+                }
+                connection.commit();
+                return new Batch(changes, last, oldest, new ArrayList<>(rows.entrySet()), catalog);
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    /**
+     * Applies a batch to the replica in one transaction, then records the new position on the primary and drops
+     * the shipped log entries. When the process stops in between, the positions differ and the next ship copies
+     * the database again.
+     */
+    private void apply(Batch batch) {
+        DatabaseConnection target = replica();
+        long shippedAt = System.currentTimeMillis();
+        target.inWriteTransaction("replica.apply", () -> {
+            Connection writer = target.getConnection();
+            int changed = 0;
+            for (Map.Entry<Long, Row> entry : batch.rows()) {
+                Row row = entry.getValue();
+                if (row == null) {
+                    changed += execute(writer, SqlQueries.DELETE_ACTIVITY, entry.getKey());
+                } else {
+                    Long descriptionId = descriptionId(writer, row.description());
+                    int updated = execute(writer, SqlQueries.UPDATE_ACTIVITY, row.startTime(), row.endTime(),
+                        row.activityType(), row.status(), descriptionId, entry.getKey());
+                    if (updated == 0) {
+                        updated = execute(writer, SqlQueries.INSERT_REPLICA_ACTIVITY, entry.getKey(), row.startTime(),
+                            row.endTime(), row.activityType(), row.status(), descriptionId);
+                    }
+                    changed += updated;
+                }
+            }
+            target.countChangedRows(changed);
+            execute(writer, SqlQueries.CLEAR_ARCHIVE_CATALOG);
+            for (Object[] partition : batch.catalog()) {
+                execute(writer, SqlQueries.INSERT_ARCHIVE_CATALOG, partition);
+            }
+            return execute(writer, SqlQueries.REPLACE_REPLICATION, REPLICA, batch.position(), batch.oldestChange(),
+                shippedAt);
+        });
+        primary.inWriteTransaction("replica.ship", () -> {
+            Connection writer = primary.getConnection();
+            execute(writer, SqlQueries.PRUNE_CHANGE_LOG, batch.position());
+            return execute(writer, SqlQueries.REPLACE_REPLICATION, PRIMARY, batch.position(), batch.oldestChange(),
+                shippedAt);
+        });
+    }
+
+    private static Long descriptionId(Connection connection, String description) {
+        if (description == null) {
+            return null;
+        }
+        execute(connection, SqlQueries.INSERT_DESCRIPTION, description);
+        try (PreparedStatement stmt = connection.prepareStatement(SqlQueries.SELECT_DESCRIPTION_ID)) {
+            stmt.setString(1, description);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getLong("id");
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to resolve description on replica", e);
+        }
+    }
+
+    private static Position position(DatabaseConnection dbConnection) throws SQLException {
+        try (ReadConnectionPool.Lease lease = dbConnection.getReadConnection();
+             Statement stmt = lease.connection().createStatement();
+             ResultSet rs = stmt.executeQuery(SqlQueries.SELECT_REPLICATION)) {
+            if (!rs.next()) {
+                return null;
+            }
+            long shippedAt = rs.getLong("shipped_at");
+            return new Position(rs.getString("role"), rs.getLong("position"), rs.wasNull() ? null : shippedAt);
+        }
+    }
+
+    private static long lastChangeSeq(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(SqlQueries.SELECT_LAST_CHANGE_SEQ)) {
+            return rs.next() ? rs.getLong("seq") : 0;
+        }
+    }
+
+    private static int execute(Connection connection, String sql, Object... parameters) {
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                if (parameters[i] == null) {
+                    stmt.setNull(i + 1, Types.NULL);
+                } else {
+                    stmt.setObject(i + 1, parameters[i]);
+                }
+            }
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to execute replication statement", e);
+        }
+    }
+
+    private record Position(String role, long position, Long shippedAt) {
+    }
+
+    private record Row(String startTime, String endTime, String activityType, String status, String description) {
+    }
+
+    // Rows holds every changed id in log order, with a null row for a deleted activity
+    private record Batch(int changes, long position, long oldestChange, List<Map.Entry<Long, Row>> rows,
+                         List<Object[]> catalog) {
+    }
+
+    /**
+     * Outcome of a ship: whether the database was copied in full, the number of log entries shipped and
+     * of activities they touched, the new position and how long the oldest shipped change waited.
+     */
+    public record Result(boolean bootstrapped, int changes, int activities, long position, Duration lag,
+                         Duration duration) {
+    }
+
+    /**
+     * How far the replica is behind: its position, the changes committed to the primary since, how long ago
+     * the oldest of them was made and when the replica last received changes. {@code current} is false when
+     * the next ship has to copy the database again.
+     */
+    public record Lag(long position, int pendingChanges, Duration behind, Instant lastShipped, boolean current) {
+    }
+}
@@ -7,6 +7,7 @@ import org.veenix.timer.model.ActivityType;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 public interface ActivityRepository {
 
@@ -28,5 +29,25 @@ public interface ActivityRepository {
 
     List<Activity> findByDateRange(LocalDateTime from, LocalDateTime to);
 
+    /**
+     * Returns up to {@code limit} activities in (start_time, id) order that start in [from, to)
+     * and come after {@code after}. A null bound or cursor means unbounded.
+     */
+    List<Activity> findPageAfter(LocalDateTime from, LocalDateTime to, PageCursor after, int limit);
+
+    /**
+     * Returns the up to {@code limit} activities that directly precede {@code before} in
+     * (start_time, id) order and start in [from, to), in ascending order.
+     */
+    List<Activity> findPageBefore(LocalDateTime from, LocalDateTime to, PageCursor before, int limit);
+
     void updateStatusByStatus(ActivityStatus currentStatus, ActivityStatus newStatus, LocalDateTime endTime);
+
+    /**
+     * Runs a read-modify-write sequence as one transaction that holds the write lock from its first read,
+     * so another process cannot change the data in between. The default runs the work without a transaction.
+     */
+    default <T> T inWriteTransaction(String operation, Supplier<T> work) {
+        return work.get();
+    }
 }
@@ -6,45 +6,45 @@ import org.veenix.timer.model.ActivityType;
 
 import java.sql.*;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 public class ActivityRepositoryImpl implements ActivityRepository {
 
     private final DatabaseConnection dbConnection;
+    private final DescriptionCache descriptionCache;
+    private final ActivityRowMapper rowMapper;
+    private final SqlExecutor sqlExecutor;
+    private final ActivityArchive archive;
 
     public ActivityRepositoryImpl(DatabaseConnection dbConnection) {
         this.dbConnection = dbConnection;
+        this.descriptionCache = dbConnection.getDescriptionCache();
+        this.rowMapper = new ActivityRowMapper(descriptionCache);
+        this.sqlExecutor = new SqlExecutor(dbConnection);
+        this.archive = new ActivityArchive(dbConnection);
     }
 
     @Override
     public Activity save(Activity activity) {
-        try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(
-                SqlQueries.INSERT_ACTIVITY, Statement.RETURN_GENERATED_KEYS)) {
-
-            setActivityParameters(stmt, activity);
-
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows == 0) {
-                throw new SQLException("Creating activity failed, no rows affected.");
+        try {
+            Long descriptionId = resolveDescriptionId(activity.description());
+            Long id = sqlExecutor.insert("save", SqlQueries.INSERT_ACTIVITY,
+                stmt -> setActivityParameters(stmt, activity, descriptionId));
+            if (id == null) {
+                throw new SQLException("Creating activity failed, no ID obtained.");
             }
 
-            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    long id = generatedKeys.getLong(1);
-                    return Activity.builder()
-                            .id(id)
-                            .startTime(activity.startTime())
-                            .endTime(activity.endTime())
-                            .activityType(activity.activityType())
-                            .status(activity.status())
-                            .description(activity.description())
-                            .build();
-                } else {
-                    throw new SQLException("Creating activity failed, no ID obtained.");
-                }
-            }
+            return Activity.builder()
+                    .id(id)
+                    .startTime(activity.startTime())
+                    .endTime(activity.endTime())
+                    .activityType(activity.activityType())
+                    .status(activity.status())
+                    .description(activity.description())
+                    .build();
         } catch (SQLException e) {
             throw new RuntimeException("Failed to save activity", e);
         }
@@ -56,13 +56,12 @@ public class ActivityRepositoryImpl implements ActivityRepository {
             throw new IllegalArgumentException("Activity ID cannot be null for update");
         }
 
-        try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(
-                SqlQueries.UPDATE_ACTIVITY)) {
-
-            setActivityParameters(stmt, activity);
-            stmt.setLong(6, activity.id());
-
-            int affectedRows = stmt.executeUpdate();
+        try {
+            Long descriptionId = resolveDescriptionId(activity.description());
+            int affectedRows = sqlExecutor.update("update", SqlQueries.UPDATE_ACTIVITY, stmt -> {
+                setActivityParameters(stmt, activity, descriptionId);
+                stmt.setLong(6, activity.id());
+            });
             if (affectedRows == 0) {
                 throw new SQLException("Updating activity failed, no rows affected.");
             }
@@ -75,11 +74,8 @@ public class ActivityRepositoryImpl implements ActivityRepository {
 
     @Override
     public void delete(Long id) {
-        try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(
-                SqlQueries.DELETE_ACTIVITY)) {
-
-            stmt.setLong(1, id);
-            stmt.executeUpdate();
+        try {
+            sqlExecutor.update("delete", SqlQueries.DELETE_ACTIVITY, stmt -> stmt.setLong(1, id));
         } catch (SQLException e) {
             throw new RuntimeException("Failed to delete activity", e);
         }
@@ -87,155 +83,187 @@ public class ActivityRepositoryImpl implements ActivityRepository {
 
     @Override
     public Optional<Activity> findById(Long id) {
-        try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(
-                SqlQueries.SELECT_ACTIVITY_BY_ID)) {
-
-            stmt.setLong(1, id);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapResultSetToActivity(rs));
-                }
-            }
+        try {
+            return sqlExecutor.query("findById", SqlQueries.SELECT_ACTIVITY_BY_ID,
+                stmt -> stmt.setLong(1, id), rowMapper::map).stream().findFirst();
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find activity by id", e);
         }
-        return Optional.empty();
     }
 
     @Override
     public List<Activity> findAll() {
-        List<Activity> activities = new ArrayList<>();
-
-        try (Statement stmt = dbConnection.getConnection().createStatement();
-             ResultSet rs = stmt.executeQuery(SqlQueries.SELECT_ALL_ACTIVITIES)) {
-
-            while (rs.next()) {
-                activities.add(mapResultSetToActivity(rs));
-            }
+        try {
+            return archive.rangeQuery("findAll", SqlQueries.SELECT_ALL_ACTIVITIES, SqlQueries.ALL_CONDITION,
+                null, null, false, 0, 0, stmt -> { });
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find all activities", e);
         }
-
-        return activities;
     }
 
     @Override
     public List<Activity> findByStatus(ActivityStatus status) {
-        List<Activity> activities = new ArrayList<>();
-
-        try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(
-                SqlQueries.SELECT_ACTIVITIES_BY_STATUS)) {
-
-            stmt.setString(1, status.name());
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    activities.add(mapResultSetToActivity(rs));
-                }
-            }
+        try {
+            return sqlExecutor.query("findByStatus", SqlQueries.SELECT_ACTIVITIES_BY_STATUS,
+                stmt -> stmt.setString(1, status.name()), rowMapper::map);
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find activities by status", e);
         }
-
-        return activities;
     }
 
     @Override
     public List<Activity> findByType(ActivityType type) {
-        List<Activity> activities = new ArrayList<>();
-
-        try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(
-                SqlQueries.SELECT_ACTIVITIES_BY_TYPE)) {
-
-            stmt.setString(1, type.name());
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    activities.add(mapResultSetToActivity(rs));
-                }
-            }
+        try {
+            return sqlExecutor.query("findByType", SqlQueries.SELECT_ACTIVITIES_BY_TYPE,
+                stmt -> stmt.setString(1, type.name()), rowMapper::map);
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find activities by type", e);
         }
-
-        return activities;
     }
 
     @Override
     public List<Activity> findByStartTime(LocalDateTime startTime) {
-        List<Activity> activities = new ArrayList<>();
-
-        try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(
-                SqlQueries.SELECT_ACTIVITIES_BY_START_TIME)) {
-
-            stmt.setString(1, startTime.toString());
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    activities.add(mapResultSetToActivity(rs));
-                }
-            }
+        try {
+            LocalDateTime day = startTime.toLocalDate().atStartOfDay();
+            return archive.rangeQuery("findByStartTime", SqlQueries.SELECT_ACTIVITIES_BY_START_TIME,
+                SqlQueries.START_DATE_CONDITION, day, day.plusDays(1), false, 0, 0,
+                stmt -> stmt.setString(1, startTime.toString()));
         } catch (SQLException e) {
             throw new RuntimeException("Failed to find activities by start time", e);
         }
-
-        return activities;
     }
 
     @Override
     public List<Activity> findByDateRange(LocalDateTime from, LocalDateTime to) {
-        List<Activity> activities = new ArrayList<>();
+        try {
+            // The query compares whole days, so the range runs from the start of the first day to the end of the last
+            LocalDateTime first = from.toLocalDate().atStartOfDay();
+            LocalDateTime last = to.toLocalDate().plusDays(1).atStartOfDay();
+            return archive.rangeQuery("findByDateRange", SqlQueries.SELECT_ACTIVITIES_BY_DATE_RANGE,
+                SqlQueries.DATE_RANGE_CONDITION, first, last, false, 0, 0, stmt -> {
+                    stmt.setString(1, from.toString());
+                    stmt.setString(2, to.toString());
+                });
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find activities by date range", e);
+        }
+    }
 
-        try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(
-                SqlQueries.SELECT_ACTIVITIES_BY_DATE_RANGE)) {
+    @Override
+    public List<Activity> findPageAfter(LocalDateTime from, LocalDateTime to, PageCursor after, int limit) {
+        if (after == null) {
+            return findPage("findPageAfter", SqlQueries.SELECT_ACTIVITIES_PAGE_FIRST, SqlQueries.PAGE_CONDITION,
+                false, from, to, null, limit);
+        }
+        return findPage("findPageAfter", SqlQueries.SELECT_ACTIVITIES_PAGE_AFTER, SqlQueries.PAGE_AFTER_CONDITION,
+            false, from, to, after, limit);
+    }
 
-            stmt.setString(1, from.toString());
-            stmt.setString(2, to.toString());
+    @Override
+    public List<Activity> findPageBefore(LocalDateTime from, LocalDateTime to, PageCursor before, int limit) {
+        if (before == null) {
+            throw new IllegalArgumentException("Cursor cannot be null when paging backwards");
+        }
+        List<Activity> activities = findPage("findPageBefore", SqlQueries.SELECT_ACTIVITIES_PAGE_BEFORE,
+            SqlQueries.PAGE_BEFORE_CONDITION, true, from, to, before, limit);
+        // Query walks the index backwards; callers expect chronological order
+        Collections.reverse(activities);
+        return activities;
+    }
 
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    activities.add(mapResultSetToActivity(rs));
+    private List<Activity> findPage(String operation, String sql, String condition, boolean descending,
+                                    LocalDateTime from, LocalDateTime to, PageCursor cursor, int limit) {
+        int limitParameter = cursor != null ? 5 : 3;
+        try {
+            return archive.rangeQuery(operation, sql, condition, from, to, descending, limitParameter, limit, stmt -> {
+                int index = 1;
+                // Bounds are compared as ISO-8601 strings; "" and "~" sort before and after every timestamp
+                stmt.setString(index++, from != null ? from.toString() : "");
+                stmt.setString(index++, to != null ? to.toString() : "~");
+                if (cursor != null) {
+                    stmt.setString(index++, cursor.startTime().toString());
+                    stmt.setLong(index++, cursor.id());
                 }
-            }
+                stmt.setInt(index, limit);
+            });
         } catch (SQLException e) {
-            throw new RuntimeException("Failed to find activities by date range", e);
+            throw new RuntimeException("Failed to find page of activities", e);
         }
-
-        return activities;
     }
 
     @Override
     public void updateStatusByStatus(ActivityStatus currentStatus, ActivityStatus newStatus, LocalDateTime endTime) {
-        try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(
-                SqlQueries.UPDATE_ACTIVITIES_STATUS_BY_STATUS)) {
-
-            stmt.setString(1, newStatus.name());
-            stmt.setString(2, endTime != null ? endTime.toString() : null);
-            stmt.setString(3, currentStatus.name());
-
-            stmt.executeUpdate();
+        try {
+            sqlExecutor.update("updateStatusByStatus", SqlQueries.UPDATE_ACTIVITIES_STATUS_BY_STATUS, stmt -> {
+                stmt.setString(1, newStatus.name());
+                stmt.setString(2, endTime != null ? endTime.toString() : null);
+                stmt.setString(3, currentStatus.name());
+            });
         } catch (SQLException e) {
             throw new RuntimeException("Failed to update activities status", e);
         }
     }
 
-    private void setActivityParameters(PreparedStatement stmt, Activity activity) throws SQLException {
+    @Override
+    public <T> T inWriteTransaction(String operation, Supplier<T> work) {
+        return dbConnection.inWriteTransaction(operation, work);
+    }
+
+    private void setActivityParameters(PreparedStatement stmt, Activity activity, Long descriptionId) throws SQLException {
         stmt.setString(1, activity.startTime() != null ? activity.startTime().toString() : null);
         stmt.setString(2, activity.endTime() != null ? activity.endTime().toString() : null);
         stmt.setString(3, activity.activityType() != null ? activity.activityType().name() : null);
         stmt.setString(4, activity.status() != null ? activity.status().name() : null);
-        stmt.setString(5, activity.description());
-    }
-
-    private Activity mapResultSetToActivity(ResultSet rs) throws SQLException {
-        return Activity.builder()
-                .id(rs.getLong("id"))
-                .startTime(rs.getString("start_time") != null ? LocalDateTime.parse(rs.getString("start_time")) : null)
-                .endTime(rs.getString("end_time") != null ? LocalDateTime.parse(rs.getString("end_time")) : null)
-                .activityType(rs.getString("activity_type") != null ? ActivityType.valueOf(rs.getString("activity_type")) : null)
-                .status(rs.getString("status") != null ? ActivityStatus.valueOf(rs.getString("status")) : null)
-                .description(rs.getString("description"))
-                .build();
+        if (descriptionId != null) {
+            stmt.setLong(5, descriptionId);
+        } else {
+            stmt.setNull(5, Types.INTEGER);
+        }
+    }
+
+    /**
+     * Returns the dictionary id for a description, adding it to the dictionary when it is new.
+     */
+    private Long resolveDescriptionId(String description) throws SQLException {
+        if (description == null) {
+            return null;
+        }
+
+        Long cachedId = descriptionCache.id(description);
+        if (cachedId != null) {
+            dbConnection.getMetrics().counter("description.cache.hit").increment();
+            return cachedId;
+        }
+        dbConnection.getMetrics().counter("description.cache.miss").increment();
+
+        Long id = dbConnection.write("resolveDescription", () -> {
+            Connection connection = dbConnection.getConnection();
+            Long existingId = selectDescriptionId(connection, description);
+            if (existingId != null) {
+                return existingId;
+            }
+            // OR IGNORE: another process may have added the same description in the meantime
+            try (PreparedStatement stmt = connection.prepareStatement(SqlQueries.INSERT_DESCRIPTION)) {
+                stmt.setString(1, description);
+                stmt.executeUpdate();
+            }
+            Long insertedId = selectDescriptionId(connection, description);
+            if (insertedId == null) {
+                throw new SQLException("Storing description failed, no ID obtained.");
+            }
+            return insertedId;
+        });
+
+        descriptionCache.intern(id, description);
+        return id;
+    }
+
+    private Long selectDescriptionId(Connection connection, String description) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(SqlQueries.SELECT_DESCRIPTION_ID)) {
+            stmt.setString(1, description);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : null;
+            }
+        }
     }
 }
@@ -0,0 +1,47 @@
+package org.veenix.timer.persistence;
+
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Maps a row of the standard activity column list to an {@link Activity}, sharing description
+ * Strings through the {@link DescriptionCache}.
+ */
+class ActivityRowMapper {
+
+    private final DescriptionCache descriptionCache;
+
+    ActivityRowMapper(DescriptionCache descriptionCache) {
+        this.descriptionCache = descriptionCache;
+    }
+
+    Activity map(ResultSet rs) throws SQLException {
+        return Activity.builder()
+                .id(rs.getLong("id"))
+                .startTime(rs.getString("start_time") != null ? LocalDateTime.parse(rs.getString("start_time")) : null)
+                .endTime(rs.getString("end_time") != null ? LocalDateTime.parse(rs.getString("end_time")) : null)
+                .activityType(rs.getString("activity_type") != null ? ActivityType.valueOf(rs.getString("activity_type")) : null)
+                .status(rs.getString("status") != null ? ActivityStatus.valueOf(rs.getString("status")) : null)
+                .description(mapDescription(rs))
+                .build();
+    }
+
+    private String mapDescription(ResultSet rs) throws SQLException {
+        long descriptionId = rs.getLong("description_id");
+        if (rs.wasNull()) {
+            return null;
+        }
+        // Only materialize the text for descriptions this process has not seen yet
+        String description = descriptionCache.text(descriptionId);
+        if (description == null) {
+            String text = rs.getString("description");
+            description = text != null ? descriptionCache.intern(descriptionId, text) : null;
+        }
+        return description;
+    }
+}
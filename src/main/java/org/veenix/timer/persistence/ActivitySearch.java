@@ -0,0 +1,90 @@
+package org.veenix.timer.persistence;
+
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityType;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Full-text search over activity descriptions backed by the FTS5 {@code activity_description_fts} table.
+ */
+public class ActivitySearch {
+
+    private final ActivityRowMapper rowMapper;
+    private final SqlExecutor sqlExecutor;
+
+    public ActivitySearch(DatabaseConnection dbConnection) {
+        this.rowMapper = new ActivityRowMapper(dbConnection.getDescriptionCache());
+        this.sqlExecutor = new SqlExecutor(dbConnection);
+    }
+
+    /**
+     * Returns activities matching all search terms, best match first.
+     * Each whitespace separated term is matched as a phrase, so input such as {@code PROJ-1234}
+     * does not need to be escaped by the caller.
+     */
+    public List<Hit> search(String terms, Filter filter) {
+        return searchMatch(toMatchExpression(terms), filter);
+    }
+
+    /**
+     * Same as {@link #search(String, Filter)} but passes the expression to FTS5 unchanged,
+     * allowing operators such as OR, NOT, NEAR and prefix queries.
+     */
+    public List<Hit> searchMatch(String matchExpression, Filter filter) {
+        try {
+            return sqlExecutor.query("search", SqlQueries.SEARCH_ACTIVITIES, stmt -> {
+                stmt.setString(1, matchExpression);
+                stmt.setString(2, filter.highlightStart());
+                stmt.setString(3, filter.highlightEnd());
+                stmt.setString(4, filter.from() != null ? filter.from().toString() : null);
+                stmt.setString(5, filter.to() != null ? filter.to().toString() : null);
+                stmt.setString(6, filter.type() != null ? filter.type().name() : null);
+                stmt.setInt(7, filter.limit());
+            }, rs -> new Hit(rowMapper.map(rs), rs.getString("snippet"), rs.getDouble("rank")));
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to search activities", e);
+        }
+    }
+
+    /**
+     * Substring scan without the full-text index. Kept as the baseline for benchmarks.
+     */
+    public List<Activity> searchLike(String text) {
+        String escaped = text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        try {
+            return sqlExecutor.query("searchLike", SqlQueries.SEARCH_ACTIVITIES_LIKE,
+                stmt -> stmt.setString(1, "%" + escaped + "%"), rowMapper::map);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to search activities", e);
+        }
+    }
+
+    // Package-private for testing
+    static String toMatchExpression(String terms) {
+        StringBuilder expression = new StringBuilder();
+        for (String term : terms.trim().split("\\s+")) {
+            if (term.isEmpty()) {
+                continue;
+            }
+            if (!expression.isEmpty()) {
+                expression.append(' ');
+            }
+            expression.append('"').append(term.replace("\"", "\"\"")).append('"');
+        }
+        return expression.toString();
+    }
+
+    public record Hit(Activity activity, String snippet, double rank) {
+    }
+
+    public record Filter(LocalDate from, LocalDate to, ActivityType type, int limit,
+                         String highlightStart, String highlightEnd) {
+
+        public static Filter none() {
+            return new Filter(null, null, null, 50, "[", "]");
+        }
+    }
+}
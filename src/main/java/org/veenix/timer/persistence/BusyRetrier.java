@@ -0,0 +1,92 @@
+package org.veenix.timer.persistence;
+
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.SQLiteException;
+import org.veenix.timer.metrics.Counter;
+import org.veenix.timer.metrics.MetricsRegistry;
+import org.veenix.timer.metrics.Timer;
+
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Re-runs a unit of database work when it fails because another connection holds the lock.
+ * The work is run again from the start, so it must not have side effects outside the database that
+ * survive a rollback.
+ * {@code db.busy.retries} counts retries, {@code db.busy.exhausted} operations that gave up, and
+ * {@code db.busy.wait} the time from the first busy failure until the operation finished either way.
+ */
+class BusyRetrier {
+
+    @FunctionalInterface
+    interface Work<T> {
+        T run() throws SQLException;
+    }
+
+    private final MetricsRegistry metrics;
+    private final Counter retries;
+    private final Counter exhausted;
+    private final Timer waits;
+
+    BusyRetrier(MetricsRegistry metrics) {
+        this.metrics = metrics;
+        this.retries = metrics.counter("db.busy.retries");
+        this.exhausted = metrics.counter("db.busy.exhausted");
+        this.waits = metrics.timer("db.busy.wait");
+    }
+
+    <T> T execute(String operation, RetryPolicy policy, Work<T> work) throws SQLException {
+        long firstFailureNanos = 0;
+        for (int retry = 0; ; retry++) {
+            try {
+                T result = work.run();
+                if (retry > 0) {
+                    waits.record(System.nanoTime() - firstFailureNanos);
+                }
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                if (!isBusy(e)) {
+                    throw e;
+                }
+                if (retry == 0) {
+                    firstFailureNanos = System.nanoTime();
+                }
+                if (retry >= policy.maxRetries()) {
+                    exhausted.increment();
+                    waits.record(System.nanoTime() - firstFailureNanos);
+                    throw new SQLException("Database is busy, " + operation + " gave up after "
+                        + (retry + 1) + " attempts", e);
+                }
+                retries.increment();
+                metrics.counter("db.busy.retries." + operation).increment();
+                sleep(policy.backoff(retry + 1), e);
+            }
+        }
+    }
+
+    /**
+     * Returns true if SQLite reported SQLITE_BUSY or SQLITE_LOCKED anywhere in the cause chain.
+     */
+    static boolean isBusy(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLiteException sqliteException) {
+                int primaryCode = sqliteException.getResultCode().code & 0xff;
+                if (primaryCode == SQLiteErrorCode.SQLITE_BUSY.code || primaryCode == SQLiteErrorCode.SQLITE_LOCKED.code) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void sleep(Duration delay, Exception cause) throws SQLException {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            SQLException interrupted = new SQLException("Interrupted while waiting for the database lock", e);
+            interrupted.addSuppressed(cause);
+            throw interrupted;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package org.veenix.timer.persistence;
+
+import org.sqlite.SQLiteConfig;
+import org.veenix.timer.metrics.Counter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tells a long-running reader whether the database changed since it last looked, without re-running its queries.
+ * A poll first compares the size and modification time of the database and WAL files, which costs two stat
+ * calls. Only when those moved does it ask SQLite for {@code PRAGMA data_version} on a dedicated read-only
+ * connection; that value changes when another connection commits, so a write transaction that is still
+ * open is not reported until it commits.
+ */
+public class DataChangeMonitor implements AutoCloseable {
+
+    private final DatabaseConnection dbConnection;
+    private final Path databaseFile;
+    private final Path walFile;
+    private final Counter polls;
+    private final Counter changes;
+    private Connection connection;
+    private FileStamp lastStamp;
+    private FileStamp pendingStamp;
+    private long lastVersion = -1;
+
+    public DataChangeMonitor(DatabaseConnection dbConnection) {
+        this.dbConnection = dbConnection;
+        this.databaseFile = dbConnection.getDatabaseFile().orElse(null);
+        this.walFile = databaseFile != null ? Path.of(databaseFile + "-wal") : null;
+        this.polls = dbConnection.getMetrics().counter("db.change.poll");
+        this.changes = dbConnection.getMetrics().counter("db.change.detected");
+    }
+
+    /**
+     * Returns true if the data changed since the previous poll. The first poll always returns true.
+     */
+    public synchronized boolean poll() {
+        polls.increment();
+        FileStamp stamp = null;
+        if (databaseFile != null) {
+            stamp = FileStamp.of(databaseFile, walFile);
+            if (stamp.equals(lastStamp)) {
+                return false;
+            }
+        }
+
+        long version = readVersion();
+        if (version != lastVersion) {
+            lastVersion = version;
+            lastStamp = stamp;
+            changes.increment();
+            return true;
+        }
+        // A writer appends to the WAL before it publishes the commit in the shared-memory index, so a
+        // version read right after the WAL moved can still be the old one. The files are only trusted as
+        // unchanged once a second poll sees the same stamp and still the same version.
+        if (stamp != null && stamp.equals(pendingStamp)) {
+            lastStamp = stamp;
+        }
+        pendingStamp = stamp;
+        return false;
+    }
+
+    private long readVersion() {
+        try (Statement stmt = versionConnection().createStatement()) {
+            // An in-memory database has a single connection, which does not see its own commits in
+            // data_version, so it counts its own changes instead
+            String sql = databaseFile != null ? SqlQueries.GET_DATA_VERSION : SqlQueries.GET_TOTAL_CHANGES;
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read database version", e);
+        }
+    }
+
+    private Connection versionConnection() throws SQLException {
+        // The writer creates the database file and the schema before the monitor opens it
+        Connection writer = dbConnection.getConnection();
+        if (databaseFile == null) {
+            return writer;
+        }
+        if (connection == null || connection.isClosed()) {
+            SQLiteConfig config = new SQLiteConfig();
+            config.setReadOnly(true);
+            connection = config.createConnection(dbConnection.getUrl());
+        }
+        return connection;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            if (connection != null && !connection.isClosed()) {
+                connection.close();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to close change monitor connection", e);
+        }
+    }
+
+    private record FileStamp(long databaseModified, long databaseSize, long walModified, long walSize) {
+
+        static FileStamp of(Path databaseFile, Path walFile) {
+            long[] database = attributes(databaseFile);
+            long[] wal = attributes(walFile);
+            return new FileStamp(database[0], database[1], wal[0], wal[1]);
+        }
+
+        private static long[] attributes(Path file) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                return new long[]{attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS), attributes.size()};
+            } catch (NoSuchFileException e) {
+                return new long[]{-1, -1};
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read attributes of " + file, e);
+            }
+        }
+    }
+}
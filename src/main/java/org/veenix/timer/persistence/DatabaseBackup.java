@@ -0,0 +1,287 @@
+package org.veenix.timer.persistence;
+
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.core.DB;
+import org.veenix.timer.metrics.Timer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Online snapshots of the database through the SQLite backup API.
+ * The copy is made a few pages at a time; SQLite only holds the read lock on the source while a step runs,
+ * so writers in other processes are not blocked for the length of the whole copy. A step that finds the
+ * database locked sleeps and tries again. When the source changes between steps SQLite restarts the copy,
+ * so the snapshot is always consistent.
+ */
+public class DatabaseBackup {
+
+    public static final String SNAPSHOT_PREFIX = "timer-";
+    public static final String SNAPSHOT_SUFFIX = ".db";
+    public static final String COMPRESSED_SUFFIX = ".gz";
+    public static final int DEFAULT_PAGES_PER_STEP = 64;
+
+    private static final DateTimeFormatter SNAPSHOT_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final int BUSY_SLEEP_MILLIS = 100;
+    private static final int BUSY_ATTEMPTS = 50;
+
+    private final DatabaseConnection dbConnection;
+
+    public DatabaseBackup(DatabaseConnection dbConnection) {
+        this.dbConnection = dbConnection;
+    }
+
+    /**
+     * Copies the database to {@code target}, gzip-compressed when {@code compress} is set. The target only
+     * appears once it is complete.
+     */
+    public Result backup(Path target, int pagesPerStep, boolean compress) {
+        if (pagesPerStep <= 0) {
+            throw new IllegalArgumentException("Pages per step must be greater than 0");
+        }
+        long startNanos = System.nanoTime();
+        Path absoluteTarget = target.toAbsolutePath();
+        Path copy = absoluteTarget.resolveSibling(absoluteTarget.getFileName() + ".tmp");
+        Progress progress = new Progress();
+
+        try (Timer.Sample ignored = dbConnection.getMetrics().timer("db.backup").start();
+             ReadConnectionPool.Lease lease = dbConnection.getReadConnection()) {
+            Files.createDirectories(absoluteTarget.getParent());
+            Files.deleteIfExists(copy);
+            DB source = lease.connection().unwrap(SQLiteConnection.class).getDatabase();
+            int rc = source.backup("main", copy.toString(), progress, BUSY_SLEEP_MILLIS, BUSY_ATTEMPTS, pagesPerStep);
+            if (rc != 0) {
+                throw new SQLException("Backup failed with SQLite result code " + rc);
+            }
+            disableWal(copy);
+
+            if (compress) {
+                Path compressed = absoluteTarget.resolveSibling(absoluteTarget.getFileName() + ".gz.tmp");
+                gzip(copy, compressed);
+                Files.delete(copy);
+                copy = compressed;
+            }
+            move(copy, absoluteTarget);
+            return new Result(absoluteTarget, progress.total, Files.size(absoluteTarget),
+                Duration.ofNanos(System.nanoTime() - startNanos));
+        } catch (SQLException | IOException e) {
+            deleteQuietly(copy);
+            throw new RuntimeException("Failed to back up database to " + target, e);
+        }
+    }
+
+    /**
+     * Returns the default snapshot file in {@code directory} for a backup taken now. When a snapshot with
+     * this second's timestamp already exists the next free second is used, so two backups in quick
+     * succession never overwrite each other and the names still sort chronologically.
+     */
+    public static Path snapshotPath(Path directory, boolean compress) {
+        LocalDateTime timestamp = LocalDateTime.now();
+        while (true) {
+            String name = SNAPSHOT_PREFIX + timestamp.format(SNAPSHOT_TIMESTAMP) + SNAPSHOT_SUFFIX;
+            if (!Files.exists(directory.resolve(name)) && !Files.exists(directory.resolve(name + COMPRESSED_SUFFIX))) {
+                return directory.resolve(compress ? name + COMPRESSED_SUFFIX : name);
+            }
+            timestamp = timestamp.plusSeconds(1);
+        }
+    }
+
+    /**
+     * Deletes the oldest snapshots in {@code directory} so that at most {@code keep} remain, and returns
+     * the deleted files. Only files named like {@link #snapshotPath} are considered; their timestamped
+     * names sort chronologically.
+     */
+    public static List<Path> rotate(Path directory, int keep) {
+        if (keep <= 0) {
+            throw new IllegalArgumentException("Number of snapshots to keep must be greater than 0");
+        }
+        List<Path> snapshots = listSnapshots(directory);
+        List<Path> deleted = new ArrayList<>();
+        for (int i = 0; i < snapshots.size() - keep; i++) {
+            try {
+                Files.delete(snapshots.get(i));
+                deleted.add(snapshots.get(i));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to delete old snapshot " + snapshots.get(i), e);
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Returns the snapshots in {@code directory}, oldest first.
+     */
+    public static List<Path> listSnapshots(Path directory) {
+        List<Path> snapshots = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return snapshots;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SNAPSHOT_PREFIX + "*")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(SNAPSHOT_SUFFIX) || name.endsWith(SNAPSHOT_SUFFIX + COMPRESSED_SUFFIX)) {
+                    snapshots.add(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to list snapshots in " + directory, e);
+        }
+        snapshots.sort(Comparator.comparing(file -> file.getFileName().toString()));
+        return snapshots;
+    }
+
+    /**
+     * Replaces the contents of the database with a snapshot. The snapshot is decompressed if needed and must
+     * pass {@code PRAGMA integrity_check} and have a schema this version understands before anything changes;
+     * the live database is then overwritten through the SQLite restore API on the writer connection, so
+     * other processes see either the old or the new data and the WAL stays consistent. Older snapshots are
+     * migrated to the current schema afterwards.
+     */
+    public Result restore(Path snapshot) {
+        return restore(snapshot, () -> { });
+    }
+
+    /**
+     * Like {@link #restore(Path)}, but runs {@code beforeReplacing} once the snapshot has been verified and
+     * just before the live database is overwritten. A snapshot that is rejected never reaches it.
+     */
+    public Result restore(Path snapshot, Runnable beforeReplacing) {
+        long startNanos = System.nanoTime();
+        if (!Files.isRegularFile(snapshot)) {
+            throw new IllegalArgumentException("Snapshot " + snapshot + " does not exist");
+        }
+        Path absoluteSnapshot = snapshot.toAbsolutePath();
+        boolean compressed = absoluteSnapshot.getFileName().toString().endsWith(COMPRESSED_SUFFIX);
+        Path source = absoluteSnapshot;
+        Progress progress = new Progress();
+
+        try {
+            if (compressed) {
+                source = Files.createTempFile(absoluteSnapshot.getParent(), "restore-", SNAPSHOT_SUFFIX);
+                gunzip(absoluteSnapshot, source);
+            }
+            verify(source);
+            beforeReplacing.run();
+
+            // The restore API needs the writer outside of a transaction; it takes its own write lock
+            Connection writer = dbConnection.getConnection();
+            DB target = writer.unwrap(SQLiteConnection.class).getDatabase();
+            int rc = target.restore("main", source.toString(), progress, BUSY_SLEEP_MILLIS, BUSY_ATTEMPTS, DEFAULT_PAGES_PER_STEP);
+            if (rc != 0) {
+                throw new SQLException("Restore failed with SQLite result code " + rc);
+            }
+            dbConnection.getDescriptionCache().clear();
+            SchemaMigrations.migrate(writer);
+            return new Result(dbConnection.getDatabaseFile().map(Path::toAbsolutePath).orElse(null), progress.total,
+                Files.size(absoluteSnapshot), Duration.ofNanos(System.nanoTime() - startNanos));
+        } catch (SQLException | IOException e) {
+            throw new RuntimeException("Failed to restore database from " + snapshot, e);
+        } finally {
+            if (compressed) {
+                deleteQuietly(source);
+            }
+        }
+    }
+
+    /**
+     * Checks that a database file is intact and not newer than this version's schema.
+     */
+    static void verify(Path databaseFile) throws SQLException {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setReadOnly(true);
+        try (Connection connection = config.createConnection("jdbc:sqlite:" + databaseFile);
+             Statement stmt = connection.createStatement()) {
+            List<String> problems = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery(SqlQueries.INTEGRITY_CHECK)) {
+                while (rs.next()) {
+                    problems.add(rs.getString(1));
+                }
+            }
+            if (!problems.equals(List.of("ok"))) {
+                throw new SQLException("Snapshot failed the integrity check: " + String.join("; ", problems));
+            }
+
+            int version = SchemaMigrations.currentVersion(connection);
+            if (version > SchemaMigrations.latestVersion()) {
+                throw new SQLException("Snapshot has schema version " + version
+                    + ", this version of timer supports up to " + SchemaMigrations.latestVersion());
+            }
+        }
+    }
+
+    /**
+     * The copy keeps the WAL flag of the source header, and opening a WAL database leaves -wal and -shm files
+     * next to it. Restoring into a WAL database switches the pages back to WAL.
+     */
+    private static void disableWal(Path databaseFile) throws SQLException {
+        try (Connection connection = new SQLiteConfig().createConnection("jdbc:sqlite:" + databaseFile);
+             Statement stmt = connection.createStatement()) {
+            stmt.execute(SqlQueries.DISABLE_WAL);
+        }
+    }
+
+    private static void gzip(Path source, Path target) throws IOException {
+        try (InputStream in = Files.newInputStream(source);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(target))) {
+            in.transferTo(out);
+        }
+    }
+
+    private static void gunzip(Path source, Path target) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(source));
+             OutputStream out = Files.newOutputStream(target)) {
+            in.transferTo(out);
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Leftover temporary file; nothing else depends on it
+        }
+    }
+
+    private static class Progress implements DB.ProgressObserver {
+        private int total;
+
+        @Override
+        public void progress(int remaining, int pageCount) {
+            total = pageCount;
+        }
+    }
+
+    /**
+     * Outcome of a backup or restore: the file written, the number of database pages copied, the size of the
+     * snapshot in bytes and how long it took.
+     */
+    public record Result(Path file, int pages, long bytes, Duration duration) {
+    }
+}
@@ -0,0 +1,198 @@
+package org.veenix.timer.persistence;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes an event to its subscribers whenever another connection commits to the database.
+ * Detection is delegated to {@link DataChangeMonitor}, so no table is read: a check costs two stat calls and,
+ * only when the files moved, one {@code PRAGMA data_version}. Checks run on a fixed interval and, for file
+ * databases, immediately when a WatchService reports a write to the database or its WAL, so the interval only
+ * bounds the latency on file systems without change notifications.
+ * Listeners are called on the notifier thread and should hand work off rather than block it.
+ */
+public class DatabaseChangeNotifier implements AutoCloseable {
+
+    private static final Duration DEFAULT_POLL_INTERVAL = Duration.ofSeconds(2);
+
+    private final DataChangeMonitor monitor;
+    private final Path databaseFile;
+    private final Duration pollInterval;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+    private WatchService watchService;
+    private Thread watcher;
+
+    public DatabaseChangeNotifier(DatabaseConnection dbConnection) {
+        this(dbConnection, DEFAULT_POLL_INTERVAL);
+    }
+
+    public DatabaseChangeNotifier(DatabaseConnection dbConnection, Duration pollInterval) {
+        if (pollInterval.isZero() || pollInterval.isNegative()) {
+            throw new IllegalArgumentException("Poll interval must be greater than 0");
+        }
+        this.monitor = new DataChangeMonitor(dbConnection);
+        this.databaseFile = dbConnection.getDatabaseFile().orElse(null);
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Registers a listener. Closing the returned subscription removes it again.
+     */
+    public Subscription subscribe(Listener listener) {
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    /**
+     * Records the current state and starts checking in the background. Only changes made after this call
+     * are published.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        monitor.poll();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-change-notifier");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = pollInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::checkQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        if (databaseFile != null) {
+            startWatching();
+        }
+    }
+
+    /**
+     * Checks for a change on the calling thread and publishes it. Returns true if a change was published.
+     */
+    public boolean checkNow() {
+        if (!monitor.poll()) {
+            return false;
+        }
+        ChangeEvent event = new ChangeEvent(sequence.incrementAndGet(), Instant.now());
+        for (Listener listener : listeners) {
+            try {
+                listener.databaseChanged(event);
+            } catch (RuntimeException e) {
+                // One failing subscriber must not stop the others from being notified
+            }
+        }
+        return true;
+    }
+
+    private void checkQuietly() {
+        try {
+            checkNow();
+        } catch (RuntimeException e) {
+            // A locked or briefly unavailable database is checked again on the next tick
+        }
+    }
+
+    private void startWatching() {
+        Path directory = databaseFile.toAbsolutePath().getParent();
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            // Fall back to polling only
+            watchService = null;
+            return;
+        }
+        WatchService service = watchService;
+        watcher = new Thread(() -> watch(service), "db-change-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void watch(WatchService service) {
+        String databaseName = databaseFile.getFileName().toString();
+        String walName = databaseName + "-wal";
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean touched = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    String name = String.valueOf(event.context());
+                    if (name.equals(databaseName) || name.equals(walName)
+                        || event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        touched = true;
+                    }
+                }
+                if (touched) {
+                    schedule();
+                }
+                if (!key.reset()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Watching stopped
+        }
+    }
+
+    private synchronized void schedule() {
+        if (scheduler == null) {
+            return;
+        }
+        try {
+            scheduler.execute(this::checkQuietly);
+        } catch (RejectedExecutionException e) {
+            // Closing
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                // Closing only stops the watcher thread; nothing to recover
+            }
+            watcher.interrupt();
+            watchService = null;
+            watcher = null;
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        monitor.close();
+    }
+
+    @FunctionalInterface
+    public interface Listener {
+        void databaseChanged(ChangeEvent event);
+    }
+
+    @FunctionalInterface
+    public interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * A detected commit. Several commits between two checks are reported as one event.
+     */
+    public record ChangeEvent(long sequence, Instant detectedAt) {
+    }
+}
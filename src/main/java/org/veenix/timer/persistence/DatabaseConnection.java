@@ -1,16 +1,53 @@
 package org.veenix.timer.persistence;
 
+import org.veenix.timer.metrics.Counter;
+import org.veenix.timer.metrics.MetricsRegistry;
+import org.veenix.timer.metrics.Timer;
+
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
+/**
+ * Manages the single writer connection and a bounded pool of read-only connections.
+ * Writes from this process are serialized on the writer; when another process holds the database lock,
+ * SQLite waits up to the busy timeout and the operation is then retried with backoff per the {@link RetryPolicy}.
+ * {@code db.commit} and {@code db.rollback} count the transactions that reached the disk or were undone.
+ */
 public class DatabaseConnection {
 
-    private static final String DB_URL = "jdbc:sqlite:timer.db";
+    private static final String JDBC_PREFIX = "jdbc:sqlite:";
+    private static final String DB_URL = JDBC_PREFIX + "timer.db";
+    private static final int DEFAULT_READ_POOL_SIZE = 4;
+    private static final Duration DEFAULT_BUSY_TIMEOUT = Duration.ofSeconds(5);
     private static DatabaseConnection instance;
+    private static Duration defaultSlowQueryThreshold;
+    private static Path defaultSlowQueryLogFile;
+    private static Duration defaultBusyTimeout = DEFAULT_BUSY_TIMEOUT;
+    private static RetryPolicy defaultRetryPolicy = RetryPolicy.defaults();
     private Connection connection;
     private final String dbUrl;
+    private final ReadConnectionPool readPool;
+    private final DescriptionCache descriptionCache = new DescriptionCache();
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private final BusyRetrier busyRetrier = new BusyRetrier(metrics);
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Counter commits = metrics.counter("db.commit");
+    private final Counter rollbacks = metrics.counter("db.rollback");
+    private volatile SlowQueryLog slowQueryLog;
+    private volatile Duration busyTimeout = DEFAULT_BUSY_TIMEOUT;
+    private volatile RetryPolicy retryPolicy = RetryPolicy.defaults();
+    private volatile Path archiveBase;
+    private int transactionDepth = 0;
+    // Activity rows changed through the repository; those of an open transaction count once it commits
+    private long changedRows;
+    private long uncommittedChangedRows;
     private boolean initialized = false;
 
     private DatabaseConnection() {
@@ -18,18 +55,56 @@ public class DatabaseConnection {
     }
 
     public DatabaseConnection(String dbUrl) {
+        this(dbUrl, DEFAULT_READ_POOL_SIZE);
+    }
+
+    public DatabaseConnection(String dbUrl, int readPoolSize) {
         this.dbUrl = dbUrl;
+        this.readPool = new ReadConnectionPool(dbUrl, readPoolSize);
         // Ensure SQLite driver is registered (critical for native image)
-        SqliteDriverInitializer.initialize();
+        try (Timer.Sample ignored = metrics.timer("db.driver.init").start()) {
+            SqliteDriverInitializer.initialize();
+        }
     }
 
     public static synchronized DatabaseConnection getInstance() {
         if (instance == null) {
             instance = new DatabaseConnection();
+            instance.setSlowQueryLog(defaultSlowQueryThreshold, defaultSlowQueryLogFile);
+            instance.setBusyHandling(defaultBusyTimeout, defaultRetryPolicy);
         }
         return instance;
     }
 
+    /**
+     * Returns the shared instance if this process created it, without creating one.
+     */
+    public static synchronized Optional<DatabaseConnection> getExistingInstance() {
+        return Optional.ofNullable(instance);
+    }
+
+    /**
+     * Sets the busy timeout and retry policy used by the shared instance, including one that is created later.
+     */
+    public static synchronized void configureBusyHandling(Duration busyTimeout, RetryPolicy retryPolicy) {
+        defaultBusyTimeout = busyTimeout;
+        defaultRetryPolicy = retryPolicy;
+        if (instance != null) {
+            instance.setBusyHandling(busyTimeout, retryPolicy);
+        }
+    }
+
+    /**
+     * Sets the slow query log used by the shared instance, including one that is created later.
+     */
+    public static synchronized void configureSlowQueryLog(Duration threshold, Path file) {
+        defaultSlowQueryThreshold = threshold;
+        defaultSlowQueryLogFile = file;
+        if (instance != null) {
+            instance.setSlowQueryLog(threshold, file);
+        }
+    }
+
     public static synchronized void resetInstance() {
         if (instance != null) {
             instance.close();
@@ -37,12 +112,20 @@ public class DatabaseConnection {
         }
     }
 
-    public Connection getConnection() {
+    /**
+     * Returns the writer connection. All inserts, updates and deletes go through this connection.
+     */
+    public synchronized Connection getConnection() {
         try {
             if (connection == null || connection.isClosed()) {
-                connection = DriverManager.getConnection(dbUrl);
+                try (Timer.Sample ignored = metrics.timer("db.connection.open").start()) {
+                    connection = DriverManager.getConnection(dbUrl);
+                }
+                applyBusyTimeout(connection);
                 if (!initialized) {
-                    initializeDatabase();
+                    try (Timer.Sample ignored = metrics.timer("db.schema.init").start()) {
+                        initializeDatabase();
+                    }
                     initialized = true;
                 }
             }
@@ -52,15 +135,271 @@ public class DatabaseConnection {
         return connection;
     }
 
+    /**
+     * Returns true if the writer connection was opened and is still open.
+     */
+    public synchronized boolean isConnected() {
+        try {
+            return connection != null && !connection.isClosed();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Borrows a read-only connection from the pool. The lease must be closed after use.
+     * In-memory databases cannot be opened twice, so they read through the writer connection; so does
+     * a thread with an open write transaction, to see its own uncommitted changes.
+     */
+    public ReadConnectionPool.Lease getReadConnection() {
+        // The writer creates the schema and switches to WAL before any reader opens the file
+        Connection writer = getConnection();
+        if (isInMemory() || isInTransaction()) {
+            return ReadConnectionPool.Lease.shared(writer);
+        }
+        try (Timer.Sample ignored = metrics.timer("db.read.acquire").start()) {
+            return readPool.acquire();
+        }
+    }
+
+    /**
+     * Borrows a connection from the pool even while this thread has a write transaction open, for reads that
+     * change their connection, such as attaching a database. Such reads only see committed data.
+     */
+    ReadConnectionPool.Lease getPooledReadConnection() {
+        Connection writer = getConnection();
+        if (isInMemory()) {
+            return ReadConnectionPool.Lease.shared(writer);
+        }
+        try (Timer.Sample ignored = metrics.timer("db.read.acquire").start()) {
+            return readPool.acquire();
+        }
+    }
+
+    /**
+     * Logs statements that take at least the threshold to the given file. A null or zero threshold disables the log.
+     */
+    public void setSlowQueryLog(Duration threshold, Path file) {
+        if (threshold == null || threshold.isZero() || threshold.isNegative() || file == null) {
+            slowQueryLog = null;
+        } else {
+            slowQueryLog = new SlowQueryLog(threshold, file);
+        }
+    }
+
+    SlowQueryLog getSlowQueryLog() {
+        return slowQueryLog;
+    }
+
+    /**
+     * Sets how long SQLite waits for a lock held by another connection, and how often an operation
+     * that still finds the database busy is retried.
+     */
+    public synchronized void setBusyHandling(Duration busyTimeout, RetryPolicy retryPolicy) {
+        this.busyTimeout = busyTimeout;
+        this.retryPolicy = retryPolicy;
+        readPool.setBusyTimeoutMillis((int) busyTimeout.toMillis());
+        try {
+            if (connection != null && !connection.isClosed()) {
+                applyBusyTimeout(connection);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to set busy timeout", e);
+        }
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Runs the work as one write transaction. {@code BEGIN IMMEDIATE} takes the write lock before the
+     * work reads anything, so a read-modify-write cannot be interleaved with another process's write.
+     * When the lock cannot be obtained the whole transaction is retried; the work must therefore only
+     * change the database. Calls made while a transaction is open on this thread join it.
+     */
+    public <T> T inWriteTransaction(String operation, Supplier<T> work) {
+        writeLock.lock();
+        try {
+            if (transactionDepth > 0) {
+                return work.get();
+            }
+            return busyRetrier.execute("tx." + operation, retryPolicy, () -> runImmediate(work));
+        } catch (SQLException e) {
+            throw new RuntimeException("Transaction " + operation + " failed", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Runs a single write on the writer connection. Outside a transaction a busy database is retried;
+     * inside one the transaction already holds the lock.
+     */
+    <T> T write(String operation, BusyRetrier.Work<T> work) throws SQLException {
+        writeLock.lock();
+        try {
+            if (transactionDepth > 0) {
+                return work.run();
+            }
+            T result = busyRetrier.execute(operation, retryPolicy, work);
+            // Outside a transaction every statement is committed on its own
+            commits.increment();
+            return result;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Runs a read, retrying when the database is busy. Readers in WAL mode only see a busy database
+     * while another connection recovers or resets the WAL.
+     */
+    <T> T read(String operation, BusyRetrier.Work<T> work) throws SQLException {
+        return busyRetrier.execute(operation, retryPolicy, work);
+    }
+
+    /**
+     * Adds activity rows inserted, updated or deleted by a statement, as reported by the statement itself,
+     * so rows written by triggers are not included.
+     */
+    void countChangedRows(long rows) {
+        writeLock.lock();
+        try {
+            if (transactionDepth > 0) {
+                uncommittedChangedRows += rows;
+            } else {
+                changedRows += rows;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of activity rows changed and committed through this connection.
+     */
+    long changedRows() {
+        writeLock.lock();
+        try {
+            return changedRows;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    boolean isInTransaction() {
+        return writeLock.isHeldByCurrentThread() && transactionDepth > 0;
+    }
+
+    private <T> T runImmediate(Supplier<T> work) throws SQLException {
+        Connection writer = getConnection();
+        try (Timer.Sample ignored = metrics.timer("db.lock.wait").start();
+             Statement stmt = writer.createStatement()) {
+            stmt.execute(SqlQueries.BEGIN_IMMEDIATE);
+        }
+
+        transactionDepth++;
+        boolean committed = false;
+        try {
+            T result = work.get();
+            try (Statement stmt = writer.createStatement()) {
+                stmt.execute(SqlQueries.COMMIT);
+            }
+            committed = true;
+            commits.increment();
+            changedRows += uncommittedChangedRows;
+            return result;
+        } finally {
+            uncommittedChangedRows = 0;
+            transactionDepth--;
+            if (!committed) {
+                rollback(writer);
+            }
+        }
+    }
+
+    private void rollback(Connection writer) {
+        // Dictionary rows inserted by the transaction are gone, so their cached ids are no longer valid
+        descriptionCache.clear();
+        rollbacks.increment();
+        try (Statement stmt = writer.createStatement()) {
+            stmt.execute(SqlQueries.ROLLBACK);
+        } catch (SQLException e) {
+            // SQLite already rolled back, e.g. after a failed COMMIT; nothing is left open
+        }
+    }
+
+    private void applyBusyTimeout(Connection writer) throws SQLException {
+        try (Statement stmt = writer.createStatement()) {
+            stmt.execute(String.format(SqlQueries.SET_BUSY_TIMEOUT, busyTimeout.toMillis()));
+        }
+    }
+
+    /**
+     * Returns the database file, or empty for an in-memory database.
+     */
+    public Optional<Path> getDatabaseFile() {
+        if (isInMemory()) {
+            return Optional.empty();
+        }
+        String path = dbUrl.substring(JDBC_PREFIX.length());
+        if (path.startsWith("file:")) {
+            path = path.substring("file:".length());
+        }
+        int query = path.indexOf('?');
+        return Optional.of(Path.of(query >= 0 ? path.substring(0, query) : path));
+    }
+
+    /**
+     * Reads archives as if this were {@code databaseFile}: a replica has no archive directory of its own and
+     * reads the one of its primary.
+     */
+    void useArchivesOf(Path databaseFile) {
+        archiveBase = databaseFile.toAbsolutePath();
+    }
+
+    /**
+     * Returns the database file whose archive directory and names the archives use.
+     */
+    Optional<Path> getArchiveBase() {
+        return archiveBase != null ? Optional.of(archiveBase) : getDatabaseFile();
+    }
+
+    String getUrl() {
+        return dbUrl;
+    }
+
+    public DescriptionCache getDescriptionCache() {
+        return descriptionCache;
+    }
+
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    public PoolMetrics getPoolMetrics() {
+        return readPool.metrics();
+    }
+
+    private boolean isInMemory() {
+        return dbUrl.contains(":memory:") || dbUrl.contains("mode=memory");
+    }
+
     private void initializeDatabase() {
         try (Statement stmt = connection.createStatement()) {
+            // Only takes effect while the file is still empty, so it has to come before anything is written
+            stmt.execute(SqlQueries.ENABLE_INCREMENTAL_AUTO_VACUUM);
+            stmt.execute(SqlQueries.ENABLE_WAL);
             stmt.execute(SqlQueries.CREATE_ACTIVITY_TABLE);
+            SchemaMigrations.migrate(connection);
         } catch (SQLException e) {
             throw new RuntimeException("Failed to initialize database", e);
         }
     }
 
-    public void close() {
+    public synchronized void close() {
+        readPool.close();
         try {
             if (connection != null && !connection.isClosed()) {
                 connection.close();
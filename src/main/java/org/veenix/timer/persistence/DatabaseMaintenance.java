@@ -0,0 +1,187 @@
+package org.veenix.timer.persistence;
+
+import org.veenix.timer.metrics.Timer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Keeps the database file compact and its query planner statistics current.
+ * Deleted rows leave free pages behind, which incremental auto-vacuum hands back to the file system,
+ * and the planner only picks the right index when ANALYZE has seen the current data. Both run on
+ * {@code activity db optimize}, and a lighter pass runs by itself once the mutations recorded in the
+ * {@code db_maintenance} table reach a threshold, so the cost is paid by one command now and then.
+ */
+public class DatabaseMaintenance {
+
+    private final DatabaseConnection dbConnection;
+    private long recordedChanges;
+
+    public DatabaseMaintenance(DatabaseConnection dbConnection) {
+        this.dbConnection = dbConnection;
+    }
+
+    /**
+     * Returns the size of the database file and how much of it is unused.
+     */
+    public Stats stats() {
+        try (ReadConnectionPool.Lease lease = dbConnection.getReadConnection()) {
+            Connection connection = lease.connection();
+            return new Stats(
+                queryLong(connection, SqlQueries.GET_PAGE_COUNT),
+                queryLong(connection, SqlQueries.GET_FREELIST_COUNT),
+                queryLong(connection, SqlQueries.GET_PAGE_SIZE));
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read database statistics", e);
+        }
+    }
+
+    /**
+     * Returns whether the database uses incremental auto-vacuum. Databases created before it was
+     * introduced keep their free pages until a full {@link #optimize} converts them.
+     */
+    public boolean incrementalAutoVacuum() {
+        try (ReadConnectionPool.Lease lease = dbConnection.getReadConnection()) {
+            // 2 = INCREMENTAL
+            return queryLong(lease.connection(), SqlQueries.GET_AUTO_VACUUM) == 2;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read auto-vacuum mode", e);
+        }
+    }
+
+    /**
+     * Frees unused pages and refreshes the planner statistics for every table. A full VACUUM also
+     * defragments the remaining pages and switches the file to incremental auto-vacuum, but rewrites
+     * the whole file.
+     */
+    public Report optimize(boolean full) {
+        Stats before = stats();
+        long startNanos = System.nanoTime();
+        try (Timer.Sample ignored = dbConnection.getMetrics().timer("db.optimize").start()) {
+            dbConnection.write("optimize", () -> {
+                try (Statement stmt = dbConnection.getConnection().createStatement()) {
+                    if (full) {
+                        stmt.execute(SqlQueries.ENABLE_INCREMENTAL_AUTO_VACUUM);
+                        stmt.execute(SqlQueries.VACUUM);
+                    } else {
+                        incrementalVacuum(stmt);
+                    }
+                    stmt.execute(SqlQueries.ANALYZE);
+                }
+                return null;
+            });
+            resetMutations();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to optimize database", e);
+        }
+        return new Report(before, stats(), Duration.ofNanos(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * Adds the activity rows this process inserted, updated or deleted since the previous call to the
+     * persisted mutation counter and, once the counter reaches {@code threshold}, frees unused pages and lets SQLite re-analyze the tables
+     * whose statistics are stale. Returns true if maintenance ran. Does nothing when the threshold is 0 or
+     * the process never opened the database. Rows written by triggers (full-text index, day digests, change
+     * log) and description dictionary rows are not counted, so the threshold is in activity changes.
+     */
+    public boolean recordMutations(long threshold) {
+        if (threshold <= 0 || !dbConnection.isConnected()) {
+            return false;
+        }
+        try {
+            Connection writer = dbConnection.getConnection();
+            long changes = dbConnection.changedRows() - recordedChanges;
+            if (changes <= 0) {
+                return false;
+            }
+            long mutations = dbConnection.inWriteTransaction("maintenance.count", () -> {
+                try (PreparedStatement stmt = writer.prepareStatement(SqlQueries.ADD_MUTATIONS)) {
+                    stmt.setLong(1, changes);
+                    stmt.executeUpdate();
+                    return mutations(writer);
+                } catch (SQLException e) {
+                    throw new RuntimeException("Failed to record mutations", e);
+                }
+            });
+            recordedChanges += changes;
+            if (mutations < threshold) {
+                return false;
+            }
+
+            try (Timer.Sample ignored = dbConnection.getMetrics().timer("db.maintenance").start()) {
+                dbConnection.write("maintenance", () -> {
+                    try (Statement stmt = writer.createStatement()) {
+                        incrementalVacuum(stmt);
+                        stmt.execute(SqlQueries.OPTIMIZE);
+                    }
+                    return null;
+                });
+                resetMutations();
+            }
+            return true;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to run database maintenance", e);
+        }
+    }
+
+    /**
+     * Returns the number of mutations recorded since maintenance last ran.
+     */
+    public long pendingMutations() {
+        try (ReadConnectionPool.Lease lease = dbConnection.getReadConnection()) {
+            return mutations(lease.connection());
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read mutation counter", e);
+        }
+    }
+
+    private void resetMutations() throws SQLException {
+        dbConnection.write("maintenance.reset", () -> {
+            try (PreparedStatement stmt = dbConnection.getConnection().prepareStatement(SqlQueries.RESET_MUTATIONS)) {
+                stmt.setString(1, LocalDateTime.now().toString());
+                return stmt.executeUpdate();
+            }
+        });
+    }
+
+    private static void incrementalVacuum(Statement stmt) throws SQLException {
+        // The pragma frees one page per step; execute() only takes the first step, executeUpdate() runs it
+        // to completion
+        stmt.executeUpdate(SqlQueries.INCREMENTAL_VACUUM);
+    }
+
+    private static long mutations(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(SqlQueries.SELECT_MAINTENANCE)) {
+            return rs.next() ? rs.getLong("mutations") : 0;
+        }
+    }
+
+    private static long queryLong(Connection connection, String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Page counts of the database file.
+     */
+    public record Stats(long pageCount, long freelistCount, long pageSize) {
+
+        public long bytes() {
+            return pageCount * pageSize;
+        }
+    }
+
+    /**
+     * Statistics before and after an optimize run and how long it took.
+     */
+    public record Report(Stats before, Stats after, Duration duration) {
+    }
+}
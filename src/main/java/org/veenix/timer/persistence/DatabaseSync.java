@@ -0,0 +1,200 @@
+package org.veenix.timer.persistence;
+
+import org.veenix.timer.metrics.Timer;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Merges the activities of two timer databases, such as the ones on a laptop and a desktop, so both end up
+ * with the same activities. The day digests of both sides are arranged in a {@link DigestTree} over the same
+ * range of days; only the days whose digests differ are read and merged.
+ * <p>
+ * Activities are matched by start time; ids are local to each database and not compared. An activity that
+ * only one side has is copied to the other. When both sides have a different activity with the same start
+ * time, the same one wins on both: a completed activity over an active one, then the later end time, then
+ * the one that sorts last by type, status and description. Sync merges and never deletes, so an activity
+ * deleted on one side only comes back from the other. Archived activities count as present, so archiving
+ * on one side copies nothing; an archived activity that loses a conflict is not changed.
+ */
+public class DatabaseSync {
+
+    private static final Comparator<Activity> PREFERENCE = Comparator
+        .comparing((Activity activity) -> activity.status() == ActivityStatus.COMPLETED)
+        .thenComparing(Activity::endTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+        .thenComparing(ActivityDigests.CONTENT_ORDER);
+
+    private final DatabaseConnection local;
+    private final DatabaseConnection remote;
+
+    public DatabaseSync(DatabaseConnection local, DatabaseConnection remote) {
+        this.local = local;
+        this.remote = remote;
+    }
+
+    /**
+     * Finds the days that differ and, unless {@code dryRun} is set, merges them on both sides.
+     */
+    public Report sync(boolean dryRun) {
+        long startNanos = System.nanoTime();
+        try (Timer.Sample ignored = local.getMetrics().timer("db.sync").start()) {
+            ActivityDigests localDigests = new ActivityDigests(local);
+            ActivityDigests remoteDigests = new ActivityDigests(remote);
+            NavigableMap<LocalDate, byte[]> localDays = localDigests.dayDigests();
+            NavigableMap<LocalDate, byte[]> remoteDays = remoteDigests.dayDigests();
+            if (localDays.isEmpty() && remoteDays.isEmpty()) {
+                return new Report(0, 0, List.of(), 0, 0, 0, true, elapsed(startNanos));
+            }
+
+            DigestTree.Comparison comparison = compare(localDays, remoteDays);
+            Changes toLocal = new Changes();
+            Changes toRemote = new Changes();
+            int conflicts = 0;
+            for (LocalDate day : comparison.days()) {
+                conflicts += merge(localDigests.activitiesOn(day), remoteDigests.activitiesOn(day), toLocal, toRemote);
+            }
+
+            boolean inSync = comparison.days().isEmpty();
+            if (!dryRun && !inSync) {
+                toLocal.apply(local);
+                toRemote.apply(remote);
+                // The changed days are hashed again; both sides must now have the same digests
+                inSync = compare(localDigests.dayDigests(), remoteDigests.dayDigests()).days().isEmpty();
+            }
+            return new Report(Math.max(localDays.size(), remoteDays.size()), comparison.comparisons(),
+                comparison.days(), toLocal.inserts.size(), toRemote.inserts.size(), conflicts, inSync,
+                elapsed(startNanos));
+        }
+    }
+
+    private static DigestTree.Comparison compare(NavigableMap<LocalDate, byte[]> a, NavigableMap<LocalDate, byte[]> b) {
+        LocalDate first = min(a.isEmpty() ? null : a.firstKey(), b.isEmpty() ? null : b.firstKey());
+        LocalDate last = max(a.isEmpty() ? null : a.lastKey(), b.isEmpty() ? null : b.lastKey());
+        if (first == null) {
+            return new DigestTree.Comparison(List.of(), 0);
+        }
+        return DigestTree.compare(DigestTree.build(first, last, a), DigestTree.build(first, last, b));
+    }
+
+    /**
+     * Plans the changes that give both sides the same activities on one day and returns the number of conflicts.
+     */
+    static int merge(List<Activity> local, List<Activity> remote, Changes toLocal, Changes toRemote) {
+        NavigableMap<LocalDateTime, List<Activity>> localByStart = byStartTime(local);
+        NavigableMap<LocalDateTime, List<Activity>> remoteByStart = byStartTime(remote);
+        TreeSet<LocalDateTime> startTimes = new TreeSet<>(localByStart.keySet());
+        startTimes.addAll(remoteByStart.keySet());
+
+        int conflicts = 0;
+        for (LocalDateTime startTime : startTimes) {
+            List<Activity> localOnly = new ArrayList<>(localByStart.getOrDefault(startTime, List.of()));
+            List<Activity> remoteOnly = new ArrayList<>(remoteByStart.getOrDefault(startTime, List.of()));
+            // Activities both sides have need nothing
+            localOnly.removeIf(activity -> removeSame(remoteOnly, activity));
+
+            int paired = Math.min(localOnly.size(), remoteOnly.size());
+            for (int i = 0; i < paired; i++) {
+                Activity mine = localOnly.get(i);
+                Activity theirs = remoteOnly.get(i);
+                if (PREFERENCE.compare(mine, theirs) > 0) {
+                    toRemote.updates.add(withContentOf(theirs.id(), mine));
+                } else {
+                    toLocal.updates.add(withContentOf(mine.id(), theirs));
+                }
+                conflicts++;
+            }
+            for (int i = paired; i < localOnly.size(); i++) {
+                toRemote.inserts.add(withContentOf(null, localOnly.get(i)));
+            }
+            for (int i = paired; i < remoteOnly.size(); i++) {
+                toLocal.inserts.add(withContentOf(null, remoteOnly.get(i)));
+            }
+        }
+        return conflicts;
+    }
+
+    private static NavigableMap<LocalDateTime, List<Activity>> byStartTime(List<Activity> activities) {
+        NavigableMap<LocalDateTime, List<Activity>> byStart = new TreeMap<>();
+        for (Activity activity : activities) {
+            byStart.computeIfAbsent(activity.startTime(), start -> new ArrayList<>()).add(activity);
+        }
+        return byStart;
+    }
+
+    private static boolean removeSame(List<Activity> activities, Activity activity) {
+        for (int i = 0; i < activities.size(); i++) {
+            if (ActivityDigests.CONTENT_ORDER.compare(activities.get(i), activity) == 0) {
+                activities.remove(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Activity withContentOf(Long id, Activity content) {
+        return Activity.builder()
+            .id(id)
+            .startTime(content.startTime())
+            .endTime(content.endTime())
+            .activityType(content.activityType())
+            .status(content.status())
+            .description(content.description())
+            .build();
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a == null ? b : b == null || a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a == null ? b : b == null || a.isAfter(b) ? a : b;
+    }
+
+    private static Duration elapsed(long startNanos) {
+        return Duration.ofNanos(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * The rows to write to one side.
+     */
+    static final class Changes {
+
+        final List<Activity> inserts = new ArrayList<>();
+        final List<Activity> updates = new ArrayList<>();
+
+        // All changes for one side commit together
+        void apply(DatabaseConnection dbConnection) {
+            if (inserts.isEmpty() && updates.isEmpty()) {
+                return;
+            }
+            ActivityRepository repository = new ActivityRepositoryImpl(dbConnection);
+            repository.inWriteTransaction("sync", () -> {
+                inserts.forEach(repository::save);
+                for (Activity update : updates) {
+                    // Archived activities are read-only; their conflict is reported and left as it is
+                    if (repository.findById(update.id()).isPresent()) {
+                        repository.update(update);
+                    }
+                }
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Outcome of a sync. {@code days} is the number of days with activities on the larger side,
+     * {@code comparisons} the number of digest tree nodes compared to find the {@code differingDays}.
+     */
+    public record Report(int days, int comparisons, List<LocalDate> differingDays, int copiedToLocal,
+                         int copiedToRemote, int conflicts, boolean inSync, Duration duration) {
+    }
+}
@@ -0,0 +1,69 @@
+package org.veenix.timer.persistence;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-process intern cache for the descriptions dictionary.
+ * Every activity that references the same description id shares one String instance, and
+ * saving a known description does not need a dictionary lookup. Dictionary rows are immutable,
+ * so cached entries never go stale; the cache is bounded and evicts the least recently used entry.
+ */
+public class DescriptionCache {
+
+    private static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private final int maxEntries;
+    private final LinkedHashMap<Long, String> textById;
+    private final Map<String, Long> idByText = new HashMap<>();
+
+    public DescriptionCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public DescriptionCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.textById = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public synchronized String text(long id) {
+        return textById.get(id);
+    }
+
+    public synchronized Long id(String text) {
+        Long id = idByText.get(text);
+        if (id != null) {
+            // Keep the entry warm in the LRU order
+            textById.get(id);
+        }
+        return id;
+    }
+
+    /**
+     * Records a dictionary entry and returns the canonical String instance for it.
+     */
+    public synchronized String intern(long id, String text) {
+        String existing = textById.get(id);
+        if (existing != null) {
+            return existing;
+        }
+        textById.put(id, text);
+        idByText.put(text, id);
+        if (textById.size() > maxEntries) {
+            Map.Entry<Long, String> eldest = textById.entrySet().iterator().next();
+            textById.remove(eldest.getKey());
+            idByText.remove(eldest.getValue());
+        }
+        return text;
+    }
+
+    public synchronized int size() {
+        return textById.size();
+    }
+
+    public synchronized void clear() {
+        textById.clear();
+        idByText.clear();
+    }
+}
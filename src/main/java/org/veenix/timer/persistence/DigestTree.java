@@ -0,0 +1,109 @@
+package org.veenix.timer.persistence;
+
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merkle tree over the day digests of a range of days. The leaves are the days in order, padded to a power
+ * of two; each inner node hashes its two children, and a subtree without activities has no digest at all.
+ * Two trees over the same range have equal roots exactly when every day matches, and the days that differ
+ * are found by descending only into the subtrees whose digests differ: about log2(days) comparisons per
+ * differing day instead of one per day.
+ */
+final class DigestTree {
+
+    private final LocalDate first;
+    private final int leaves;
+    // Heap layout: node i has children 2i and 2i + 1; the leaves start at index `leaves`
+    private final byte[][] nodes;
+
+    private DigestTree(LocalDate first, int leaves, byte[][] nodes) {
+        this.first = first;
+        this.leaves = leaves;
+        this.nodes = nodes;
+    }
+
+    /**
+     * Builds the tree for the days from {@code first} to {@code last}, both included. Days outside the range
+     * are ignored.
+     */
+    static DigestTree build(LocalDate first, LocalDate last, Map<LocalDate, byte[]> dayDigests) {
+        long days = ChronoUnit.DAYS.between(first, last) + 1;
+        if (days < 1 || days > 1 << 24) {
+            throw new IllegalArgumentException("Cannot build a digest tree for " + days + " days");
+        }
+        int leaves = Integer.highestOneBit((int) days);
+        if (leaves < days) {
+            leaves <<= 1;
+        }
+        byte[][] nodes = new byte[2 * leaves][];
+        for (Map.Entry<LocalDate, byte[]> entry : dayDigests.entrySet()) {
+            long index = ChronoUnit.DAYS.between(first, entry.getKey());
+            if (index >= 0 && index < days) {
+                nodes[leaves + (int) index] = entry.getValue();
+            }
+        }
+
+        MessageDigest digest = ActivityDigests.sha256();
+        for (int i = leaves - 1; i >= 1; i--) {
+            byte[] left = nodes[2 * i];
+            byte[] right = nodes[2 * i + 1];
+            if (left == null && right == null) {
+                continue;
+            }
+            // A marker byte per child keeps an empty child apart from any digest
+            digest.update((byte) (left != null ? 1 : 0));
+            if (left != null) {
+                digest.update(left);
+            }
+            digest.update((byte) (right != null ? 1 : 0));
+            if (right != null) {
+                digest.update(right);
+            }
+            nodes[i] = digest.digest();
+        }
+        return new DigestTree(first, leaves, nodes);
+    }
+
+    /**
+     * The digest of the whole range, or null if it has no activities.
+     */
+    byte[] root() {
+        return nodes[1];
+    }
+
+    /**
+     * Returns the days on which the two trees differ, in order. The trees must cover the same range.
+     */
+    static Comparison compare(DigestTree a, DigestTree b) {
+        if (!a.first.equals(b.first) || a.leaves != b.leaves) {
+            throw new IllegalArgumentException("Digest trees cover different ranges");
+        }
+        List<LocalDate> days = new ArrayList<>();
+        int comparisons = a.descend(b, 1, days);
+        return new Comparison(days, comparisons);
+    }
+
+    // Returns the number of nodes compared in the subtree
+    private int descend(DigestTree other, int node, List<LocalDate> days) {
+        if (Arrays.equals(nodes[node], other.nodes[node])) {
+            return 1;
+        }
+        if (node >= leaves) {
+            days.add(first.plusDays(node - leaves));
+            return 1;
+        }
+        return 1 + descend(other, 2 * node, days) + descend(other, 2 * node + 1, days);
+    }
+
+    /**
+     * The differing days and the number of node digests compared to find them.
+     */
+    record Comparison(List<LocalDate> days, int comparisons) {
+    }
+}
@@ -0,0 +1,302 @@
+package org.veenix.timer.persistence;
+
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Activity storage that lives only as long as the object, for tests and runs that need no database file.
+ * Activities are kept in sorted indexes on (start_time, id), one for all activities and one per status
+ * and per type, so every query is a range scan that returns rows in the order the SQL queries in
+ * {@link SqlQueries} use: day queries match whole days the way {@code DATE()} does, status and type are
+ * newest first, and ids are never handed out twice.
+ * A write transaction keeps an undo list of the index changes it makes and replays it backwards when the
+ * work throws, so like a SQLite transaction it applies completely or not at all.
+ */
+public class InMemoryActivityRepository implements ActivityRepository {
+
+    private static final Comparator<PageCursor> CHRONOLOGICAL =
+        Comparator.comparing(PageCursor::startTime).thenComparingLong(PageCursor::id);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Activity> byId = new HashMap<>();
+    private final TreeMap<PageCursor, Activity> byStartTime = new TreeMap<>(CHRONOLOGICAL);
+    private final Map<ActivityStatus, TreeMap<PageCursor, Activity>> byStatus = new EnumMap<>(ActivityStatus.class);
+    private final Map<ActivityType, TreeMap<PageCursor, Activity>> byType = new EnumMap<>(ActivityType.class);
+    private long nextId = 1;
+    // Non-null while a write transaction is open; undoes its changes newest first
+    private Deque<Runnable> undo;
+
+    @Override
+    public Activity save(Activity activity) {
+        requireColumns(activity);
+        lock.writeLock().lock();
+        try {
+            Activity saved = new Activity(nextId++, activity.startTime(), activity.endTime(), activity.activityType(),
+                activity.status(), activity.description());
+            add(saved);
+            return saved;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Activity update(Activity activity) {
+        if (activity.id() == null) {
+            throw new IllegalArgumentException("Activity ID cannot be null for update");
+        }
+        requireColumns(activity);
+        lock.writeLock().lock();
+        try {
+            Activity current = byId.get(activity.id());
+            if (current == null) {
+                throw new RuntimeException("Failed to update activity, no activity with ID " + activity.id());
+            }
+            remove(current);
+            add(activity);
+            return activity;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(Long id) {
+        lock.writeLock().lock();
+        try {
+            Activity current = byId.get(id);
+            if (current != null) {
+                remove(current);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Activity> findById(Long id) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(byId.get(id));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Activity> findAll() {
+        return scan(byStartTime);
+    }
+
+    @Override
+    public List<Activity> findByStatus(ActivityStatus status) {
+        lock.readLock().lock();
+        try {
+            TreeMap<PageCursor, Activity> index = byStatus.get(status);
+            return index != null ? new ArrayList<>(index.descendingMap().values()) : new ArrayList<>();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Activity> findByType(ActivityType type) {
+        lock.readLock().lock();
+        try {
+            TreeMap<PageCursor, Activity> index = byType.get(type);
+            return index != null ? new ArrayList<>(index.descendingMap().values()) : new ArrayList<>();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Activity> findByStartTime(LocalDateTime startTime) {
+        LocalDate day = startTime.toLocalDate();
+        return findDays(day, day);
+    }
+
+    @Override
+    public List<Activity> findByDateRange(LocalDateTime from, LocalDateTime to) {
+        return findDays(from.toLocalDate(), to.toLocalDate());
+    }
+
+    @Override
+    public List<Activity> findPageAfter(LocalDateTime from, LocalDateTime to, PageCursor after, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Activity> page = new ArrayList<>();
+            for (Activity activity : range(from, to, after, null).values()) {
+                if (page.size() == limit) {
+                    break;
+                }
+                page.add(activity);
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Activity> findPageBefore(LocalDateTime from, LocalDateTime to, PageCursor before, int limit) {
+        if (before == null) {
+            throw new IllegalArgumentException("Cursor cannot be null when paging backwards");
+        }
+        lock.readLock().lock();
+        try {
+            List<Activity> page = new ArrayList<>();
+            for (Activity activity : range(from, to, null, before).descendingMap().values()) {
+                if (page.size() == limit) {
+                    break;
+                }
+                page.add(activity);
+            }
+            return page.reversed();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void updateStatusByStatus(ActivityStatus currentStatus, ActivityStatus newStatus, LocalDateTime endTime) {
+        lock.writeLock().lock();
+        try {
+            TreeMap<PageCursor, Activity> index = byStatus.get(currentStatus);
+            if (index == null) {
+                return;
+            }
+            for (Activity activity : new ArrayList<>(index.values())) {
+                remove(activity);
+                add(new Activity(activity.id(), activity.startTime(), endTime, activity.activityType(), newStatus,
+                    activity.description()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs {@code work} while holding the write lock, so no other thread reads or writes in between.
+     * When it throws, every change it made is undone before the exception is passed on. Calls made while
+     * a transaction is open on this thread join it.
+     */
+    @Override
+    public <T> T inWriteTransaction(String operation, Supplier<T> work) {
+        lock.writeLock().lock();
+        try {
+            if (undo != null) {
+                return work.get();
+            }
+            undo = new ArrayDeque<>();
+            long idBefore = nextId;
+            try {
+                return work.get();
+            } catch (RuntimeException | Error e) {
+                Deque<Runnable> changes = undo;
+                undo = null;
+                changes.forEach(Runnable::run);
+                nextId = idBefore;
+                throw e;
+            } finally {
+                undo = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Activity> findDays(LocalDate first, LocalDate last) {
+        if (first.isAfter(last)) {
+            return new ArrayList<>();
+        }
+        return scan(range(first.atStartOfDay(), last.plusDays(1).atStartOfDay(), null, null));
+    }
+
+    private List<Activity> scan(NavigableMap<PageCursor, Activity> index) {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(index.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The activities that start in [from, to) and lie strictly between the cursors; a null bound or cursor
+     * means unbounded.
+     */
+    private NavigableMap<PageCursor, Activity> range(LocalDateTime from, LocalDateTime to, PageCursor after,
+                                                     PageCursor before) {
+        PageCursor lower = from != null ? new PageCursor(from, Long.MIN_VALUE) : null;
+        boolean lowerInclusive = true;
+        if (after != null && (lower == null || CHRONOLOGICAL.compare(after, lower) >= 0)) {
+            lower = after;
+            lowerInclusive = false;
+        }
+        PageCursor upper = to != null ? new PageCursor(to, Long.MIN_VALUE) : null;
+        if (before != null && (upper == null || CHRONOLOGICAL.compare(before, upper) < 0)) {
+            upper = before;
+        }
+
+        if (lower != null && upper != null) {
+            if (CHRONOLOGICAL.compare(lower, upper) > 0) {
+                return new TreeMap<>(CHRONOLOGICAL);
+            }
+            return byStartTime.subMap(lower, lowerInclusive, upper, false);
+        }
+        if (lower != null) {
+            return byStartTime.tailMap(lower, lowerInclusive);
+        }
+        if (upper != null) {
+            return byStartTime.headMap(upper, false);
+        }
+        return byStartTime;
+    }
+
+    private void add(Activity activity) {
+        PageCursor key = PageCursor.of(activity);
+        byId.put(activity.id(), activity);
+        byStartTime.put(key, activity);
+        byStatus.computeIfAbsent(activity.status(), status -> new TreeMap<>(CHRONOLOGICAL)).put(key, activity);
+        byType.computeIfAbsent(activity.activityType(), type -> new TreeMap<>(CHRONOLOGICAL)).put(key, activity);
+        if (undo != null) {
+            undo.push(() -> remove(activity));
+        }
+    }
+
+    private void remove(Activity activity) {
+        PageCursor key = PageCursor.of(activity);
+        byId.remove(activity.id());
+        byStartTime.remove(key);
+        byStatus.get(activity.status()).remove(key);
+        byType.get(activity.activityType()).remove(key);
+        if (undo != null) {
+            undo.push(() -> add(activity));
+        }
+    }
+
+    private static void requireColumns(Activity activity) {
+        // The columns the activity table declares NOT NULL
+        if (activity.startTime() == null || activity.activityType() == null || activity.status() == null) {
+            throw new IllegalArgumentException("Activity start time, type and status are required");
+        }
+    }
+}
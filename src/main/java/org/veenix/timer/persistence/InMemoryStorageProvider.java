@@ -0,0 +1,20 @@
+package org.veenix.timer.persistence;
+
+/**
+ * The {@link InMemoryActivityRepository}, for runs whose activities need not outlive the process.
+ * Selected with {@code storage.backend=memory}.
+ */
+public class InMemoryStorageProvider implements StorageProvider {
+
+    public static final String NAME = "memory";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public ActivityRepository openRepository() {
+        return new InMemoryActivityRepository();
+    }
+}
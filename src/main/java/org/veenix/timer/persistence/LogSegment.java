@@ -0,0 +1,214 @@
+package org.veenix.timer.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * One file of the log-structured store: a header followed by fixed-size records in the order they were
+ * written. Only the newest segment is appended to; the others are sealed and only read until compaction
+ * replaces them.
+ * The header records the lowest segment number the file replaces, so that after a crash in the middle of
+ * a compaction the replaced segments can be recognised and removed, and the id to continue from, so that
+ * ids of activities whose tombstones were compacted away are not handed out again.
+ */
+final class LogSegment implements Closeable {
+
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 64;
+
+    private static final int MAGIC = 0x544C4F47; // "TLOG"
+    private static final int VERSION = 1;
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".log";
+    private static final int SCAN_RECORDS = 1024;
+
+    private final long number;
+    private final long base;
+    private final long nextId;
+    private final FileChannel channel;
+    private long size;
+
+    private LogSegment(long number, long base, long nextId, FileChannel channel, long size) {
+        this.number = number;
+        this.base = base;
+        this.nextId = nextId;
+        this.channel = channel;
+        this.size = size;
+    }
+
+    /**
+     * Creates an empty segment file.
+     */
+    static LogSegment create(Path file, long number, long base, long nextId) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+            .putInt(MAGIC)
+            .putInt(VERSION)
+            .putLong(base)
+            .putLong(nextId)
+            .putLong(0)
+            .flip();
+        try {
+            writeFully(channel, header, 0);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new LogSegment(number, base, nextId, channel, HEADER_SIZE);
+    }
+
+    /**
+     * Opens an existing segment file.
+     */
+    static LogSegment open(Path file, long number) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a timer log segment: " + file);
+            }
+            return new LogSegment(number, header.getLong(), header.getLong(), channel, channel.size());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    static Path path(Path directory, long number) {
+        return directory.resolve(String.format("%s%010d%s", PREFIX, number, SUFFIX));
+    }
+
+    /**
+     * Returns the segment number encoded in a file name, or -1 if it is not a segment file.
+     */
+    static long number(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    long number() {
+        return number;
+    }
+
+    long base() {
+        return base;
+    }
+
+    long nextId() {
+        return nextId;
+    }
+
+    long size() {
+        return size;
+    }
+
+    int recordCount() {
+        return (int) ((size - HEADER_SIZE) / RECORD_SIZE);
+    }
+
+    /**
+     * Appends a record, whose CRC is filled in here, and returns its offset.
+     */
+    long append(ByteBuffer record) throws IOException {
+        record.putInt(0, crc(record));
+        long offset = size;
+        writeFully(channel, record, offset);
+        size += RECORD_SIZE;
+        return offset;
+    }
+
+    /**
+     * Reads the record at {@code offset} into {@code record}, which is flipped for reading.
+     */
+    void read(long offset, ByteBuffer record) throws IOException {
+        record.clear();
+        readFully(channel, record, offset);
+        record.flip();
+    }
+
+    /**
+     * Passes every record to {@code visitor} in file order and returns the offset after the last intact one.
+     * Scanning stops at a record whose CRC does not match or that is cut short.
+     */
+    long scan(RecordVisitor visitor) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(SCAN_RECORDS * RECORD_SIZE);
+        long offset = HEADER_SIZE;
+        while (offset + RECORD_SIZE <= size) {
+            chunk.clear();
+            chunk.limit((int) Math.min(chunk.capacity(), (size - offset) / RECORD_SIZE * RECORD_SIZE));
+            readFully(channel, chunk, offset);
+            chunk.flip();
+            while (chunk.remaining() >= RECORD_SIZE) {
+                ByteBuffer record = chunk.slice(chunk.position(), RECORD_SIZE);
+                if (record.getInt(0) != crc(record)) {
+                    return offset;
+                }
+                if (!visitor.visit(offset, record)) {
+                    return offset;
+                }
+                chunk.position(chunk.position() + RECORD_SIZE);
+                offset += RECORD_SIZE;
+            }
+        }
+        return offset;
+    }
+
+    void truncate(long newSize) throws IOException {
+        channel.truncate(newSize);
+        size = newSize;
+    }
+
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // CRC32 of everything after the CRC field
+    private static int crc(ByteBuffer record) {
+        CRC32 crc = new CRC32();
+        crc.update(record.slice(4, RECORD_SIZE - 4));
+        return (int) crc.getValue();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long start = position - buffer.position();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of log segment");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long start = position - buffer.position();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, start + buffer.position());
+        }
+    }
+
+    /**
+     * Receives the records of a scan; returning false stops it at that record.
+     */
+    interface RecordVisitor {
+        boolean visit(long offset, ByteBuffer record) throws IOException;
+    }
+}
@@ -0,0 +1,27 @@
+package org.veenix.timer.persistence;
+
+import java.nio.file.Path;
+
+/**
+ * The append-only log-structured store of {@link LogStructuredActivityRepository}, in a {@code timer-log}
+ * directory next to the default database. Selected with {@code storage.backend=log}.
+ */
+public class LogStorageProvider implements StorageProvider {
+
+    public static final String NAME = "log";
+
+    private static final Path DIRECTORY = Path.of("timer-log");
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public ActivityRepository openRepository() {
+        LogStructuredActivityRepository repository = new LogStructuredActivityRepository(DIRECTORY);
+        // Appended records already survive the process; closing also syncs them to disk
+        Runtime.getRuntime().addShutdownHook(new Thread(repository::close));
+        return repository;
+    }
+}
@@ -0,0 +1,757 @@
+package org.veenix.timer.persistence;
+
+import org.veenix.timer.metrics.MetricsRegistry;
+import org.veenix.timer.metrics.Timer;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Activity storage for write-heavy use, such as agents that start and stop activities all day.
+ * Every save, update and delete appends one fixed-size record to the newest segment file in a directory;
+ * nothing is rewritten in place and there is no per-write sync, so a write costs one positional write call.
+ * An in-memory index maps each id to the offset of its latest record and is rebuilt by replaying the
+ * segments on open. A crash can leave a torn record at the end of the newest segment, which the replay
+ * cuts off; writes that reached the operating system survive the process, and {@link #flush()} or
+ * {@link #close()} makes them durable on disk.
+ * Full segments are sealed, and once enough of them accumulate a background thread copies their live
+ * records into one new segment and deletes them, which drops superseded records and tombstones.
+ * A write transaction keeps its writes in memory, where its own reads see them, and appends them as one
+ * batch when it succeeds. The records of a batch are marked, and the last one also commits it; replay
+ * drops a batch whose commit record never made it to disk, so a transaction applies completely or not at all.
+ * The store belongs to one process at a time; a second process cannot open it.
+ */
+public class LogStructuredActivityRepository implements ActivityRepository, Closeable {
+
+    public static final long DEFAULT_SEGMENT_BYTES = 4L * 1024 * 1024;
+
+    // Background compaction starts once this many segments are sealed
+    static final int COMPACTION_TRIGGER = 4;
+
+    private static final String LOCK_FILE = "lock";
+    private static final String STRINGS_FILE = "strings.log";
+    private static final String COMPACT_SUFFIX = ".compact";
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final byte HAS_END = 1;
+    private static final byte IN_TRANSACTION = 2;
+    private static final byte COMMITS = 4;
+
+    private static final Comparator<Activity> CHRONOLOGICAL =
+        Comparator.comparing(Activity::startTime).thenComparing(Activity::id);
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final int compactionTrigger;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock compactionLock = new ReentrantLock();
+    private final Map<Long, Location> index = new HashMap<>();
+    private final TreeMap<Long, LogSegment> segments = new TreeMap<>();
+    private final ByteBuffer record = ByteBuffer.allocate(LogSegment.RECORD_SIZE);
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(
+        Thread.ofPlatform().name("log-compactor").daemon().factory());
+    private FileChannel lockChannel;
+    private FileLock fileLock;
+    private StringLog strings;
+    private LogSegment active;
+    private long nextId = 1;
+    private boolean closed;
+    // Non-null while a write transaction is open: the latest write per id, null for a delete
+    private Map<Long, Activity> staged;
+
+    public LogStructuredActivityRepository(Path directory) {
+        this(directory, DEFAULT_SEGMENT_BYTES);
+    }
+
+    public LogStructuredActivityRepository(Path directory, long segmentBytes) {
+        this(directory, segmentBytes, COMPACTION_TRIGGER);
+    }
+
+    // Package-private for testing
+    LogStructuredActivityRepository(Path directory, long segmentBytes, int compactionTrigger) {
+        if (segmentBytes < LogSegment.HEADER_SIZE + LogSegment.RECORD_SIZE) {
+            throw new IllegalArgumentException("Segment size must hold at least one record");
+        }
+        this.directory = directory.toAbsolutePath();
+        this.segmentBytes = segmentBytes;
+        this.compactionTrigger = compactionTrigger;
+        try {
+            Files.createDirectories(this.directory);
+            acquireLock();
+            strings = StringLog.open(this.directory.resolve(STRINGS_FILE));
+            replay();
+        } catch (IOException e) {
+            closeQuietly();
+            throw new RuntimeException("Failed to open log store " + this.directory, e);
+        } catch (RuntimeException e) {
+            closeQuietly();
+            throw e;
+        }
+        scheduleCompaction();
+    }
+
+    private void acquireLock() throws IOException {
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            fileLock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            fileLock = null;
+        }
+        if (fileLock == null) {
+            throw new IllegalStateException("Log store " + directory + " is in use by another process");
+        }
+    }
+
+    /**
+     * Opens the segments and rebuilds the index. Segments that a compaction replaced but did not get to
+     * delete are removed first, as is the unfinished output of an interrupted compaction.
+     */
+    private void replay() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (file.getFileName().toString().endsWith(COMPACT_SUFFIX)) {
+                    Files.delete(file);
+                } else if (LogSegment.number(file) >= 0) {
+                    long number = LogSegment.number(file);
+                    segments.put(number, LogSegment.open(file, number));
+                }
+            }
+        }
+        for (LogSegment segment : new ArrayList<>(segments.descendingMap().values())) {
+            if (segments.containsKey(segment.number()) && segment.base() < segment.number()) {
+                for (LogSegment replaced : new ArrayList<>(segments.subMap(segment.base(), segment.number()).values())) {
+                    segments.remove(replaced.number());
+                    replaced.close();
+                    Files.delete(LogSegment.path(directory, replaced.number()));
+                }
+            }
+        }
+
+        metrics.counter("log.recovered.bytes").add(strings.recoveredBytes());
+        for (LogSegment segment : segments.values()) {
+            nextId = Math.max(nextId, segment.nextId());
+            // Records of a transaction whose commit record has not been seen yet
+            List<BatchRecord> batch = new ArrayList<>();
+            long scanned = segment.scan((offset, rec) -> {
+                if (!strings.contains(rec.getLong(40)) || !strings.contains(rec.getLong(48))
+                        || !strings.contains(rec.getLong(56))) {
+                    // Written after the strings it refers to were lost; only possible in a torn tail
+                    return false;
+                }
+                if ((rec.get(5) & IN_TRANSACTION) == 0) {
+                    apply(rec.getLong(8), rec.get(4), segment, offset);
+                    return true;
+                }
+                batch.add(new BatchRecord(rec.getLong(8), rec.get(4), offset));
+                if ((rec.get(5) & COMMITS) != 0) {
+                    for (BatchRecord committed : batch) {
+                        apply(committed.id(), committed.kind(), segment, committed.offset());
+                    }
+                    batch.clear();
+                }
+                return true;
+            });
+            // A batch is appended in one go, so an uncommitted one can only be the torn tail
+            long end = batch.isEmpty() ? scanned : batch.get(0).offset();
+            if (end < segment.size()) {
+                if (segment != segments.lastEntry().getValue()) {
+                    throw new IOException("Log segment " + segment.number() + " is damaged at offset " + end);
+                }
+                metrics.counter("log.recovered.bytes").add(segment.size() - end);
+                segment.truncate(end);
+            }
+        }
+
+        if (segments.isEmpty()) {
+            active = LogSegment.create(LogSegment.path(directory, 1), 1, 1, nextId);
+            segments.put(1L, active);
+        } else {
+            active = segments.lastEntry().getValue();
+        }
+    }
+
+    private void apply(long id, byte kind, LogSegment segment, long offset) {
+        nextId = Math.max(nextId, id + 1);
+        if (kind == DELETE) {
+            index.remove(id);
+        } else {
+            index.put(id, new Location(segment, offset));
+        }
+    }
+
+    @Override
+    public Activity save(Activity activity) {
+        lock.lock();
+        try {
+            Activity saved = new Activity(nextId, activity.startTime(), activity.endTime(), activity.activityType(),
+                activity.status(), activity.description());
+            store(PUT, saved);
+            nextId++;
+            return saved;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save activity", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Activity update(Activity activity) {
+        if (activity.id() == null) {
+            throw new IllegalArgumentException("Activity ID cannot be null for update");
+        }
+        lock.lock();
+        try {
+            if (!exists(activity.id())) {
+                throw new RuntimeException("Failed to update activity, no activity with ID " + activity.id());
+            }
+            store(PUT, activity);
+            return activity;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to update activity", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void delete(Long id) {
+        lock.lock();
+        try {
+            if (exists(id)) {
+                store(DELETE, new Activity(id, null, null, null, null, null));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to delete activity", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Activity> findById(Long id) {
+        lock.lock();
+        try {
+            if (staged != null && staged.containsKey(id)) {
+                return Optional.ofNullable(staged.get(id));
+            }
+            Location location = index.get(id);
+            if (location == null) {
+                return Optional.empty();
+            }
+            location.segment().read(location.offset(), record);
+            return Optional.of(decode(record));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to find activity by id", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Activity> findAll() {
+        return select(activity -> true, CHRONOLOGICAL);
+    }
+
+    @Override
+    public List<Activity> findByStatus(ActivityStatus status) {
+        return select(activity -> activity.status() == status, CHRONOLOGICAL.reversed());
+    }
+
+    @Override
+    public List<Activity> findByType(ActivityType type) {
+        return select(activity -> activity.activityType() == type, CHRONOLOGICAL.reversed());
+    }
+
+    @Override
+    public List<Activity> findByStartTime(LocalDateTime startTime) {
+        LocalDate day = startTime.toLocalDate();
+        return select(activity -> activity.startTime().toLocalDate().equals(day), CHRONOLOGICAL);
+    }
+
+    @Override
+    public List<Activity> findByDateRange(LocalDateTime from, LocalDateTime to) {
+        LocalDate first = from.toLocalDate();
+        LocalDate last = to.toLocalDate();
+        return select(activity -> {
+            LocalDate day = activity.startTime().toLocalDate();
+            return !day.isBefore(first) && !day.isAfter(last);
+        }, CHRONOLOGICAL);
+    }
+
+    @Override
+    public List<Activity> findPageAfter(LocalDateTime from, LocalDateTime to, PageCursor after, int limit) {
+        List<Activity> activities = select(activity -> inBounds(activity, from, to)
+            && (after == null || compare(activity, after) > 0), CHRONOLOGICAL);
+        return new ArrayList<>(activities.subList(0, Math.min(limit, activities.size())));
+    }
+
+    @Override
+    public List<Activity> findPageBefore(LocalDateTime from, LocalDateTime to, PageCursor before, int limit) {
+        if (before == null) {
+            throw new IllegalArgumentException("Cursor cannot be null when paging backwards");
+        }
+        List<Activity> activities = select(activity -> inBounds(activity, from, to)
+            && compare(activity, before) < 0, CHRONOLOGICAL);
+        return new ArrayList<>(activities.subList(Math.max(0, activities.size() - limit), activities.size()));
+    }
+
+    @Override
+    public void updateStatusByStatus(ActivityStatus currentStatus, ActivityStatus newStatus, LocalDateTime endTime) {
+        lock.lock();
+        try {
+            for (Activity activity : select(candidate -> candidate.status() == currentStatus, CHRONOLOGICAL)) {
+                store(PUT, new Activity(activity.id(), activity.startTime(), endTime, activity.activityType(),
+                    newStatus, activity.description()));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to update activities status", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs {@code work} while holding the store's lock, so no other thread reads or writes in between.
+     * Its writes are appended as one batch once it returns; when it throws nothing is appended and ids it
+     * took are handed out again. Calls made while a transaction is open on this thread join it.
+     */
+    @Override
+    public <T> T inWriteTransaction(String operation, Supplier<T> work) {
+        lock.lock();
+        try {
+            if (staged != null) {
+                return work.get();
+            }
+            staged = new LinkedHashMap<>();
+            long idBefore = nextId;
+            boolean committed = false;
+            try {
+                T result = work.get();
+                Map<Long, Activity> writes = staged;
+                staged = null;
+                writeBatch(writes);
+                committed = true;
+                return result;
+            } catch (IOException e) {
+                throw new RuntimeException("Transaction " + operation + " failed", e);
+            } finally {
+                staged = null;
+                if (!committed) {
+                    nextId = idBefore;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forces all appended records to disk.
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            // Strings first: a record must not reach the disk before the strings it refers to
+            strings.force();
+            active.force();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to flush log store", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Seals the current segment and compacts all sealed segments into one, waiting for the result.
+     * Returns the number of segments that were replaced.
+     */
+    public int compact() {
+        lock.lock();
+        try {
+            if (active.recordCount() > 0) {
+                roll();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to seal log segment", e);
+        } finally {
+            lock.unlock();
+        }
+        try {
+            return compactSealed();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to compact log store", e);
+        }
+    }
+
+    /**
+     * Number of segment files, including the one being appended to.
+     */
+    public int segmentCount() {
+        lock.lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            if (!closed) {
+                flush();
+                closeQuietly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeQuietly() {
+        closed = true;
+        List<Closeable> resources = new ArrayList<>(segments.values());
+        resources.add(strings);
+        resources.add(lockChannel);
+        for (Closeable resource : resources) {
+            try {
+                if (resource != null) {
+                    // Closing the channel also releases the file lock
+                    resource.close();
+                }
+            } catch (IOException e) {
+                // Nothing left to do with the file
+            }
+        }
+    }
+
+    private List<Activity> select(Predicate<Activity> filter, Comparator<Activity> order) {
+        lock.lock();
+        try {
+            List<Activity> activities = new ArrayList<>();
+            for (LogSegment segment : segments.values()) {
+                long end = segment.scan((offset, rec) -> {
+                    Location location = index.get(rec.getLong(8));
+                    if (location != null && location.segment() == segment && location.offset() == offset
+                            && (staged == null || !staged.containsKey(rec.getLong(8)))) {
+                        Activity activity = decode(rec);
+                        if (filter.test(activity)) {
+                            activities.add(activity);
+                        }
+                    }
+                    return true;
+                });
+                if (end < segment.size()) {
+                    throw new IOException("Log segment " + segment.number() + " is damaged at offset " + end);
+                }
+            }
+            if (staged != null) {
+                for (Activity activity : staged.values()) {
+                    if (activity != null && filter.test(activity)) {
+                        activities.add(activity);
+                    }
+                }
+            }
+            activities.sort(order);
+            return activities;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read activities", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean exists(long id) {
+        if (staged != null && staged.containsKey(id)) {
+            return staged.get(id) != null;
+        }
+        return index.containsKey(id);
+    }
+
+    /**
+     * Writes a record, or keeps it for the end of the open transaction.
+     */
+    private void store(byte kind, Activity activity) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Log store " + directory + " is closed");
+        }
+        if (kind == PUT && (activity.startTime() == null || activity.activityType() == null || activity.status() == null)) {
+            throw new IllegalArgumentException("Activity start time, type and status are required");
+        }
+        if (staged != null) {
+            staged.put(activity.id(), kind == PUT ? activity : null);
+            return;
+        }
+        if (active.size() + LogSegment.RECORD_SIZE > segmentBytes && active.recordCount() > 0) {
+            roll();
+        }
+        encode(kind, activity);
+        long offset = active.append(record);
+        apply(activity.id(), kind, active, offset);
+        metrics.counter("log.append").increment();
+    }
+
+    /**
+     * Appends the writes of a transaction as one batch in a single segment. The index only changes once
+     * the whole batch is written; a failure part way cuts the batch off again.
+     */
+    private void writeBatch(Map<Long, Activity> writes) throws IOException {
+        if (writes.isEmpty()) {
+            return;
+        }
+        if (closed) {
+            throw new IllegalStateException("Log store " + directory + " is closed");
+        }
+        if (active.size() + (long) writes.size() * LogSegment.RECORD_SIZE > segmentBytes && active.recordCount() > 0) {
+            roll();
+        }
+        long start = active.size();
+        List<Long> offsets = new ArrayList<>();
+        try {
+            int remaining = writes.size();
+            for (Map.Entry<Long, Activity> write : writes.entrySet()) {
+                Activity activity = write.getValue();
+                encode(activity != null ? PUT : DELETE,
+                    activity != null ? activity : new Activity(write.getKey(), null, null, null, null, null));
+                record.put(5, (byte) (record.get(5) | IN_TRANSACTION | (--remaining == 0 ? COMMITS : 0)));
+                offsets.add(active.append(record));
+            }
+        } catch (IOException e) {
+            active.truncate(start);
+            throw e;
+        }
+        int i = 0;
+        for (Map.Entry<Long, Activity> write : writes.entrySet()) {
+            apply(write.getKey(), write.getValue() != null ? PUT : DELETE, active, offsets.get(i++));
+        }
+        metrics.counter("log.append").add(writes.size());
+    }
+
+    private void encode(byte kind, Activity activity) throws IOException {
+        record.clear();
+        record.put(4, kind);
+        record.putLong(8, activity.id());
+        if (kind == PUT) {
+            LocalDateTime start = activity.startTime();
+            LocalDateTime end = activity.endTime();
+            record.put(5, end != null ? HAS_END : 0);
+            record.putLong(16, start.toEpochSecond(ZoneOffset.UTC));
+            record.putInt(24, start.getNano());
+            record.putInt(28, end != null ? end.getNano() : 0);
+            record.putLong(32, end != null ? end.toEpochSecond(ZoneOffset.UTC) : 0);
+            record.putLong(40, strings.intern(activity.activityType().name()));
+            record.putLong(48, strings.intern(activity.status().name()));
+            record.putLong(56, strings.intern(activity.description()));
+        } else {
+            record.put(5, (byte) 0);
+            record.putLong(16, 0).putInt(24, 0).putInt(28, 0).putLong(32, 0);
+            record.putLong(40, StringLog.NONE).putLong(48, StringLog.NONE).putLong(56, StringLog.NONE);
+        }
+    }
+
+    private Activity decode(ByteBuffer rec) throws IOException {
+        LocalDateTime start = LocalDateTime.ofEpochSecond(rec.getLong(16), rec.getInt(24), ZoneOffset.UTC);
+        LocalDateTime end = (rec.get(5) & HAS_END) != 0
+            ? LocalDateTime.ofEpochSecond(rec.getLong(32), rec.getInt(28), ZoneOffset.UTC)
+            : null;
+        return new Activity(
+            rec.getLong(8),
+            start,
+            end,
+            ActivityType.valueOf(strings.get(rec.getLong(40))),
+            ActivityStatus.valueOf(strings.get(rec.getLong(48))),
+            strings.get(rec.getLong(56)));
+    }
+
+    /**
+     * Seals the active segment and starts a new one.
+     */
+    private void roll() throws IOException {
+        active.force();
+        long number = active.number() + 1;
+        active = LogSegment.create(LogSegment.path(directory, number), number, number, nextId);
+        segments.put(number, active);
+        scheduleCompaction();
+    }
+
+    private void scheduleCompaction() {
+        if (segments.size() - 1 >= compactionTrigger && !compactionLock.isLocked() && !compactor.isShutdown()) {
+            compactor.execute(() -> {
+                try {
+                    if (compactSealed() == 0) {
+                        return;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // The sealed segments stay as they are; the next roll tries again
+                    metrics.counter("log.compact.failed").increment();
+                    return;
+                }
+                // Rolls during the compaction did not schedule one; catch up on the segments they sealed
+                lock.lock();
+                try {
+                    if (!closed) {
+                        scheduleCompaction();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            });
+        }
+    }
+
+    /**
+     * Copies the live records of all sealed segments into one file that takes the place of the newest of
+     * them. The copy runs without the lock, which is safe because sealed segments do not change; records
+     * that are superseded while it runs stay superseded, as their newer versions are in the active segment.
+     * Compactions run one at a time.
+     */
+    private int compactSealed() throws IOException {
+        compactionLock.lock();
+        try {
+            return compactSealedLocked();
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    private int compactSealedLocked() throws IOException {
+        List<LogSegment> sealed;
+        List<Map.Entry<Long, Location>> live = new ArrayList<>();
+        long idSnapshot;
+        lock.lock();
+        try {
+            sealed = new ArrayList<>(segments.headMap(active.number()).values());
+            if (closed || sealed.isEmpty()) {
+                return 0;
+            }
+            for (Map.Entry<Long, Location> entry : index.entrySet()) {
+                if (entry.getValue().segment() != active) {
+                    live.add(Map.entry(entry.getKey(), entry.getValue()));
+                }
+            }
+            if (sealed.size() == 1 && live.size() == sealed.get(0).recordCount()) {
+                // A single segment without dead records is already compact
+                return 0;
+            }
+            idSnapshot = nextId;
+        } finally {
+            lock.unlock();
+        }
+
+        try (Timer.Sample ignored = metrics.timer("log.compact").start()) {
+            live.sort(Comparator.comparing((Map.Entry<Long, Location> entry) -> entry.getValue().segment().number())
+                .thenComparing(entry -> entry.getValue().offset()));
+            LogSegment newest = sealed.get(sealed.size() - 1);
+            Path target = LogSegment.path(directory, newest.number());
+            Path temporary = target.resolveSibling(target.getFileName() + COMPACT_SUFFIX);
+            Map<Long, Long> moved = new HashMap<>();
+            ByteBuffer buffer = ByteBuffer.allocate(LogSegment.RECORD_SIZE);
+            try (LogSegment output = LogSegment.create(temporary, newest.number(), sealed.get(0).base(), idSnapshot)) {
+                for (Map.Entry<Long, Location> entry : live) {
+                    entry.getValue().segment().read(entry.getValue().offset(), buffer);
+                    // Sealed segments only hold committed batches; the copies stand on their own
+                    buffer.put(5, (byte) (buffer.get(5) & HAS_END));
+                    moved.put(entry.getKey(), output.append(buffer));
+                }
+                output.force();
+            } catch (IOException e) {
+                Files.deleteIfExists(temporary);
+                throw e;
+            }
+
+            lock.lock();
+            try {
+                for (LogSegment segment : sealed) {
+                    segment.close();
+                    segments.remove(segment.number());
+                }
+                move(temporary, target);
+                for (LogSegment segment : sealed) {
+                    if (segment != newest) {
+                        Files.delete(LogSegment.path(directory, segment.number()));
+                    }
+                }
+                LogSegment compacted = LogSegment.open(target, newest.number());
+                segments.put(compacted.number(), compacted);
+                for (Map.Entry<Long, Location> entry : live) {
+                    // Only entries that still point at the copied record move; newer writes keep their place
+                    if (index.get(entry.getKey()) == entry.getValue()) {
+                        index.put(entry.getKey(), new Location(compacted, moved.get(entry.getKey())));
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            metrics.counter("log.compact.segments").add(sealed.size());
+            return sealed.size();
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static boolean inBounds(Activity activity, LocalDateTime from, LocalDateTime to) {
+        return (from == null || !activity.startTime().isBefore(from)) && (to == null || activity.startTime().isBefore(to));
+    }
+
+    private static int compare(Activity activity, PageCursor cursor) {
+        int byStart = activity.startTime().compareTo(cursor.startTime());
+        return byStart != 0 ? byStart : Long.compare(activity.id(), cursor.id());
+    }
+
+    /**
+     * Where the latest record of an activity is stored.
+     */
+    private record Location(LogSegment segment, long offset) {
+    }
+
+    /**
+     * A record of a transaction read during replay, applied once the transaction's commit record is read.
+     */
+    private record BatchRecord(long id, byte kind, long offset) {
+    }
+}
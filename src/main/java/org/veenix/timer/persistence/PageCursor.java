@@ -0,0 +1,15 @@
+package org.veenix.timer.persistence;
+
+import org.veenix.timer.model.Activity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position of an activity in (start_time, id) order, used for keyset pagination.
+ */
+public record PageCursor(LocalDateTime startTime, long id) {
+
+    public static PageCursor of(Activity activity) {
+        return new PageCursor(activity.startTime(), activity.id());
+    }
+}
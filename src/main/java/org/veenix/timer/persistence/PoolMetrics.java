@@ -0,0 +1,25 @@
+package org.veenix.timer.persistence;
+
+import java.time.Duration;
+
+/**
+ * Point-in-time snapshot of {@link ReadConnectionPool} usage.
+ */
+public record PoolMetrics(
+    int active,
+    int idle,
+    int maxSize,
+    long acquisitions,
+    long totalWaitNanos,
+    long maxWaitNanos,
+    long created,
+    long evicted
+) {
+    public Duration averageWait() {
+        return acquisitions == 0 ? Duration.ZERO : Duration.ofNanos(totalWaitNanos / acquisitions);
+    }
+
+    public Duration maxWait() {
+        return Duration.ofNanos(maxWaitNanos);
+    }
+}
@@ -0,0 +1,118 @@
+package org.veenix.timer.persistence;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs EXPLAIN QUERY PLAN for the statements in {@link SqlQueries} and flags plans that
+ * read a whole table or need a temporary b-tree to sort.
+ */
+public class QueryPlanAnalyzer {
+
+    private static final List<String> STATEMENT_PREFIXES = List.of("SELECT", "INSERT", "UPDATE", "DELETE", "WITH");
+
+    private final DatabaseConnection dbConnection;
+
+    public QueryPlanAnalyzer(DatabaseConnection dbConnection) {
+        this.dbConnection = dbConnection;
+    }
+
+    /**
+     * Explains every query and data-changing statement in {@link SqlQueries}, in declaration order,
+     * except those only used by schema migrations and templates that are completed at runtime, such as the
+     * statements on an archive database.
+     * Parameters are left unbound, which SQLite treats as NULL; that does not change the chosen plan.
+     */
+    public List<Plan> analyzeAll() {
+        List<Plan> plans = new ArrayList<>();
+
+        try (ReadConnectionPool.Lease lease = dbConnection.getReadConnection()) {
+            for (Map.Entry<String, String> statement : statements().entrySet()) {
+                plans.add(new Plan(statement.getKey(), statement.getValue(),
+                    explain(lease.connection(), statement.getValue(), null)));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to analyze query plans", e);
+        }
+
+        return plans;
+    }
+
+    /**
+     * Returns the plan steps for a statement, indented two spaces per nesting level.
+     */
+    static List<String> explain(Connection connection, String sql, SqlExecutor.Binder binder) throws SQLException {
+        List<String> steps = new ArrayList<>();
+        Map<Integer, Integer> depthById = new HashMap<>();
+
+        try (PreparedStatement stmt = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            if (binder != null) {
+                binder.bind(stmt);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int id = rs.getInt("id");
+                    int depth = depthById.getOrDefault(rs.getInt("parent"), -1) + 1;
+                    depthById.put(id, depth);
+                    steps.add("  ".repeat(depth) + rs.getString("detail"));
+                }
+            }
+        }
+
+        return steps;
+    }
+
+    // Package-private for testing
+    static Map<String, String> statements() {
+        Map<String, String> statements = new LinkedHashMap<>();
+        Set<String> migrationStatements = SchemaMigrations.statements();
+        for (Field field : SqlQueries.class.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (!Modifier.isStatic(modifiers) || !Modifier.isPublic(modifiers) || field.getType() != String.class) {
+                continue;
+            }
+            try {
+                String sql = (String) field.get(null);
+                String keyword = sql.strip().split("\\s+", 2)[0].toUpperCase(Locale.ROOT);
+                if (STATEMENT_PREFIXES.contains(keyword) && !migrationStatements.contains(sql) && !sql.contains("%s")) {
+                    statements.put(field.getName(), sql);
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot read SqlQueries." + field.getName(), e);
+            }
+        }
+        return statements;
+    }
+
+    // Package-private for testing
+    static boolean isFullScan(String step) {
+        String detail = step.strip();
+        // SCAN visits every row, also when it walks an index to avoid sorting; SEARCH uses an index
+        // to narrow the rows. Virtual table (FTS) scans are answered by the module's own index.
+        return detail.startsWith("SCAN ")
+            && !detail.contains("VIRTUAL TABLE")
+            && !detail.equals("SCAN CONSTANT ROW");
+    }
+
+    public record Plan(String name, String sql, List<String> steps) {
+
+        public boolean fullScan() {
+            return steps.stream().anyMatch(QueryPlanAnalyzer::isFullScan);
+        }
+
+        public boolean tempSort() {
+            return steps.stream().anyMatch(step -> step.contains("USE TEMP B-TREE"));
+        }
+    }
+}
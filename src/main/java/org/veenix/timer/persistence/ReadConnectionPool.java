@@ -0,0 +1,284 @@
+package org.veenix.timer.persistence;
+
+import org.sqlite.SQLiteConfig;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of read-only SQLite connections.
+ * Readers never share the writer connection, so long-running queries (exports, full listings)
+ * do not block start/stop writes. The database must be in WAL mode for readers and the writer
+ * to proceed concurrently; {@link DatabaseConnection} takes care of that.
+ */
+public class ReadConnectionPool {
+
+    private static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 60_000;
+    private static final long DEFAULT_ACQUIRE_TIMEOUT_MILLIS = 30_000;
+    private static final long VALIDATION_INTERVAL_MILLIS = 5_000;
+
+    private final String dbUrl;
+    private final int maxSize;
+    private final long idleTimeoutNanos;
+    private final long acquireTimeoutMillis;
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong acquisitions = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private int generation = 0;
+    private volatile int busyTimeoutMillis = -1;
+
+    public ReadConnectionPool(String dbUrl, int maxSize) {
+        this(dbUrl, maxSize, DEFAULT_IDLE_TIMEOUT_MILLIS, DEFAULT_ACQUIRE_TIMEOUT_MILLIS);
+    }
+
+    public ReadConnectionPool(String dbUrl, int maxSize, long idleTimeoutMillis, long acquireTimeoutMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Pool size must be greater than 0");
+        }
+        this.dbUrl = dbUrl;
+        this.maxSize = maxSize;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Sets the busy timeout for connections opened from now on. A negative value keeps the driver default.
+     */
+    public void setBusyTimeoutMillis(int busyTimeoutMillis) {
+        this.busyTimeoutMillis = busyTimeoutMillis;
+    }
+
+    /**
+     * Borrows a read-only connection, waiting if all connections are in use.
+     * The returned lease must be closed to hand the connection back to the pool.
+     */
+    public Lease acquire() {
+        long waitStart = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new RuntimeException("Timed out waiting for a read connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a read connection", e);
+        }
+        recordWait(System.nanoTime() - waitStart);
+
+        try {
+            PooledConnection pooled = takeHealthyIdleConnection();
+            if (pooled == null) {
+                pooled = openConnection();
+            }
+            active.incrementAndGet();
+            return new Lease(this, pooled);
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public PoolMetrics metrics() {
+        int idleCount;
+        synchronized (this) {
+            idleCount = idle.size();
+        }
+        return new PoolMetrics(
+            active.get(),
+            idleCount,
+            maxSize,
+            acquisitions.get(),
+            totalWaitNanos.get(),
+            maxWaitNanos.get(),
+            created.get(),
+            evicted.get()
+        );
+    }
+
+    /**
+     * Closes all idle connections. Connections that are currently leased are closed when they
+     * are returned, so the pool can keep serving new requests afterwards.
+     */
+    public void close() {
+        synchronized (this) {
+            generation++;
+            while (!idle.isEmpty()) {
+                closeQuietly(idle.pollFirst().connection);
+            }
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        active.decrementAndGet();
+        try {
+            boolean reusable;
+            synchronized (this) {
+                reusable = pooled.generation == generation && !isClosed(pooled.connection);
+                if (reusable) {
+                    pooled.lastUsedNanos = System.nanoTime();
+                    idle.addFirst(pooled);
+                }
+                evictIdleConnections();
+            }
+            if (!reusable) {
+                closeQuietly(pooled.connection);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private PooledConnection takeHealthyIdleConnection() {
+        while (true) {
+            PooledConnection pooled;
+            synchronized (this) {
+                evictIdleConnections();
+                pooled = idle.pollFirst();
+            }
+            if (pooled == null) {
+                return null;
+            }
+            if (isHealthy(pooled)) {
+                return pooled;
+            }
+            evicted.incrementAndGet();
+            closeQuietly(pooled.connection);
+        }
+    }
+
+    // Caller must hold the pool monitor
+    private void evictIdleConnections() {
+        long now = System.nanoTime();
+        Iterator<PooledConnection> iterator = idle.descendingIterator();
+        while (iterator.hasNext()) {
+            PooledConnection pooled = iterator.next();
+            if (now - pooled.lastUsedNanos < idleTimeoutNanos) {
+                // Idle deque is ordered most-recently-used first, so the rest are younger
+                break;
+            }
+            iterator.remove();
+            evicted.incrementAndGet();
+            closeQuietly(pooled.connection);
+        }
+    }
+
+    private boolean isHealthy(PooledConnection pooled) {
+        if (isClosed(pooled.connection)) {
+            return false;
+        }
+        if (System.nanoTime() - pooled.lastUsedNanos < TimeUnit.MILLISECONDS.toNanos(VALIDATION_INTERVAL_MILLIS)) {
+            return true;
+        }
+        try {
+            return pooled.connection.isValid(1);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection openConnection() {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setReadOnly(true);
+        if (busyTimeoutMillis >= 0) {
+            config.setBusyTimeout(busyTimeoutMillis);
+        }
+        try {
+            Connection connection = config.createConnection(dbUrl);
+            created.incrementAndGet();
+            synchronized (this) {
+                return new PooledConnection(connection, generation);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to open read connection", e);
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        acquisitions.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    private static boolean isClosed(Connection connection) {
+        try {
+            return connection.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // Connection is being discarded anyway
+        }
+    }
+
+    private static final class PooledConnection {
+        private final Connection connection;
+        private final int generation;
+        private long lastUsedNanos = System.nanoTime();
+
+        private PooledConnection(Connection connection, int generation) {
+            this.connection = connection;
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * A borrowed read connection. Closing the lease returns the connection to the pool.
+     */
+    public static final class Lease implements AutoCloseable {
+        private final ReadConnectionPool pool;
+        private final PooledConnection pooled;
+        private final Connection shared;
+        private boolean released = false;
+
+        private Lease(ReadConnectionPool pool, PooledConnection pooled) {
+            this.pool = pool;
+            this.pooled = pooled;
+            this.shared = null;
+        }
+
+        private Lease(Connection shared) {
+            this.pool = null;
+            this.pooled = null;
+            this.shared = shared;
+        }
+
+        /**
+         * Wraps a connection that is not owned by a pool, e.g. the writer connection of an
+         * in-memory database which cannot be opened a second time.
+         */
+        static Lease shared(Connection connection) {
+            return new Lease(connection);
+        }
+
+        public Connection connection() {
+            return shared != null ? shared : pooled.connection;
+        }
+
+        @Override
+        public void close() {
+            if (released || pool == null) {
+                return;
+            }
+            released = true;
+            pool.release(pooled);
+        }
+    }
+}
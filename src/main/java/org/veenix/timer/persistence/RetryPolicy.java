@@ -0,0 +1,48 @@
+package org.veenix.timer.persistence;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How often and how long to back off when SQLite reports the database as busy.
+ * SQLite's own busy timeout already waits for the lock; these retries cover the cases it does not,
+ * such as a lock that is still held when the timeout runs out. Delays double per attempt up to
+ * {@code maxBackoff}, with jitter so competing processes do not retry in lock step.
+ */
+public record RetryPolicy(int maxRetries, Duration initialBackoff, Duration maxBackoff) {
+
+    private static final RetryPolicy DEFAULTS = new RetryPolicy(5, Duration.ofMillis(50), Duration.ofSeconds(2));
+
+    public RetryPolicy {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("Retries cannot be negative");
+        }
+        if (initialBackoff.isNegative() || maxBackoff.compareTo(initialBackoff) < 0) {
+            throw new IllegalArgumentException("Backoff must be positive and no larger than the maximum backoff");
+        }
+    }
+
+    public static RetryPolicy defaults() {
+        return DEFAULTS;
+    }
+
+    public static RetryPolicy withRetries(int maxRetries) {
+        return new RetryPolicy(maxRetries, DEFAULTS.initialBackoff(), DEFAULTS.maxBackoff());
+    }
+
+    /**
+     * Returns the delay before the given retry (1-based): between half and all of
+     * {@code initialBackoff * 2^(retry - 1)}, capped at {@code maxBackoff}.
+     */
+    public Duration backoff(int retry) {
+        long initialNanos = initialBackoff.toNanos();
+        long ceilingNanos = maxBackoff.toNanos();
+        long nanos = initialNanos;
+        for (int i = 1; i < retry && nanos < ceilingNanos; i++) {
+            nanos *= 2;
+        }
+        nanos = Math.min(nanos, ceilingNanos);
+        long half = nanos / 2;
+        return Duration.ofNanos(half + ThreadLocalRandom.current().nextLong(nanos - half + 1));
+    }
+}
@@ -0,0 +1,150 @@
+package org.veenix.timer.persistence;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Brings the database schema up to date. The current version is stored in {@code PRAGMA user_version};
+ * each migration runs in its own transaction and bumps the version when it commits. A migration that
+ * has to run outside a transaction, such as a VACUUM, must be safe to repeat, because it is applied again
+ * when the process stops before the version is bumped.
+ */
+final class SchemaMigrations {
+
+    private static final List<Migration> MIGRATIONS = List.of(
+        // 1: move descriptions into a deduplicated dictionary and index the dictionary for full-text search
+        Migration.of(
+            SqlQueries.CREATE_DESCRIPTION_TABLE,
+            SqlQueries.POPULATE_DESCRIPTION_TABLE,
+            SqlQueries.ADD_DESCRIPTION_ID_COLUMN,
+            SqlQueries.POPULATE_DESCRIPTION_ID_COLUMN,
+            SqlQueries.DROP_LEGACY_FTS_INSERT_TRIGGER,
+            SqlQueries.DROP_LEGACY_FTS_DELETE_TRIGGER,
+            SqlQueries.DROP_LEGACY_FTS_UPDATE_TRIGGER,
+            SqlQueries.DROP_LEGACY_FTS_TABLE,
+            SqlQueries.DROP_DESCRIPTION_COLUMN,
+            SqlQueries.CREATE_DESCRIPTION_ID_INDEX,
+            SqlQueries.CREATE_DESCRIPTION_FTS_TABLE,
+            SqlQueries.CREATE_DESCRIPTION_FTS_INSERT_TRIGGER,
+            SqlQueries.CREATE_DESCRIPTION_FTS_DELETE_TRIGGER,
+            SqlQueries.REBUILD_DESCRIPTION_FTS
+        ),
+        // 2: index for keyset pagination on (start_time, id)
+        Migration.of(
+            SqlQueries.CREATE_START_TIME_INDEX
+        ),
+        // 3: catalog of the archive databases
+        Migration.of(
+            SqlQueries.CREATE_ARCHIVE_CATALOG_TABLE
+        ),
+        // 4: persisted mutation counter for opportunistic maintenance
+        Migration.of(
+            SqlQueries.CREATE_MAINTENANCE_TABLE,
+            SqlQueries.SEED_MAINTENANCE_ROW
+        ),
+        // 5: return freed pages to the file system a few at a time instead of only on a full VACUUM. Rewriting
+        // an existing file here would stall the first command after an upgrade, so the conversion is left to
+        // 'activity db optimize --full'
+        Migration.withoutTransaction(
+            SqlQueries.ENABLE_INCREMENTAL_AUTO_VACUUM
+        ),
+        // 6: per-day content digests, kept current by triggers, for comparing two databases
+        Migration.of(
+            SqlQueries.CREATE_DAY_DIGEST_TABLE,
+            SqlQueries.CREATE_DAY_DIGEST_INSERT_TRIGGER,
+            SqlQueries.CREATE_DAY_DIGEST_UPDATE_TRIGGER,
+            SqlQueries.CREATE_DAY_DIGEST_DELETE_TRIGGER,
+            SqlQueries.POPULATE_DAY_DIGEST_TABLE
+        ),
+        // 7: change log for shipping committed changes to a read-only replica, off until replication starts
+        Migration.of(
+            SqlQueries.CREATE_REPLICATION_TABLE,
+            SqlQueries.CREATE_CHANGE_LOG_TABLE,
+            SqlQueries.CREATE_CHANGE_LOG_INSERT_TRIGGER,
+            SqlQueries.CREATE_CHANGE_LOG_UPDATE_TRIGGER,
+            SqlQueries.CREATE_CHANGE_LOG_DELETE_TRIGGER
+        )
+    );
+
+    private SchemaMigrations() {
+        // Utility class
+    }
+
+    /**
+     * Returns every statement used by a migration. These run once against an older schema
+     * and are not valid against the current one.
+     */
+    static Set<String> statements() {
+        Set<String> statements = new HashSet<>();
+        MIGRATIONS.forEach(migration -> statements.addAll(migration.statements()));
+        return statements;
+    }
+
+    static int latestVersion() {
+        return MIGRATIONS.size();
+    }
+
+    static void migrate(Connection connection) throws SQLException {
+        int version = currentVersion(connection);
+        for (int next = version + 1; next <= MIGRATIONS.size(); next++) {
+            Migration migration = MIGRATIONS.get(next - 1);
+            if (migration.transactional()) {
+                apply(connection, next, migration.statements());
+            } else {
+                applyWithoutTransaction(connection, next, migration.statements());
+            }
+        }
+    }
+
+    static int currentVersion(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(SqlQueries.GET_SCHEMA_VERSION)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void apply(Connection connection, int version, List<String> statements) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+            stmt.execute(String.format(SqlQueries.SET_SCHEMA_VERSION, version));
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw new SQLException("Schema migration to version " + version + " failed", e);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void applyWithoutTransaction(Connection connection, int version, List<String> statements)
+            throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+            stmt.execute(String.format(SqlQueries.SET_SCHEMA_VERSION, version));
+        } catch (SQLException e) {
+            throw new SQLException("Schema migration to version " + version + " failed", e);
+        }
+    }
+
+    private record Migration(List<String> statements, boolean transactional) {
+
+        static Migration of(String... statements) {
+            return new Migration(List.of(statements), true);
+        }
+
+        static Migration withoutTransaction(String... statements) {
+            return new Migration(List.of(statements), false);
+        }
+    }
+}
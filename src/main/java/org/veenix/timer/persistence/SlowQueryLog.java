@@ -0,0 +1,116 @@
+package org.veenix.timer.persistence;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Appends statements that take longer than a threshold to a log file, together with their
+ * bound parameters, row count and EXPLAIN QUERY PLAN output.
+ * Nothing is captured for statements under the threshold.
+ */
+class SlowQueryLog {
+
+    private final long thresholdNanos;
+    private final Path file;
+
+    SlowQueryLog(Duration threshold, Path file) {
+        this.thresholdNanos = threshold.toNanos();
+        this.file = file;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= thresholdNanos;
+    }
+
+    /**
+     * Writes one entry. Failing to explain or write must not fail the statement that was logged,
+     * so problems are reported on stderr only.
+     */
+    synchronized void record(Connection connection, String operation, String sql, SqlExecutor.Binder binder,
+                             long elapsedNanos, long rows) {
+        StringBuilder entry = new StringBuilder();
+        entry.append("# ").append(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS))
+            .append(' ').append(operation)
+            .append(String.format(Locale.ROOT, " %.3f ms", elapsedNanos / 1_000_000.0))
+            .append(", ").append(rows).append(rows == 1 ? " row" : " rows")
+            .append(System.lineSeparator());
+
+        try {
+            entry.append("# parameters: ").append(formatParameters(captureParameters(binder)))
+                .append(System.lineSeparator());
+            entry.append("# plan:").append(System.lineSeparator());
+            for (String step : QueryPlanAnalyzer.explain(connection, sql, binder)) {
+                entry.append("#   ").append(step).append(System.lineSeparator());
+            }
+        } catch (SQLException e) {
+            entry.append("# plan unavailable: ").append(e.getMessage()).append(System.lineSeparator());
+        }
+
+        entry.append(sql.strip()).append(';').append(System.lineSeparator()).append(System.lineSeparator());
+
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(entry.toString());
+        } catch (IOException e) {
+            System.err.println("Failed to write slow query log " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs the binder against a stand-in statement that only records the set calls.
+     */
+    static Map<Integer, Object> captureParameters(SqlExecutor.Binder binder) throws SQLException {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        PreparedStatement recorder = (PreparedStatement) Proxy.newProxyInstance(
+            SlowQueryLog.class.getClassLoader(),
+            new Class<?>[]{PreparedStatement.class},
+            (proxy, method, args) -> {
+                if (method.getName().startsWith("set") && args != null && args.length >= 2
+                        && args[0] instanceof Integer index) {
+                    parameters.put(index, method.getName().equals("setNull") ? null : args[1]);
+                    return null;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+        binder.bind(recorder);
+        return parameters;
+    }
+
+    private static String formatParameters(Map<Integer, Object> parameters) {
+        if (parameters.isEmpty()) {
+            return "none";
+        }
+        return parameters.entrySet().stream()
+            .map(e -> e.getKey() + "=" + formatValue(e.getValue()))
+            .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    private static String formatValue(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof String text) {
+            return "'" + text.replace("'", "''") + "'";
+        }
+        return String.valueOf(value);
+    }
+}
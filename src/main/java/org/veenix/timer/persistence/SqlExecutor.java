@@ -0,0 +1,187 @@
+package org.veenix.timer.persistence;
+
+import org.veenix.timer.metrics.Counter;
+import org.veenix.timer.metrics.MetricsRegistry;
+import org.veenix.timer.metrics.RepositoryOperationEvent;
+import org.veenix.timer.metrics.Timer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the repository's statements and records per-operation metrics.
+ * Queries read through a pooled read connection, updates go through the writer.
+ * For every operation {@code sql.<operation>} times the whole call and {@code sql.<operation>.map}
+ * the time spent turning rows into objects, and a {@link RepositoryOperationEvent} is emitted for JFR.
+ * Statements slower than the configured threshold go to the {@link SlowQueryLog}.
+ * A statement that finds the database locked by another process is retried with backoff.
+ */
+class SqlExecutor {
+
+    @FunctionalInterface
+    interface Binder {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Builds the statement on the connection it will run on, e.g. after attaching the databases it reads.
+     */
+    @FunctionalInterface
+    interface StatementSource {
+        String sql(Connection connection) throws SQLException;
+
+        /**
+         * Undoes what {@link #sql} changed on the connection, once the statement has run.
+         */
+        default void release(Connection connection) throws SQLException {
+        }
+
+        /**
+         * Whether {@link #sql} changes the connection, so it needs a pooled one rather than the writer of a
+         * write transaction that is open on this thread; it then only sees committed data.
+         */
+        default boolean changesConnection() {
+            return false;
+        }
+    }
+
+    private static final Binder NO_PARAMETERS = stmt -> { };
+
+    private final DatabaseConnection dbConnection;
+    private final MetricsRegistry metrics;
+    private final Counter rowsRead;
+
+    SqlExecutor(DatabaseConnection dbConnection) {
+        this.dbConnection = dbConnection;
+        this.metrics = dbConnection.getMetrics();
+        this.rowsRead = metrics.counter("sql.rows");
+    }
+
+    <T> List<T> query(String operation, String sql, RowMapper<T> mapper) throws SQLException {
+        return query(operation, sql, NO_PARAMETERS, mapper);
+    }
+
+    <T> List<T> query(String operation, String sql, Binder binder, RowMapper<T> mapper) throws SQLException {
+        return query(operation, connection -> sql, binder, mapper);
+    }
+
+    <T> List<T> query(String operation, StatementSource source, Binder binder, RowMapper<T> mapper) throws SQLException {
+        return dbConnection.read(operation, () -> runQuery(operation, source, binder, mapper));
+    }
+
+    private <T> List<T> runQuery(String operation, StatementSource source, Binder binder, RowMapper<T> mapper)
+            throws SQLException {
+        List<T> results = new ArrayList<>();
+        RepositoryOperationEvent event = new RepositoryOperationEvent();
+        event.begin();
+        long startNanos = System.nanoTime();
+
+        try (ReadConnectionPool.Lease lease = source.changesConnection()
+                 ? dbConnection.getPooledReadConnection() : dbConnection.getReadConnection()) {
+            try {
+                String sql = source.sql(lease.connection());
+                try (PreparedStatement stmt = lease.connection().prepareStatement(sql)) {
+                    binder.bind(stmt);
+
+                    long mapNanos = 0;
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            long mapStart = System.nanoTime();
+                            results.add(mapper.map(rs));
+                            mapNanos += System.nanoTime() - mapStart;
+                        }
+                    }
+                    metrics.timer("sql." + operation + ".map").record(mapNanos);
+                    rowsRead.add(results.size());
+
+                    // Still holding the lease, so a slow statement can be explained on the same connection
+                    completed(event, lease.connection(), operation, sql, binder, startNanos, results.size());
+                }
+            } finally {
+                source.release(lease.connection());
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Executes an insert, update or delete on the writer connection and returns the affected row count.
+     */
+    int update(String operation, String sql, Binder binder) throws SQLException {
+        return dbConnection.write(operation, () -> runUpdate(operation, sql, binder));
+    }
+
+    private int runUpdate(String operation, String sql, Binder binder) throws SQLException {
+        RepositoryOperationEvent event = new RepositoryOperationEvent();
+        event.begin();
+        long startNanos = System.nanoTime();
+        Connection connection = dbConnection.getConnection();
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            binder.bind(stmt);
+            int affectedRows = stmt.executeUpdate();
+            dbConnection.countChangedRows(affectedRows);
+            completed(event, connection, operation, sql, binder, startNanos, affectedRows);
+            return affectedRows;
+        }
+    }
+
+    /**
+     * Executes an insert on the writer connection and returns the generated key, or null when none was returned.
+     */
+    Long insert(String operation, String sql, Binder binder) throws SQLException {
+        return dbConnection.write(operation, () -> runInsert(operation, sql, binder));
+    }
+
+    private Long runInsert(String operation, String sql, Binder binder) throws SQLException {
+        RepositoryOperationEvent event = new RepositoryOperationEvent();
+        event.begin();
+        long startNanos = System.nanoTime();
+        Connection connection = dbConnection.getConnection();
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            binder.bind(stmt);
+            if (stmt.executeUpdate() == 0) {
+                throw new SQLException("Operation " + operation + " failed, no rows affected.");
+            }
+            dbConnection.countChangedRows(1);
+            Long generatedKey;
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                generatedKey = generatedKeys.next() ? generatedKeys.getLong(1) : null;
+            }
+            completed(event, connection, operation, sql, binder, startNanos, 1);
+            return generatedKey;
+        }
+    }
+
+    private void completed(RepositoryOperationEvent event, Connection connection, String operation, String sql,
+                           Binder binder, long startNanos, long rows) {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        metrics.timer("sql." + operation).record(elapsedNanos);
+
+        // Only fill in the fields when a recording is listening for the event
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.sql = sql.strip();
+            event.rows = rows;
+            event.commit();
+        }
+
+        SlowQueryLog slowQueryLog = dbConnection.getSlowQueryLog();
+        if (slowQueryLog != null && slowQueryLog.isSlow(elapsedNanos)) {
+            metrics.counter("sql.slow").increment();
+            slowQueryLog.record(connection, operation, sql, binder, elapsedNanos, rows);
+        }
+    }
+}
@@ -6,7 +6,36 @@ public final class SqlQueries {
         // Utility class
     }
 
-    // Table creation
+    // Connection setup
+    public static final String ENABLE_WAL = "PRAGMA journal_mode=WAL";
+
+    // Snapshots use a rollback journal, so a snapshot is one self-contained file
+    public static final String DISABLE_WAL = "PRAGMA journal_mode=DELETE";
+
+    public static final String GET_SCHEMA_VERSION = "PRAGMA user_version";
+
+    public static final String SET_SCHEMA_VERSION = "PRAGMA user_version = %d";
+
+    // Change detection: data_version changes when another connection commits,
+    // total_changes counts the rows changed through this connection
+    public static final String GET_DATA_VERSION = "PRAGMA data_version";
+
+    public static final String GET_TOTAL_CHANGES = "SELECT total_changes()";
+
+    // Write transactions take the write lock up front, so a busy database fails at BEGIN
+    // instead of halfway through a read-modify-write
+    public static final String BEGIN_IMMEDIATE = "BEGIN IMMEDIATE";
+
+    public static final String COMMIT = "COMMIT";
+
+    public static final String ROLLBACK = "ROLLBACK";
+
+    public static final String SET_BUSY_TIMEOUT = "PRAGMA busy_timeout = %d";
+
+    // Snapshots are only restored when this returns the single row "ok"
+    public static final String INTEGRITY_CHECK = "PRAGMA integrity_check";
+
+    // Table creation (schema version 0, later versions are applied by SchemaMigrations)
     public static final String CREATE_ACTIVITY_TABLE = """
         CREATE TABLE IF NOT EXISTS activity (
             id INTEGER PRIMARY KEY AUTOINCREMENT,
@@ -18,15 +47,203 @@ public final class SqlQueries {
         )
         """;
 
+    // Migration 1: descriptions dictionary
+    public static final String CREATE_DESCRIPTION_TABLE = """
+        CREATE TABLE IF NOT EXISTS activity_description (
+            id INTEGER PRIMARY KEY,
+            text TEXT NOT NULL UNIQUE
+        )
+        """;
+
+    public static final String POPULATE_DESCRIPTION_TABLE = """
+        INSERT OR IGNORE INTO activity_description (text)
+        SELECT DISTINCT description FROM activity WHERE description IS NOT NULL
+        """;
+
+    public static final String ADD_DESCRIPTION_ID_COLUMN = """
+        ALTER TABLE activity ADD COLUMN description_id INTEGER REFERENCES activity_description (id)
+        """;
+
+    public static final String POPULATE_DESCRIPTION_ID_COLUMN = """
+        UPDATE activity
+        SET description_id = (SELECT d.id FROM activity_description d WHERE d.text = activity.description)
+        """;
+
+    public static final String DROP_LEGACY_FTS_INSERT_TRIGGER = "DROP TRIGGER IF EXISTS activity_fts_insert";
+
+    public static final String DROP_LEGACY_FTS_DELETE_TRIGGER = "DROP TRIGGER IF EXISTS activity_fts_delete";
+
+    public static final String DROP_LEGACY_FTS_UPDATE_TRIGGER = "DROP TRIGGER IF EXISTS activity_fts_update";
+
+    public static final String DROP_LEGACY_FTS_TABLE = "DROP TABLE IF EXISTS activity_fts";
+
+    public static final String DROP_DESCRIPTION_COLUMN = "ALTER TABLE activity DROP COLUMN description";
+
+    public static final String CREATE_DESCRIPTION_ID_INDEX = """
+        CREATE INDEX IF NOT EXISTS idx_activity_description_id ON activity (description_id)
+        """;
+
+    // Migration 2: keyset pagination. SQLite appends the rowid to every index entry,
+    // so an index on start_time alone already orders ties by id.
+    public static final String CREATE_START_TIME_INDEX = """
+        CREATE INDEX IF NOT EXISTS idx_activity_start_time ON activity (start_time)
+        """;
+
+    // Migration 3: catalog of the per-year archive databases and the range of start times each one holds
+    public static final String CREATE_ARCHIVE_CATALOG_TABLE = """
+        CREATE TABLE IF NOT EXISTS activity_archive (
+            year INTEGER PRIMARY KEY,
+            first_start TEXT NOT NULL,
+            last_start TEXT NOT NULL,
+            activity_count INTEGER NOT NULL
+        )
+        """;
+
+    // Migration 4: mutations since the last maintenance run, persisted across processes
+    public static final String CREATE_MAINTENANCE_TABLE = """
+        CREATE TABLE IF NOT EXISTS db_maintenance (
+            id INTEGER PRIMARY KEY CHECK (id = 1),
+            mutations INTEGER NOT NULL,
+            last_maintained TEXT
+        )
+        """;
+
+    public static final String SEED_MAINTENANCE_ROW = """
+        INSERT OR IGNORE INTO db_maintenance (id, mutations) VALUES (1, 0)
+        """;
+
+    // Migration 5: incremental auto-vacuum. A new database takes the setting straight away; an existing one
+    // only switches over on its next VACUUM, which 'activity db optimize --full' runs.
+    public static final String ENABLE_INCREMENTAL_AUTO_VACUUM = "PRAGMA auto_vacuum = INCREMENTAL";
+
+    public static final String VACUUM = "VACUUM";
+
+    // Migration 6: per-day content digests for sync. Every change to an activity marks the day it starts on,
+    // and the day it started on before an update, as dirty by clearing its digest; the digest is computed again
+    // when it is next needed. The day is the date part of the ISO start time.
+    public static final String CREATE_DAY_DIGEST_TABLE = """
+        CREATE TABLE IF NOT EXISTS activity_day_digest (
+            day TEXT PRIMARY KEY,
+            digest BLOB
+        ) WITHOUT ROWID
+        """;
+
+    public static final String CREATE_DAY_DIGEST_INSERT_TRIGGER = """
+        CREATE TRIGGER IF NOT EXISTS activity_day_digest_insert AFTER INSERT ON activity BEGIN
+            INSERT OR REPLACE INTO activity_day_digest (day, digest) VALUES (substr(new.start_time, 1, 10), NULL);
+        END
+        """;
+
+    public static final String CREATE_DAY_DIGEST_UPDATE_TRIGGER = """
+        CREATE TRIGGER IF NOT EXISTS activity_day_digest_update AFTER UPDATE ON activity BEGIN
+            INSERT OR REPLACE INTO activity_day_digest (day, digest) VALUES (substr(old.start_time, 1, 10), NULL);
+            INSERT OR REPLACE INTO activity_day_digest (day, digest) VALUES (substr(new.start_time, 1, 10), NULL);
+        END
+        """;
+
+    public static final String CREATE_DAY_DIGEST_DELETE_TRIGGER = """
+        CREATE TRIGGER IF NOT EXISTS activity_day_digest_delete AFTER DELETE ON activity BEGIN
+            INSERT OR REPLACE INTO activity_day_digest (day, digest) VALUES (substr(old.start_time, 1, 10), NULL);
+        END
+        """;
+
+    public static final String POPULATE_DAY_DIGEST_TABLE = """
+        INSERT OR IGNORE INTO activity_day_digest (day, digest)
+        SELECT DISTINCT substr(start_time, 1, 10), NULL FROM activity
+        """;
+
+    // Migration 7: log shipping to a read-only replica. While the activity_replication row has the role 'primary',
+    // every change appends the id of the activity it touched to the change log; the shipper copies those activities
+    // as they are now and prunes the entries it shipped. A replica keeps its position in the same table with the
+    // role 'replica' and logs nothing. Times in both tables are epoch milliseconds.
+    public static final String CREATE_REPLICATION_TABLE = """
+        CREATE TABLE IF NOT EXISTS activity_replication (
+            id INTEGER PRIMARY KEY CHECK (id = 1),
+            role TEXT NOT NULL,
+            position INTEGER NOT NULL,
+            changed_at INTEGER,
+            shipped_at INTEGER
+        )
+        """;
+
+    public static final String CREATE_CHANGE_LOG_TABLE = """
+        CREATE TABLE IF NOT EXISTS activity_change_log (
+            seq INTEGER PRIMARY KEY AUTOINCREMENT,
+            activity_id INTEGER NOT NULL,
+            changed_at INTEGER NOT NULL
+        )
+        """;
+
+    public static final String CREATE_CHANGE_LOG_INSERT_TRIGGER = """
+        CREATE TRIGGER IF NOT EXISTS activity_change_log_insert AFTER INSERT ON activity
+        WHEN EXISTS (SELECT 1 FROM activity_replication WHERE role = 'primary') BEGIN
+            INSERT INTO activity_change_log (activity_id, changed_at)
+            VALUES (new.id, CAST(unixepoch('subsec') * 1000 AS INTEGER));
+        END
+        """;
+
+    public static final String CREATE_CHANGE_LOG_UPDATE_TRIGGER = """
+        CREATE TRIGGER IF NOT EXISTS activity_change_log_update AFTER UPDATE ON activity
+        WHEN EXISTS (SELECT 1 FROM activity_replication WHERE role = 'primary') BEGIN
+            INSERT INTO activity_change_log (activity_id, changed_at)
+            SELECT old.id, CAST(unixepoch('subsec') * 1000 AS INTEGER) WHERE old.id <> new.id;
+            INSERT INTO activity_change_log (activity_id, changed_at)
+            VALUES (new.id, CAST(unixepoch('subsec') * 1000 AS INTEGER));
+        END
+        """;
+
+    public static final String CREATE_CHANGE_LOG_DELETE_TRIGGER = """
+        CREATE TRIGGER IF NOT EXISTS activity_change_log_delete AFTER DELETE ON activity
+        WHEN EXISTS (SELECT 1 FROM activity_replication WHERE role = 'primary') BEGIN
+            INSERT INTO activity_change_log (activity_id, changed_at)
+            VALUES (old.id, CAST(unixepoch('subsec') * 1000 AS INTEGER));
+        END
+        """;
+
+    // Full-text search over the descriptions dictionary, kept in sync by triggers.
+    // Dictionary rows are never updated, so insert and delete triggers are sufficient.
+    public static final String CREATE_DESCRIPTION_FTS_TABLE = """
+        CREATE VIRTUAL TABLE IF NOT EXISTS activity_description_fts USING fts5(
+            text,
+            content = 'activity_description',
+            content_rowid = 'id'
+        )
+        """;
+
+    public static final String CREATE_DESCRIPTION_FTS_INSERT_TRIGGER = """
+        CREATE TRIGGER IF NOT EXISTS activity_description_fts_insert AFTER INSERT ON activity_description BEGIN
+            INSERT INTO activity_description_fts (rowid, text) VALUES (new.id, new.text);
+        END
+        """;
+
+    public static final String CREATE_DESCRIPTION_FTS_DELETE_TRIGGER = """
+        CREATE TRIGGER IF NOT EXISTS activity_description_fts_delete AFTER DELETE ON activity_description BEGIN
+            INSERT INTO activity_description_fts (activity_description_fts, rowid, text) VALUES ('delete', old.id, old.text);
+        END
+        """;
+
+    public static final String REBUILD_DESCRIPTION_FTS = """
+        INSERT INTO activity_description_fts (activity_description_fts) VALUES ('rebuild')
+        """;
+
+    // Descriptions dictionary
+    public static final String SELECT_DESCRIPTION_ID = """
+        SELECT id FROM activity_description WHERE text = ?
+        """;
+
+    public static final String INSERT_DESCRIPTION = """
+        INSERT OR IGNORE INTO activity_description (text) VALUES (?)
+        """;
+
     // CRUD operations
     public static final String INSERT_ACTIVITY = """
-        INSERT INTO activity (start_time, end_time, activity_type, status, description)
+        INSERT INTO activity (start_time, end_time, activity_type, status, description_id)
         VALUES (?, ?, ?, ?, ?)
         """;
 
     public static final String UPDATE_ACTIVITY = """
         UPDATE activity
-        SET start_time = ?, end_time = ?, activity_type = ?, status = ?, description = ?
+        SET start_time = ?, end_time = ?, activity_type = ?, status = ?, description_id = ?
         WHERE id = ?
         """;
 
@@ -35,43 +252,79 @@ public final class SqlQueries {
         """;
 
     public static final String SELECT_ACTIVITY_BY_ID = """
-        SELECT id, start_time, end_time, activity_type, status, description
-        FROM activity
-        WHERE id = ?
+        SELECT a.id, a.start_time, a.end_time, a.activity_type, a.status, a.description_id, d.text AS description
+        FROM activity a
+        LEFT JOIN activity_description d ON d.id = a.description_id
+        WHERE a.id = ?
         """;
 
     public static final String SELECT_ALL_ACTIVITIES = """
-        SELECT id, start_time, end_time, activity_type, status, description
-        FROM activity
-        ORDER BY start_time ASC
+        SELECT a.id, a.start_time, a.end_time, a.activity_type, a.status, a.description_id, d.text AS description
+        FROM activity a
+        LEFT JOIN activity_description d ON d.id = a.description_id
+        ORDER BY a.start_time ASC
         """;
 
     public static final String SELECT_ACTIVITIES_BY_STATUS = """
-        SELECT id, start_time, end_time, activity_type, status, description
-        FROM activity
-        WHERE status = ?
-        ORDER BY start_time DESC
+        SELECT a.id, a.start_time, a.end_time, a.activity_type, a.status, a.description_id, d.text AS description
+        FROM activity a
+        LEFT JOIN activity_description d ON d.id = a.description_id
+        WHERE a.status = ?
+        ORDER BY a.start_time DESC
         """;
 
     public static final String SELECT_ACTIVITIES_BY_TYPE = """
-        SELECT id, start_time, end_time, activity_type, status, description
-        FROM activity
-        WHERE activity_type = ?
-        ORDER BY start_time DESC
+        SELECT a.id, a.start_time, a.end_time, a.activity_type, a.status, a.description_id, d.text AS description
+        FROM activity a
+        LEFT JOIN activity_description d ON d.id = a.description_id
+        WHERE a.activity_type = ?
+        ORDER BY a.start_time DESC
         """;
 
     public static final String SELECT_ACTIVITIES_BY_START_TIME = """
-        SELECT id, start_time, end_time, activity_type, status, description
-        FROM activity
-        WHERE DATE(start_time) = DATE(?)
-        ORDER BY start_time ASC
+        SELECT a.id, a.start_time, a.end_time, a.activity_type, a.status, a.description_id, d.text AS description
+        FROM activity a
+        LEFT JOIN activity_description d ON d.id = a.description_id
+        WHERE DATE(a.start_time) = DATE(?)
+        ORDER BY a.start_time ASC
         """;
 
     public static final String SELECT_ACTIVITIES_BY_DATE_RANGE = """
-        SELECT id, start_time, end_time, activity_type, status, description
-        FROM activity
-        WHERE DATE(start_time) >= DATE(?) AND DATE(start_time) <= DATE(?)
-        ORDER BY start_time ASC
+        SELECT a.id, a.start_time, a.end_time, a.activity_type, a.status, a.description_id, d.text AS description
+        FROM activity a
+        LEFT JOIN activity_description d ON d.id = a.description_id
+        WHERE DATE(a.start_time) >= DATE(?) AND DATE(a.start_time) <= DATE(?)
+        ORDER BY a.start_time ASC
+        """;
+
+    // Keyset pagination on (start_time, id); start_time bounds are [from, to)
+    public static final String SELECT_ACTIVITIES_PAGE_FIRST = """
+        SELECT a.id, a.start_time, a.end_time, a.activity_type, a.status, a.description_id, d.text AS description
+        FROM activity a
+        LEFT JOIN activity_description d ON d.id = a.description_id
+        WHERE a.start_time >= ? AND a.start_time < ?
+        ORDER BY a.start_time ASC, a.id ASC
+        LIMIT ?
+        """;
+
+    public static final String SELECT_ACTIVITIES_PAGE_AFTER = """
+        SELECT a.id, a.start_time, a.end_time, a.activity_type, a.status, a.description_id, d.text AS description
+        FROM activity a
+        LEFT JOIN activity_description d ON d.id = a.description_id
+        WHERE a.start_time >= ? AND a.start_time < ?
+          AND (a.start_time, a.id) > (?, ?)
+        ORDER BY a.start_time ASC, a.id ASC
+        LIMIT ?
+        """;
+
+    public static final String SELECT_ACTIVITIES_PAGE_BEFORE = """
+        SELECT a.id, a.start_time, a.end_time, a.activity_type, a.status, a.description_id, d.text AS description
+        FROM activity a
+        LEFT JOIN activity_description d ON d.id = a.description_id
+        WHERE a.start_time >= ? AND a.start_time < ?
+          AND (a.start_time, a.id) < (?, ?)
+        ORDER BY a.start_time DESC, a.id DESC
+        LIMIT ?
         """;
 
     public static final String UPDATE_ACTIVITIES_STATUS_BY_STATUS = """
@@ -79,4 +332,239 @@ public final class SqlQueries {
         SET status = ?, end_time = ?
         WHERE status = ?
         """;
+
+    // Ranked full-text search; ?1 match expression, ?2/?3 highlight markers,
+    // ?4/?5 optional date bounds, ?6 optional activity type, ?7 result limit
+    public static final String SEARCH_ACTIVITIES = """
+        SELECT a.id, a.start_time, a.end_time, a.activity_type, a.status, a.description_id, d.text AS description,
+               snippet(activity_description_fts, 0, ?2, ?3, '...', 12) AS snippet,
+               bm25(activity_description_fts) AS rank
+        FROM activity_description_fts
+        JOIN activity_description d ON d.id = activity_description_fts.rowid
+        JOIN activity a ON a.description_id = d.id
+        WHERE activity_description_fts MATCH ?1
+          AND (?4 IS NULL OR DATE(a.start_time) >= DATE(?4))
+          AND (?5 IS NULL OR DATE(a.start_time) <= DATE(?5))
+          AND (?6 IS NULL OR a.activity_type = ?6)
+        ORDER BY rank, a.start_time DESC
+        LIMIT ?7
+        """;
+
+    public static final String SEARCH_ACTIVITIES_LIKE = """
+        SELECT a.id, a.start_time, a.end_time, a.activity_type, a.status, a.description_id, d.text AS description
+        FROM activity a
+        JOIN activity_description d ON d.id = a.description_id
+        WHERE d.text LIKE ? ESCAPE '\\'
+        ORDER BY a.start_time DESC
+        """;
+
+    // Archive partitions: completed activities of past years are moved to per-year databases that are
+    // ATTACHed on demand. %s is the schema name the archive is attached as.
+    public static final String ATTACH_ARCHIVE = "ATTACH DATABASE ? AS %s";
+
+    public static final String DETACH_ARCHIVE = "DETACH DATABASE %s";
+
+    public static final String LIST_ATTACHED_DATABASES = "PRAGMA database_list";
+
+    // Archived rows keep their id and carry their description text, so an archive can be read on its own
+    public static final String CREATE_ARCHIVE_ACTIVITY_TABLE = """
+        CREATE TABLE IF NOT EXISTS %s.activity (
+            id INTEGER PRIMARY KEY,
+            start_time TEXT NOT NULL,
+            end_time TEXT,
+            activity_type TEXT NOT NULL,
+            status TEXT NOT NULL,
+            description_id INTEGER,
+            description TEXT
+        )
+        """;
+
+    public static final String CREATE_ARCHIVE_START_TIME_INDEX = """
+        CREATE INDEX IF NOT EXISTS %s.idx_activity_start_time ON activity (start_time)
+        """;
+
+    public static final String SELECT_ARCHIVE_CATALOG = """
+        SELECT year, first_start, last_start, activity_count FROM activity_archive ORDER BY year
+        """;
+
+    public static final String SELECT_ARCHIVABLE_YEARS = """
+        SELECT DISTINCT CAST(substr(start_time, 1, 4) AS INTEGER) AS year
+        FROM activity
+        WHERE start_time < ? AND status = ?
+        ORDER BY year
+        """;
+
+    // Replacing an existing copy makes a rerun after an interrupted archive pick up later edits
+    public static final String COPY_TO_ARCHIVE = """
+        INSERT OR REPLACE INTO %s.activity (id, start_time, end_time, activity_type, status, description_id, description)
+        SELECT a.id, a.start_time, a.end_time, a.activity_type, a.status, a.description_id, d.text
+        FROM main.activity a
+        LEFT JOIN main.activity_description d ON d.id = a.description_id
+        WHERE a.start_time >= ? AND a.start_time < ? AND a.status = ?
+        """;
+
+    // Only rows that still equal their archived copy are removed; a row edited after the copy stays hot
+    public static final String PRUNE_ARCHIVED_ACTIVITIES = """
+        DELETE FROM main.activity
+        WHERE id IN (
+            SELECT m.id
+            FROM %s.activity x
+            JOIN main.activity m ON m.id = x.id
+            WHERE m.start_time = x.start_time AND m.end_time IS x.end_time AND m.activity_type = x.activity_type
+              AND m.status = x.status AND m.description_id IS x.description_id
+        )
+        """;
+
+    public static final String UPSERT_ARCHIVE_CATALOG = """
+        INSERT INTO activity_archive (year, first_start, last_start, activity_count)
+        SELECT ?, MIN(start_time), MAX(start_time), COUNT(*) FROM %s.activity WHERE true
+        ON CONFLICT (year) DO UPDATE SET
+            first_start = excluded.first_start,
+            last_start = excluded.last_start,
+            activity_count = excluded.activity_count
+        """;
+
+    // Range reads that overlap an archive run as a UNION ALL over the hot table and the archives.
+    // The conditions use numbered parameters, so every branch shares the bindings of the hot query.
+    public static final String ACTIVITY_HOT_BRANCH = """
+        SELECT a.id, a.start_time, a.end_time, a.activity_type, a.status, a.description_id, d.text AS description
+        FROM main.activity a
+        LEFT JOIN main.activity_description d ON d.id = a.description_id
+        WHERE %s
+        """;
+
+    // An archived row that is also still hot was edited after it was copied; the hot row wins
+    public static final String ACTIVITY_ARCHIVE_BRANCH = """
+        SELECT a.id, a.start_time, a.end_time, a.activity_type, a.status, a.description_id, a.description
+        FROM %s.activity a
+        WHERE NOT EXISTS (SELECT 1 FROM main.activity m WHERE m.id = a.id) AND %s
+        """;
+
+    public static final String ACTIVITY_UNION = """
+        SELECT id, start_time, end_time, activity_type, status, description_id, description
+        FROM (%s)
+        ORDER BY start_time %s, id %s
+        """;
+
+    public static final String ALL_CONDITION = "1 = 1";
+
+    public static final String START_DATE_CONDITION = "DATE(a.start_time) = DATE(?1)";
+
+    public static final String DATE_RANGE_CONDITION = "DATE(a.start_time) >= DATE(?1) AND DATE(a.start_time) <= DATE(?2)";
+
+    public static final String PAGE_CONDITION = "a.start_time >= ?1 AND a.start_time < ?2";
+
+    public static final String PAGE_AFTER_CONDITION = PAGE_CONDITION + " AND (a.start_time, a.id) > (?3, ?4)";
+
+    public static final String PAGE_BEFORE_CONDITION = PAGE_CONDITION + " AND (a.start_time, a.id) < (?3, ?4)";
+
+    // Maintenance
+    public static final String GET_AUTO_VACUUM = "PRAGMA auto_vacuum";
+
+    public static final String GET_PAGE_COUNT = "PRAGMA page_count";
+
+    public static final String GET_FREELIST_COUNT = "PRAGMA freelist_count";
+
+    public static final String GET_PAGE_SIZE = "PRAGMA page_size";
+
+    public static final String INCREMENTAL_VACUUM = "PRAGMA incremental_vacuum";
+
+    public static final String ANALYZE = "ANALYZE";
+
+    // Re-analyzes only the tables whose statistics are missing or out of date
+    public static final String OPTIMIZE = "PRAGMA optimize";
+
+    public static final String ADD_MUTATIONS = """
+        UPDATE db_maintenance SET mutations = mutations + ? WHERE id = 1
+        """;
+
+    public static final String SELECT_MAINTENANCE = """
+        SELECT mutations, last_maintained FROM db_maintenance WHERE id = 1
+        """;
+
+    public static final String RESET_MUTATIONS = """
+        UPDATE db_maintenance SET mutations = 0, last_maintained = ? WHERE id = 1
+        """;
+
+    // Day digests for sync
+    public static final String SELECT_DIRTY_DAYS = """
+        SELECT day FROM activity_day_digest WHERE digest IS NULL
+        """;
+
+    public static final String SELECT_DAY_DIGESTS = """
+        SELECT day, digest FROM activity_day_digest ORDER BY day
+        """;
+
+    public static final String UPDATE_DAY_DIGEST = """
+        UPDATE activity_day_digest SET digest = ? WHERE day = ?
+        """;
+
+    public static final String DELETE_DAY_DIGEST = """
+        DELETE FROM activity_day_digest WHERE day = ?
+        """;
+
+    // Covers a day of the archives, e.g. one archived before the digests existed; a digest already there is kept
+    public static final String ADD_DAY_DIGEST = """
+        INSERT OR IGNORE INTO activity_day_digest (day, digest) VALUES (?, NULL)
+        """;
+
+    // %s is the schema the archive is attached as
+    public static final String SELECT_ARCHIVED_DAYS = """
+        SELECT DISTINCT substr(start_time, 1, 10) AS day FROM %s.activity
+        """;
+
+    // Activities of the main database only, without the archives; start_time bounds are [from, to)
+    public static final String SELECT_ACTIVITIES_OF_DAY = """
+        SELECT a.id, a.start_time, a.end_time, a.activity_type, a.status, a.description_id, d.text AS description
+        FROM activity a
+        LEFT JOIN activity_description d ON d.id = a.description_id
+        WHERE a.start_time >= ? AND a.start_time < ?
+        ORDER BY a.start_time ASC, a.id ASC
+        """;
+
+    // Log shipping to the replica
+    public static final String SELECT_REPLICATION = """
+        SELECT role, position, changed_at, shipped_at FROM activity_replication WHERE id = 1
+        """;
+
+    // Turns the change log on; the position starts at the last sequence number handed out
+    public static final String START_REPLICATION = """
+        INSERT OR IGNORE INTO activity_replication (id, role, position)
+        VALUES (1, 'primary', COALESCE((SELECT seq FROM sqlite_sequence WHERE name = 'activity_change_log'), 0))
+        """;
+
+    public static final String REPLACE_REPLICATION = """
+        INSERT OR REPLACE INTO activity_replication (id, role, position, changed_at, shipped_at) VALUES (1, ?, ?, ?, ?)
+        """;
+
+    public static final String SELECT_LAST_CHANGE_SEQ = """
+        SELECT seq FROM sqlite_sequence WHERE name = 'activity_change_log'
+        """;
+
+    public static final String SELECT_CHANGES_AFTER = """
+        SELECT seq, activity_id, changed_at FROM activity_change_log WHERE seq > ? ORDER BY seq LIMIT ?
+        """;
+
+    public static final String SELECT_PENDING_CHANGES = """
+        SELECT COUNT(*) AS changes, MIN(changed_at) AS oldest FROM activity_change_log WHERE seq > ?
+        """;
+
+    public static final String PRUNE_CHANGE_LOG = """
+        DELETE FROM activity_change_log WHERE seq <= ?
+        """;
+
+    // Keeps the id of the primary, so replica rows and change log entries refer to the same activity. Not an upsert:
+    // the conflict clause of an upsert would override the OR REPLACE in the day digest triggers.
+    public static final String INSERT_REPLICA_ACTIVITY = """
+        INSERT INTO activity (id, start_time, end_time, activity_type, status, description_id)
+        VALUES (?, ?, ?, ?, ?, ?)
+        """;
+
+    public static final String CLEAR_ARCHIVE_CATALOG = """
+        DELETE FROM activity_archive
+        """;
+
+    public static final String INSERT_ARCHIVE_CATALOG = """
+        INSERT INTO activity_archive (year, first_start, last_start, activity_count) VALUES (?, ?, ?, ?)
+        """;
 }
@@ -0,0 +1,24 @@
+package org.veenix.timer.persistence;
+
+/**
+ * The built-in provider: activities in the SQLite database of {@link DatabaseConnection#getInstance()}.
+ */
+public class SqliteStorageProvider implements StorageProvider {
+
+    public static final String NAME = "sqlite";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public ActivityRepository openRepository() {
+        return new ActivityRepositoryImpl(DatabaseConnection.getInstance());
+    }
+
+    @Override
+    public boolean usesDatabase() {
+        return true;
+    }
+}
@@ -0,0 +1,30 @@
+package org.veenix.timer.persistence;
+
+/**
+ * A storage engine for activities. Providers are discovered with {@link java.util.ServiceLoader} from
+ * {@code META-INF/services/org.veenix.timer.persistence.StorageProvider} and selected by name with the
+ * {@code storage.backend} configuration key. Every provider must pass the conformance tests in
+ * {@code StorageProviderConformanceTest}.
+ */
+public interface StorageProvider {
+
+    /**
+     * The name used in {@code storage.backend}, e.g. {@code sqlite}.
+     */
+    String name();
+
+    /**
+     * Opens a repository on the provider's default store. {@link StorageProviders} calls this at most once
+     * per process and shares the repository.
+     */
+    ActivityRepository openRepository();
+
+    /**
+     * Whether the activities live in the SQLite database of {@link DatabaseConnection#getInstance()}.
+     * Commands that work on that database directly, such as search, backup or sync, and change
+     * notifications need such a provider; on any other they would see an empty or stray database.
+     */
+    default boolean usesDatabase() {
+        return false;
+    }
+}
@@ -0,0 +1,93 @@
+package org.veenix.timer.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.stream.Collectors;
+
+/**
+ * Creates the activity repository for the configured storage backend. Commands and services get their
+ * repository here instead of constructing one, so a different engine can be selected with
+ * {@code storage.backend} without changing them.
+ */
+public final class StorageProviders {
+
+    private static String backend = SqliteStorageProvider.NAME;
+    private static ActivityRepository repository;
+
+    private StorageProviders() {
+        // Utility class
+    }
+
+    /**
+     * Selects the backend used by {@link #repository()}. A repository that was already opened for another
+     * backend is dropped.
+     *
+     * @throws IllegalArgumentException when no provider of that name is on the class path
+     */
+    public static synchronized void configure(String backendName) {
+        String name = provider(backendName).name();
+        if (!name.equals(backend)) {
+            backend = name;
+            repository = null;
+        }
+    }
+
+    /**
+     * Returns the name of the configured backend.
+     */
+    public static synchronized String backend() {
+        return backend;
+    }
+
+    /**
+     * Returns whether the configured backend stores activities in the SQLite database of
+     * {@link DatabaseConnection#getInstance()}.
+     */
+    public static synchronized boolean usesDatabase() {
+        return provider(backend).usesDatabase();
+    }
+
+    /**
+     * Returns the shared repository of the configured backend, opening it on first use.
+     */
+    public static synchronized ActivityRepository repository() {
+        if (repository == null) {
+            repository = provider(backend).openRepository();
+        }
+        return repository;
+    }
+
+    /**
+     * Returns the provider with the given name.
+     *
+     * @throws IllegalArgumentException when no provider of that name is on the class path
+     */
+    public static StorageProvider provider(String name) {
+        List<StorageProvider> providers = available();
+        for (StorageProvider provider : providers) {
+            if (provider.name().equalsIgnoreCase(name)) {
+                return provider;
+            }
+        }
+        throw new IllegalArgumentException("Unknown storage backend '" + name + "'. Available: "
+            + providers.stream().map(StorageProvider::name).collect(Collectors.joining(", ")));
+    }
+
+    /**
+     * Returns every provider found on the class path.
+     */
+    public static List<StorageProvider> available() {
+        List<StorageProvider> providers = new ArrayList<>();
+        ServiceLoader.load(StorageProvider.class).forEach(providers::add);
+        return providers;
+    }
+
+    /**
+     * Forgets the shared repository and selects the default backend again.
+     */
+    static synchronized void reset() {
+        backend = SqliteStorageProvider.NAME;
+        repository = null;
+    }
+}
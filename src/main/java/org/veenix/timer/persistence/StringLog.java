@@ -0,0 +1,176 @@
+package org.veenix.timer.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only table of the strings the log-structured store refers to: descriptions, activity types and
+ * statuses. Each distinct string is written once, as its length, a CRC32 and its UTF-8 bytes, and records
+ * refer to it by file offset, which keeps the records themselves fixed-size. All strings stay in memory.
+ * Strings are never removed, like the description dictionary of the SQLite schema.
+ */
+final class StringLog implements Closeable {
+
+    static final long NONE = -1;
+
+    private static final int MAGIC = 0x54535452; // "TSTR"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int ENTRY_HEADER_SIZE = 8;
+
+    private final FileChannel channel;
+    private final Map<String, Long> offsets = new HashMap<>();
+    private final Map<Long, String> strings = new HashMap<>();
+    private long size;
+    private long recoveredBytes;
+
+    private StringLog(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens or creates the table and loads its strings. An incomplete or damaged entry at the end, left by
+     * a crash during an append, is cut off.
+     */
+    static StringLog open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        StringLog log = new StringLog(channel);
+        try {
+            log.load();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return log;
+    }
+
+    private void load() throws IOException {
+        long fileSize = channel.size();
+        if (fileSize < HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+            channel.truncate(0);
+            writeFully(header, 0);
+            size = HEADER_SIZE;
+            return;
+        }
+        ByteBuffer header = readFully(0, HEADER_SIZE);
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Not a timer string table");
+        }
+
+        long offset = HEADER_SIZE;
+        while (offset + ENTRY_HEADER_SIZE <= fileSize) {
+            ByteBuffer entryHeader = readFully(offset, ENTRY_HEADER_SIZE);
+            int length = entryHeader.getInt();
+            int crc = entryHeader.getInt();
+            if (length < 0 || offset + ENTRY_HEADER_SIZE + length > fileSize) {
+                break;
+            }
+            byte[] bytes = readFully(offset + ENTRY_HEADER_SIZE, length).array();
+            if (crc != crc(bytes)) {
+                break;
+            }
+            String value = new String(bytes, StandardCharsets.UTF_8);
+            offsets.put(value, offset);
+            strings.put(offset, value);
+            offset += ENTRY_HEADER_SIZE + length;
+        }
+        if (offset < fileSize) {
+            recoveredBytes = fileSize - offset;
+            channel.truncate(offset);
+        }
+        size = offset;
+    }
+
+    /**
+     * Returns the offset of {@code value}, appending it first if it is new. Null maps to {@link #NONE}.
+     */
+    long intern(String value) throws IOException {
+        if (value == null) {
+            return NONE;
+        }
+        Long existing = offsets.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_HEADER_SIZE + bytes.length)
+            .putInt(bytes.length)
+            .putInt(crc(bytes))
+            .put(bytes)
+            .flip();
+        long offset = size;
+        writeFully(entry, offset);
+        size += entry.limit();
+        offsets.put(value, offset);
+        strings.put(offset, value);
+        return offset;
+    }
+
+    /**
+     * Returns the string at {@code offset}, or null for {@link #NONE}.
+     *
+     * @throws IOException when no string starts at that offset
+     */
+    String get(long offset) throws IOException {
+        if (offset == NONE) {
+            return null;
+        }
+        String value = strings.get(offset);
+        if (value == null) {
+            throw new IOException("No string at offset " + offset);
+        }
+        return value;
+    }
+
+    boolean contains(long offset) {
+        return offset == NONE || strings.containsKey(offset);
+    }
+
+    /**
+     * Number of bytes cut off the end of the file when it was opened.
+     */
+    long recoveredBytes() {
+        return recoveredBytes;
+    }
+
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of string table");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private static int crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+}
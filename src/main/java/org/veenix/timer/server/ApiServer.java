@@ -0,0 +1,402 @@
+package org.veenix.timer.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.veenix.timer.json.ActivityJson;
+import org.veenix.timer.json.JsonWriter;
+import org.veenix.timer.metrics.Histogram;
+import org.veenix.timer.metrics.Metric;
+import org.veenix.timer.metrics.MetricsRegistry;
+import org.veenix.timer.metrics.Timer;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+import org.veenix.timer.persistence.ActivityRepository;
+import org.veenix.timer.persistence.PageCursor;
+import org.veenix.timer.service.ActivityService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Local HTTP API for tools that want to start, stop and query timers without running the CLI.
+ * The server only listens on the loopback interface and handles every request on its own virtual thread.
+ * Responses are JSON; listings are written page by page as chunked responses, so a long range starts
+ * arriving before it has been read completely. Parameters come from the query string or a form-encoded body.
+ * The default activity type is asked for on every start, so a changed configuration applies at once.
+ * <p>
+ * Listening on loopback does not keep out web pages open in the user's browser, so requests must name this
+ * server in their {@code Host} header, which defeats DNS rebinding, and must not carry an {@code Origin}.
+ * POST and DELETE also need an {@value #CLIENT_HEADER} header with any value. A browser only sends such
+ * a header after a CORS preflight, which this server never approves, so a page cannot forge a form post.
+ * <pre>
+ * GET    /api/health
+ * GET    /api/activities?from=yyyy-MM-dd&amp;to=yyyy-MM-dd   activities in a date range, both days included
+ * GET    /api/activities/active
+ * GET    /api/activities/{id}
+ * DELETE /api/activities/{id}
+ * POST   /api/timer/start?type=DEVELOP&amp;description=...&amp;start=HH:mm
+ * POST   /api/timer/stop
+ * POST   /api/timer/restart?id={id}
+ * GET    /api/metrics                                     request latency per endpoint
+ * </pre>
+ */
+public class ApiServer implements AutoCloseable {
+
+    public static final int DEFAULT_PORT = 7171;
+
+    public static final String CLIENT_HEADER = "X-Timer-Client";
+
+    static final int PAGE_SIZE = 500;
+    private static final String METRIC_PREFIX = "http.";
+
+    private final ActivityRepository activityRepository;
+    private final ActivityService activityService;
+    private final Supplier<ActivityType> defaultType;
+    private final MetricsRegistry metrics;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ApiServer(int port, ActivityRepository activityRepository, ActivityService activityService,
+                     Supplier<ActivityType> defaultType, MetricsRegistry metrics) throws IOException {
+        this.activityRepository = activityRepository;
+        this.activityService = activityService;
+        this.defaultType = defaultType;
+        this.metrics = metrics;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(executor);
+        route("/api/health", "health", this::health);
+        route("/api/activities", "activities", this::activities);
+        route("/api/timer/start", "timer.start", this::start);
+        route("/api/timer/stop", "timer.stop", this::stop);
+        route("/api/timer/restart", "timer.restart", this::restart);
+        route("/api/metrics", "metrics", this::metrics);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * The address the server listens on; with port 0 the system picks a free port.
+     */
+    public InetSocketAddress address() {
+        return server.getAddress();
+    }
+
+    /**
+     * Stops accepting connections, waits up to a second for running requests and stops the executor.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.close();
+    }
+
+    private void route(String path, String name, Handler handler) {
+        Timer timer = metrics.timer(METRIC_PREFIX + name);
+        server.createContext(path, exchange -> {
+            try (exchange; Timer.Sample ignored = timer.start()) {
+                try {
+                    checkCaller(exchange);
+                    handler.handle(new Request(exchange, path));
+                } catch (ApiException e) {
+                    error(exchange, e.status, e.getMessage());
+                } catch (IllegalArgumentException e) {
+                    error(exchange, 400, e.getMessage());
+                } catch (RuntimeException e) {
+                    metrics.counter(METRIC_PREFIX + "errors").increment();
+                    error(exchange, 500, e.getMessage());
+                }
+            }
+        });
+    }
+
+    private void checkCaller(HttpExchange exchange) {
+        int port = address().getPort();
+        String host = exchange.getRequestHeaders().getFirst("Host");
+        if (!("127.0.0.1:" + port).equals(host) && !("localhost:" + port).equals(host)
+                && !("[::1]:" + port).equals(host)) {
+            metrics.counter(METRIC_PREFIX + "rejected").increment();
+            throw new ApiException(403, "Host " + host + " not allowed");
+        }
+        if (exchange.getRequestHeaders().containsKey("Origin")) {
+            metrics.counter(METRIC_PREFIX + "rejected").increment();
+            throw new ApiException(403, "Cross-origin requests are not allowed");
+        }
+        String method = exchange.getRequestMethod();
+        if ((method.equals("POST") || method.equals("DELETE")) && exchange.getRequestHeaders().getFirst(CLIENT_HEADER) == null) {
+            metrics.counter(METRIC_PREFIX + "rejected").increment();
+            throw new ApiException(403, method + " requests need a " + CLIENT_HEADER + " header");
+        }
+    }
+
+    private void health(Request request) throws IOException {
+        request.requireMethod("GET");
+        try (JsonWriter json = request.json(200)) {
+            json.beginObject().name("status").value("ok").endObject();
+        }
+    }
+
+    private void activities(Request request) throws IOException {
+        String rest = request.rest();
+        if (rest.isEmpty()) {
+            request.requireMethod("GET");
+            list(request);
+        } else if (rest.equals("active")) {
+            request.requireMethod("GET");
+            writeActivities(request, activityRepository.findByStatus(ActivityStatus.ACTIVE));
+        } else {
+            long id = parseId(rest);
+            if (request.method().equals("DELETE")) {
+                find(id);
+                activityRepository.delete(id);
+                request.noContent();
+            } else {
+                request.requireMethod("GET");
+                writeActivity(request, 200, find(id));
+            }
+        }
+    }
+
+    /**
+     * Streams the activities of a date range, reading them one keyset page at a time.
+     */
+    private void list(Request request) throws IOException {
+        LocalDateTime from = request.parameter("from").map(value -> parseDate(value).atStartOfDay()).orElse(null);
+        LocalDateTime to = request.parameter("to").map(value -> parseDate(value).plusDays(1).atStartOfDay()).orElse(null);
+
+        List<Activity> page = activityRepository.findPageAfter(from, to, null, PAGE_SIZE);
+        try (JsonWriter json = request.json(200)) {
+            json.beginArray();
+            while (!page.isEmpty()) {
+                for (Activity activity : page) {
+                    ActivityJson.write(json, activity);
+                }
+                json.flush();
+                page = page.size() < PAGE_SIZE ? List.of()
+                    : activityRepository.findPageAfter(from, to, PageCursor.of(page.get(page.size() - 1)), PAGE_SIZE);
+            }
+            json.endArray();
+        }
+    }
+
+    private void start(Request request) throws IOException {
+        request.requireMethod("POST");
+        ActivityType type = request.parameter("type").map(ApiServer::parseType).orElseGet(defaultType);
+        String description = request.parameter("description").orElse(null);
+        LocalDateTime startTime = request.parameter("start").map(ApiServer::parseStart).orElseGet(LocalDateTime::now);
+        writeActivity(request, 201, activityService.startActivity(type, description, startTime));
+    }
+
+    private void stop(Request request) throws IOException {
+        request.requireMethod("POST");
+        Activity stopped = activityService.stopActivity();
+        if (stopped == null) {
+            throw new ApiException(404, "No active activity found");
+        }
+        writeActivity(request, 200, stopped);
+    }
+
+    private void restart(Request request) throws IOException {
+        request.requireMethod("POST");
+        long id = parseId(request.parameter("id").orElseThrow(() -> new IllegalArgumentException("Parameter id is required")));
+        Activity restarted = activityService.restartActivity(id);
+        if (restarted == null) {
+            throw new ApiException(404, "Activity " + id + " not found");
+        }
+        writeActivity(request, 201, restarted);
+    }
+
+    /**
+     * Reports the latency of each endpoint since the server started, in milliseconds.
+     */
+    private void metrics(Request request) throws IOException {
+        request.requireMethod("GET");
+        try (JsonWriter json = request.json(200)) {
+            json.beginObject();
+            for (Metric metric : metrics.metrics()) {
+                if (metric instanceof Timer timer && timer.name().startsWith(METRIC_PREFIX)) {
+                    Histogram histogram = timer.histogram();
+                    json.name(timer.name().substring(METRIC_PREFIX.length())).beginObject()
+                        .name("count").value(histogram.count())
+                        .name("meanMs").value(millis(histogram.mean()))
+                        .name("p50Ms").value(millis(histogram.percentile(50)))
+                        .name("p90Ms").value(millis(histogram.percentile(90)))
+                        .name("p99Ms").value(millis(histogram.percentile(99)))
+                        .name("maxMs").value(millis(histogram.max()))
+                        .endObject();
+                }
+            }
+            json.endObject();
+        }
+    }
+
+    private Activity find(long id) {
+        return activityRepository.findById(id)
+            .orElseThrow(() -> new ApiException(404, "Activity " + id + " not found"));
+    }
+
+    private static void writeActivity(Request request, int status, Activity activity) throws IOException {
+        try (JsonWriter json = request.json(status)) {
+            ActivityJson.write(json, activity);
+        }
+    }
+
+    private static void writeActivities(Request request, List<Activity> activities) throws IOException {
+        try (JsonWriter json = request.json(200)) {
+            ActivityJson.writeArray(json, activities);
+        }
+    }
+
+    private static void error(HttpExchange exchange, int status, String message) throws IOException {
+        if (exchange.getResponseCode() != -1) {
+            // Headers are out; all that can be done is to cut the response short
+            return;
+        }
+        try (JsonWriter json = new Request(exchange, "").json(status)) {
+            json.beginObject().name("error").value(message).endObject();
+        }
+    }
+
+    private static long parseId(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid activity id: " + value);
+        }
+    }
+
+    private static ActivityType parseType(String value) {
+        try {
+            return ActivityType.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid activity type: " + value);
+        }
+    }
+
+    private static LocalDate parseDate(String value) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Date must be in yyyy-MM-dd format: " + value);
+        }
+    }
+
+    // Either a time today (HH:mm) or a full ISO-8601 date-time
+    private static LocalDateTime parseStart(String value) {
+        try {
+            return value.contains("T") ? LocalDateTime.parse(value) : LocalDate.now().atTime(LocalTime.parse(value));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Start must be HH:mm or yyyy-MM-ddTHH:mm: " + value);
+        }
+    }
+
+    private static double millis(double nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    private interface Handler {
+        void handle(Request request) throws IOException;
+    }
+
+    /**
+     * An error response with a status code and message.
+     */
+    static class ApiException extends RuntimeException {
+
+        private final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * One exchange with its parameters parsed and the path below the endpoint split off.
+     */
+    private static final class Request {
+
+        private final HttpExchange exchange;
+        private final String base;
+        private Map<String, String> parameters;
+
+        Request(HttpExchange exchange, String base) {
+            this.exchange = exchange;
+            this.base = base;
+        }
+
+        String method() {
+            return exchange.getRequestMethod();
+        }
+
+        void requireMethod(String method) {
+            if (!method().equals(method)) {
+                exchange.getResponseHeaders().set("Allow", method);
+                throw new ApiException(405, "Method " + method() + " not allowed");
+            }
+        }
+
+        // Path below the endpoint without slashes, e.g. "42" for /api/activities/42
+        String rest() {
+            String path = exchange.getRequestURI().getPath();
+            String rest = path.length() > base.length() ? path.substring(base.length()) : "";
+            return rest.startsWith("/") ? rest.substring(1).replaceAll("/+$", "") : rest;
+        }
+
+        Optional<String> parameter(String name) throws IOException {
+            if (parameters == null) {
+                parameters = new HashMap<>();
+                parse(exchange.getRequestURI().getRawQuery());
+                String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+                if (contentType != null && contentType.startsWith("application/x-www-form-urlencoded")) {
+                    try (InputStream body = exchange.getRequestBody()) {
+                        parse(new String(body.readAllBytes(), StandardCharsets.UTF_8));
+                    }
+                }
+            }
+            return Optional.ofNullable(parameters.get(name)).filter(value -> !value.isBlank());
+        }
+
+        private void parse(String encoded) {
+            if (encoded == null || encoded.isEmpty()) {
+                return;
+            }
+            for (String pair : encoded.split("&")) {
+                int equals = pair.indexOf('=');
+                String key = URLDecoder.decode(equals >= 0 ? pair.substring(0, equals) : pair, StandardCharsets.UTF_8);
+                String value = equals >= 0 ? URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8) : "";
+                parameters.put(key, value);
+            }
+        }
+
+        /**
+         * Sends the headers of a JSON response of unknown length, which makes the body chunked.
+         */
+        JsonWriter json(int status) throws IOException {
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, 0);
+            return new JsonWriter(exchange.getResponseBody());
+        }
+
+        void noContent() throws IOException {
+            exchange.sendResponseHeaders(204, -1);
+        }
+    }
+}
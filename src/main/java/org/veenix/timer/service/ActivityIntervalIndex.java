@@ -0,0 +1,196 @@
+package org.veenix.timer.service;
+
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.persistence.ActivityRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Static interval tree over activity time ranges [start, end).
+ * Activities are sorted by start time and stored in an array; the array doubles as an implicit
+ * balanced search tree where each subtree records the latest end time it contains. Building the
+ * index is O(n log n) and a stabbing query for one interval is O(log n + k).
+ * Active activities without an end time are treated as running until the moment the index is built.
+ */
+public class ActivityIntervalIndex {
+
+    private static final Comparator<Activity> BY_START_THEN_ID = Comparator
+            .comparing(Activity::startTime)
+            .thenComparing(Activity::id, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final Activity[] activities;
+    private final LocalDateTime[] ends;
+    private final LocalDateTime[] maxEnds;
+
+    private ActivityIntervalIndex(List<Activity> sorted, LocalDateTime now) {
+        int size = sorted.size();
+        this.activities = sorted.toArray(new Activity[0]);
+        this.ends = new LocalDateTime[size];
+        this.maxEnds = new LocalDateTime[size];
+        for (int i = 0; i < size; i++) {
+            ends[i] = effectiveEnd(activities[i], now);
+        }
+        buildMaxEnds(0, size);
+    }
+
+    public static ActivityIntervalIndex build(List<Activity> activities) {
+        return build(activities, LocalDateTime.now());
+    }
+
+    public static ActivityIntervalIndex build(List<Activity> activities, LocalDateTime now) {
+        List<Activity> sorted = new ArrayList<>(activities.size());
+        for (Activity activity : activities) {
+            if (activity.startTime() != null) {
+                sorted.add(activity);
+            }
+        }
+        sorted.sort(BY_START_THEN_ID);
+        return new ActivityIntervalIndex(sorted, now);
+    }
+
+    /**
+     * Finds stored activities that conflict with a new or edited activity.
+     * Only activities starting from the day before the candidate are loaded, so a conflict with
+     * an activity spanning more than a full day is left to {@code activity check}.
+     */
+    public static List<Activity> findConflicts(ActivityRepository repository, Activity candidate) {
+        if (candidate.startTime() == null) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime end = effectiveEnd(candidate, now);
+        List<Activity> nearby = repository.findByDateRange(
+            candidate.startTime().toLocalDate().minusDays(1).atStartOfDay(),
+            end
+        );
+        return build(nearby, now).findOverlapping(candidate.startTime(), end, candidate.id());
+    }
+
+    public int size() {
+        return activities.length;
+    }
+
+    /**
+     * Returns all activities whose interval intersects [start, end), ordered by start time.
+     * The activity with {@code excludeId} is skipped so an edited activity does not conflict with itself.
+     */
+    public List<Activity> findOverlapping(LocalDateTime start, LocalDateTime end, Long excludeId) {
+        List<Activity> result = new ArrayList<>();
+        collectOverlapping(0, activities.length, start, end, excludeId, result);
+        return result;
+    }
+
+    /**
+     * Sweeps the history once and reports every activity that starts before an earlier one has ended.
+     * Each overlapping activity is paired with the earlier activity that reaches furthest into it.
+     */
+    public List<Overlap> findOverlaps() {
+        List<Overlap> overlaps = new ArrayList<>();
+        int furthest = -1;
+        for (int i = 0; i < activities.length; i++) {
+            if (furthest >= 0 && activities[i].startTime().isBefore(ends[furthest])) {
+                LocalDateTime overlapEnd = ends[i].isBefore(ends[furthest]) ? ends[i] : ends[furthest];
+                if (overlapEnd.isAfter(activities[i].startTime())) {
+                    overlaps.add(new Overlap(activities[furthest], activities[i], activities[i].startTime(), overlapEnd));
+                }
+            }
+            if (furthest < 0 || ends[i].isAfter(ends[furthest])) {
+                furthest = i;
+            }
+        }
+        return overlaps;
+    }
+
+    /**
+     * Reports uncovered time between the first start and the last end of each day.
+     * Gaps shorter than or equal to {@code minimumGap} are ignored; `timer start --connect`
+     * deliberately leaves one minute between activities.
+     */
+    public List<Gap> findGaps(Duration minimumGap) {
+        List<Gap> gaps = new ArrayList<>();
+        LocalDate currentDay = null;
+        LocalDateTime coveredUntil = null;
+        for (int i = 0; i < activities.length; i++) {
+            LocalDateTime start = activities[i].startTime();
+            LocalDate day = start.toLocalDate();
+            if (!day.equals(currentDay)) {
+                currentDay = day;
+                coveredUntil = ends[i];
+                continue;
+            }
+            if (start.isAfter(coveredUntil) && Duration.between(coveredUntil, start).compareTo(minimumGap) > 0) {
+                gaps.add(new Gap(day, coveredUntil, start));
+            }
+            if (ends[i].isAfter(coveredUntil)) {
+                coveredUntil = ends[i];
+            }
+        }
+        return gaps;
+    }
+
+    private LocalDateTime buildMaxEnds(int lo, int hi) {
+        if (lo >= hi) {
+            return null;
+        }
+        int mid = (lo + hi) >>> 1;
+        LocalDateTime max = ends[mid];
+        LocalDateTime left = buildMaxEnds(lo, mid);
+        LocalDateTime right = buildMaxEnds(mid + 1, hi);
+        if (left != null && left.isAfter(max)) {
+            max = left;
+        }
+        if (right != null && right.isAfter(max)) {
+            max = right;
+        }
+        maxEnds[mid] = max;
+        return max;
+    }
+
+    private void collectOverlapping(int lo, int hi, LocalDateTime start, LocalDateTime end,
+                                    Long excludeId, List<Activity> result) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        // Nothing in this subtree ends after the query starts
+        if (!maxEnds[mid].isAfter(start)) {
+            return;
+        }
+        collectOverlapping(lo, mid, start, end, excludeId, result);
+        if (activities[mid].startTime().isBefore(end)) {
+            if (ends[mid].isAfter(start) && (excludeId == null || !excludeId.equals(activities[mid].id()))) {
+                result.add(activities[mid]);
+            }
+            // Right subtree starts later than mid, so it is only relevant if mid starts before the query ends
+            collectOverlapping(mid + 1, hi, start, end, excludeId, result);
+        }
+    }
+
+    private static LocalDateTime effectiveEnd(Activity activity, LocalDateTime now) {
+        if (activity.endTime() != null) {
+            return activity.endTime();
+        }
+        if (activity.status() == ActivityStatus.ACTIVE && activity.startTime().isBefore(now)) {
+            return now;
+        }
+        return activity.startTime();
+    }
+
+    public record Overlap(Activity first, Activity second, LocalDateTime start, LocalDateTime end) {
+        public Duration duration() {
+            return Duration.between(start, end);
+        }
+    }
+
+    public record Gap(LocalDate date, LocalDateTime start, LocalDateTime end) {
+        public Duration duration() {
+            return Duration.between(start, end);
+        }
+    }
+}
@@ -1,17 +1,32 @@
 package org.veenix.timer.service;
 
+import org.veenix.timer.metrics.MetricsRegistry;
+import org.veenix.timer.metrics.Timer;
 import org.veenix.timer.model.Activity;
 import org.veenix.timer.model.ActivityStatus;
 import org.veenix.timer.model.ActivityType;
 import org.veenix.timer.persistence.ActivityRepository;
+import org.veenix.timer.persistence.StorageProviders;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 
+/**
+ * Starts, stops and restarts activities. Each operation runs as a single write transaction, so it
+ * commits once and a failure halfway leaves the data as it was.
+ */
 public class ActivityService {
 
     private final ActivityRepository activityRepository;
     private final ConfigurationService configurationService;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+
+    /**
+     * Uses the repository of the configured storage backend.
+     */
+    public ActivityService(ConfigurationService configurationService) {
+        this(StorageProviders.repository(), configurationService);
+    }
 
     public ActivityService(ActivityRepository activityRepository, ConfigurationService configurationService) {
         this.activityRepository = activityRepository;
@@ -23,6 +38,12 @@ public class ActivityService {
     }
 
     public Activity startActivity(ActivityType type, String description, LocalDateTime startTime) {
+        try (Timer.Sample ignored = metrics.timer("service.startActivity").start()) {
+            return activityRepository.inWriteTransaction("startActivity", () -> startFrom(type, description, startTime));
+        }
+    }
+
+    private Activity startFrom(ActivityType type, String description, LocalDateTime startTime) {
         // Complete all currently active activities
         completeActiveActivities();
 
@@ -38,6 +59,13 @@ public class ActivityService {
     }
 
     public Activity stopActivity() {
+        try (Timer.Sample ignored = metrics.timer("service.stopActivity").start()) {
+            // Finding and completing the active activity must not interleave with another process's start
+            return activityRepository.inWriteTransaction("stopActivity", this::completeActiveActivity);
+        }
+    }
+
+    private Activity completeActiveActivity() {
         // Find the currently active activity
         var activeActivities = activityRepository.findByStatus(ActivityStatus.ACTIVE);
 
@@ -54,6 +82,10 @@ public class ActivityService {
         if (roundingInterval > 1) {
             endTime = roundUpToInterval(endTime, roundingInterval);
         }
+        // Rounding truncates seconds, so an activity stopped within its first minute could end before it started
+        if (endTime.isBefore(activeActivity.startTime())) {
+            endTime = activeActivity.startTime();
+        }
 
         // Update it to completed with end time
         Activity completedActivity = Activity.builder()
@@ -69,6 +101,12 @@ public class ActivityService {
     }
 
     public Activity restartActivity(Long sourceActivityId) {
+        try (Timer.Sample ignored = metrics.timer("service.restartActivity").start()) {
+            return activityRepository.inWriteTransaction("restartActivity", () -> restartFrom(sourceActivityId));
+        }
+    }
+
+    private Activity restartFrom(Long sourceActivityId) {
         // Find source activity
         var optionalSource = activityRepository.findById(sourceActivityId);
         if (optionalSource.isEmpty()) {
@@ -77,8 +115,8 @@ public class ActivityService {
 
         Activity sourceActivity = optionalSource.get();
 
-        // Stop any active activities
-        Activity stoppedActivity = stopActivity();
+        // Stop any active activity; already inside restartActivity's transaction and timer
+        completeActiveActivity();
 
         // Create new activity from source template
         Activity newActivity = Activity.builder()
@@ -0,0 +1,166 @@
+package org.veenix.timer.service;
+
+import org.veenix.timer.model.ActivityType;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Immutable, parsed view of timer.properties. Values are validated once when the file is read;
+ * invalid or missing entries fall back to their defaults.
+ */
+public record Configuration(
+    ActivityType defaultActivityType,
+    String csvDelimiter,
+    int defaultDurationMinutes,
+    int roundingMinutes,
+    String defaultStartTime,
+    int slowQueryThresholdMillis,
+    String slowQueryLogFile,
+    int busyTimeoutMillis,
+    int busyRetries,
+    int archiveAfterDays,
+    int maintenanceThreshold,
+    String storageBackend,
+    String replicaFile
+) {
+
+    static final String DEFAULT_ACTIVITY_TYPE_KEY = "default.activity.type";
+    static final String CSV_DELIMITER_KEY = "csv.delimiter";
+    static final String DEFAULT_DURATION_MINUTES_KEY = "default.duration.minutes";
+    static final String ROUNDING_MINUTES_KEY = "rounding.minutes";
+    static final String DEFAULT_START_TIME_KEY = "default.start.time";
+    static final String SLOW_QUERY_THRESHOLD_KEY = "slow.query.threshold.ms";
+    static final String SLOW_QUERY_LOG_FILE_KEY = "slow.query.log.file";
+    static final String BUSY_TIMEOUT_KEY = "db.busy.timeout.ms";
+    static final String BUSY_RETRIES_KEY = "db.busy.retries";
+    static final String ARCHIVE_AFTER_DAYS_KEY = "archive.after.days";
+    static final String MAINTENANCE_THRESHOLD_KEY = "db.maintenance.threshold";
+    static final String STORAGE_BACKEND_KEY = "storage.backend";
+    static final String REPLICA_FILE_KEY = "replica.file";
+
+    static final Set<Integer> ROUNDING_VALUES = Set.of(0, 1, 5, 10, 15, 30, 60);
+    static final DateTimeFormatter START_TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+
+    private static final Configuration DEFAULTS = new Configuration(ActivityType.DEVELOP, ",", 60, 5, "09:00", 500,
+        "timer-slow.log", 5000, 5, 365, 1000, "sqlite", "timer-replica.db");
+
+    public static Configuration defaults() {
+        return DEFAULTS;
+    }
+
+    static Configuration parse(Properties properties) {
+        return new Configuration(
+            parseActivityType(properties.getProperty(DEFAULT_ACTIVITY_TYPE_KEY)),
+            properties.getProperty(CSV_DELIMITER_KEY, DEFAULTS.csvDelimiter()),
+            parseDuration(properties.getProperty(DEFAULT_DURATION_MINUTES_KEY)),
+            parseRounding(properties.getProperty(ROUNDING_MINUTES_KEY)),
+            parseStartTime(properties.getProperty(DEFAULT_START_TIME_KEY)),
+            parseSlowQueryThreshold(properties.getProperty(SLOW_QUERY_THRESHOLD_KEY)),
+            parseSlowQueryLogFile(properties.getProperty(SLOW_QUERY_LOG_FILE_KEY)),
+            parseNonNegative(properties.getProperty(BUSY_TIMEOUT_KEY), DEFAULTS.busyTimeoutMillis()),
+            parseNonNegative(properties.getProperty(BUSY_RETRIES_KEY), DEFAULTS.busyRetries()),
+            parseNonNegative(properties.getProperty(ARCHIVE_AFTER_DAYS_KEY), DEFAULTS.archiveAfterDays()),
+            parseNonNegative(properties.getProperty(MAINTENANCE_THRESHOLD_KEY), DEFAULTS.maintenanceThreshold()),
+            parseStorageBackend(properties.getProperty(STORAGE_BACKEND_KEY)),
+            parseReplicaFile(properties.getProperty(REPLICA_FILE_KEY))
+        );
+    }
+
+    /**
+     * Writes all values, for creating a new configuration file.
+     */
+    void writeTo(Properties properties) {
+        properties.setProperty(DEFAULT_ACTIVITY_TYPE_KEY, defaultActivityType.name());
+        properties.setProperty(CSV_DELIMITER_KEY, csvDelimiter);
+        properties.setProperty(DEFAULT_DURATION_MINUTES_KEY, String.valueOf(defaultDurationMinutes));
+        properties.setProperty(ROUNDING_MINUTES_KEY, String.valueOf(roundingMinutes));
+        properties.setProperty(DEFAULT_START_TIME_KEY, defaultStartTime);
+        properties.setProperty(SLOW_QUERY_THRESHOLD_KEY, String.valueOf(slowQueryThresholdMillis));
+        properties.setProperty(SLOW_QUERY_LOG_FILE_KEY, slowQueryLogFile);
+        properties.setProperty(BUSY_TIMEOUT_KEY, String.valueOf(busyTimeoutMillis));
+        properties.setProperty(BUSY_RETRIES_KEY, String.valueOf(busyRetries));
+        properties.setProperty(ARCHIVE_AFTER_DAYS_KEY, String.valueOf(archiveAfterDays));
+        properties.setProperty(MAINTENANCE_THRESHOLD_KEY, String.valueOf(maintenanceThreshold));
+        properties.setProperty(STORAGE_BACKEND_KEY, storageBackend);
+        properties.setProperty(REPLICA_FILE_KEY, replicaFile);
+    }
+
+    private static ActivityType parseActivityType(String value) {
+        if (value == null) {
+            return DEFAULTS.defaultActivityType();
+        }
+        try {
+            return ActivityType.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return DEFAULTS.defaultActivityType();
+        }
+    }
+
+    private static int parseDuration(String value) {
+        try {
+            int duration = Integer.parseInt(value);
+            return duration > 0 ? duration : DEFAULTS.defaultDurationMinutes();
+        } catch (NumberFormatException e) {
+            return DEFAULTS.defaultDurationMinutes();
+        }
+    }
+
+    private static int parseRounding(String value) {
+        if (value == null) {
+            return DEFAULTS.roundingMinutes();
+        }
+        try {
+            int rounding = Integer.parseInt(value);
+            // Invalid value means no rounding
+            return ROUNDING_VALUES.contains(rounding) ? rounding : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String parseStartTime(String value) {
+        if (value == null) {
+            return DEFAULTS.defaultStartTime();
+        }
+        try {
+            LocalTime.parse(value, START_TIME_FORMATTER);
+            return value;
+        } catch (DateTimeParseException e) {
+            return DEFAULTS.defaultStartTime();
+        }
+    }
+
+    private static int parseSlowQueryThreshold(String value) {
+        try {
+            return Math.max(Integer.parseInt(value), 0);
+        } catch (NumberFormatException e) {
+            return DEFAULTS.slowQueryThresholdMillis();
+        }
+    }
+
+    private static String parseSlowQueryLogFile(String value) {
+        return value == null || value.isBlank() ? DEFAULTS.slowQueryLogFile() : value;
+    }
+
+    private static String parseStorageBackend(String value) {
+        // Whether a provider of that name exists is only known once the providers are loaded
+        return value == null || value.isBlank() ? DEFAULTS.storageBackend() : value.trim();
+    }
+
+    private static String parseReplicaFile(String value) {
+        return value == null || value.isBlank() ? DEFAULTS.replicaFile() : value.trim();
+    }
+
+    private static int parseNonNegative(String value, int defaultValue) {
+        try {
+            int parsed = Integer.parseInt(value);
+            return parsed >= 0 ? parsed : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
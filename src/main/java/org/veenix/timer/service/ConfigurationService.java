@@ -2,141 +2,242 @@ package org.veenix.timer.service;
 
 import org.veenix.timer.model.ActivityType;
 
-import java.io.*;
+import java.nio.file.Path;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.util.Properties;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+/**
+ * Typed access to timer.properties. All instances for the same file share one parsed
+ * {@link Configuration} snapshot; creating an instance only checks whether the file changed.
+ */
 public class ConfigurationService {
 
     private static final String CONFIG_FILE = "timer.properties";
-    private static final String DEFAULT_ACTIVITY_TYPE_KEY = "default.activity.type";
-    private static final String CSV_DELIMITER_KEY = "csv.delimiter";
-    private static final String DEFAULT_DURATION_MINUTES_KEY = "default.duration.minutes";
-    private static final String ROUNDING_MINUTES_KEY = "rounding.minutes";
-    private static final String DEFAULT_START_TIME_KEY = "default.start.time";
-    private final Properties properties;
+    private final ConfigurationStore store;
 
     public ConfigurationService() {
-        properties = new Properties();
-        loadConfiguration();
+        this(Path.of(CONFIG_FILE));
     }
 
-    private void loadConfiguration() {
-        File configFile = new File(CONFIG_FILE);
-        if (configFile.exists()) {
-            try (InputStream input = new FileInputStream(configFile)) {
-                properties.load(input);
-            } catch (IOException e) {
-                throw new RuntimeException("Failed to load configuration file", e);
-            }
-        } else {
-            // Create default configuration
-            properties.setProperty(DEFAULT_ACTIVITY_TYPE_KEY, ActivityType.DEVELOP.name());
-            properties.setProperty(CSV_DELIMITER_KEY, ",");
-            properties.setProperty(DEFAULT_DURATION_MINUTES_KEY, "60");
-            properties.setProperty(ROUNDING_MINUTES_KEY, "5");
-            properties.setProperty(DEFAULT_START_TIME_KEY, "09:00");
-            saveConfiguration();
-        }
+    public ConfigurationService(Path configFile) {
+        store = ConfigurationStore.forFile(configFile);
+        store.refresh();
     }
 
-    private void saveConfiguration() {
-        try (OutputStream output = new FileOutputStream(CONFIG_FILE)) {
-            properties.store(output, "Timer Application Configuration");
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to save configuration file", e);
-        }
+    /**
+     * Returns the current immutable snapshot of all settings.
+     */
+    public Configuration getConfiguration() {
+        return store.snapshot();
+    }
+
+    /**
+     * Reloads the snapshot whenever the file changes on disk, for long-lived processes.
+     */
+    public void watchForChanges() {
+        store.startWatching();
+    }
+
+    public void stopWatching() {
+        store.stopWatching();
+    }
+
+    /**
+     * Starts a batch of changes that is validated per setting and written to disk once by {@link Editor#save()}.
+     */
+    public Editor edit() {
+        return new Editor();
     }
 
     public ActivityType getDefaultActivityType() {
-        String typeStr = properties.getProperty(DEFAULT_ACTIVITY_TYPE_KEY, ActivityType.DEVELOP.name());
-        try {
-            return ActivityType.valueOf(typeStr.toUpperCase());
-        } catch (IllegalArgumentException e) {
-            return ActivityType.DEVELOP;
-        }
+        return store.snapshot().defaultActivityType();
     }
 
     public void setDefaultActivityType(ActivityType type) {
-        properties.setProperty(DEFAULT_ACTIVITY_TYPE_KEY, type.name());
-        saveConfiguration();
+        edit().defaultActivityType(type).save();
     }
 
     public String getCsvDelimiter() {
-        return properties.getProperty(CSV_DELIMITER_KEY, ",");
+        return store.snapshot().csvDelimiter();
     }
 
     public void setCsvDelimiter(String delimiter) {
-        properties.setProperty(CSV_DELIMITER_KEY, delimiter);
-        saveConfiguration();
+        edit().csvDelimiter(delimiter).save();
     }
 
     public int getDefaultDurationMinutes() {
-        String durationStr = properties.getProperty(DEFAULT_DURATION_MINUTES_KEY, "60");
-        try {
-            int duration = Integer.parseInt(durationStr);
-            return duration > 0 ? duration : 60;
-        } catch (NumberFormatException e) {
-            return 60;
-        }
+        return store.snapshot().defaultDurationMinutes();
     }
 
     public void setDefaultDurationMinutes(int minutes) {
-        if (minutes <= 0) {
-            throw new IllegalArgumentException("Duration must be greater than 0");
-        }
-        properties.setProperty(DEFAULT_DURATION_MINUTES_KEY, String.valueOf(minutes));
-        saveConfiguration();
+        edit().defaultDurationMinutes(minutes).save();
     }
 
     public int getRoundingMinutes() {
-        String roundingStr = properties.getProperty(ROUNDING_MINUTES_KEY, "5");
-        try {
-            int rounding = Integer.parseInt(roundingStr);
-            // Validate: must be 0, 1, 5, 10, 15, 30, or 60
-            if (rounding == 0 || rounding == 1 || rounding == 5 ||
-                rounding == 10 || rounding == 15 || rounding == 30 || rounding == 60) {
-                return rounding;
-            }
-            return 0; // Invalid value, return 0 (no rounding)
-        } catch (NumberFormatException e) {
-            return 0; // Invalid value, return 0 (no rounding)
-        }
+        return store.snapshot().roundingMinutes();
     }
 
     public void setRoundingMinutes(int minutes) {
-        // Validate: must be 0, 1, 5, 10, 15, 30, or 60
-        if (minutes != 0 && minutes != 1 && minutes != 5 &&
-            minutes != 10 && minutes != 15 && minutes != 30 && minutes != 60) {
-            throw new IllegalArgumentException("Rounding must be 0, 1, 5, 10, 15, 30, or 60 minutes");
-        }
-        properties.setProperty(ROUNDING_MINUTES_KEY, String.valueOf(minutes));
-        saveConfiguration();
+        edit().roundingMinutes(minutes).save();
     }
 
     public String getDefaultStartTime() {
-        String timeStr = properties.getProperty(DEFAULT_START_TIME_KEY, "09:00");
-        // Validate format HH:mm
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm");
-        try {
-            LocalTime.parse(timeStr, formatter);
-            return timeStr;
-        } catch (DateTimeParseException e) {
-            return "09:00"; // Invalid value, return default
-        }
+        return store.snapshot().defaultStartTime();
     }
 
     public void setDefaultStartTime(String time) {
-        // Validate format HH:mm
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm");
-        try {
-            LocalTime.parse(time, formatter);
-            properties.setProperty(DEFAULT_START_TIME_KEY, time);
-            saveConfiguration();
-        } catch (DateTimeParseException e) {
-            throw new IllegalArgumentException("Start time must be in HH:mm format (e.g., 09:00)");
+        edit().defaultStartTime(time).save();
+    }
+
+    public int getSlowQueryThresholdMillis() {
+        return store.snapshot().slowQueryThresholdMillis();
+    }
+
+    public void setSlowQueryThresholdMillis(int millis) {
+        edit().slowQueryThresholdMillis(millis).save();
+    }
+
+    public String getSlowQueryLogFile() {
+        return store.snapshot().slowQueryLogFile();
+    }
+
+    public int getBusyTimeoutMillis() {
+        return store.snapshot().busyTimeoutMillis();
+    }
+
+    public int getBusyRetries() {
+        return store.snapshot().busyRetries();
+    }
+
+    public int getArchiveAfterDays() {
+        return store.snapshot().archiveAfterDays();
+    }
+
+    public int getMaintenanceThreshold() {
+        return store.snapshot().maintenanceThreshold();
+    }
+
+    public String getStorageBackend() {
+        return store.snapshot().storageBackend();
+    }
+
+    public String getReplicaFile() {
+        return store.snapshot().replicaFile();
+    }
+
+    public class Editor {
+
+        private final Map<String, String> changes = new LinkedHashMap<>();
+
+        private Editor() {
+        }
+
+        public Editor defaultActivityType(ActivityType type) {
+            changes.put(Configuration.DEFAULT_ACTIVITY_TYPE_KEY, type.name());
+            return this;
+        }
+
+        public Editor csvDelimiter(String delimiter) {
+            changes.put(Configuration.CSV_DELIMITER_KEY, delimiter);
+            return this;
+        }
+
+        public Editor defaultDurationMinutes(int minutes) {
+            if (minutes <= 0) {
+                throw new IllegalArgumentException("Duration must be greater than 0");
+            }
+            changes.put(Configuration.DEFAULT_DURATION_MINUTES_KEY, String.valueOf(minutes));
+            return this;
+        }
+
+        public Editor roundingMinutes(int minutes) {
+            if (!Configuration.ROUNDING_VALUES.contains(minutes)) {
+                throw new IllegalArgumentException("Rounding must be 0, 1, 5, 10, 15, 30, or 60 minutes");
+            }
+            changes.put(Configuration.ROUNDING_MINUTES_KEY, String.valueOf(minutes));
+            return this;
+        }
+
+        public Editor defaultStartTime(String time) {
+            try {
+                LocalTime.parse(time, Configuration.START_TIME_FORMATTER);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Start time must be in HH:mm format (e.g., 09:00)");
+            }
+            changes.put(Configuration.DEFAULT_START_TIME_KEY, time);
+            return this;
+        }
+
+        public Editor slowQueryThresholdMillis(int millis) {
+            if (millis < 0) {
+                throw new IllegalArgumentException("Slow query threshold cannot be negative (0 disables the log)");
+            }
+            changes.put(Configuration.SLOW_QUERY_THRESHOLD_KEY, String.valueOf(millis));
+            return this;
+        }
+
+        public Editor slowQueryLogFile(String file) {
+            changes.put(Configuration.SLOW_QUERY_LOG_FILE_KEY, file);
+            return this;
+        }
+
+        public Editor busyTimeoutMillis(int millis) {
+            if (millis < 0) {
+                throw new IllegalArgumentException("Busy timeout cannot be negative");
+            }
+            changes.put(Configuration.BUSY_TIMEOUT_KEY, String.valueOf(millis));
+            return this;
+        }
+
+        public Editor busyRetries(int retries) {
+            if (retries < 0) {
+                throw new IllegalArgumentException("Busy retries cannot be negative");
+            }
+            changes.put(Configuration.BUSY_RETRIES_KEY, String.valueOf(retries));
+            return this;
+        }
+
+        public Editor archiveAfterDays(int days) {
+            if (days < 0) {
+                throw new IllegalArgumentException("Archive age cannot be negative");
+            }
+            changes.put(Configuration.ARCHIVE_AFTER_DAYS_KEY, String.valueOf(days));
+            return this;
+        }
+
+        public Editor maintenanceThreshold(int mutations) {
+            if (mutations < 0) {
+                throw new IllegalArgumentException("Maintenance threshold cannot be negative (0 disables maintenance)");
+            }
+            changes.put(Configuration.MAINTENANCE_THRESHOLD_KEY, String.valueOf(mutations));
+            return this;
+        }
+
+        public Editor storageBackend(String backend) {
+            if (backend == null || backend.isBlank()) {
+                throw new IllegalArgumentException("Storage backend cannot be empty");
+            }
+            changes.put(Configuration.STORAGE_BACKEND_KEY, backend.trim());
+            return this;
+        }
+
+        public Editor replicaFile(String file) {
+            if (file == null || file.isBlank()) {
+                throw new IllegalArgumentException("Replica file cannot be empty");
+            }
+            changes.put(Configuration.REPLICA_FILE_KEY, file.trim());
+            return this;
+        }
+
+        /**
+         * Writes all changes at once; does nothing when no setting was changed.
+         */
+        public void save() {
+            if (!changes.isEmpty()) {
+                store.update(changes);
+            }
         }
     }
 }
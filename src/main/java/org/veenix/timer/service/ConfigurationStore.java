@@ -0,0 +1,234 @@
+package org.veenix.timer.service;
+
+import org.veenix.timer.metrics.ConfigLoadEvent;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide holder of the parsed configuration for one file.
+ * The file is read once and re-read only when its modification time or size changes; writes go
+ * to a temporary file that is renamed over the original, so readers never see a partial file.
+ */
+class ConfigurationStore {
+
+    private static final Map<Path, ConfigurationStore> STORES = new ConcurrentHashMap<>();
+
+    private final Path file;
+    private Properties properties = new Properties();
+    private volatile Configuration snapshot;
+    private FileStamp stamp;
+    private Thread watcher;
+    private WatchService watchService;
+
+    private ConfigurationStore(Path file) {
+        this.file = file;
+    }
+
+    static ConfigurationStore forFile(Path file) {
+        return STORES.computeIfAbsent(file.toAbsolutePath().normalize(), ConfigurationStore::new);
+    }
+
+    Path file() {
+        return file;
+    }
+
+    /**
+     * Returns the current snapshot, loading the file the first time.
+     */
+    Configuration snapshot() {
+        Configuration current = snapshot;
+        return current != null ? current : refresh();
+    }
+
+    /**
+     * Re-reads the file when it changed since it was last read, and creates it with defaults when it is missing.
+     * Costs a single stat call when nothing changed.
+     */
+    synchronized Configuration refresh() {
+        FileStamp current;
+        try {
+            current = FileStamp.of(file);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load configuration file", e);
+        }
+        if (current == null) {
+            createDefaults();
+        } else if (snapshot == null || !current.equals(stamp)) {
+            load();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Applies all changes to a copy of the current properties and writes them in one atomic replace.
+     */
+    synchronized void update(Map<String, String> changes) {
+        refresh();
+        Properties updated = new Properties();
+        updated.putAll(properties);
+        changes.forEach(updated::setProperty);
+        write(updated);
+    }
+
+    /**
+     * Starts a daemon thread that reloads the configuration as soon as the file changes.
+     * Only useful in long-lived processes; a CLI command reads the file once.
+     */
+    synchronized void startWatching() {
+        if (watcher != null) {
+            return;
+        }
+        Path directory = file.getParent();
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to watch configuration file", e);
+        }
+        WatchService service = watchService;
+        watcher = new Thread(() -> watch(service), "config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    synchronized void stopWatching() {
+        if (watcher == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            // Closing only stops the watcher thread; nothing to recover
+        }
+        watcher.interrupt();
+        watcher = null;
+        watchService = null;
+    }
+
+    private void watch(WatchService service) {
+        Path fileName = file.getFileName();
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    // The rename of an atomic write shows up as a create of the target name
+                    if (fileName.equals(event.context()) || event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        changed = true;
+                    }
+                }
+                if (changed && Files.exists(file)) {
+                    try {
+                        refresh();
+                    } catch (RuntimeException e) {
+                        // A half-edited file will be re-read on the next change
+                    }
+                }
+                if (!key.reset()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Watching stopped
+        }
+    }
+
+    private void load() {
+        ConfigLoadEvent event = new ConfigLoadEvent();
+        event.begin();
+        Properties loaded = new Properties();
+        FileStamp loadedStamp;
+        try {
+            loadedStamp = FileStamp.of(file);
+            try (InputStream input = Files.newInputStream(file)) {
+                loaded.load(input);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load configuration file", e);
+        }
+        apply(loaded, loadedStamp);
+        commit(event, false);
+    }
+
+    private void createDefaults() {
+        ConfigLoadEvent event = new ConfigLoadEvent();
+        event.begin();
+        Properties defaults = new Properties();
+        Configuration.defaults().writeTo(defaults);
+        write(defaults);
+        commit(event, true);
+    }
+
+    private void write(Properties updated) {
+        Path directory = file.toAbsolutePath().getParent();
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(directory, "." + file.getFileName(), ".tmp");
+            try (OutputStream output = Files.newOutputStream(temp)) {
+                updated.store(output, "Timer Application Configuration");
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            temp = null;
+            apply(updated, FileStamp.of(file));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to save configuration file", e);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    // Leftover temp file is harmless
+                }
+            }
+        }
+    }
+
+    private void apply(Properties loaded, FileStamp loadedStamp) {
+        properties = loaded;
+        stamp = loadedStamp;
+        snapshot = Configuration.parse(loaded);
+    }
+
+    private void commit(ConfigLoadEvent event, boolean createdDefaults) {
+        if (event.shouldCommit()) {
+            event.file = file.toString();
+            event.properties = properties.size();
+            event.createdDefaults = createdDefaults;
+            event.commit();
+        }
+    }
+
+    private record FileStamp(long modifiedMillis, long size) {
+
+        static FileStamp of(Path file) throws IOException {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                return new FileStamp(attributes.lastModifiedTime().toMillis(), attributes.size());
+            } catch (NoSuchFileException e) {
+                return null;
+            }
+        }
+    }
+}
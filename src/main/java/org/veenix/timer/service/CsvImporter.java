@@ -0,0 +1,461 @@
+package org.veenix.timer.service;
+
+import org.veenix.timer.metrics.MetricsRegistry;
+import org.veenix.timer.metrics.Timer;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+import org.veenix.timer.persistence.ActivityRepository;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports activities from CSV files in the layout written by the export command:
+ * id, start_time, end_time, activity_type, status, description. Ids in the file are ignored; every row
+ * becomes a new activity. Fields containing the delimiter, quotes or line breaks are quoted, with quotes
+ * doubled. Times may be written as {@code yyyy-MM-dd HH:mm[:ss[.fraction]]}, with a space or a {@code T}.
+ * <p>
+ * The file is memory-mapped and cut into chunks that are parsed in parallel; a single writer stores the
+ * parsed rows chunk by chunk, in file order, one transaction per chunk. A chunk starts at the first line
+ * break after its nominal offset. That guess is wrong when the line break is inside a quoted field, which
+ * shows when the previous chunk ends somewhere else; the writer then parses the chunk again from where
+ * the previous one really ended. Rows that cannot be parsed are counted and skipped.
+ */
+public class CsvImporter {
+
+    static final int DEFAULT_CHUNK_BYTES = 8 * 1024 * 1024;
+
+    private static final int FIELDS = 6;
+    private static final int MAX_REJECT_SAMPLES = 10;
+    private static final int SCAN_BYTES = 64 * 1024;
+    private static final ActivityType[] TYPES = ActivityType.values();
+    private static final ActivityStatus[] STATUSES = ActivityStatus.values();
+
+    private final ActivityRepository activityRepository;
+    private final byte[] delimiter;
+    private final int threads;
+    private final int chunkBytes;
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+
+    public CsvImporter(ActivityRepository activityRepository, String delimiter) {
+        this(activityRepository, delimiter, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_BYTES);
+    }
+
+    // Package-private for testing
+    CsvImporter(ActivityRepository activityRepository, String delimiter, int threads, int chunkBytes) {
+        if (delimiter == null || delimiter.isEmpty() || delimiter.contains("\"")
+                || delimiter.contains("\n") || delimiter.contains("\r")) {
+            throw new IllegalArgumentException("CSV delimiter must be non-empty and cannot contain quotes or line breaks");
+        }
+        this.activityRepository = activityRepository;
+        this.delimiter = delimiter.getBytes(StandardCharsets.UTF_8);
+        this.threads = Math.max(1, threads);
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Imports every row of the file and returns how many were imported and rejected.
+     */
+    public Result importFile(Path file) throws IOException {
+        long startNanos = System.nanoTime();
+        long imported = 0;
+        long rejected = 0;
+        List<String> rejects = new ArrayList<>();
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             ExecutorService parsers = Executors.newFixedThreadPool(threads, runnable -> {
+                 Thread thread = new Thread(runnable, "csv-import-" + threadNumber.incrementAndGet());
+                 thread.setDaemon(true);
+                 return thread;
+             })) {
+            long size = channel.size();
+            Deque<Future<Chunk>> pending = new ArrayDeque<>();
+            long nextOffset = 0;
+            // Where the next chunk has to start: the end of the last record stored
+            long expectedStart = 0;
+
+            while (nextOffset < size || !pending.isEmpty()) {
+                // Keep every parser busy without holding more than a few chunks of parsed rows
+                while (nextOffset < size && pending.size() < threads * 2) {
+                    long from = nextOffset;
+                    long to = Math.min(size, from + chunkBytes);
+                    pending.add(parsers.submit(() -> parseChunk(channel, size, from, to)));
+                    nextOffset = to;
+                }
+
+                Chunk chunk = await(pending.removeFirst());
+                if (expectedStart >= chunk.limit()) {
+                    // A quoted field of the previous chunk ran past this whole chunk
+                    continue;
+                }
+                if (chunk.start() != expectedStart) {
+                    metrics.counter("import.chunk.reparsed").increment();
+                    chunk = parse(channel, size, expectedStart, chunk.limit());
+                }
+                write(chunk.activities());
+                expectedStart = chunk.end();
+                imported += chunk.activities().size();
+                rejected += chunk.rejected();
+                for (String reject : chunk.rejects()) {
+                    if (rejects.size() < MAX_REJECT_SAMPLES) {
+                        rejects.add(reject);
+                    }
+                }
+            }
+            metrics.counter("import.rows").add(imported);
+            metrics.counter("import.rejected").add(rejected);
+            return new Result(imported, rejected, List.copyOf(rejects), size, System.nanoTime() - startNanos);
+        }
+    }
+
+    private void write(List<Activity> activities) {
+        if (activities.isEmpty()) {
+            return;
+        }
+        try (Timer.Sample ignored = metrics.timer("import.write").start()) {
+            activityRepository.inWriteTransaction("import", () -> {
+                for (Activity activity : activities) {
+                    activityRepository.save(activity);
+                }
+                return null;
+            });
+        }
+    }
+
+    private static Chunk await(Future<Chunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new RuntimeException("Failed to parse CSV", e.getCause());
+        }
+    }
+
+    private Chunk parseChunk(FileChannel channel, long size, long from, long to) throws IOException {
+        return parse(channel, size, recordStartFrom(channel, size, from), recordStartFrom(channel, size, to));
+    }
+
+    /**
+     * Returns the offset after the first line break at or after {@code offset - 1}: the start of the
+     * first line beginning at or after {@code offset}.
+     */
+    private static long recordStartFrom(FileChannel channel, long size, long offset) throws IOException {
+        if (offset == 0 || offset >= size) {
+            return Math.min(offset, size);
+        }
+        for (long position = offset - 1; position < size; position += SCAN_BYTES) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                Math.min(SCAN_BYTES, size - position));
+            for (int i = 0; i < buffer.limit(); i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Parses the records that start in [start, limit). The last one may run past {@code limit}.
+     */
+    private Chunk parse(FileChannel channel, long size, long start, long limit) throws IOException {
+        if (start >= limit) {
+            return new Chunk(start, limit, start, List.of(), 0, List.of());
+        }
+        // A mapping is limited to 2 GB; the records that start in the chunk end well within that
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start,
+            Math.min(size - start, Integer.MAX_VALUE));
+        return new ChunkParser(buffer, start, delimiter).parse(limit);
+    }
+
+    /**
+     * Outcome of an import. {@code rejects} holds the first few reasons rows were skipped.
+     */
+    public record Result(long imported, long rejected, List<String> rejects, long bytes, long nanos) {
+
+        public double rowsPerSecond() {
+            return nanos > 0 ? (imported + rejected) * 1e9 / nanos : 0;
+        }
+    }
+
+    private record Chunk(long start, long limit, long end, List<Activity> activities, long rejected,
+                         List<String> rejects) {
+    }
+
+    /**
+     * Parses the records of one mapped chunk. Field boundaries are kept as offsets into the buffer; only
+     * descriptions are decoded into strings.
+     */
+    private static final class ChunkParser {
+
+        private final MappedByteBuffer buffer;
+        private final long base;
+        private final byte[] delimiter;
+        private final int[] fieldStart = new int[FIELDS];
+        private final int[] fieldEnd = new int[FIELDS];
+        private final boolean[] fieldEscaped = new boolean[FIELDS];
+        private byte[] scratch = new byte[256];
+        private int fieldCount;
+        private int position;
+
+        ChunkParser(MappedByteBuffer buffer, long base, byte[] delimiter) {
+            this.buffer = buffer;
+            this.base = base;
+            this.delimiter = delimiter;
+        }
+
+        Chunk parse(long limit) {
+            List<Activity> activities = new ArrayList<>();
+            List<String> rejects = new ArrayList<>();
+            long rejected = 0;
+            int end = buffer.limit();
+
+            while (position < end && base + position < limit) {
+                long recordOffset = base + position;
+                String problem = readRecord(end);
+                if (fieldCount == 1 && fieldStart[0] == fieldEnd[0]) {
+                    // Blank line
+                    continue;
+                }
+                if (problem == null && recordOffset == 0 && isHeader()) {
+                    continue;
+                }
+                if (problem == null) {
+                    try {
+                        activities.add(toActivity());
+                        continue;
+                    } catch (IllegalArgumentException | DateTimeException e) {
+                        problem = e.getMessage();
+                    }
+                }
+                rejected++;
+                if (rejects.size() < MAX_REJECT_SAMPLES) {
+                    rejects.add("byte " + recordOffset + ": " + problem);
+                }
+            }
+            return new Chunk(base, limit, base + position, activities, rejected, rejects);
+        }
+
+        /**
+         * Reads one record up to and including its line break and returns why it is malformed, or null.
+         */
+        private String readRecord(int end) {
+            fieldCount = 0;
+            String problem = null;
+            while (true) {
+                int start;
+                int stop;
+                boolean escaped = false;
+                if (position < end && buffer.get(position) == '"') {
+                    start = ++position;
+                    while (position < end) {
+                        if (buffer.get(position) == '"') {
+                            if (position + 1 < end && buffer.get(position + 1) == '"') {
+                                escaped = true;
+                                position += 2;
+                                continue;
+                            }
+                            break;
+                        }
+                        position++;
+                    }
+                    if (position >= end) {
+                        return "unterminated quoted field";
+                    }
+                    stop = position++;
+                } else {
+                    start = position;
+                    while (position < end && buffer.get(position) != '\n' && !atDelimiter(end)) {
+                        position++;
+                    }
+                    stop = position > start && position < end && buffer.get(position - 1) == '\r'
+                        && buffer.get(position) == '\n' ? position - 1 : position;
+                }
+
+                if (fieldCount < FIELDS) {
+                    fieldStart[fieldCount] = start;
+                    fieldEnd[fieldCount] = stop;
+                    fieldEscaped[fieldCount] = escaped;
+                }
+                fieldCount++;
+
+                if (position >= end) {
+                    break;
+                }
+                if (atDelimiter(end)) {
+                    position += delimiter.length;
+                    continue;
+                }
+                byte next = buffer.get(position);
+                if (next == '\r' && position + 1 < end && buffer.get(position + 1) == '\n') {
+                    position += 2;
+                    break;
+                }
+                if (next == '\n') {
+                    position++;
+                    break;
+                }
+                // Text after a closing quote; skip the rest of the line
+                problem = "unexpected text after quoted field";
+                while (position < end && buffer.get(position++) != '\n') {
+                    // Skip
+                }
+                break;
+            }
+            if (problem == null && fieldCount != FIELDS) {
+                problem = "expected " + FIELDS + " fields but found " + fieldCount;
+            }
+            return problem;
+        }
+
+        private boolean atDelimiter(int end) {
+            if (position + delimiter.length > end) {
+                return false;
+            }
+            for (int i = 0; i < delimiter.length; i++) {
+                if (buffer.get(position + i) != delimiter[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isHeader() {
+            return fieldEnd[0] - fieldStart[0] == 2 && buffer.get(fieldStart[0]) == 'i' && buffer.get(fieldStart[0] + 1) == 'd';
+        }
+
+        private Activity toActivity() {
+            LocalDateTime startTime = dateTime(1);
+            if (startTime == null) {
+                throw new IllegalArgumentException("start time is missing");
+            }
+            LocalDateTime endTime = dateTime(2);
+            if (endTime != null && endTime.isBefore(startTime)) {
+                throw new IllegalArgumentException("end time is before start time");
+            }
+            return Activity.builder()
+                .startTime(startTime)
+                .endTime(endTime)
+                .activityType(constant(3, TYPES, "activity type"))
+                .status(constant(4, STATUSES, "status"))
+                .description(text(5))
+                .build();
+        }
+
+        // yyyy-MM-dd HH:mm[:ss[.fraction]], with a space or T between date and time; empty means none
+        private LocalDateTime dateTime(int field) {
+            int start = fieldStart[field];
+            int length = fieldEnd[field] - start;
+            if (length == 0) {
+                return null;
+            }
+            if (length < 16 || buffer.get(start + 4) != '-' || buffer.get(start + 7) != '-'
+                    || (buffer.get(start + 10) != ' ' && buffer.get(start + 10) != 'T') || buffer.get(start + 13) != ':') {
+                throw new IllegalArgumentException("invalid time '" + ascii(field) + "'");
+            }
+            int second = 0;
+            int nano = 0;
+            if (length > 16) {
+                if (length < 19 || buffer.get(start + 16) != ':') {
+                    throw new IllegalArgumentException("invalid time '" + ascii(field) + "'");
+                }
+                second = number(field, start + 17, 2);
+                if (length > 19) {
+                    int digits = length - 20;
+                    if (buffer.get(start + 19) != '.' || digits < 1 || digits > 9) {
+                        throw new IllegalArgumentException("invalid time '" + ascii(field) + "'");
+                    }
+                    nano = number(field, start + 20, digits);
+                    for (int i = digits; i < 9; i++) {
+                        nano *= 10;
+                    }
+                }
+            }
+            return LocalDateTime.of(number(field, start, 4), number(field, start + 5, 2), number(field, start + 8, 2),
+                number(field, start + 11, 2), number(field, start + 14, 2), second, nano);
+        }
+
+        private int number(int field, int offset, int digits) {
+            int value = 0;
+            for (int i = offset; i < offset + digits; i++) {
+                int digit = buffer.get(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    throw new IllegalArgumentException("invalid time '" + ascii(field) + "'");
+                }
+                value = value * 10 + digit;
+            }
+            return value;
+        }
+
+        // Matches the field against the constant names without decoding it
+        private <E extends Enum<E>> E constant(int field, E[] constants, String kind) {
+            int start = fieldStart[field];
+            int length = fieldEnd[field] - start;
+            for (E constant : constants) {
+                String name = constant.name();
+                if (name.length() != length) {
+                    continue;
+                }
+                int i = 0;
+                while (i < length && buffer.get(start + i) == name.charAt(i)) {
+                    i++;
+                }
+                if (i == length) {
+                    return constant;
+                }
+            }
+            throw new IllegalArgumentException("unknown " + kind + " '" + ascii(field) + "'");
+        }
+
+        // Empty means no description, as the export writes it
+        private String text(int field) {
+            int start = fieldStart[field];
+            int length = fieldEnd[field] - start;
+            if (length == 0) {
+                return null;
+            }
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            int count = 0;
+            for (int i = start; i < start + length; i++) {
+                byte b = buffer.get(i);
+                scratch[count++] = b;
+                if (b == '"' && fieldEscaped[field]) {
+                    // Doubled quote
+                    i++;
+                }
+            }
+            return new String(scratch, 0, count, StandardCharsets.UTF_8);
+        }
+
+        private String ascii(int field) {
+            int length = Math.min(fieldEnd[field] - fieldStart[field], 40);
+            byte[] bytes = new byte[length];
+            buffer.get(fieldStart[field], bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.veenix.timer.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts the classes a fresh JVM loads to build and parse the command tree, eagerly versus lazily.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class CommandTreeClassLoadingBenchmarkTest {
+
+    private static final List<List<String>> COMMANDS = List.of(
+        List.of("timer", "stop"),
+        List.of("timer", "start", "-d", "x"),
+        List.of("activity", "list"),
+        List.of("activity", "db", "diagnose"),
+        List.of("jfr-report", "recording.jfr")
+    );
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void benchmarkClassLoading() throws Exception {
+        System.out.printf("%n%-28s | %11s | %10s | %9s | %8s | %13s | %12s%n",
+            "Command", "Eager total", "Lazy total", "Eager app", "Lazy app", "Eager picocli", "Lazy picocli");
+        for (List<String> command : COMMANDS) {
+            ClassCount eager = run("eager", command);
+            ClassCount lazy = run("lazy", command);
+            System.out.printf("%-28s | %11d | %10d | %9d | %8d | %13d | %12d%n",
+                String.join(" ", command), eager.total(), lazy.total(), eager.application(), lazy.application(),
+                eager.picocli(), lazy.picocli());
+            assertTrue(lazy.application() < eager.application());
+        }
+    }
+
+    private ClassCount run(String mode, List<String> command) throws IOException, InterruptedException {
+        Path log = tempDir.resolve(mode + "-" + String.join("_", command) + ".log");
+        List<String> processArgs = new ArrayList<>(List.of(
+            Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+            "-Xshare:off",
+            "-Xlog:class+load=info:file=" + log,
+            "-cp", System.getProperty("java.class.path"),
+            CommandTreeProbe.class.getName(),
+            mode));
+        processArgs.addAll(command);
+
+        Process process = new ProcessBuilder(processArgs).redirectErrorStream(true).start();
+        process.getInputStream().readAllBytes();
+        assertEquals(0, process.waitFor(), "probe failed for " + command);
+
+        try (Stream<String> lines = Files.lines(log)) {
+            List<String> loaded = lines.filter(line -> line.contains("class,load")).toList();
+            long application = loaded.stream().filter(line -> line.contains(" org.veenix.timer.")).count();
+            long picocli = loaded.stream().filter(line -> line.contains(" picocli.")).count();
+            return new ClassCount(loaded.size(), application, picocli);
+        }
+    }
+
+    private record ClassCount(long total, long application, long picocli) {
+    }
+}
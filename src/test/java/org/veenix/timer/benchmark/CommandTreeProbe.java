@@ -0,0 +1,23 @@
+package org.veenix.timer.benchmark;
+
+import org.veenix.timer.Main;
+import org.veenix.timer.cli.CommandTree;
+import picocli.CommandLine;
+
+import java.util.Arrays;
+
+/**
+ * Builds and parses the command tree the way Main does, without running the command.
+ * Launched in a fresh JVM by {@link CommandTreeClassLoadingBenchmarkTest}; the first argument
+ * selects {@code lazy} (CommandTree.build) or {@code eager} (CommandTree.buildAll).
+ */
+public class CommandTreeProbe {
+
+    public static void main(String[] args) {
+        String[] commandArgs = Arrays.copyOfRange(args, 1, args.length);
+        CommandLine commandLine = args[0].equals("eager")
+            ? CommandTree.buildAll(new Main())
+            : CommandTree.build(new Main(), commandArgs);
+        commandLine.parseArgs(commandArgs);
+    }
+}
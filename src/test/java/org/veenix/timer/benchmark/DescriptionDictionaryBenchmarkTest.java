@@ -0,0 +1,130 @@
+package org.veenix.timer.benchmark;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.persistence.ActivityRepositoryImpl;
+import org.veenix.timer.persistence.DatabaseConnection;
+import org.veenix.timer.persistence.SqlQueries;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reports database size and description heap usage of the dictionary schema
+ * compared with storing the description text on every row.
+ */
+@Tag("benchmark")
+class DescriptionDictionaryBenchmarkTest {
+
+    private static final String TEST_DB = "bench_dictionary.db";
+    private static final String LEGACY_DB = "bench_dictionary_legacy.db";
+
+    private static DatabaseConnection dbConnection;
+
+    @BeforeAll
+    static void setUp() {
+        new File(TEST_DB).delete();
+        new File(LEGACY_DB).delete();
+        dbConnection = new DatabaseConnection("jdbc:sqlite:" + TEST_DB);
+        SyntheticDataset.populate(dbConnection, new ActivityRepositoryImpl(dbConnection), SyntheticDataset.rows());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        dbConnection.close();
+        new File(TEST_DB).delete();
+        new File(LEGACY_DB).delete();
+    }
+
+    @Test
+    void reportDatabaseSize() throws SQLException {
+        Connection connection = dbConnection.getConnection();
+        try (Statement stmt = connection.createStatement()) {
+            // Same rows in the original one-text-per-row layout
+            stmt.execute("ATTACH DATABASE '" + LEGACY_DB + "' AS legacy");
+            stmt.execute(SqlQueries.CREATE_ACTIVITY_TABLE.replace("activity (", "legacy.activity ("));
+            stmt.execute("""
+                INSERT INTO legacy.activity (id, start_time, end_time, activity_type, status, description)
+                SELECT a.id, a.start_time, a.end_time, a.activity_type, a.status, d.text
+                FROM activity a LEFT JOIN activity_description d ON d.id = a.description_id
+                """);
+        }
+
+        long legacyBytes = databaseBytes(connection, "legacy");
+        long dictionaryBytes = databaseBytes(connection, "main");
+        // The dictionary schema also carries the full-text index, which the legacy layout did not have
+        long ftsBytes = tableBytes(connection, "activity_description_fts%");
+
+        System.out.printf("[dictionary benchmark] rows=%d  legacy=%d KiB  dictionary=%d KiB (of which fts5 %d KiB)  reduction excluding fts5=%.1f%%%n",
+            SyntheticDataset.rows(), legacyBytes / 1024, dictionaryBytes / 1024, ftsBytes / 1024,
+            100.0 * (legacyBytes - (dictionaryBytes - ftsBytes)) / legacyBytes);
+        assertTrue(dictionaryBytes - ftsBytes < legacyBytes);
+    }
+
+    @Test
+    void reportDescriptionHeap() {
+        List<Activity> activities = new ActivityRepositoryImpl(dbConnection).findAll();
+
+        long perRowBytes = 0;
+        long internedBytes = 0;
+        Set<String> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Activity activity : activities) {
+            String description = activity.description();
+            if (description == null) {
+                continue;
+            }
+            perRowBytes += estimatedStringBytes(description);
+            if (seen.add(description)) {
+                internedBytes += estimatedStringBytes(description);
+            }
+        }
+
+        System.out.printf("[dictionary benchmark] rows=%d  distinct description instances=%d  heap per-row=%d KiB  interned=%d KiB  reduction=%.1f%%%n",
+            activities.size(), seen.size(), perRowBytes / 1024, internedBytes / 1024,
+            100.0 * (perRowBytes - internedBytes) / perRowBytes);
+        assertTrue(seen.size() < activities.size());
+    }
+
+    private static long databaseBytes(Connection connection, String schema) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet pages = stmt.executeQuery("PRAGMA " + schema + ".page_count")) {
+            pages.next();
+            long pageCount = pages.getLong(1);
+            try (ResultSet size = stmt.executeQuery("PRAGMA " + schema + ".page_size")) {
+                size.next();
+                return pageCount * size.getLong(1);
+            }
+        }
+    }
+
+    private static long tableBytes(Connection connection, String namePattern) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(SUM(pgsize), 0) FROM dbstat WHERE name LIKE '" + namePattern + "'")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            // dbstat is optional in SQLite builds
+            return 0;
+        }
+    }
+
+    // String header plus its Latin-1 backing array, both 8-byte aligned (compressed oops)
+    private static long estimatedStringBytes(String value) {
+        return 24 + align(16 + value.length());
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
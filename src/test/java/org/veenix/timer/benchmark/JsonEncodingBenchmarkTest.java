@@ -0,0 +1,104 @@
+package org.veenix.timer.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.veenix.timer.json.ActivityJson;
+import org.veenix.timer.json.JsonWriter;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures time and heap allocation per row when encoding activities with {@link JsonWriter}, against
+ * building each row as a String and encoding it through a {@link Writer}. Allocation is read from the
+ * thread's allocation counter before and after the measured loop, after a warm-up so the JIT has
+ * compiled the encoder. Run with {@code mvn test -Pbenchmark}; use {@code -Dbenchmark.rows=N} to change the row count.
+ */
+@Tag("benchmark")
+class JsonEncodingBenchmarkTest {
+
+    private static final int ROUNDS = 5;
+
+    @Test
+    void benchmarkAllocationPerRow() throws IOException {
+        List<Activity> activities = activities(SyntheticDataset.rows());
+
+        Result writer = null;
+        Result strings = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            writer = measure(activities, JsonEncodingBenchmarkTest::encodeWithWriter);
+            strings = measure(activities, JsonEncodingBenchmarkTest::encodeWithStrings);
+        }
+
+        System.out.printf("[json benchmark] rows=%d  JsonWriter: %.1f bytes/row %.0f ns/row  "
+                + "String building: %.1f bytes/row %.0f ns/row%n",
+            activities.size(), writer.bytesPerRow(), writer.nanosPerRow(), strings.bytesPerRow(), strings.nanosPerRow());
+        assertTrue(writer.bytesPerRow() < 1.0, "JsonWriter allocated " + writer.bytesPerRow() + " bytes per row");
+    }
+
+    private static void encodeWithWriter(List<Activity> activities) throws IOException {
+        JsonWriter json = new JsonWriter(OutputStream.nullOutputStream());
+        ActivityJson.writeArray(json, activities);
+        json.flush();
+    }
+
+    // What a hand-rolled encoder without a byte buffer does: one String per row, encoded by the Writer
+    private static void encodeWithStrings(List<Activity> activities) throws IOException {
+        Writer out = new OutputStreamWriter(OutputStream.nullOutputStream(), StandardCharsets.UTF_8);
+        out.write('[');
+        for (int i = 0; i < activities.size(); i++) {
+            Activity activity = activities.get(i);
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write("{\"id\":" + activity.id()
+                + ",\"startTime\":\"" + activity.startTime()
+                + "\",\"endTime\":\"" + activity.endTime()
+                + "\",\"activityType\":\"" + activity.activityType().name()
+                + "\",\"status\":\"" + activity.status().name()
+                + "\",\"description\":\"" + activity.description().replace("\"", "\\\"") + "\"}");
+        }
+        out.write(']');
+        out.flush();
+    }
+
+    private static Result measure(List<Activity> activities, Encoder encoder) throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long bytesBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        encoder.encode(activities);
+        long nanos = System.nanoTime() - start;
+        long bytes = threads.getCurrentThreadAllocatedBytes() - bytesBefore;
+        return new Result((double) bytes / activities.size(), (double) nanos / activities.size());
+    }
+
+    private static List<Activity> activities(int rows) {
+        List<Activity> activities = new ArrayList<>(rows);
+        LocalDateTime start = SyntheticDataset.FIRST_DAY.atTime(8, 30);
+        for (int i = 0; i < rows; i++) {
+            LocalDateTime begin = start.plusMinutes(37L * i);
+            activities.add(new Activity((long) i + 1, begin, begin.plusMinutes(25).plusSeconds(i % 60), ActivityType.DEVELOP,
+                ActivityStatus.COMPLETED, "Fix " + SyntheticDataset.ticket(1000 + i % SyntheticDataset.TICKETS)));
+        }
+        return activities;
+    }
+
+    private interface Encoder {
+        void encode(List<Activity> activities) throws IOException;
+    }
+
+    private record Result(double bytesPerRow, double nanosPerRow) {
+    }
+}
@@ -0,0 +1,84 @@
+package org.veenix.timer.benchmark;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.veenix.timer.persistence.ActivityRepositoryImpl;
+import org.veenix.timer.persistence.ActivitySearch;
+import org.veenix.timer.persistence.DatabaseConnection;
+
+import java.io.File;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares FTS5 search with a LIKE scan over the synthetic dataset.
+ * Run with {@code mvn test -Pbenchmark}; use {@code -Dbenchmark.rows=N} to change the dataset size.
+ */
+@Tag("benchmark")
+class SearchBenchmarkTest {
+
+    private static final String TEST_DB = "bench_search.db";
+    private static final int ITERATIONS = 20;
+
+    private static DatabaseConnection dbConnection;
+    private static ActivitySearch search;
+
+    @BeforeAll
+    static void setUp() {
+        new File(TEST_DB).delete();
+        dbConnection = new DatabaseConnection("jdbc:sqlite:" + TEST_DB);
+        SyntheticDataset.populate(dbConnection, new ActivityRepositoryImpl(dbConnection), SyntheticDataset.rows());
+        search = new ActivitySearch(dbConnection);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        dbConnection.close();
+        new File(TEST_DB).delete();
+    }
+
+    @Test
+    void benchmarkTicketLookup() {
+        String ticket = SyntheticDataset.ticket(1234);
+        ActivitySearch.Filter filter = new ActivitySearch.Filter(null, null, null, Integer.MAX_VALUE, "[", "]");
+
+        int ftsRows = search.search(ticket, filter).size();
+        int likeRows = search.searchLike(ticket).size();
+        assertEquals(likeRows, ftsRows);
+
+        report("ticket " + ticket, ftsRows,
+            measure(() -> search.search(ticket, filter).size()),
+            measure(() -> search.searchLike(ticket).size()));
+    }
+
+    @Test
+    void benchmarkRareWord() {
+        ActivitySearch.Filter filter = new ActivitySearch.Filter(null, null, null, Integer.MAX_VALUE, "[", "]");
+
+        int ftsRows = search.search("retrospective", filter).size();
+
+        report("word 'retrospective'", ftsRows,
+            measure(() -> search.search("retrospective", filter).size()),
+            measure(() -> search.searchLike("retrospective").size()));
+    }
+
+    private static double measure(IntSupplier query) {
+        // Warm up statement caches and the page cache
+        for (int i = 0; i < 3; i++) {
+            query.getAsInt();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            query.getAsInt();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+    }
+
+    private static void report(String label, int rows, double ftsMillis, double likeMillis) {
+        System.out.printf("[search benchmark] %-28s rows=%-6d dataset=%d  fts5=%.3f ms  like=%.3f ms  speedup=%.1fx%n",
+            label, rows, SyntheticDataset.rows(), ftsMillis, likeMillis, likeMillis / ftsMillis);
+    }
+}
@@ -0,0 +1,84 @@
+package org.veenix.timer.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+import org.veenix.timer.persistence.ActivityRepository;
+import org.veenix.timer.persistence.ActivityRepositoryImpl;
+import org.veenix.timer.persistence.DatabaseConnection;
+import org.veenix.timer.persistence.LogStructuredActivityRepository;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares save and update throughput of the SQLite repository, which commits every statement, with the
+ * append-only log-structured store. Each write is a separate call, as when agents start and stop activities.
+ * Run with {@code mvn test -Pbenchmark}; use {@code -Dbenchmark.writes=N} to change the number of writes.
+ */
+@Tag("benchmark")
+class StorageEngineBenchmarkTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void benchmarkSaveAndUpdate() {
+        int writes = Integer.getInteger("benchmark.writes", 10_000);
+
+        DatabaseConnection dbConnection = new DatabaseConnection("jdbc:sqlite:" + tempDir.resolve("bench_engine.db"));
+        Result sqlite;
+        try {
+            sqlite = run(new ActivityRepositoryImpl(dbConnection), writes);
+        } finally {
+            dbConnection.close();
+        }
+
+        Result log;
+        try (LogStructuredActivityRepository repository = new LogStructuredActivityRepository(tempDir.resolve("bench_engine_log"))) {
+            log = run(repository, writes);
+        }
+
+        System.out.printf("[storage benchmark] writes=%d  save: sqlite=%.0f/s log=%.0f/s (%.1fx)  update: sqlite=%.0f/s log=%.0f/s (%.1fx)%n",
+            writes, sqlite.savesPerSecond(), log.savesPerSecond(), log.savesPerSecond() / sqlite.savesPerSecond(),
+            sqlite.updatesPerSecond(), log.updatesPerSecond(), log.updatesPerSecond() / sqlite.updatesPerSecond());
+        assertTrue(log.savesPerSecond() > sqlite.savesPerSecond());
+    }
+
+    private static Result run(ActivityRepository repository, int writes) {
+        LocalDateTime start = LocalDateTime.of(2025, 10, 23, 8, 0);
+        List<Activity> saved = new ArrayList<>(writes);
+
+        long saveStart = System.nanoTime();
+        for (int i = 0; i < writes; i++) {
+            saved.add(repository.save(Activity.builder()
+                .startTime(start.plusMinutes(i))
+                .activityType(ActivityType.DEVELOP)
+                .status(ActivityStatus.ACTIVE)
+                .description(SyntheticDataset.ticket(1000 + i % SyntheticDataset.TICKETS))
+                .build()));
+        }
+        long saveNanos = System.nanoTime() - saveStart;
+
+        long updateStart = System.nanoTime();
+        for (Activity activity : saved) {
+            repository.update(new Activity(activity.id(), activity.startTime(), activity.startTime().plusSeconds(50),
+                activity.activityType(), ActivityStatus.COMPLETED, activity.description()));
+        }
+        long updateNanos = System.nanoTime() - updateStart;
+
+        assertEquals(writes, repository.findByStatus(ActivityStatus.COMPLETED).size());
+        return new Result(writes * 1e9 / saveNanos, writes * 1e9 / updateNanos);
+    }
+
+    private record Result(double savesPerSecond, double updatesPerSecond) {
+    }
+}
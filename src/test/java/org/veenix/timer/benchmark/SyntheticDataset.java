@@ -0,0 +1,101 @@
+package org.veenix.timer.benchmark;
+
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+import org.veenix.timer.persistence.ActivityRepository;
+import org.veenix.timer.persistence.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * Deterministic history of working days for benchmarks: several activities per day,
+ * descriptions drawn from a limited pool of ticket references and recurring meetings.
+ */
+final class SyntheticDataset {
+
+    static final LocalDate FIRST_DAY = LocalDate.of(2015, 1, 5);
+    static final int TICKETS = 2000;
+
+    private static final String[] VERBS = {"Fix", "Implement", "Review", "Investigate", "Refactor", "Test", "Deploy"};
+    private static final String[] TOPICS = {"login flow", "report export", "billing", "search page", "API gateway",
+        "database migration", "build pipeline", "user settings"};
+    private static final String[] MEETINGS = {"Daily standup", "Sprint planning", "Sprint review", "Retrospective",
+        "1:1 with manager"};
+
+    private SyntheticDataset() {
+        // Utility class
+    }
+
+    static int rows() {
+        return Integer.getInteger("benchmark.rows", 100_000);
+    }
+
+    static String ticket(int number) {
+        return "PROJ-" + number;
+    }
+
+    /**
+     * Inserts {@code rows} completed activities in a single transaction and returns the last day used.
+     */
+    static LocalDate populate(DatabaseConnection dbConnection, ActivityRepository repository, int rows) {
+        Random random = new Random(20251023L);
+        Connection connection = dbConnection.getConnection();
+        LocalDate day = FIRST_DAY;
+        try {
+            connection.setAutoCommit(false);
+            int inserted = 0;
+            while (inserted < rows) {
+                if (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                    day = day.plusDays(1);
+                    continue;
+                }
+                LocalDateTime start = day.atTime(8, 30);
+                int perDay = 4 + random.nextInt(6);
+                for (int i = 0; i < perDay && inserted < rows; i++) {
+                    LocalDateTime end = start.plusMinutes(15 + random.nextInt(90));
+                    repository.save(next(random, start, end));
+                    start = end.plusMinutes(1);
+                    inserted++;
+                }
+                day = day.plusDays(1);
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to populate synthetic dataset", e);
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                // Connection is closed by the benchmark teardown
+            }
+        }
+        return day;
+    }
+
+    private static Activity next(Random random, LocalDateTime start, LocalDateTime end) {
+        ActivityType type;
+        String description;
+        if (random.nextInt(4) == 0) {
+            type = ActivityType.MEETING;
+            description = MEETINGS[random.nextInt(MEETINGS.length)];
+        } else {
+            // Work on a ticket is logged under the same description every time
+            int ticket = 1000 + random.nextInt(TICKETS);
+            type = ticket % 3 == 0 ? ActivityType.BUG : ActivityType.DEVELOP;
+            description = VERBS[ticket % VERBS.length] + " " + TOPICS[ticket % TOPICS.length] + " " + ticket(ticket);
+        }
+        return Activity.builder()
+                .startTime(start)
+                .endTime(end)
+                .activityType(type)
+                .status(ActivityStatus.COMPLETED)
+                .description(description)
+                .build();
+    }
+}
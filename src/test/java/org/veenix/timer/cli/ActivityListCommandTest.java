@@ -3,6 +3,7 @@ package org.veenix.timer.cli;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.veenix.timer.json.JsonWriter;
 import org.veenix.timer.model.Activity;
 import org.veenix.timer.model.ActivityStatus;
 import org.veenix.timer.model.ActivityType;
@@ -10,7 +11,10 @@ import org.veenix.timer.persistence.ActivityRepository;
 import org.veenix.timer.persistence.ActivityRepositoryImpl;
 import org.veenix.timer.persistence.DatabaseConnection;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -249,4 +253,38 @@ class ActivityListCommandTest {
         assertNull(savedActive.endTime());  // Should be null for ACTIVE
         assertEquals(ActivityStatus.ACTIVE, savedActive.status());
     }
+
+    @Test
+    void testNextPageHintKeepsTheDateRange() {
+        LocalDate day = LocalDate.of(2025, 10, 23);
+        ActivityListCommand.DateOptions from = new ActivityListCommand.DateOptions();
+        from.from = "20251023";
+        ActivityListCommand.DateOptions all = new ActivityListCommand.DateOptions();
+        all.all = true;
+
+        // No date options lists today; the hint pins it so the next page stays on that day
+        assertEquals("--date 20251023 ", ActivityListCommand.rangeArguments(null, day));
+        assertEquals("--from 20251023 ", ActivityListCommand.rangeArguments(from, day));
+        assertEquals("--all ", ActivityListCommand.rangeArguments(all, null));
+        // A cursor without date options already pages through the whole history
+        assertEquals("", ActivityListCommand.rangeArguments(null, null));
+    }
+
+    @Test
+    void testJsonOutputIncludesTheTotals() throws IOException {
+        LocalDateTime start = LocalDateTime.of(2025, 10, 23, 9, 0);
+        Activity first = Activity.builder().id(1L).startTime(start).endTime(start.plusMinutes(45))
+                .activityType(ActivityType.DEVELOP).status(ActivityStatus.COMPLETED).description("Code").build();
+        Activity second = Activity.builder().id(2L).startTime(start.plusHours(1)).endTime(start.plusMinutes(90))
+                .activityType(ActivityType.MEETING).status(ActivityStatus.COMPLETED).description("Sync").build();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonWriter json = new JsonWriter(out)) {
+            ActivityListCommand.writeJson(json, List.of(first, second));
+        }
+
+        String text = out.toString(StandardCharsets.UTF_8);
+        assertTrue(text.startsWith("{\"activities\":[{\"id\":1,"), text);
+        assertTrue(text.endsWith("],\"totalMinutes\":75,\"count\":2}"), text);
+    }
 }
@@ -0,0 +1,119 @@
+package org.veenix.timer.cli;
+
+import org.junit.jupiter.api.Test;
+import org.veenix.timer.Main;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandTreeTest {
+
+    @Test
+    void testNodesMatchCommandAnnotations() {
+        assertNodesMatchAnnotations(CommandTree.commands());
+        assertNodesMatch(CommandTree.buildAll(new Main()), CommandTree.commands());
+    }
+
+    @Test
+    void testEveryNameAndAliasBuildsOnlyItsPath() {
+        // A name or alias the tree does not know falls back to building the whole level, which still works
+        // but loses the point of the lazy tree
+        assertEachTokenBuildsOnlyItsPath(new ArrayList<>(), CommandTree.commands());
+    }
+
+    @Test
+    void testDatabaseMaintenanceCommandsAreDatabaseCommands() {
+        CommandTree.Node activity = CommandTree.commands().get(1);
+        CommandTree.Node db = activity.children().stream().filter(node -> node.name().equals("db")).findFirst().orElseThrow();
+
+        for (CommandTree.Node node : db.children()) {
+            assertInstanceOf(DatabaseCommand.class, node.factory().get(), node.name());
+        }
+        CommandTree.Node search = activity.children().stream().filter(node -> node.name().equals("search")).findFirst().orElseThrow();
+        assertInstanceOf(DatabaseCommand.class, search.factory().get());
+    }
+
+    @Test
+    void testBuildRegistersOnlyTheNamedPath() {
+        CommandLine commandLine = CommandTree.build(new Main(), new String[]{"timer", "stop"});
+
+        assertEquals(Set.of("timer", "t", "tmr"), commandLine.getSubcommands().keySet());
+        CommandLine timer = commandLine.getSubcommands().get("timer");
+        assertEquals(Set.of("stop", "sp"), timer.getSubcommands().keySet());
+    }
+
+    @Test
+    void testBuildResolvesAliasesAndSkipsOptionParameters() {
+        CommandLine commandLine = CommandTree.build(new Main(),
+            new String[]{"--metrics-out", "timer", "a", "ls", "--all"});
+
+        assertEquals(Set.of("activity", "a", "act"), commandLine.getSubcommands().keySet());
+        CommandLine activity = commandLine.getSubcommands().get("activity");
+        assertEquals(Set.of("list", "ls"), activity.getSubcommands().keySet());
+    }
+
+    @Test
+    void testBuildAddsFullLevelWhenNoSubcommandIsNamed() {
+        CommandLine root = CommandTree.build(new Main(), new String[]{});
+        assertEquals(CommandTree.names(CommandTree.commands()), List.copyOf(root.getSubcommands().keySet().stream()
+            .filter(name -> root.getSubcommands().get(name).getCommandName().equals(name))
+            .toList()));
+
+        CommandLine help = CommandTree.build(new Main(), new String[]{"help", "timer"});
+        assertTrue(help.getSubcommands().get("timer").getSubcommands().containsKey("restart"));
+
+        CommandLine typo = CommandTree.build(new Main(), new String[]{"timer", "stpo"});
+        int timerCommands = CommandTree.commands().get(0).children().size();
+        assertEquals(timerCommands, typo.getSubcommands().get("timer").getSubcommands().values().stream().distinct().count());
+    }
+
+    private static void assertNodesMatchAnnotations(List<CommandTree.Node> nodes) {
+        for (CommandTree.Node node : nodes) {
+            Class<?> commandClass = node.factory().get().getClass();
+            Command command = commandClass.getAnnotation(Command.class);
+            assertNotNull(command, commandClass.getName());
+            assertEquals(command.name(), node.name(), commandClass.getName());
+            assertEquals(List.of(command.aliases()), node.aliases(), commandClass.getName());
+            assertNodesMatchAnnotations(node.children());
+        }
+    }
+
+    private static void assertEachTokenBuildsOnlyItsPath(List<String> path, List<CommandTree.Node> nodes) {
+        for (CommandTree.Node node : nodes) {
+            if (node.name().equals("help")) {
+                continue;
+            }
+            List<String> tokens = new ArrayList<>(List.of(node.name()));
+            tokens.addAll(node.aliases());
+            for (String token : tokens) {
+                List<String> args = new ArrayList<>(path);
+                args.add(token);
+                CommandLine level = CommandTree.build(new Main(), args.toArray(String[]::new));
+                for (int i = 0; i < args.size(); i++) {
+                    assertEquals(1, level.getSubcommands().values().stream().distinct().count(), String.join(" ", args));
+                    level = level.getSubcommands().values().iterator().next();
+                }
+                assertEquals(node.name(), level.getCommandName(), String.join(" ", args));
+            }
+            List<String> childPath = new ArrayList<>(path);
+            childPath.add(node.name());
+            assertEachTokenBuildsOnlyItsPath(childPath, node.children());
+        }
+    }
+
+    private static void assertNodesMatch(CommandLine parent, List<CommandTree.Node> nodes) {
+        assertEquals(nodes.size(), parent.getSubcommands().values().stream().distinct().count());
+        for (CommandTree.Node node : nodes) {
+            CommandLine child = parent.getSubcommands().get(node.name());
+            assertNotNull(child, node.name());
+            assertEquals(node.name(), child.getCommandName());
+            assertEquals(node.aliases(), List.of(child.getCommandSpec().aliases()), node.name());
+            assertNodesMatch(child, node.children());
+        }
+    }
+}
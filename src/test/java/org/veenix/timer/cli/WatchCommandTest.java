@@ -0,0 +1,75 @@
+package org.veenix.timer.cli;
+
+import org.junit.jupiter.api.Test;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WatchCommandTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 10, 23, 14, 30, 15);
+
+    @Test
+    void testTotalsIncludeRunningActivityUntilNow() {
+        Activity done = activity(1L, ActivityType.MEETING, NOW.withHour(9).withMinute(0).withSecond(0),
+            NOW.withHour(10).withMinute(0).withSecond(0), ActivityStatus.COMPLETED);
+        Activity running = activity(2L, ActivityType.DEVELOP, NOW.withHour(13).withMinute(0).withSecond(0),
+            null, ActivityStatus.ACTIVE);
+
+        Map<ActivityType, Duration> totals = WatchCommand.totalsByType(List.of(running), List.of(done, running), NOW);
+
+        assertEquals(Duration.ofHours(1), totals.get(ActivityType.MEETING));
+        assertEquals(Duration.ofMinutes(90).plusSeconds(15), totals.get(ActivityType.DEVELOP));
+        assertEquals(2, totals.size());
+    }
+
+    @Test
+    void testActivityFromYesterdayCountsFromMidnight() {
+        Activity overnight = activity(3L, ActivityType.SUPPORT, NOW.minusDays(1).withHour(23).withMinute(0),
+            null, ActivityStatus.ACTIVE);
+
+        Map<ActivityType, Duration> totals = WatchCommand.totalsByType(List.of(overnight), List.of(), NOW);
+
+        assertEquals(Duration.ofHours(14).plusMinutes(30).plusSeconds(15), totals.get(ActivityType.SUPPORT));
+    }
+
+    @Test
+    void testRenderShowsElapsedTimeAndTotal() {
+        Activity running = activity(2L, ActivityType.DEVELOP, NOW.withHour(13).withMinute(0).withSecond(0),
+            null, ActivityStatus.ACTIVE);
+
+        String screen = WatchCommand.render(List.of(running), List.of(running), NOW);
+
+        assertTrue(screen.contains("#2  Fix login"));
+        assertTrue(screen.contains("started 13:00, running"));
+        assertTrue(screen.contains("1:30:15"));
+        assertTrue(screen.contains("Total"));
+    }
+
+    @Test
+    void testRenderWithoutActivities() {
+        String screen = WatchCommand.render(List.of(), List.of(), NOW);
+
+        assertTrue(screen.contains("No activity running."));
+        assertTrue(screen.contains("Nothing recorded yet."));
+    }
+
+    private static Activity activity(Long id, ActivityType type, LocalDateTime start, LocalDateTime end,
+                                     ActivityStatus status) {
+        return Activity.builder()
+            .id(id)
+            .startTime(start)
+            .endTime(end)
+            .activityType(type)
+            .status(status)
+            .description("Fix login")
+            .build();
+    }
+}
@@ -0,0 +1,136 @@
+package org.veenix.timer.json;
+
+import org.junit.jupiter.api.Test;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonWriterTest {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    @Test
+    void testCommasAreInsertedBetweenMembersAndElements() throws IOException {
+        JsonWriter json = new JsonWriter(out);
+        json.beginObject()
+            .name("a").value(1)
+            .name("b").beginArray().value(true).nullValue().beginObject().endObject().beginArray().endArray().endArray()
+            .name("c").value(-42)
+            .endObject()
+            .flush();
+
+        assertEquals("{\"a\":1,\"b\":[true,null,{},[]],\"c\":-42}", written());
+    }
+
+    @Test
+    void testNumbers() throws IOException {
+        JsonWriter json = new JsonWriter(out);
+        json.beginArray()
+            .value(0).value(9).value(10).value(Long.MAX_VALUE).value(Long.MIN_VALUE)
+            .value(1.5).value(Double.NaN)
+            .endArray()
+            .flush();
+
+        assertEquals("[0,9,10,9223372036854775807,-9223372036854775808,1.5,null]", written());
+    }
+
+    @Test
+    void testStringsAreEscapedAndEncodedAsUtf8() throws IOException {
+        String value = "quote \" backslash \\ tab \t line \n bell \u0007 é € 😀";
+
+        JsonWriter json = new JsonWriter(out);
+        json.value(value).flush();
+
+        assertEquals("\"quote \\\" backslash \\\\ tab \\t line \\n bell \\u0007 é € 😀\"", written());
+    }
+
+    @Test
+    void testDateTimesMatchToString() throws IOException {
+        List<LocalDateTime> times = List.of(
+            LocalDateTime.of(2025, 10, 23, 9, 5),
+            LocalDateTime.of(2025, 1, 2, 3, 4, 5),
+            LocalDateTime.of(2025, 10, 23, 9, 0, 0, 120_000_000),
+            LocalDateTime.of(2025, 10, 23, 9, 0, 0, 120_500_000),
+            LocalDateTime.of(2025, 10, 23, 9, 0, 0, 1),
+            LocalDateTime.of(987, 6, 5, 4, 3),
+            LocalDateTime.of(12345, 6, 5, 4, 3));
+
+        JsonWriter json = new JsonWriter(out);
+        json.beginArray();
+        for (LocalDateTime time : times) {
+            json.value(time);
+        }
+        json.value((LocalDateTime) null).endArray().flush();
+
+        StringBuilder expected = new StringBuilder("[");
+        for (LocalDateTime time : times) {
+            expected.append('"').append(time).append("\",");
+        }
+        assertEquals(expected.append("null]").toString(), written());
+    }
+
+    @Test
+    void testOutputLargerThanBufferIsWrittenInFull() throws IOException {
+        String description = "x".repeat(100);
+        JsonWriter json = new JsonWriter(out, 32);
+        json.beginArray();
+        for (int i = 0; i < 50; i++) {
+            json.value(description);
+        }
+        json.endArray().close();
+
+        String written = written();
+        assertEquals(2 + 50 * 102 + 49, written.length());
+        assertTrue(written.startsWith("[\"xxx"));
+        assertTrue(written.endsWith("xxx\"]"));
+    }
+
+    @Test
+    void testNewlineSeparatesTopLevelValues() throws IOException {
+        JsonWriter json = new JsonWriter(out);
+        json.beginObject().endObject().newline().beginObject().endObject().newline().flush();
+
+        assertEquals("{}\n{}\n", written());
+        assertThrows(IllegalStateException.class, () -> json.beginArray().newline());
+    }
+
+    @Test
+    void testUnbalancedCloseIsRejected() {
+        JsonWriter json = new JsonWriter(out);
+
+        assertThrows(IllegalStateException.class, json::endObject);
+    }
+
+    @Test
+    void testActivityJson() throws IOException {
+        Activity activity = new Activity(7L, LocalDateTime.of(2025, 10, 23, 9, 0),
+            LocalDateTime.of(2025, 10, 23, 10, 30, 15), ActivityType.MEETING, ActivityStatus.COMPLETED, "Sprint \"review\"");
+        Activity active = Activity.builder()
+            .id(8L)
+            .startTime(LocalDateTime.of(2025, 10, 23, 11, 0))
+            .activityType(ActivityType.DEVELOP)
+            .status(ActivityStatus.ACTIVE)
+            .build();
+
+        JsonWriter json = new JsonWriter(out);
+        ActivityJson.writeArray(json, List.of(activity, active));
+        json.flush();
+
+        assertEquals("[{\"id\":7,\"startTime\":\"2025-10-23T09:00\",\"endTime\":\"2025-10-23T10:30:15\","
+            + "\"activityType\":\"MEETING\",\"status\":\"COMPLETED\",\"description\":\"Sprint \\\"review\\\"\"},"
+            + "{\"id\":8,\"startTime\":\"2025-10-23T11:00\",\"endTime\":null,"
+            + "\"activityType\":\"DEVELOP\",\"status\":\"ACTIVE\",\"description\":null}]", written());
+    }
+
+    private String written() {
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,70 @@
+package org.veenix.timer.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistogramTest {
+
+    @Test
+    void testSmallValuesAreExact() {
+        for (int value = 0; value < 64; value++) {
+            assertEquals(value, Histogram.bucketValue(Histogram.bucketIndex(value)));
+        }
+    }
+
+    @Test
+    void testBucketsKeepRelativePrecision() {
+        for (long value = 64; value < Histogram.MAX_TRACKABLE_VALUE; value = value * 3 / 2 + 7) {
+            long bucketValue = Histogram.bucketValue(Histogram.bucketIndex(value));
+            double error = Math.abs(bucketValue - value) / (double) value;
+            assertTrue(error <= 1.0 / 32, "value " + value + " reported as " + bucketValue);
+        }
+    }
+
+    @Test
+    void testBucketIndexIsMonotonic() {
+        int previous = -1;
+        for (long value = 0; value < 1_000_000; value += 97) {
+            int index = Histogram.bucketIndex(value);
+            assertTrue(index >= previous);
+            previous = index;
+        }
+        assertTrue(Histogram.bucketIndex(Histogram.MAX_TRACKABLE_VALUE) >= previous);
+    }
+
+    @Test
+    void testPercentiles() {
+        Histogram histogram = new Histogram("test");
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertEquals(1000, histogram.count());
+        assertEquals(1_000_000, histogram.max());
+        assertEquals(500_500.0, histogram.mean(), 0.001);
+        assertEquals(500_000, histogram.percentile(50), 500_000 / 32.0);
+        assertEquals(990_000, histogram.percentile(99), 990_000 / 32.0);
+        assertEquals(1_000_000, histogram.percentile(100));
+    }
+
+    @Test
+    void testValuesAreClamped() {
+        Histogram histogram = new Histogram("test");
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(2, histogram.count());
+        assertEquals(0, histogram.percentile(1));
+        assertEquals(Histogram.MAX_TRACKABLE_VALUE, histogram.max());
+    }
+
+    @Test
+    void testEmptyHistogram() {
+        Histogram histogram = new Histogram("test");
+
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentile(99));
+        assertEquals(0.0, histogram.mean());
+    }
+}
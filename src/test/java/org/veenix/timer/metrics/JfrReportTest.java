@@ -0,0 +1,55 @@
+package org.veenix.timer.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrReportTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRecordingIsSummarizedPerOperation() throws Exception {
+        Path file = tempDir.resolve("timer.jfr");
+
+        try (FlightRecording ignored = FlightRecording.start(file)) {
+            for (int i = 0; i < 3; i++) {
+                RepositoryOperationEvent event = new RepositoryOperationEvent();
+                event.begin();
+                event.operation = "findAll";
+                event.sql = "SELECT 1";
+                event.rows = 10;
+                event.commit();
+            }
+
+            ExportEvent export = new ExportEvent();
+            export.begin();
+            export.file = "activities.csv";
+            export.rows = 5;
+            export.bytes = 1234;
+            export.commit();
+        }
+
+        assertTrue(Files.size(file) > 0);
+
+        JfrReport report = JfrReport.read(file);
+        assertFalse(report.isEmpty());
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        report.print(new PrintStream(output), 5);
+        String text = output.toString();
+
+        String operationLine = text.lines().filter(l -> l.startsWith("RepositoryOperation findAll")).findFirst().orElseThrow();
+        assertTrue(operationLine.matches(".*\\|\\s+3 \\|.*\\|\\s+30 \\|\\s+\\|?\\s*$"), operationLine);
+
+        String exportLine = text.lines().filter(l -> l.startsWith("Export")).findFirst().orElseThrow();
+        assertTrue(exportLine.endsWith("5 |       1234"), exportLine);
+    }
+}
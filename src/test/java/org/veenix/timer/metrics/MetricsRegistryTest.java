@@ -0,0 +1,106 @@
+package org.veenix.timer.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSameNameReturnsSameMetric() {
+        MetricsRegistry registry = new MetricsRegistry();
+
+        assertSame(registry.timer("sql.findAll"), registry.timer("sql.findAll"));
+        assertSame(registry.counter("sql.rows"), registry.counter("sql.rows"));
+    }
+
+    @Test
+    void testNameCannotChangeType() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("sql.rows");
+
+        assertThrows(IllegalArgumentException.class, () -> registry.timer("sql.rows"));
+    }
+
+    @Test
+    void testMetricsAreListedInRegistrationOrder() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.timer("b");
+        registry.counter("a");
+        registry.histogram("c");
+        registry.timer("b");
+
+        assertEquals(List.of("b", "a", "c"), registry.metrics().stream().map(Metric::name).toList());
+    }
+
+    @Test
+    void testTimerSampleRecordsElapsedTime() throws InterruptedException {
+        MetricsRegistry registry = new MetricsRegistry();
+        Timer timer = registry.timer("sleep");
+
+        try (Timer.Sample ignored = timer.start()) {
+            Thread.sleep(5);
+        }
+
+        assertEquals(1, timer.count());
+        assertTrue(timer.totalNanos() >= 5_000_000);
+    }
+
+    @Test
+    void testResetKeepsRegistrations() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter counter = registry.counter("rows");
+        counter.add(10);
+        registry.timer("query").record(1000);
+
+        registry.reset();
+
+        assertEquals(0, counter.count());
+        assertEquals(0, registry.timer("query").count());
+        assertSame(counter, registry.counter("rows"));
+    }
+
+    @Test
+    void testPrintTimingsSkipsUnusedMetrics() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.timer("command.activity list").record(2_500_000);
+        registry.timer("sql.unused");
+        registry.counter("sql.rows").add(3);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        MetricsReport.printTimings(registry, new PrintStream(output));
+        String report = output.toString();
+
+        assertTrue(report.contains("command.activity list"));
+        assertTrue(report.contains("2.500"));
+        assertTrue(report.contains("sql.rows"));
+        assertFalse(report.contains("sql.unused"));
+    }
+
+    @Test
+    void testAppendCsvWritesHeaderOnce() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.timer("command.activity list").record(1_000_000);
+        registry.counter("sql.rows").add(2);
+        Path file = tempDir.resolve("metrics.csv");
+
+        MetricsReport.appendCsv(registry, file, "activity list");
+        MetricsReport.appendCsv(registry, file, "activity list");
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(5, lines.size());
+        assertEquals(MetricsReport.CSV_HEADER, lines.get(0));
+        assertTrue(lines.get(1).endsWith(",activity list,command.activity list,timer,1,1.000,1.000,1.000,1.000,1.000"));
+        assertTrue(lines.get(2).contains(",sql.rows,counter,2,"));
+    }
+}
@@ -0,0 +1,181 @@
+package org.veenix.timer.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.veenix.timer.metrics.Counter;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActivityArchiveTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseConnection dbConnection;
+    private ActivityRepository activityRepository;
+    private ActivityArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        dbConnection = new DatabaseConnection("jdbc:sqlite:" + tempDir.resolve("timer.db"));
+        activityRepository = new ActivityRepositoryImpl(dbConnection);
+        archive = new ActivityArchive(dbConnection);
+
+        save(LocalDateTime.of(2023, 3, 1, 9, 0), ActivityStatus.COMPLETED, "Old 2023");
+        save(LocalDateTime.of(2024, 6, 1, 9, 0), ActivityStatus.COMPLETED, "Old 2024");
+        save(LocalDateTime.of(2024, 6, 2, 9, 0), ActivityStatus.ACTIVE, "Still running");
+        save(LocalDateTime.of(2025, 10, 23, 9, 0), ActivityStatus.COMPLETED, "Recent");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dbConnection.close();
+    }
+
+    @Test
+    void testArchiveMovesCompletedActivitiesPerYear() {
+        ActivityArchive.Result result = archive.archive(LocalDate.of(2025, 1, 1));
+
+        assertEquals(2, result.activities());
+        assertEquals(List.of(tempDir.resolve("archive/timer-2023.db"), tempDir.resolve("archive/timer-2024.db")),
+            result.files());
+        assertTrue(Files.exists(tempDir.resolve("archive/timer-2024.db")));
+
+        List<ActivityArchive.Partition> partitions = archive.partitions();
+        assertEquals(List.of(2023, 2024), partitions.stream().map(ActivityArchive.Partition::year).toList());
+        assertEquals(LocalDateTime.of(2024, 6, 1, 9, 0), partitions.get(1).firstStart());
+        assertEquals(1, partitions.get(1).activityCount());
+
+        // Only active and recent activities are left in the hot table
+        assertEquals(List.of("Still running", "Recent"), descriptions(activityRepository.findByDateRange(
+            LocalDateTime.of(2024, 6, 2, 0, 0), LocalDateTime.of(2025, 12, 31, 0, 0))));
+        assertTrue(activityRepository.findById(1L).isEmpty());
+    }
+
+    @Test
+    void testRangeReadsUnionArchivesTheyOverlap() {
+        archive.archive(LocalDate.of(2025, 1, 1));
+        Counter unions = dbConnection.getMetrics().counter("db.archive.union");
+
+        long before = unions.count();
+        assertEquals(List.of("Recent"), descriptions(activityRepository.findByStartTime(LocalDateTime.of(2025, 10, 23, 0, 0))));
+        assertEquals(before, unions.count());
+
+        assertEquals(List.of("Old 2024", "Still running", "Recent"), descriptions(activityRepository.findByDateRange(
+            LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2025, 12, 31, 0, 0))));
+        assertEquals(before + 1, unions.count());
+
+        assertEquals(List.of("Old 2023"), descriptions(activityRepository.findByStartTime(LocalDateTime.of(2023, 3, 1, 0, 0))));
+        assertEquals(List.of("Old 2023", "Old 2024", "Still running", "Recent"), descriptions(activityRepository.findAll()));
+    }
+
+    @Test
+    void testPagingWalksAcrossArchives() {
+        archive.archive(LocalDate.of(2025, 1, 1));
+
+        List<Activity> forward = new ArrayList<>();
+        List<Activity> page = activityRepository.findPageAfter(null, null, null, 3);
+        while (!page.isEmpty()) {
+            forward.addAll(page);
+            page = activityRepository.findPageAfter(null, null, PageCursor.of(page.get(page.size() - 1)), 3);
+        }
+        assertEquals(List.of("Old 2023", "Old 2024", "Still running", "Recent"), descriptions(forward));
+
+        List<Activity> previous = activityRepository.findPageBefore(null, null, PageCursor.of(forward.get(3)), 2);
+        assertEquals(List.of("Old 2024", "Still running"), descriptions(previous));
+    }
+
+    @Test
+    void testArchiveCanBeRepeated() {
+        archive.archive(LocalDate.of(2024, 1, 1));
+        save(LocalDateTime.of(2023, 12, 31, 9, 0), ActivityStatus.COMPLETED, "Added late");
+
+        ActivityArchive.Result result = archive.archive(LocalDate.of(2025, 1, 1));
+
+        assertEquals(2, result.activities());
+        assertEquals(List.of(2, 1), archive.partitions().stream().map(ActivityArchive.Partition::activityCount).toList());
+        assertEquals(List.of("Old 2023", "Added late", "Old 2024", "Still running", "Recent"),
+            descriptions(activityRepository.findAll()));
+    }
+
+    @Test
+    void testReadsSpanMoreArchivesThanSqliteAttaches() throws SQLException {
+        List<String> expected = new ArrayList<>();
+        for (int year = 2010; year < 2023; year++) {
+            save(LocalDateTime.of(year, 5, 1, 9, 0), ActivityStatus.COMPLETED, "Old " + year);
+            expected.add("Old " + year);
+        }
+        expected.addAll(List.of("Old 2023", "Old 2024", "Still running", "Recent"));
+        archive.archive(LocalDate.of(2025, 1, 1));
+        assertTrue(archive.partitions().size() > ActivityArchive.MAX_ATTACHED);
+
+        assertEquals(expected, descriptions(activityRepository.findAll()));
+        assertEquals(expected.subList(0, 12), descriptions(activityRepository.findPageAfter(null, null, null, 12)));
+        assertEquals(expected.subList(9, 13), descriptions(activityRepository.findPageBefore(null, null,
+            new PageCursor(LocalDateTime.of(2023, 1, 1, 0, 0), 0), 4)));
+        // Nothing stays attached, so reads can go on without running out
+        for (int i = 0; i < 3; i++) {
+            assertEquals(expected.size(), activityRepository.findAll().size());
+        }
+        try (ReadConnectionPool.Lease lease = dbConnection.getReadConnection();
+             Statement stmt = lease.connection().createStatement();
+             ResultSet rs = stmt.executeQuery(SqlQueries.LIST_ATTACHED_DATABASES)) {
+            while (rs.next()) {
+                assertFalse(rs.getString("name").startsWith("archive_"));
+            }
+        }
+    }
+
+    @Test
+    void testRangeReadsWorkInsideWriteTransaction() {
+        archive.archive(LocalDate.of(2025, 1, 1));
+
+        List<Activity> activities = activityRepository.inWriteTransaction("test", () -> {
+            save(LocalDateTime.of(2025, 10, 24, 9, 0), ActivityStatus.COMPLETED, "Uncommitted");
+            return activityRepository.findAll();
+        });
+
+        assertEquals(List.of("Old 2023", "Old 2024", "Still running", "Recent", "Uncommitted"), descriptions(activities));
+        assertEquals(5, activityRepository.findAll().size());
+    }
+
+    @Test
+    void testInMemoryDatabaseCannotBeArchived() {
+        DatabaseConnection memory = new DatabaseConnection("jdbc:sqlite::memory:");
+        try {
+            assertThrows(IllegalStateException.class, () -> new ActivityArchive(memory).archive(LocalDate.now()));
+            assertTrue(new ActivityArchive(memory).partitions().isEmpty());
+        } finally {
+            memory.close();
+        }
+    }
+
+    private void save(LocalDateTime start, ActivityStatus status, String description) {
+        activityRepository.save(Activity.builder()
+            .startTime(start)
+            .endTime(status == ActivityStatus.COMPLETED ? start.plusHours(1) : null)
+            .activityType(ActivityType.DEVELOP)
+            .status(status)
+            .description(description)
+            .build());
+    }
+
+    private static List<String> descriptions(List<Activity> activities) {
+        return activities.stream().map(Activity::description).toList();
+    }
+}
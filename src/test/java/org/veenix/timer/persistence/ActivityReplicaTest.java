@@ -0,0 +1,182 @@
+package org.veenix.timer.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActivityReplicaTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2025, 10, 20, 9, 0);
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseConnection primary;
+    private ActivityRepository repository;
+    private ActivityReplica replica;
+    private final List<DatabaseConnection> readers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        primary = new DatabaseConnection("jdbc:sqlite:" + tempDir.resolve("timer.db"));
+        repository = new ActivityRepositoryImpl(primary);
+        replica = new ActivityReplica(primary, tempDir.resolve("replica.db"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        readers.forEach(DatabaseConnection::close);
+        replica.close();
+        primary.close();
+    }
+
+    @Test
+    void testChangesAreOnlyLoggedOnceReplicationStarts() throws SQLException {
+        save(MONDAY, "Before");
+        assertEquals(0, changeLogSize());
+
+        replica.ship();
+        save(MONDAY.plusHours(1), "After");
+
+        assertEquals(1, changeLogSize());
+    }
+
+    @Test
+    void testFirstShipCopiesTheDatabase() {
+        Activity standup = save(MONDAY, "Standup");
+        save(MONDAY.plusHours(1), "Review");
+
+        ActivityReplica.Result result = replica.ship();
+
+        assertTrue(result.bootstrapped());
+        assertEquals(0, result.changes());
+        assertEquals(repository.findAll(), readReplica().findAll());
+        assertEquals(standup, readReplica().findById(standup.id()).orElseThrow());
+    }
+
+    @Test
+    void testShipCopiesChangedActivitiesWithTheirIds() {
+        Activity kept = save(MONDAY, "Standup");
+        Activity removed = save(MONDAY.plusHours(1), "Review");
+        replica.ship();
+
+        repository.update(new Activity(kept.id(), kept.startTime(), kept.endTime(), ActivityType.MEETING,
+            ActivityStatus.COMPLETED, "Standup, renamed"));
+        repository.delete(removed.id());
+        Activity added = save(MONDAY.plusDays(1), "Planning");
+        ActivityReplica.Result result = replica.ship();
+
+        assertFalse(result.bootstrapped());
+        assertEquals(3, result.changes());
+        assertEquals(3, result.activities());
+        assertEquals(repository.findAll(), readReplica().findAll());
+        assertEquals("Standup, renamed", readReplica().findById(kept.id()).orElseThrow().description());
+        assertTrue(readReplica().findById(removed.id()).isEmpty());
+        assertTrue(readReplica().findById(added.id()).isPresent());
+
+        // Nothing is left to ship, and the shipped part of the log is gone
+        assertEquals(0, replica.ship().changes());
+    }
+
+    @Test
+    void testLagCountsTheChangesNotShippedYet() throws SQLException {
+        replica.ship();
+        save(MONDAY, "Standup");
+        save(MONDAY.plusHours(1), "Review");
+
+        ActivityReplica.Lag behind = replica.lag();
+        assertTrue(behind.current());
+        assertEquals(2, behind.pendingChanges());
+        assertNotNull(behind.lastShipped());
+
+        replica.ship();
+        ActivityReplica.Lag caughtUp = replica.lag();
+        assertEquals(0, caughtUp.pendingChanges());
+        assertEquals(0, changeLogSize());
+        assertTrue(caughtUp.position() > behind.position());
+    }
+
+    @Test
+    void testReplicaIsCopiedAgainAfterThePrimaryWasRestored() {
+        save(MONDAY, "Standup");
+        replica.ship();
+        Path snapshot = tempDir.resolve("snapshot.db");
+        new DatabaseBackup(primary).backup(snapshot, DatabaseBackup.DEFAULT_PAGES_PER_STEP, false);
+        save(MONDAY.plusHours(1), "Lost with the restore");
+        replica.ship();
+
+        new DatabaseBackup(primary).restore(snapshot);
+        assertFalse(replica.lag().current());
+        ActivityReplica.Result result = replica.ship();
+
+        assertTrue(result.bootstrapped());
+        assertEquals(repository.findAll(), readReplica().findAll());
+        assertEquals(1, readReplica().findAll().size());
+    }
+
+    @Test
+    void testReplicaReadsTheArchivesOfThePrimary() {
+        save(MONDAY.minusYears(2), "Archived");
+        save(MONDAY, "Hot");
+        new ActivityArchive(primary).archive(LocalDate.of(2025, 1, 1));
+
+        replica.ship();
+
+        assertEquals(repository.findAll(), readReplica().findAll());
+        assertEquals(2, readReplica().findAll().size());
+    }
+
+    @Test
+    void testAnotherDatabaseIsNotOverwritten() {
+        Path other = tempDir.resolve("other.db");
+        DatabaseConnection otherPrimary = new DatabaseConnection("jdbc:sqlite:" + other);
+        try (ActivityReplica otherReplica = new ActivityReplica(otherPrimary, tempDir.resolve("other-replica.db"))) {
+            otherReplica.ship();
+        } finally {
+            otherPrimary.close();
+        }
+
+        try (ActivityReplica wrong = new ActivityReplica(primary, other)) {
+            assertThrows(IllegalStateException.class, wrong::ship);
+        }
+    }
+
+    private ActivityRepository readReplica() {
+        DatabaseConnection reader = ActivityReplica.openReader(replica.getFile(), tempDir.resolve("timer.db"));
+        readers.add(reader);
+        return new ActivityRepositoryImpl(reader);
+    }
+
+    private int changeLogSize() throws SQLException {
+        try (ReadConnectionPool.Lease lease = primary.getReadConnection();
+             Statement stmt = lease.connection().createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM activity_change_log")) {
+            return rs.getInt(1);
+        }
+    }
+
+    private Activity save(LocalDateTime start, String description) {
+        return repository.save(Activity.builder()
+            .startTime(start)
+            .endTime(start.plusMinutes(30))
+            .activityType(ActivityType.DEVELOP)
+            .status(ActivityStatus.COMPLETED)
+            .description(description)
+            .build());
+    }
+}
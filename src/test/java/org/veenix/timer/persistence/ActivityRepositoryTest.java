@@ -252,4 +252,60 @@ class ActivityRepositoryTest {
         assertEquals(1, oct24Activities.size());
         assertEquals("Next day task", oct24Activities.get(0).description());
     }
+
+    @Test
+    void testFindPageAfterWalksTiesInIdOrder() {
+        LocalDateTime sameStart = LocalDateTime.of(2025, 10, 23, 9, 0);
+        for (int i = 0; i < 5; i++) {
+            repository.save(Activity.builder()
+                    .startTime(sameStart.plusMinutes(i < 3 ? 0 : i))
+                    .activityType(ActivityType.DEVELOP)
+                    .status(ActivityStatus.COMPLETED)
+                    .description("Task " + i)
+                    .build());
+        }
+
+        List<Activity> first = repository.findPageAfter(null, null, null, 2);
+        assertEquals(List.of("Task 0", "Task 1"), first.stream().map(Activity::description).toList());
+
+        List<Activity> second = repository.findPageAfter(null, null, PageCursor.of(first.get(1)), 2);
+        assertEquals(List.of("Task 2", "Task 3"), second.stream().map(Activity::description).toList());
+
+        List<Activity> third = repository.findPageAfter(null, null, PageCursor.of(second.get(1)), 2);
+        assertEquals(List.of("Task 4"), third.stream().map(Activity::description).toList());
+    }
+
+    @Test
+    void testFindPageBeforeReturnsChronologicalOrder() {
+        LocalDateTime start = LocalDateTime.of(2025, 10, 23, 9, 0);
+        Activity last = null;
+        for (int i = 0; i < 4; i++) {
+            last = repository.save(Activity.builder()
+                    .startTime(start.plusHours(i))
+                    .activityType(ActivityType.DEVELOP)
+                    .status(ActivityStatus.COMPLETED)
+                    .description("Task " + i)
+                    .build());
+        }
+
+        List<Activity> page = repository.findPageBefore(null, null, PageCursor.of(last), 2);
+        assertEquals(List.of("Task 1", "Task 2"), page.stream().map(Activity::description).toList());
+    }
+
+    @Test
+    void testFindPageRespectsDateBounds() {
+        LocalDateTime day = LocalDateTime.of(2025, 10, 23, 0, 0);
+        for (int i = 0; i < 3; i++) {
+            repository.save(Activity.builder()
+                    .startTime(day.plusDays(i).plusHours(9))
+                    .activityType(ActivityType.DEVELOP)
+                    .status(ActivityStatus.COMPLETED)
+                    .description("Day " + i)
+                    .build());
+        }
+
+        List<Activity> page = repository.findPageAfter(day.plusDays(1), day.plusDays(2), null, 10);
+        assertEquals(1, page.size());
+        assertEquals("Day 1", page.get(0).description());
+    }
 }
@@ -0,0 +1,136 @@
+package org.veenix.timer.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActivitySearchTest {
+
+    private static final String TEST_DB = "test_activity_search.db";
+    private DatabaseConnection dbConnection;
+    private ActivityRepository repository;
+    private ActivitySearch search;
+
+    @BeforeEach
+    void setUp() {
+        dbConnection = new DatabaseConnection("jdbc:sqlite:" + TEST_DB);
+        repository = new ActivityRepositoryImpl(dbConnection);
+        search = new ActivitySearch(dbConnection);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dbConnection.close();
+        new File(TEST_DB).delete();
+    }
+
+    @Test
+    void testSearchFindsTicketReference() {
+        save(LocalDateTime.of(2025, 10, 23, 9, 0), ActivityType.BUG, "Fix login for PROJ-1234");
+        save(LocalDateTime.of(2025, 10, 23, 10, 0), ActivityType.DEVELOP, "Refactor PROJ-1235 reports");
+
+        List<ActivitySearch.Hit> hits = search.search("PROJ-1234", ActivitySearch.Filter.none());
+
+        assertEquals(1, hits.size());
+        assertEquals("Fix login for PROJ-1234", hits.get(0).activity().description());
+        assertEquals("Fix login for [PROJ-1234]", hits.get(0).snippet());
+    }
+
+    @Test
+    void testSearchRequiresAllTerms() {
+        save(LocalDateTime.of(2025, 10, 23, 9, 0), ActivityType.MEETING, "Sprint planning");
+        save(LocalDateTime.of(2025, 10, 23, 10, 0), ActivityType.MEETING, "Sprint review");
+
+        assertEquals(1, search.search("sprint review", ActivitySearch.Filter.none()).size());
+        assertEquals(2, search.search("sprint", ActivitySearch.Filter.none()).size());
+    }
+
+    @Test
+    void testSearchAppliesDateAndTypeFilters() {
+        save(LocalDateTime.of(2024, 1, 10, 9, 0), ActivityType.BUG, "Database migration");
+        save(LocalDateTime.of(2025, 6, 10, 9, 0), ActivityType.BUG, "Database migration");
+        save(LocalDateTime.of(2025, 6, 11, 9, 0), ActivityType.INFRA, "Database migration");
+
+        ActivitySearch.Filter filter = new ActivitySearch.Filter(
+            LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31), ActivityType.BUG, 50, "[", "]");
+        List<ActivitySearch.Hit> hits = search.search("migration", filter);
+
+        assertEquals(1, hits.size());
+        assertEquals(LocalDateTime.of(2025, 6, 10, 9, 0), hits.get(0).activity().startTime());
+    }
+
+    @Test
+    void testIndexFollowsUpdatesAndDeletes() {
+        Activity saved = save(LocalDateTime.of(2025, 10, 23, 9, 0), ActivityType.DEVELOP, "Old wording");
+
+        repository.update(Activity.builder()
+                .id(saved.id())
+                .startTime(saved.startTime())
+                .activityType(saved.activityType())
+                .status(saved.status())
+                .description("New wording")
+                .build());
+
+        assertTrue(search.search("old", ActivitySearch.Filter.none()).isEmpty());
+        assertEquals(1, search.search("new", ActivitySearch.Filter.none()).size());
+
+        repository.delete(saved.id());
+        assertTrue(search.search("new", ActivitySearch.Filter.none()).isEmpty());
+    }
+
+    @Test
+    void testExistingRowsAreIndexedOnFirstOpen() throws SQLException {
+        dbConnection.close();
+        new File(TEST_DB).delete();
+
+        // Database created before full-text search existed
+        try (Connection legacy = DriverManager.getConnection("jdbc:sqlite:" + TEST_DB);
+             Statement stmt = legacy.createStatement()) {
+            stmt.execute(SqlQueries.CREATE_ACTIVITY_TABLE);
+            stmt.execute("INSERT INTO activity (start_time, activity_type, status, description) " +
+                "VALUES ('2025-10-23T09:00', 'DEVELOP', 'COMPLETED', 'Legacy row')");
+        }
+
+        dbConnection = new DatabaseConnection("jdbc:sqlite:" + TEST_DB);
+        search = new ActivitySearch(dbConnection);
+
+        assertEquals(1, search.search("legacy", ActivitySearch.Filter.none()).size());
+    }
+
+    @Test
+    void testSearchLikeMatchesSubstring() {
+        save(LocalDateTime.of(2025, 10, 23, 9, 0), ActivityType.DEVELOP, "100% coverage");
+        save(LocalDateTime.of(2025, 10, 23, 10, 0), ActivityType.DEVELOP, "1000 coverage");
+
+        assertEquals(1, search.searchLike("100%").size());
+    }
+
+    @Test
+    void testToMatchExpressionQuotesTerms() {
+        assertEquals("\"PROJ-1234\" \"say\"\"hi\"", ActivitySearch.toMatchExpression("  PROJ-1234   say\"hi "));
+    }
+
+    private Activity save(LocalDateTime start, ActivityType type, String description) {
+        return repository.save(Activity.builder()
+                .startTime(start)
+                .endTime(start.plusHours(1))
+                .activityType(type)
+                .status(ActivityStatus.COMPLETED)
+                .description(description)
+                .build());
+    }
+}
@@ -0,0 +1,158 @@
+package org.veenix.timer.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.veenix.timer.metrics.MetricsRegistry;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BusyRetrierTest {
+
+    private static final String TEST_DB = "test_busy_retry.db";
+    private DatabaseConnection dbConnection;
+    private ActivityRepository activityRepository;
+    private MetricsRegistry metrics;
+
+    @BeforeEach
+    void setUp() {
+        dbConnection = new DatabaseConnection("jdbc:sqlite:" + TEST_DB);
+        dbConnection.setBusyHandling(Duration.ofMillis(20),
+            new RetryPolicy(20, Duration.ofMillis(10), Duration.ofMillis(50)));
+        activityRepository = new ActivityRepositoryImpl(dbConnection);
+        metrics = dbConnection.getMetrics();
+        // Create the schema before another connection locks the file
+        dbConnection.getConnection();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dbConnection.close();
+        new File(TEST_DB).delete();
+        new File(TEST_DB + "-wal").delete();
+        new File(TEST_DB + "-shm").delete();
+    }
+
+    @Test
+    void testBackoffDoublesUpToMaximum() {
+        RetryPolicy policy = new RetryPolicy(5, Duration.ofMillis(100), Duration.ofMillis(300));
+
+        for (int i = 0; i < 20; i++) {
+            assertBetween(Duration.ofMillis(50), Duration.ofMillis(100), policy.backoff(1));
+            assertBetween(Duration.ofMillis(100), Duration.ofMillis(200), policy.backoff(2));
+            assertBetween(Duration.ofMillis(150), Duration.ofMillis(300), policy.backoff(3));
+            assertBetween(Duration.ofMillis(150), Duration.ofMillis(300), policy.backoff(40));
+        }
+    }
+
+    @Test
+    void testWriteSucceedsOnceOtherProcessReleasesLock() throws Exception {
+        long retriesBefore = metrics.counter("db.busy.retries").count();
+
+        try (Connection other = DriverManager.getConnection("jdbc:sqlite:" + TEST_DB)) {
+            execute(other, "BEGIN IMMEDIATE");
+            CompletableFuture<Void> release = CompletableFuture.runAsync(() -> {
+                try {
+                    execute(other, "COMMIT");
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            }, CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS));
+
+            Activity saved = activityRepository.save(activity());
+
+            release.join();
+            assertNotNull(saved.id());
+        }
+        assertTrue(metrics.counter("db.busy.retries").count() > retriesBefore);
+    }
+
+    @Test
+    void testGivesUpAfterMaxRetries() throws Exception {
+        dbConnection.setBusyHandling(Duration.ofMillis(10), new RetryPolicy(2, Duration.ofMillis(5), Duration.ofMillis(5)));
+        long exhaustedBefore = metrics.counter("db.busy.exhausted").count();
+
+        try (Connection other = DriverManager.getConnection("jdbc:sqlite:" + TEST_DB)) {
+            execute(other, "BEGIN IMMEDIATE");
+
+            RuntimeException e = assertThrows(RuntimeException.class, () -> activityRepository.save(activity()));
+
+            assertTrue(BusyRetrier.isBusy(e));
+            execute(other, "ROLLBACK");
+        }
+        assertEquals(exhaustedBefore + 1, metrics.counter("db.busy.exhausted").count());
+    }
+
+    @Test
+    void testTransactionRollsBackOnFailure() {
+        assertThrows(IllegalStateException.class, () -> activityRepository.inWriteTransaction("test", () -> {
+            activityRepository.save(activity());
+            throw new IllegalStateException("fail after save");
+        }));
+
+        assertTrue(activityRepository.findAll().isEmpty());
+    }
+
+    @Test
+    void testTransactionSeesOwnWritesAndJoinsNestedCalls() {
+        Activity found = activityRepository.inWriteTransaction("outer", () -> {
+            Activity saved = activityRepository.inWriteTransaction("inner", () -> activityRepository.save(activity()));
+            return activityRepository.findById(saved.id()).orElseThrow();
+        });
+
+        assertEquals("Busy retry test", found.description());
+        assertEquals(1, activityRepository.findAll().size());
+    }
+
+    @Test
+    void testTransactionWaitsForLockHeldByOtherProcess() throws Exception {
+        try (Connection other = DriverManager.getConnection("jdbc:sqlite:" + TEST_DB)) {
+            execute(other, "BEGIN IMMEDIATE");
+            CompletableFuture.runAsync(() -> {
+                try {
+                    execute(other, "COMMIT");
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            }, CompletableFuture.delayedExecutor(150, TimeUnit.MILLISECONDS));
+
+            Activity saved = activityRepository.inWriteTransaction("test", () -> activityRepository.save(activity()));
+
+            assertNotNull(saved.id());
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private static void assertBetween(Duration min, Duration max, Duration actual) {
+        assertTrue(actual.compareTo(min) >= 0 && actual.compareTo(max) <= 0, actual + " not in [" + min + ", " + max + "]");
+    }
+
+    private static Activity activity() {
+        LocalDateTime start = LocalDateTime.of(2025, 10, 23, 9, 0);
+        return Activity.builder()
+            .startTime(start)
+            .endTime(start.plusHours(1))
+            .activityType(ActivityType.DEVELOP)
+            .status(ActivityStatus.COMPLETED)
+            .description("Busy retry test")
+            .build();
+    }
+}
@@ -0,0 +1,88 @@
+package org.veenix.timer.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataChangeMonitorTest {
+
+    private static final String TEST_DB = "test_change_monitor.db";
+    private DatabaseConnection dbConnection;
+    private ActivityRepository activityRepository;
+    private DataChangeMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        dbConnection = new DatabaseConnection("jdbc:sqlite:" + TEST_DB);
+        activityRepository = new ActivityRepositoryImpl(dbConnection);
+        monitor = new DataChangeMonitor(dbConnection);
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitor.close();
+        dbConnection.close();
+        new File(TEST_DB).delete();
+        new File(TEST_DB + "-wal").delete();
+        new File(TEST_DB + "-shm").delete();
+    }
+
+    @Test
+    void testFirstPollReportsChange() {
+        assertTrue(monitor.poll());
+        assertFalse(monitor.poll());
+    }
+
+    @Test
+    void testCommitIsDetectedOnce() {
+        monitor.poll();
+
+        activityRepository.save(activity(LocalDateTime.of(2025, 10, 23, 9, 0)));
+
+        assertTrue(monitor.poll());
+        assertFalse(monitor.poll());
+    }
+
+    @Test
+    void testInMemoryDatabaseCountsOwnChanges() {
+        DatabaseConnection memory = new DatabaseConnection("jdbc:sqlite::memory:");
+        try (DataChangeMonitor memoryMonitor = new DataChangeMonitor(memory)) {
+            assertTrue(memoryMonitor.poll());
+            assertFalse(memoryMonitor.poll());
+
+            new ActivityRepositoryImpl(memory).save(activity(LocalDateTime.of(2025, 10, 23, 9, 0)));
+
+            assertTrue(memoryMonitor.poll());
+        } finally {
+            memory.close();
+        }
+    }
+
+    @Test
+    void testDatabaseFileFromUrl() {
+        assertEquals(Optional.of(Path.of(TEST_DB)), dbConnection.getDatabaseFile());
+        assertEquals(Optional.of(Path.of("data/timer.db")),
+            new DatabaseConnection("jdbc:sqlite:file:data/timer.db?cache=shared").getDatabaseFile());
+        assertEquals(Optional.empty(), new DatabaseConnection("jdbc:sqlite::memory:").getDatabaseFile());
+    }
+
+    private static Activity activity(LocalDateTime start) {
+        return Activity.builder()
+            .startTime(start)
+            .endTime(start.plusHours(1))
+            .activityType(ActivityType.DEVELOP)
+            .status(ActivityStatus.COMPLETED)
+            .description("Change monitor test")
+            .build();
+    }
+}
@@ -0,0 +1,150 @@
+package org.veenix.timer.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseBackupTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseConnection dbConnection;
+    private ActivityRepository activityRepository;
+    private DatabaseBackup backup;
+
+    @BeforeEach
+    void setUp() {
+        dbConnection = new DatabaseConnection("jdbc:sqlite:" + tempDir.resolve("timer.db"));
+        activityRepository = new ActivityRepositoryImpl(dbConnection);
+        backup = new DatabaseBackup(dbConnection);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dbConnection.close();
+    }
+
+    @Test
+    void testBackupAndRestoreRoundTrip() {
+        activityRepository.save(activity(LocalDateTime.of(2025, 10, 23, 9, 0), "Before backup"));
+        Path snapshot = tempDir.resolve("snapshot.db");
+
+        DatabaseBackup.Result result = backup.backup(snapshot, 1, false);
+        assertEquals(snapshot.toAbsolutePath(), result.file());
+        assertTrue(result.pages() > 0);
+        assertFalse(Files.exists(tempDir.resolve("snapshot.db.tmp")));
+
+        activityRepository.save(activity(LocalDateTime.of(2025, 10, 23, 11, 0), "After backup"));
+        assertEquals(2, activityRepository.findAll().size());
+
+        backup.restore(snapshot);
+
+        List<Activity> restored = activityRepository.findAll();
+        assertEquals(1, restored.size());
+        assertEquals("Before backup", restored.get(0).description());
+        // The description cache must not hand out ids from before the restore
+        activityRepository.save(activity(LocalDateTime.of(2025, 10, 23, 13, 0), "After backup"));
+        assertEquals("After backup", activityRepository.findAll().get(1).description());
+    }
+
+    @Test
+    void testCompressedBackupRestores() throws IOException {
+        activityRepository.save(activity(LocalDateTime.of(2025, 10, 23, 9, 0), "Compressed"));
+        Path snapshot = tempDir.resolve("snapshot.db.gz");
+
+        backup.backup(snapshot, DatabaseBackup.DEFAULT_PAGES_PER_STEP, true);
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(snapshot))) {
+            assertEquals("SQLite format 3", new String(in.readNBytes(15)));
+        }
+
+        activityRepository.delete(activityRepository.findAll().get(0).id());
+        backup.restore(snapshot);
+
+        assertEquals("Compressed", activityRepository.findAll().get(0).description());
+        // Neither the compressed copy nor the decompressed restore source is left behind
+        try (var files = Files.list(tempDir)) {
+            assertTrue(files.map(file -> file.getFileName().toString())
+                .allMatch(name -> name.startsWith("timer.db") || name.equals("snapshot.db.gz")));
+        }
+    }
+
+    @Test
+    void testRotateKeepsNewestSnapshots() throws IOException {
+        Path directory = tempDir.resolve("backups");
+        Files.createDirectories(directory);
+        for (String name : List.of("timer-20251021-090000.db", "timer-20251022-090000.db.gz",
+                "timer-20251023-090000.db", "notes.txt")) {
+            Files.writeString(directory.resolve(name), name);
+        }
+
+        List<Path> deleted = DatabaseBackup.rotate(directory, 2);
+
+        assertEquals(List.of(directory.resolve("timer-20251021-090000.db")), deleted);
+        assertEquals(List.of(directory.resolve("timer-20251022-090000.db.gz"), directory.resolve("timer-20251023-090000.db")),
+            DatabaseBackup.listSnapshots(directory));
+        assertTrue(Files.exists(directory.resolve("notes.txt")));
+    }
+
+    @Test
+    void testCorruptSnapshotIsRejectedBeforeRestoring() throws IOException {
+        activityRepository.save(activity(LocalDateTime.of(2025, 10, 23, 9, 0), "Kept"));
+        Path snapshot = tempDir.resolve("snapshot.db");
+        backup.backup(snapshot, DatabaseBackup.DEFAULT_PAGES_PER_STEP, false);
+
+        // Overwrite the second page, where the first table's b-tree starts
+        byte[] bytes = Files.readAllBytes(snapshot);
+        int pageSize = ((bytes[16] & 0xFF) << 8) | (bytes[17] & 0xFF);
+        for (int i = pageSize; i < 2 * pageSize; i++) {
+            bytes[i] = (byte) 0xFF;
+        }
+        Files.write(snapshot, bytes);
+
+        assertThrows(RuntimeException.class, () -> backup.restore(snapshot));
+        assertEquals("Kept", activityRepository.findAll().get(0).description());
+
+        boolean[] reached = {false};
+        assertThrows(RuntimeException.class, () -> backup.restore(snapshot, () -> reached[0] = true));
+        assertFalse(reached[0], "A rejected snapshot must not reach the step before replacing");
+    }
+
+    @Test
+    void testSnapshotPathDoesNotReuseAnExistingName() throws IOException {
+        Path directory = tempDir.resolve("backups");
+        Files.createDirectories(directory);
+
+        Path first = DatabaseBackup.snapshotPath(directory, false);
+        Files.writeString(first, "first");
+        Path second = DatabaseBackup.snapshotPath(directory, true);
+        Files.writeString(second, "second");
+        Path third = DatabaseBackup.snapshotPath(directory, false);
+
+        assertFalse(Files.exists(third));
+        Files.writeString(third, "third");
+        assertEquals(List.of(first, second, third), DatabaseBackup.listSnapshots(directory));
+    }
+
+    private static Activity activity(LocalDateTime start, String description) {
+        return Activity.builder()
+            .startTime(start)
+            .endTime(start.plusHours(1))
+            .activityType(ActivityType.DEVELOP)
+            .status(ActivityStatus.COMPLETED)
+            .description(description)
+            .build();
+    }
+}
@@ -0,0 +1,109 @@
+package org.veenix.timer.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseChangeNotifierTest {
+
+    private static final String TEST_DB = "test_change_notifier.db";
+    private DatabaseConnection dbConnection;
+    private ActivityRepository activityRepository;
+    private DatabaseChangeNotifier notifier;
+
+    @BeforeEach
+    void setUp() {
+        dbConnection = new DatabaseConnection("jdbc:sqlite:" + TEST_DB);
+        activityRepository = new ActivityRepositoryImpl(dbConnection);
+        notifier = new DatabaseChangeNotifier(dbConnection, Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() {
+        notifier.close();
+        dbConnection.close();
+        new File(TEST_DB).delete();
+        new File(TEST_DB + "-wal").delete();
+        new File(TEST_DB + "-shm").delete();
+    }
+
+    @Test
+    void testSubscriberIsNotifiedOfCommit() throws InterruptedException {
+        CountDownLatch notified = new CountDownLatch(1);
+        notifier.subscribe(event -> notified.countDown());
+        notifier.start();
+
+        activityRepository.save(activity());
+
+        assertTrue(notified.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testNoEventWithoutChange() {
+        List<DatabaseChangeNotifier.ChangeEvent> events = new CopyOnWriteArrayList<>();
+        notifier.subscribe(events::add);
+        notifier.checkNow();
+        events.clear();
+
+        assertFalse(notifier.checkNow());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void testEventsAreNumbered() {
+        List<DatabaseChangeNotifier.ChangeEvent> events = new CopyOnWriteArrayList<>();
+        notifier.subscribe(events::add);
+        notifier.checkNow();
+
+        activityRepository.save(activity());
+        assertTrue(notifier.checkNow());
+
+        assertEquals(List.of(1L, 2L), events.stream().map(DatabaseChangeNotifier.ChangeEvent::sequence).toList());
+    }
+
+    @Test
+    void testClosedSubscriptionIsNotNotified() {
+        List<DatabaseChangeNotifier.ChangeEvent> events = new CopyOnWriteArrayList<>();
+        DatabaseChangeNotifier.Subscription subscription = notifier.subscribe(events::add);
+        subscription.close();
+
+        assertTrue(notifier.checkNow());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void testFailingListenerDoesNotStopOthers() {
+        List<DatabaseChangeNotifier.ChangeEvent> events = new CopyOnWriteArrayList<>();
+        notifier.subscribe(event -> {
+            throw new IllegalStateException("listener failure");
+        });
+        notifier.subscribe(events::add);
+
+        assertTrue(notifier.checkNow());
+        assertEquals(1, events.size());
+    }
+
+    private static Activity activity() {
+        LocalDateTime start = LocalDateTime.of(2025, 10, 23, 9, 0);
+        return Activity.builder()
+            .startTime(start)
+            .endTime(start.plusHours(1))
+            .activityType(ActivityType.DEVELOP)
+            .status(ActivityStatus.COMPLETED)
+            .description("Change notifier test")
+            .build();
+    }
+}
@@ -0,0 +1,117 @@
+package org.veenix.timer.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseMaintenanceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseConnection dbConnection;
+    private ActivityRepository activityRepository;
+    private DatabaseMaintenance maintenance;
+
+    @BeforeEach
+    void setUp() {
+        dbConnection = new DatabaseConnection("jdbc:sqlite:" + tempDir.resolve("timer.db"));
+        activityRepository = new ActivityRepositoryImpl(dbConnection);
+        maintenance = new DatabaseMaintenance(dbConnection);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dbConnection.close();
+    }
+
+    @Test
+    void testOptimizeFreesPagesLeftByDeletes() throws SQLException {
+        List<Activity> saved = saveMany(500);
+        saved.forEach(activity -> activityRepository.delete(activity.id()));
+
+        DatabaseMaintenance.Report report = maintenance.optimize(false);
+
+        assertTrue(maintenance.incrementalAutoVacuum(), "a new database starts with incremental auto-vacuum");
+        assertTrue(report.before().freelistCount() > 0);
+        assertEquals(0, report.after().freelistCount());
+        assertTrue(report.after().pageCount() < report.before().pageCount());
+        assertTrue(hasStatistics());
+    }
+
+    @Test
+    void testFullVacuumAlsoCompacts() {
+        List<Activity> saved = saveMany(200);
+        saved.forEach(activity -> activityRepository.delete(activity.id()));
+
+        DatabaseMaintenance.Report report = maintenance.optimize(true);
+
+        assertEquals(0, report.after().freelistCount());
+        assertTrue(report.after().bytes() < report.before().bytes());
+    }
+
+    @Test
+    void testMaintenanceRunsWhenMutationsCrossThreshold() {
+        assertFalse(new DatabaseMaintenance(new DatabaseConnection("jdbc:sqlite:" + tempDir.resolve("unused.db")))
+            .recordMutations(1), "a process that never opened the database has nothing to record");
+
+        saveMany(3);
+        assertFalse(maintenance.recordMutations(1_000));
+        assertEquals(3, maintenance.pendingMutations(), "only the activity rows count, not the trigger rows");
+
+        // Nothing changed since the last call
+        assertFalse(maintenance.recordMutations(1_000));
+        assertEquals(3, maintenance.pendingMutations());
+
+        saveMany(2);
+        assertFalse(maintenance.recordMutations(6));
+        assertEquals(5, maintenance.pendingMutations());
+        saveMany(1);
+        assertTrue(maintenance.recordMutations(6));
+        assertEquals(0, maintenance.pendingMutations());
+    }
+
+    @Test
+    void testZeroThresholdDisablesMaintenance() {
+        saveMany(3);
+
+        assertFalse(maintenance.recordMutations(0));
+        assertEquals(0, maintenance.pendingMutations());
+    }
+
+    private List<Activity> saveMany(int count) {
+        List<Activity> saved = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2025, 10, 23, 9, 0);
+        for (int i = 0; i < count; i++) {
+            saved.add(activityRepository.save(Activity.builder()
+                .startTime(start.plusMinutes(i))
+                .endTime(start.plusMinutes(i + 1))
+                .activityType(ActivityType.DEVELOP)
+                .status(ActivityStatus.COMPLETED)
+                .description("Maintenance test activity number " + i + " with some padding to fill pages")
+                .build()));
+        }
+        return saved;
+    }
+
+    private boolean hasStatistics() throws SQLException {
+        try (Statement stmt = dbConnection.getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM sqlite_stat1")) {
+            return rs.next() && rs.getInt(1) > 0;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package org.veenix.timer.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseSyncTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2025, 10, 20, 9, 0);
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseConnection laptop;
+    private DatabaseConnection desktop;
+    private ActivityRepository laptopRepository;
+    private ActivityRepository desktopRepository;
+
+    @BeforeEach
+    void setUp() {
+        laptop = new DatabaseConnection("jdbc:sqlite:" + tempDir.resolve("laptop.db"));
+        desktop = new DatabaseConnection("jdbc:sqlite:" + tempDir.resolve("desktop.db"));
+        laptopRepository = new ActivityRepositoryImpl(laptop);
+        desktopRepository = new ActivityRepositoryImpl(desktop);
+    }
+
+    @AfterEach
+    void tearDown() {
+        laptop.close();
+        desktop.close();
+    }
+
+    @Test
+    void testSameContentHasSameDigestWhateverTheIds() {
+        // Different insertion order, so different ids for the same activities
+        save(laptopRepository, MONDAY, "Standup");
+        save(laptopRepository, MONDAY.plusHours(1), "Review");
+        save(desktopRepository, MONDAY.plusHours(1), "Review");
+        save(desktopRepository, MONDAY, "Standup");
+
+        Map<LocalDate, byte[]> laptopDigests = new ActivityDigests(laptop).dayDigests();
+        Map<LocalDate, byte[]> desktopDigests = new ActivityDigests(desktop).dayDigests();
+
+        assertEquals(1, laptopDigests.size());
+        assertArrayEquals(laptopDigests.get(MONDAY.toLocalDate()), desktopDigests.get(MONDAY.toLocalDate()));
+    }
+
+    @Test
+    void testChangesOnlyRehashTheirDays() {
+        Activity monday = save(laptopRepository, MONDAY, "Standup");
+        save(laptopRepository, MONDAY.plusDays(1), "Planning");
+        ActivityDigests digests = new ActivityDigests(laptop);
+        Map<LocalDate, byte[]> before = digests.dayDigests();
+
+        laptopRepository.update(new Activity(monday.id(), monday.startTime(), MONDAY.plusMinutes(15),
+            ActivityType.MEETING, ActivityStatus.COMPLETED, "Standup"));
+        long hashedBefore = laptop.getMetrics().counter("db.sync.days.hashed").count();
+        Map<LocalDate, byte[]> after = digests.dayDigests();
+
+        assertEquals(1, laptop.getMetrics().counter("db.sync.days.hashed").count() - hashedBefore);
+        assertFalse(java.util.Arrays.equals(before.get(MONDAY.toLocalDate()), after.get(MONDAY.toLocalDate())));
+        assertArrayEquals(before.get(MONDAY.toLocalDate().plusDays(1)), after.get(MONDAY.toLocalDate().plusDays(1)));
+
+        laptopRepository.delete(monday.id());
+        assertFalse(digests.dayDigests().containsKey(MONDAY.toLocalDate()));
+    }
+
+    @Test
+    void testDigestRefreshIsOneWriteTransaction() {
+        save(laptopRepository, MONDAY, "Standup");
+        save(laptopRepository, MONDAY.plusDays(1), "Planning");
+        ActivityDigests digests = new ActivityDigests(laptop);
+        long commits = laptop.getMetrics().counter("db.commit").count();
+
+        Map<LocalDate, byte[]> before = digests.dayDigests();
+        assertEquals(commits + 1, laptop.getMetrics().counter("db.commit").count());
+
+        // Inside an open transaction the refresh joins it and is rolled back with it
+        assertThrows(IllegalStateException.class, () -> laptopRepository.inWriteTransaction("test", () -> {
+            save(laptopRepository, MONDAY.plusHours(2), "Rolled back");
+            digests.dayDigests();
+            throw new IllegalStateException("Injected failure");
+        }));
+
+        assertEquals(2, laptopRepository.findAll().size());
+        assertArrayEquals(before.get(MONDAY.toLocalDate()), digests.dayDigests().get(MONDAY.toLocalDate()));
+    }
+
+    @Test
+    void testSyncCopiesMissingActivitiesBothWays() {
+        save(laptopRepository, MONDAY, "Shared");
+        save(desktopRepository, MONDAY, "Shared");
+        save(laptopRepository, MONDAY.plusHours(2), "Only on the laptop");
+        save(desktopRepository, MONDAY.plusDays(3), "Only on the desktop");
+
+        DatabaseSync.Report report = new DatabaseSync(laptop, desktop).sync(false);
+
+        assertEquals(List.of(MONDAY.toLocalDate(), MONDAY.toLocalDate().plusDays(3)), report.differingDays());
+        assertEquals(1, report.copiedToLocal());
+        assertEquals(1, report.copiedToRemote());
+        assertEquals(0, report.conflicts());
+        assertTrue(report.inSync());
+        assertEquals(contents(laptopRepository), contents(desktopRepository));
+        assertEquals(3, laptopRepository.findAll().size());
+
+        DatabaseSync.Report again = new DatabaseSync(laptop, desktop).sync(false);
+        assertTrue(again.differingDays().isEmpty());
+        assertEquals(1, again.comparisons());
+    }
+
+    @Test
+    void testConflictsResolveTheSameWayFromEitherSide() {
+        save(laptopRepository, MONDAY, null, ActivityStatus.ACTIVE, "Still running");
+        save(desktopRepository, MONDAY, MONDAY.plusHours(1), ActivityStatus.COMPLETED, "Stopped");
+        save(laptopRepository, MONDAY.plusHours(2), MONDAY.plusHours(4), ActivityStatus.COMPLETED, "Longer");
+        save(desktopRepository, MONDAY.plusHours(2), MONDAY.plusHours(3), ActivityStatus.COMPLETED, "Shorter");
+
+        DatabaseSync.Report report = new DatabaseSync(desktop, laptop).sync(false);
+
+        assertEquals(2, report.conflicts());
+        assertEquals(List.of("Stopped", "Longer"), descriptions(laptopRepository));
+        assertEquals(contents(laptopRepository), contents(desktopRepository));
+    }
+
+    @Test
+    void testArchivingOneSideDoesNotCopyActivitiesBack() {
+        LocalDateTime lastYear = LocalDateTime.of(2023, 5, 2, 9, 0);
+        for (ActivityRepository repository : List.of(laptopRepository, desktopRepository)) {
+            save(repository, lastYear, "Archived");
+            save(repository, MONDAY, "Hot");
+        }
+        assertTrue(new DatabaseSync(laptop, desktop).sync(false).inSync());
+
+        new ActivityArchive(laptop).archive(LocalDate.of(2024, 1, 1));
+        DatabaseSync.Report report = new DatabaseSync(laptop, desktop).sync(false);
+
+        assertTrue(report.inSync());
+        assertEquals(0, report.copiedToLocal());
+        assertEquals(2, laptopRepository.findAll().size());
+        assertEquals(2, desktopRepository.findAll().size());
+    }
+
+    @Test
+    void testArchivesWithoutDigestsAreCovered() throws SQLException {
+        save(laptopRepository, LocalDateTime.of(2023, 5, 2, 9, 0), "Archived");
+        save(desktopRepository, LocalDateTime.of(2023, 5, 2, 9, 0), "Archived");
+        new ActivityArchive(laptop).archive(LocalDate.of(2024, 1, 1));
+        // As if the year was archived before the digest table existed
+        try (Statement stmt = laptop.getConnection().createStatement()) {
+            stmt.execute("DELETE FROM activity_day_digest");
+        }
+
+        DatabaseSync.Report report = new DatabaseSync(laptop, desktop).sync(false);
+
+        assertTrue(report.differingDays().isEmpty());
+        assertEquals(1, laptopRepository.findAll().size());
+    }
+
+    @Test
+    void testDryRunWritesNothing() {
+        save(laptopRepository, MONDAY, "Only on the laptop");
+
+        DatabaseSync.Report report = new DatabaseSync(laptop, desktop).sync(true);
+
+        assertEquals(1, report.copiedToRemote());
+        assertFalse(report.inSync());
+        assertTrue(desktopRepository.findAll().isEmpty());
+    }
+
+    @Test
+    void testDigestTreeFindsDifferingDaysInLogarithmicComparisons() {
+        LocalDate first = LocalDate.of(2023, 1, 1);
+        Map<LocalDate, byte[]> a = new HashMap<>();
+        Map<LocalDate, byte[]> b = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            byte[] digest = ActivityDigests.sha256().digest(new byte[]{(byte) i, (byte) (i >> 8)});
+            a.put(first.plusDays(i), digest);
+            b.put(first.plusDays(i), digest);
+        }
+        b.put(first.plusDays(417), new byte[ActivityDigests.DIGEST_BYTES]);
+        b.remove(first.plusDays(998));
+
+        DigestTree.Comparison comparison = DigestTree.compare(
+            DigestTree.build(first, first.plusDays(999), a), DigestTree.build(first, first.plusDays(999), b));
+
+        assertEquals(List.of(first.plusDays(417), first.plusDays(998)), comparison.days());
+        // Two paths of 11 levels below the root share at most the root and a few ancestors
+        assertTrue(comparison.comparisons() <= 2 * (2 * 10 + 1), "comparisons: " + comparison.comparisons());
+    }
+
+    private static Activity save(ActivityRepository repository, LocalDateTime start, String description) {
+        return save(repository, start, start.plusMinutes(30), ActivityStatus.COMPLETED, description);
+    }
+
+    private static Activity save(ActivityRepository repository, LocalDateTime start, LocalDateTime end,
+                                 ActivityStatus status, String description) {
+        return repository.save(Activity.builder()
+            .startTime(start)
+            .endTime(end)
+            .activityType(ActivityType.DEVELOP)
+            .status(status)
+            .description(description)
+            .build());
+    }
+
+    private static List<String> descriptions(ActivityRepository repository) {
+        return repository.findAll().stream().map(Activity::description).toList();
+    }
+
+    // Everything but the id, which is local to each database
+    private static List<String> contents(ActivityRepository repository) {
+        return repository.findAll().stream()
+            .map(a -> a.startTime() + "|" + a.endTime() + "|" + a.activityType() + "|" + a.status() + "|" + a.description())
+            .toList();
+    }
+}
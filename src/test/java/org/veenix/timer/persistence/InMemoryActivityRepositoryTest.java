@@ -0,0 +1,73 @@
+package org.veenix.timer.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryActivityRepositoryTest extends StorageProviderConformanceTest {
+
+    @Override
+    protected ActivityRepository openRepository() {
+        return new InMemoryActivityRepository();
+    }
+
+    @AfterEach
+    void resetProviders() {
+        StorageProviders.reset();
+    }
+
+    @Test
+    void testProviderIsDiscoveredByName() {
+        List<String> names = StorageProviders.available().stream().map(StorageProvider::name).toList();
+
+        assertTrue(names.contains(InMemoryStorageProvider.NAME));
+        assertInstanceOf(InMemoryActivityRepository.class, StorageProviders.provider("memory").openRepository());
+    }
+
+    @Test
+    void testPagesStayWithinCursorsOutsideTheBounds() {
+        LocalDateTime start = LocalDateTime.of(2025, 10, 23, 9, 0);
+        for (int i = 0; i < 3; i++) {
+            repository.save(activity(start.plusHours(i), "Activity " + i));
+        }
+        LocalDateTime from = start.plusHours(1);
+        LocalDateTime to = start.plusHours(2);
+
+        // Cursors before from or after to leave the bounds as the only limit
+        assertEquals(List.of("Activity 1"), descriptions(repository.findPageAfter(from, to,
+            new PageCursor(start.minusDays(1), 1), 10)));
+        assertEquals(List.of("Activity 1"), descriptions(repository.findPageBefore(from, to,
+            new PageCursor(start.plusDays(1), 1), 10)));
+        assertEquals(List.of(), repository.findPageAfter(from, to, new PageCursor(start.plusDays(1), 1), 10));
+        assertEquals(List.of(), repository.findPageBefore(from, to, new PageCursor(start.minusDays(1), 1), 10));
+    }
+
+    @Test
+    void testSaveRejectsActivityWithoutRequiredFields() {
+        assertThrows(IllegalArgumentException.class, () -> repository.save(Activity.builder()
+            .startTime(LocalDateTime.of(2025, 10, 23, 9, 0))
+            .status(ActivityStatus.ACTIVE)
+            .build()));
+        assertTrue(repository.findAll().isEmpty());
+    }
+
+    private static Activity activity(LocalDateTime start, String description) {
+        return Activity.builder()
+            .startTime(start)
+            .activityType(ActivityType.DEVELOP)
+            .status(ActivityStatus.ACTIVE)
+            .description(description)
+            .build();
+    }
+
+    private static List<String> descriptions(List<Activity> activities) {
+        return activities.stream().map(Activity::description).toList();
+    }
+}
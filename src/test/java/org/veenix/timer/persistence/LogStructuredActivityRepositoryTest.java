@@ -0,0 +1,194 @@
+package org.veenix.timer.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogStructuredActivityRepositoryTest extends StorageProviderConformanceTest {
+
+    // Four records per segment, so a handful of writes rolls over several segments
+    private static final long SMALL_SEGMENT = LogSegment.HEADER_SIZE + 4L * LogSegment.RECORD_SIZE;
+
+    @TempDir
+    Path tempDir;
+
+    private LogStructuredActivityRepository store;
+
+    @Override
+    protected ActivityRepository openRepository() {
+        store = open(Integer.MAX_VALUE);
+        return store;
+    }
+
+    @Override
+    protected void closeRepository() {
+        store.close();
+    }
+
+    @Test
+    void testReplayRestoresLatestVersionOfEachActivity() {
+        Activity kept = save(LocalDateTime.of(2025, 10, 23, 9, 0), "Kept");
+        Activity deleted = save(LocalDateTime.of(2025, 10, 23, 10, 0), "Deleted");
+        store.update(new Activity(kept.id(), kept.startTime(), kept.startTime().plusHours(3), ActivityType.BUG,
+            ActivityStatus.COMPLETED, "Kept and updated"));
+        store.delete(deleted.id());
+
+        reopen();
+
+        assertEquals(List.of("Kept and updated"), descriptions(store.findAll()));
+        assertEquals(ActivityType.BUG, store.findById(kept.id()).orElseThrow().activityType());
+        // The deleted activity had the highest id; it is not handed out again
+        assertEquals(deleted.id() + 1, save(LocalDateTime.of(2025, 10, 23, 11, 0), "Next").id());
+    }
+
+    @Test
+    void testTornTailIsCutOffOnOpen() throws IOException {
+        save(LocalDateTime.of(2025, 10, 23, 9, 0), "First");
+        save(LocalDateTime.of(2025, 10, 23, 10, 0), "Second");
+        store.close();
+        Path segment = LogSegment.path(tempDir.resolve("log"), 1);
+        // Half a record, as left by a crash during an append
+        Files.write(segment, new byte[LogSegment.RECORD_SIZE / 2], StandardOpenOption.APPEND);
+
+        store = open(Integer.MAX_VALUE);
+
+        assertEquals(List.of("First", "Second"), descriptions(store.findAll()));
+        assertEquals(LogSegment.HEADER_SIZE + 2L * LogSegment.RECORD_SIZE, Files.size(segment));
+        assertEquals("Third", store.findById(save(LocalDateTime.of(2025, 10, 23, 11, 0), "Third").id())
+            .orElseThrow().description());
+    }
+
+    @Test
+    void testTransactionWithoutCommitRecordIsDroppedOnOpen() throws IOException {
+        Activity first = save(LocalDateTime.of(2025, 10, 23, 9, 0), "First");
+        store.inWriteTransaction("test", () -> {
+            store.update(new Activity(first.id(), first.startTime(), first.startTime().plusHours(1),
+                ActivityType.DEVELOP, ActivityStatus.COMPLETED, "First"));
+            return save(LocalDateTime.of(2025, 10, 23, 10, 0), "Second");
+        });
+        assertThrows(IllegalStateException.class, () -> store.inWriteTransaction("test", () -> {
+            save(LocalDateTime.of(2025, 10, 23, 11, 0), "Rolled back");
+            throw new IllegalStateException("Injected failure");
+        }));
+        store.close();
+        Path segment = LogSegment.path(tempDir.resolve("log"), 1);
+        // Nothing of the rolled back transaction reached the file
+        assertEquals(LogSegment.HEADER_SIZE + 3L * LogSegment.RECORD_SIZE, Files.size(segment));
+
+        // A crash after the first record of the committed transaction was written
+        try (var channel = Files.newByteChannel(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(LogSegment.HEADER_SIZE + 2L * LogSegment.RECORD_SIZE);
+        }
+        store = open(Integer.MAX_VALUE);
+
+        assertEquals(List.of(ActivityStatus.ACTIVE), store.findAll().stream().map(Activity::status).toList());
+        assertEquals(LogSegment.HEADER_SIZE + LogSegment.RECORD_SIZE, Files.size(segment));
+    }
+
+    @Test
+    void testCompactionKeepsOnlyLiveRecords() {
+        writeHistory();
+        assertEquals(10, store.segmentCount());
+        List<Activity> before = store.findAll();
+
+        assertEquals(10, store.compact());
+
+        // The compacted segment and a new one to append to
+        assertEquals(2, store.segmentCount());
+        assertEquals(before, store.findAll());
+        reopen();
+        assertEquals(before, store.findAll());
+        assertEquals(2, store.segmentCount());
+    }
+
+    @Test
+    void testReplacedSegmentLeftByInterruptedCompactionIsIgnored() throws IOException {
+        writeHistory();
+        Path directory = tempDir.resolve("log");
+        Path first = LogSegment.path(directory, 1);
+        byte[] original = Files.readAllBytes(first);
+        List<Activity> before = store.findAll();
+        store.compact();
+        store.close();
+
+        // The crash came after the compacted segment was moved in but before the old ones were deleted
+        Files.write(first, original);
+        Files.write(directory.resolve("segment-9999999999.log.compact"), new byte[10]);
+        store = open(Integer.MAX_VALUE);
+
+        assertEquals(before, store.findAll());
+        assertFalse(Files.exists(first));
+        assertFalse(Files.exists(directory.resolve("segment-9999999999.log.compact")));
+    }
+
+    @Test
+    void testSealedSegmentsAreCompactedInTheBackground() throws InterruptedException {
+        store.close();
+        store = open(LogStructuredActivityRepository.COMPACTION_TRIGGER);
+        writeHistory();
+        List<Activity> before = store.findAll();
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (store.segmentCount() > LogStructuredActivityRepository.COMPACTION_TRIGGER
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertTrue(store.segmentCount() <= LogStructuredActivityRepository.COMPACTION_TRIGGER);
+        assertEquals(before, store.findAll());
+    }
+
+    @Test
+    void testStoreCannotBeOpenedTwice() {
+        assertThrows(IllegalStateException.class,
+            () -> new LogStructuredActivityRepository(tempDir.resolve("log")));
+    }
+
+    // 12 activities, each updated twice, and every third one deleted: 40 records over 10 segments
+    private void writeHistory() {
+        for (int i = 0; i < 12; i++) {
+            Activity activity = save(LocalDateTime.of(2025, 10, 23, 8, 0).plusMinutes(30L * i), "Activity " + i);
+            Activity renamed = new Activity(activity.id(), activity.startTime(), activity.startTime().plusMinutes(20),
+                ActivityType.DEVELOP, ActivityStatus.COMPLETED, "Renamed " + i);
+            store.update(renamed);
+            store.update(new Activity(renamed.id(), renamed.startTime(), renamed.endTime(), ActivityType.MEETING,
+                ActivityStatus.COMPLETED, renamed.description()));
+            if (i % 3 == 0) {
+                store.delete(activity.id());
+            }
+        }
+    }
+
+    private void reopen() {
+        store.close();
+        store = open(Integer.MAX_VALUE);
+    }
+
+    private LogStructuredActivityRepository open(int compactionTrigger) {
+        return new LogStructuredActivityRepository(tempDir.resolve("log"), SMALL_SEGMENT, compactionTrigger);
+    }
+
+    private Activity save(LocalDateTime start, String description) {
+        return store.save(Activity.builder()
+            .startTime(start)
+            .activityType(ActivityType.DEVELOP)
+            .status(ActivityStatus.ACTIVE)
+            .description(description)
+            .build());
+    }
+
+    private static List<String> descriptions(List<Activity> activities) {
+        return activities.stream().map(Activity::description).toList();
+    }
+}
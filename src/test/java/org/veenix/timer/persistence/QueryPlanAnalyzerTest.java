@@ -0,0 +1,109 @@
+package org.veenix.timer.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryPlanAnalyzerTest {
+
+    private static final String TEST_DB = "test_query_plan.db";
+    private DatabaseConnection dbConnection;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        dbConnection = new DatabaseConnection("jdbc:sqlite:" + TEST_DB);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dbConnection.close();
+        new File(TEST_DB).delete();
+        new File(TEST_DB + "-wal").delete();
+        new File(TEST_DB + "-shm").delete();
+    }
+
+    @Test
+    void testStatementsExcludeMigrationsAndPragmas() {
+        Map<String, String> statements = QueryPlanAnalyzer.statements();
+
+        assertTrue(statements.containsKey("SELECT_ACTIVITY_BY_ID"));
+        assertTrue(statements.containsKey("INSERT_ACTIVITY"));
+        assertFalse(statements.containsKey("POPULATE_DESCRIPTION_TABLE"));
+        assertFalse(statements.containsKey("ENABLE_WAL"));
+        assertFalse(statements.containsKey("CREATE_ACTIVITY_TABLE"));
+        assertFalse(statements.containsKey("ACTIVITY_ARCHIVE_BRANCH"));
+    }
+
+    @Test
+    void testAnalyzeAllFlagsFullScans() {
+        List<QueryPlanAnalyzer.Plan> plans = new QueryPlanAnalyzer(dbConnection).analyzeAll();
+
+        assertEquals(QueryPlanAnalyzer.statements().size(), plans.size());
+        assertFalse(plan(plans, "SELECT_ACTIVITY_BY_ID").fullScan());
+        assertFalse(plan(plans, "SELECT_ACTIVITIES_PAGE_AFTER").fullScan());
+        assertTrue(plan(plans, "UPDATE_ACTIVITIES_STATUS_BY_STATUS").fullScan());
+    }
+
+    @Test
+    void testIsFullScan() {
+        assertTrue(QueryPlanAnalyzer.isFullScan("SCAN activity"));
+        assertTrue(QueryPlanAnalyzer.isFullScan("  SCAN a USING INDEX idx_activity_start_time"));
+        assertFalse(QueryPlanAnalyzer.isFullScan("SEARCH a USING INTEGER PRIMARY KEY (rowid=?)"));
+        assertFalse(QueryPlanAnalyzer.isFullScan("SCAN activity_description_fts VIRTUAL TABLE INDEX 0:M1"));
+        assertFalse(QueryPlanAnalyzer.isFullScan("SCAN CONSTANT ROW"));
+    }
+
+    @Test
+    void testSlowQueryLogRecordsParametersAndPlan() throws Exception {
+        Path log = tempDir.resolve("slow.log");
+        // Every statement is at least one nanosecond slow
+        dbConnection.setSlowQueryLog(Duration.ofNanos(1), log);
+        ActivityRepository repository = new ActivityRepositoryImpl(dbConnection);
+
+        repository.save(Activity.builder()
+                .startTime(LocalDateTime.of(2025, 10, 23, 9, 0))
+                .activityType(ActivityType.DEVELOP)
+                .status(ActivityStatus.COMPLETED)
+                .description("It's logged")
+                .build());
+        repository.findByStatus(ActivityStatus.COMPLETED);
+
+        String content = Files.readString(log);
+        assertTrue(content.contains(" findByStatus "));
+        assertTrue(content.contains("1 row"));
+        assertTrue(content.contains("# parameters: [1='COMPLETED']"));
+        assertTrue(content.contains("#   SCAN a"));
+        assertTrue(content.contains("# parameters: [1='2025-10-23T09:00', 2=NULL, 3='DEVELOP', 4='COMPLETED', 5="));
+    }
+
+    @Test
+    void testSlowQueryLogDisabled() {
+        Path log = tempDir.resolve("slow.log");
+        dbConnection.setSlowQueryLog(Duration.ZERO, log);
+
+        new ActivityRepositoryImpl(dbConnection).findAll();
+
+        assertFalse(Files.exists(log));
+    }
+
+    private QueryPlanAnalyzer.Plan plan(List<QueryPlanAnalyzer.Plan> plans, String name) {
+        return plans.stream().filter(p -> p.name().equals(name)).findFirst().orElseThrow();
+    }
+}
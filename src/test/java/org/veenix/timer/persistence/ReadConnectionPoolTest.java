@@ -0,0 +1,138 @@
+package org.veenix.timer.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadConnectionPoolTest {
+
+    private static final String TEST_DB = "test_read_pool.db";
+    private DatabaseConnection dbConnection;
+
+    @BeforeEach
+    void setUp() {
+        dbConnection = new DatabaseConnection("jdbc:sqlite:" + TEST_DB, 2);
+        // Create the schema through the writer
+        dbConnection.getConnection();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dbConnection.close();
+        new File(TEST_DB).delete();
+        new File(TEST_DB + "-wal").delete();
+        new File(TEST_DB + "-shm").delete();
+    }
+
+    @Test
+    void testDatabaseUsesWalJournalMode() throws SQLException {
+        try (Statement stmt = dbConnection.getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA journal_mode")) {
+            assertTrue(rs.next());
+            assertEquals("wal", rs.getString(1).toLowerCase());
+        }
+    }
+
+    @Test
+    void testReadConnectionIsSeparateFromWriter() {
+        try (ReadConnectionPool.Lease lease = dbConnection.getReadConnection()) {
+            assertNotSame(dbConnection.getConnection(), lease.connection());
+        }
+    }
+
+    @Test
+    void testReadConnectionRejectsWrites() {
+        try (ReadConnectionPool.Lease lease = dbConnection.getReadConnection();
+             Statement stmt = lease.connection().createStatement()) {
+            assertThrows(SQLException.class, () -> stmt.executeUpdate(
+                "INSERT INTO activity (start_time, activity_type, status) VALUES ('2025-10-23T09:00', 'BUG', 'ACTIVE')"));
+        } catch (SQLException e) {
+            fail(e);
+        }
+    }
+
+    @Test
+    void testReadConnectionIsReused() {
+        Connection first;
+        try (ReadConnectionPool.Lease lease = dbConnection.getReadConnection()) {
+            first = lease.connection();
+        }
+        try (ReadConnectionPool.Lease lease = dbConnection.getReadConnection()) {
+            assertSame(first, lease.connection());
+        }
+
+        PoolMetrics metrics = dbConnection.getPoolMetrics();
+        assertEquals(1, metrics.created());
+        assertEquals(2, metrics.acquisitions());
+        assertEquals(0, metrics.active());
+        assertEquals(1, metrics.idle());
+    }
+
+    @Test
+    void testActiveCountTracksLeases() {
+        try (ReadConnectionPool.Lease first = dbConnection.getReadConnection();
+             ReadConnectionPool.Lease second = dbConnection.getReadConnection()) {
+            assertNotSame(first.connection(), second.connection());
+            assertEquals(2, dbConnection.getPoolMetrics().active());
+        }
+        assertEquals(0, dbConnection.getPoolMetrics().active());
+        assertEquals(2, dbConnection.getPoolMetrics().idle());
+    }
+
+    @Test
+    void testAcquireTimesOutWhenPoolExhausted() {
+        ReadConnectionPool pool = new ReadConnectionPool("jdbc:sqlite:" + TEST_DB, 1, 60_000, 50);
+        try (ReadConnectionPool.Lease lease = pool.acquire()) {
+            assertNotNull(lease.connection());
+            assertThrows(RuntimeException.class, pool::acquire);
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    void testIdleConnectionsAreEvicted() {
+        ReadConnectionPool pool = new ReadConnectionPool("jdbc:sqlite:" + TEST_DB, 2, 0, 1_000);
+        try {
+            pool.acquire().close();
+            pool.acquire().close();
+
+            PoolMetrics metrics = pool.metrics();
+            assertEquals(0, metrics.idle());
+            assertEquals(2, metrics.created());
+            assertTrue(metrics.evicted() >= 1);
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    void testReaderSeesCommittedWrites() {
+        ActivityRepository repository = new ActivityRepositoryImpl(dbConnection);
+
+        // Warm up a pooled reader before the write
+        assertTrue(repository.findAll().isEmpty());
+
+        Activity saved = repository.save(Activity.builder()
+                .startTime(LocalDateTime.of(2025, 10, 23, 9, 0))
+                .activityType(ActivityType.DEVELOP)
+                .status(ActivityStatus.ACTIVE)
+                .description("Visible to readers")
+                .build());
+
+        assertTrue(repository.findById(saved.id()).isPresent());
+        assertEquals(1, repository.findAll().size());
+    }
+}
@@ -0,0 +1,141 @@
+package org.veenix.timer.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaMigrationsTest {
+
+    private static final String TEST_DB = "test_schema_migrations.db";
+    private DatabaseConnection dbConnection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        // Database in the original schema with repeated descriptions
+        try (Connection legacy = DriverManager.getConnection("jdbc:sqlite:" + TEST_DB);
+             Statement stmt = legacy.createStatement()) {
+            stmt.execute(SqlQueries.CREATE_ACTIVITY_TABLE);
+            stmt.execute("INSERT INTO activity (start_time, end_time, activity_type, status, description) VALUES " +
+                "('2025-10-23T09:00', '2025-10-23T10:00', 'DEVELOP', 'COMPLETED', 'PROJ-1 login'), " +
+                "('2025-10-24T09:00', '2025-10-24T10:00', 'DEVELOP', 'COMPLETED', 'PROJ-1 login'), " +
+                "('2025-10-25T09:00', '2025-10-25T10:00', 'MEETING', 'COMPLETED', 'Standup'), " +
+                "('2025-10-26T09:00', NULL, 'GENERAL', 'ACTIVE', NULL)");
+        }
+        dbConnection = new DatabaseConnection("jdbc:sqlite:" + TEST_DB);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dbConnection.close();
+        new File(TEST_DB).delete();
+    }
+
+    @Test
+    void testMigrationDeduplicatesDescriptions() throws SQLException {
+        Connection connection = dbConnection.getConnection();
+
+        assertEquals(SchemaMigrations.latestVersion(), SchemaMigrations.currentVersion(connection));
+        assertEquals(2, count(connection, "SELECT COUNT(*) FROM activity_description"));
+        assertEquals(4, count(connection, "SELECT COUNT(*) FROM activity"));
+    }
+
+    @Test
+    void testFullOptimizeEnablesIncrementalAutoVacuum() throws SQLException {
+        Connection connection = dbConnection.getConnection();
+        DatabaseMaintenance maintenance = new DatabaseMaintenance(dbConnection);
+
+        // The migration does not rewrite an existing file; the conversion waits for a full optimize
+        assertFalse(maintenance.incrementalAutoVacuum());
+        assertEquals(0, count(connection, SqlQueries.SELECT_MAINTENANCE));
+
+        maintenance.optimize(true);
+
+        assertTrue(maintenance.incrementalAutoVacuum());
+    }
+
+    @Test
+    void testMigrationDropsInlineDescriptionColumn() throws SQLException {
+        Connection connection = dbConnection.getConnection();
+
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT name FROM pragma_table_info('activity')")) {
+            while (rs.next()) {
+                assertNotEquals("description", rs.getString(1));
+            }
+        }
+    }
+
+    @Test
+    void testMigratedActivitiesKeepDescriptions() {
+        ActivityRepository repository = new ActivityRepositoryImpl(dbConnection);
+
+        List<Activity> activities = repository.findAll();
+
+        assertEquals(List.of("PROJ-1 login", "PROJ-1 login", "Standup"),
+            activities.stream().map(Activity::description).limit(3).toList());
+        assertNull(activities.get(3).description());
+    }
+
+    @Test
+    void testRepeatedDescriptionsShareOneInstance() {
+        ActivityRepository repository = new ActivityRepositoryImpl(dbConnection);
+
+        List<Activity> activities = repository.findAll();
+
+        assertSame(activities.get(0).description(), activities.get(1).description());
+    }
+
+    @Test
+    void testSavingKnownDescriptionReusesDictionaryEntry() throws SQLException {
+        ActivityRepository repository = new ActivityRepositoryImpl(dbConnection);
+
+        repository.save(Activity.builder()
+                .startTime(LocalDateTime.of(2025, 10, 27, 9, 0))
+                .activityType(ActivityType.MEETING)
+                .status(ActivityStatus.ACTIVE)
+                .description("Standup")
+                .build());
+        repository.save(Activity.builder()
+                .startTime(LocalDateTime.of(2025, 10, 27, 10, 0))
+                .activityType(ActivityType.DEVELOP)
+                .status(ActivityStatus.ACTIVE)
+                .description("Brand new")
+                .build());
+
+        assertEquals(3, count(dbConnection.getConnection(), "SELECT COUNT(*) FROM activity_description"));
+    }
+
+    @Test
+    void testMigrationIsNotReappliedOnReopen() throws SQLException {
+        dbConnection.getConnection();
+        dbConnection.close();
+
+        dbConnection = new DatabaseConnection("jdbc:sqlite:" + TEST_DB);
+        Connection connection = dbConnection.getConnection();
+
+        assertEquals(SchemaMigrations.latestVersion(), SchemaMigrations.currentVersion(connection));
+        assertEquals(2, count(connection, "SELECT COUNT(*) FROM activity_description"));
+    }
+
+    private int count(Connection connection, String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
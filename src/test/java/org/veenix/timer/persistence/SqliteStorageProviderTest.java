@@ -0,0 +1,60 @@
+package org.veenix.timer.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqliteStorageProviderTest extends StorageProviderConformanceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseConnection dbConnection;
+
+    @Override
+    protected ActivityRepository openRepository() {
+        dbConnection = new DatabaseConnection("jdbc:sqlite:" + tempDir.resolve("timer.db"));
+        return new ActivityRepositoryImpl(dbConnection);
+    }
+
+    @Override
+    protected void closeRepository() {
+        dbConnection.close();
+    }
+
+    @AfterEach
+    void resetProviders() {
+        StorageProviders.reset();
+    }
+
+    @Test
+    void testProviderIsDiscoveredByName() {
+        List<String> names = StorageProviders.available().stream().map(StorageProvider::name).toList();
+
+        assertTrue(names.contains(SqliteStorageProvider.NAME));
+        assertInstanceOf(SqliteStorageProvider.class, StorageProviders.provider("SQLite"));
+    }
+
+    @Test
+    void testOnlySqliteUsesTheDatabase() {
+        assertTrue(StorageProviders.usesDatabase());
+        assertFalse(StorageProviders.provider(LogStorageProvider.NAME).usesDatabase());
+
+        StorageProviders.configure(InMemoryStorageProvider.NAME);
+
+        assertFalse(StorageProviders.usesDatabase());
+    }
+
+    @Test
+    void testUnknownBackendListsAvailableProviders() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> StorageProviders.configure("punchcards"));
+        assertTrue(e.getMessage().contains("punchcards"));
+        assertTrue(e.getMessage().contains(SqliteStorageProvider.NAME));
+    }
+}
@@ -0,0 +1,294 @@
+package org.veenix.timer.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The behaviour every {@link StorageProvider} must offer, as seen through its {@link ActivityRepository}.
+ * A backend's test extends this class and returns an empty repository from {@link #openRepository()};
+ * {@link #closeRepository()} releases it after each test.
+ */
+abstract class StorageProviderConformanceTest {
+
+    protected ActivityRepository repository;
+
+    protected abstract ActivityRepository openRepository();
+
+    protected void closeRepository() {
+    }
+
+    @BeforeEach
+    void openStore() {
+        repository = openRepository();
+    }
+
+    @AfterEach
+    void closeStore() {
+        closeRepository();
+    }
+
+    @Test
+    void testSaveAssignsIdsAndRoundTripsEveryField() {
+        LocalDateTime start = LocalDateTime.of(2025, 10, 23, 9, 15, 30);
+        Activity completed = repository.save(activity(start, start.plusMinutes(45), ActivityType.MEETING,
+            ActivityStatus.COMPLETED, "Stand-up"));
+        Activity active = repository.save(activity(start.plusHours(1), null, ActivityType.DEVELOP,
+            ActivityStatus.ACTIVE, null));
+
+        assertNotNull(completed.id());
+        assertNotNull(active.id());
+        assertNotEquals(completed.id(), active.id());
+
+        Activity found = repository.findById(completed.id()).orElseThrow();
+        assertEquals(start, found.startTime());
+        assertEquals(start.plusMinutes(45), found.endTime());
+        assertEquals(ActivityType.MEETING, found.activityType());
+        assertEquals(ActivityStatus.COMPLETED, found.status());
+        assertEquals("Stand-up", found.description());
+
+        Activity foundActive = repository.findById(active.id()).orElseThrow();
+        assertNull(foundActive.endTime());
+        assertNull(foundActive.description());
+        assertTrue(repository.findById(Long.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    void testUpdateReplacesFields() {
+        LocalDateTime start = LocalDateTime.of(2025, 10, 23, 9, 0);
+        Activity saved = repository.save(activity(start, null, ActivityType.DEVELOP, ActivityStatus.ACTIVE, "Draft"));
+
+        repository.update(new Activity(saved.id(), start, start.plusHours(2), ActivityType.BUG,
+            ActivityStatus.COMPLETED, "Final"));
+
+        Activity found = repository.findById(saved.id()).orElseThrow();
+        assertEquals(start.plusHours(2), found.endTime());
+        assertEquals(ActivityStatus.COMPLETED, found.status());
+        assertEquals(ActivityType.BUG, found.activityType());
+        assertEquals("Final", found.description());
+    }
+
+    @Test
+    void testUpdateRejectsMissingActivity() {
+        Activity unsaved = activity(LocalDateTime.of(2025, 10, 23, 9, 0), null, ActivityType.DEVELOP,
+            ActivityStatus.ACTIVE, "Unsaved");
+
+        assertThrows(IllegalArgumentException.class, () -> repository.update(unsaved));
+        assertThrows(RuntimeException.class, () -> repository.update(new Activity(Long.MAX_VALUE,
+            unsaved.startTime(), null, unsaved.activityType(), unsaved.status(), unsaved.description())));
+    }
+
+    @Test
+    void testDeleteRemovesOnlyThatActivity() {
+        Activity first = save(LocalDateTime.of(2025, 10, 23, 9, 0), ActivityStatus.COMPLETED, "First");
+        Activity second = save(LocalDateTime.of(2025, 10, 23, 10, 0), ActivityStatus.COMPLETED, "Second");
+
+        repository.delete(first.id());
+
+        assertTrue(repository.findById(first.id()).isEmpty());
+        assertEquals(List.of(second.id()), repository.findAll().stream().map(Activity::id).toList());
+    }
+
+    @Test
+    void testFindAllIsChronological() {
+        save(LocalDateTime.of(2025, 10, 24, 9, 0), ActivityStatus.COMPLETED, "Third");
+        save(LocalDateTime.of(2025, 10, 22, 9, 0), ActivityStatus.COMPLETED, "First");
+        save(LocalDateTime.of(2025, 10, 23, 9, 0), ActivityStatus.COMPLETED, "Second");
+
+        assertEquals(List.of("First", "Second", "Third"), descriptions(repository.findAll()));
+    }
+
+    @Test
+    void testFindByStatusAndTypeAreNewestFirst() {
+        save(LocalDateTime.of(2025, 10, 22, 9, 0), ActivityStatus.COMPLETED, "Old");
+        save(LocalDateTime.of(2025, 10, 23, 9, 0), ActivityStatus.ACTIVE, "Running");
+        save(LocalDateTime.of(2025, 10, 24, 9, 0), ActivityStatus.COMPLETED, "New");
+        repository.save(activity(LocalDateTime.of(2025, 10, 25, 9, 0), null, ActivityType.MEETING,
+            ActivityStatus.ACTIVE, "Meeting"));
+
+        assertEquals(List.of("New", "Old"), descriptions(repository.findByStatus(ActivityStatus.COMPLETED)));
+        assertEquals(List.of("New", "Running", "Old"), descriptions(repository.findByType(ActivityType.DEVELOP)));
+        assertEquals(List.of("Meeting"), descriptions(repository.findByType(ActivityType.MEETING)));
+    }
+
+    @Test
+    void testFindByStartTimeMatchesTheWholeDay() {
+        save(LocalDateTime.of(2025, 10, 22, 23, 59), ActivityStatus.COMPLETED, "Day before");
+        save(LocalDateTime.of(2025, 10, 23, 17, 0), ActivityStatus.COMPLETED, "Afternoon");
+        save(LocalDateTime.of(2025, 10, 23, 0, 0), ActivityStatus.COMPLETED, "Midnight");
+        save(LocalDateTime.of(2025, 10, 24, 0, 0), ActivityStatus.COMPLETED, "Day after");
+
+        assertEquals(List.of("Midnight", "Afternoon"),
+            descriptions(repository.findByStartTime(LocalDateTime.of(2025, 10, 23, 12, 0))));
+    }
+
+    @Test
+    void testFindByDateRangeIncludesBothDays() {
+        save(LocalDateTime.of(2025, 10, 21, 23, 0), ActivityStatus.COMPLETED, "Before");
+        save(LocalDateTime.of(2025, 10, 22, 8, 0), ActivityStatus.COMPLETED, "First day");
+        save(LocalDateTime.of(2025, 10, 24, 22, 0), ActivityStatus.COMPLETED, "Last day");
+        save(LocalDateTime.of(2025, 10, 25, 1, 0), ActivityStatus.COMPLETED, "After");
+
+        assertEquals(List.of("First day", "Last day"), descriptions(repository.findByDateRange(
+            LocalDateTime.of(2025, 10, 22, 12, 0), LocalDateTime.of(2025, 10, 24, 0, 0))));
+    }
+
+    @Test
+    void testDayQueriesIgnoreTheTimeOfDay() {
+        save(LocalDateTime.of(2025, 10, 23, 0, 0, 0, 1), ActivityStatus.COMPLETED, "Just after midnight");
+        save(LocalDateTime.of(2025, 10, 23, 23, 59, 59, 999_999_999), ActivityStatus.COMPLETED, "Just before midnight");
+
+        assertEquals(List.of("Just after midnight", "Just before midnight"),
+            descriptions(repository.findByStartTime(LocalDateTime.of(2025, 10, 23, 23, 59, 59, 999_999_999))));
+        assertEquals(List.of("Just after midnight", "Just before midnight"), descriptions(repository.findByDateRange(
+            LocalDateTime.of(2025, 10, 23, 23, 0), LocalDateTime.of(2025, 10, 23, 1, 0))));
+        assertEquals(List.of(), repository.findByDateRange(
+            LocalDateTime.of(2025, 10, 24, 0, 0), LocalDateTime.of(2025, 10, 23, 0, 0)));
+    }
+
+    @Test
+    void testUpdateMovesActivityBetweenStatusTypeAndDay() {
+        LocalDateTime start = LocalDateTime.of(2025, 10, 23, 9, 0);
+        Activity saved = save(start, ActivityStatus.ACTIVE, "Moved");
+
+        repository.update(new Activity(saved.id(), start.plusDays(1), start.plusDays(1).plusHours(1),
+            ActivityType.MEETING, ActivityStatus.COMPLETED, "Moved"));
+
+        assertTrue(repository.findByStatus(ActivityStatus.ACTIVE).isEmpty());
+        assertTrue(repository.findByType(ActivityType.DEVELOP).isEmpty());
+        assertTrue(repository.findByStartTime(start).isEmpty());
+        assertEquals(List.of("Moved"), descriptions(repository.findByStatus(ActivityStatus.COMPLETED)));
+        assertEquals(List.of("Moved"), descriptions(repository.findByType(ActivityType.MEETING)));
+        assertEquals(List.of("Moved"), descriptions(repository.findByStartTime(start.plusDays(1))));
+        assertEquals(1, repository.findAll().size());
+    }
+
+    @Test
+    void testPagesWalkTiesInIdOrderBothWays() {
+        LocalDateTime start = LocalDateTime.of(2025, 10, 23, 9, 0);
+        List<Activity> saved = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            // Pairs of activities share a start time
+            saved.add(save(start.plusHours(i / 2), ActivityStatus.COMPLETED, "Activity " + i));
+        }
+
+        List<Activity> forward = new ArrayList<>();
+        List<Activity> page = repository.findPageAfter(null, null, null, 2);
+        while (!page.isEmpty()) {
+            assertTrue(page.size() <= 2);
+            forward.addAll(page);
+            page = repository.findPageAfter(null, null, PageCursor.of(page.get(page.size() - 1)), 2);
+        }
+        assertEquals(saved.stream().map(Activity::id).toList(), forward.stream().map(Activity::id).toList());
+
+        List<Activity> previous = repository.findPageBefore(null, null, PageCursor.of(saved.get(4)), 3);
+        assertEquals(saved.subList(1, 4).stream().map(Activity::id).toList(),
+            previous.stream().map(Activity::id).toList());
+        assertEquals(List.of(), repository.findPageBefore(null, null, PageCursor.of(saved.get(0)), 3));
+    }
+
+    @Test
+    void testPagesRespectHalfOpenBounds() {
+        save(LocalDateTime.of(2025, 10, 22, 9, 0), ActivityStatus.COMPLETED, "Before");
+        save(LocalDateTime.of(2025, 10, 23, 0, 0), ActivityStatus.COMPLETED, "At from");
+        save(LocalDateTime.of(2025, 10, 23, 9, 0), ActivityStatus.COMPLETED, "Inside");
+        save(LocalDateTime.of(2025, 10, 24, 0, 0), ActivityStatus.COMPLETED, "At to");
+
+        LocalDateTime from = LocalDateTime.of(2025, 10, 23, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 10, 24, 0, 0);
+        assertEquals(List.of("At from", "Inside"), descriptions(repository.findPageAfter(from, to, null, 10)));
+        PageCursor end = new PageCursor(LocalDateTime.of(2025, 10, 25, 0, 0), Long.MAX_VALUE);
+        assertEquals(List.of("At from", "Inside"), descriptions(repository.findPageBefore(from, to, end, 10)));
+        assertThrows(IllegalArgumentException.class, () -> repository.findPageBefore(from, to, null, 10));
+    }
+
+    @Test
+    void testUpdateStatusByStatusCompletesActiveActivities() {
+        LocalDateTime end = LocalDateTime.of(2025, 10, 23, 18, 0);
+        Activity running = save(LocalDateTime.of(2025, 10, 23, 9, 0), ActivityStatus.ACTIVE, "Running");
+        Activity done = save(LocalDateTime.of(2025, 10, 22, 9, 0), ActivityStatus.COMPLETED, "Done");
+
+        repository.updateStatusByStatus(ActivityStatus.ACTIVE, ActivityStatus.COMPLETED, end);
+
+        assertTrue(repository.findByStatus(ActivityStatus.ACTIVE).isEmpty());
+        Activity completed = repository.findById(running.id()).orElseThrow();
+        assertEquals(ActivityStatus.COMPLETED, completed.status());
+        assertEquals(end, completed.endTime());
+        assertEquals(done.endTime(), repository.findById(done.id()).orElseThrow().endTime());
+    }
+
+    @Test
+    void testWriteTransactionRollsBackOnException() {
+        Activity running = save(LocalDateTime.of(2025, 10, 23, 9, 0), ActivityStatus.ACTIVE, "Running");
+        Activity deleted = save(LocalDateTime.of(2025, 10, 23, 8, 0), ActivityStatus.COMPLETED, "Deleted");
+        List<Activity> before = repository.findAll();
+
+        IllegalStateException failure = new IllegalStateException("Injected failure");
+        assertSame(failure, assertThrows(IllegalStateException.class, () ->
+            repository.inWriteTransaction("conformance", () -> {
+                repository.updateStatusByStatus(ActivityStatus.ACTIVE, ActivityStatus.COMPLETED, LocalDateTime.now());
+                repository.delete(deleted.id());
+                Activity started = save(LocalDateTime.of(2025, 10, 23, 10, 0), ActivityStatus.ACTIVE, "Started");
+                repository.update(new Activity(started.id(), started.startTime(), null, ActivityType.BUG,
+                    ActivityStatus.ACTIVE, "Started and edited"));
+
+                // The transaction sees its own writes
+                assertEquals(List.of("Started and edited"), descriptions(repository.findByStatus(ActivityStatus.ACTIVE)));
+                assertTrue(repository.findById(deleted.id()).isEmpty());
+                throw failure;
+            })));
+
+        assertEquals(before, repository.findAll());
+        assertEquals(List.of(running), repository.findByStatus(ActivityStatus.ACTIVE));
+
+        Activity saved = repository.inWriteTransaction("conformance", () -> {
+            repository.updateStatusByStatus(ActivityStatus.ACTIVE, ActivityStatus.COMPLETED, LocalDateTime.now());
+            return save(LocalDateTime.of(2025, 10, 23, 10, 0), ActivityStatus.ACTIVE, "Committed");
+        });
+
+        assertEquals(List.of(saved), repository.findByStatus(ActivityStatus.ACTIVE));
+        assertEquals(ActivityStatus.COMPLETED, repository.findById(running.id()).orElseThrow().status());
+    }
+
+    @Test
+    void testIdsAreNotReusedAfterDelete() {
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            Activity saved = save(LocalDateTime.of(2025, 10, 23, 9 + i, 0), ActivityStatus.COMPLETED, "Activity " + i);
+            assertTrue(ids.add(saved.id()));
+            repository.delete(saved.id());
+        }
+        assertTrue(repository.findAll().isEmpty());
+    }
+
+    private Activity save(LocalDateTime start, ActivityStatus status, String description) {
+        return repository.save(activity(start, status == ActivityStatus.COMPLETED ? start.plusHours(1) : null,
+            ActivityType.DEVELOP, status, description));
+    }
+
+    private static Activity activity(LocalDateTime start, LocalDateTime end, ActivityType type,
+                                     ActivityStatus status, String description) {
+        return Activity.builder()
+            .startTime(start)
+            .endTime(end)
+            .activityType(type)
+            .status(status)
+            .description(description)
+            .build();
+    }
+
+    private static List<String> descriptions(List<Activity> activities) {
+        return activities.stream().map(Activity::description).toList();
+    }
+}
@@ -0,0 +1,255 @@
+package org.veenix.timer.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.veenix.timer.metrics.MetricsRegistry;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+import org.veenix.timer.persistence.ActivityRepositoryImpl;
+import org.veenix.timer.persistence.DatabaseConnection;
+import org.veenix.timer.service.ActivityService;
+import org.veenix.timer.service.ConfigurationService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiServerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseConnection dbConnection;
+    private ActivityRepositoryImpl repository;
+    private ApiServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dbConnection = new DatabaseConnection("jdbc:sqlite:" + tempDir.resolve("api.db"));
+        repository = new ActivityRepositoryImpl(dbConnection);
+        ActivityService service = new ActivityService(repository,
+            new ConfigurationService(tempDir.resolve("timer.properties")));
+        server = new ApiServer(0, repository, service, () -> ActivityType.GENERAL, new MetricsRegistry());
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+        client.close();
+        dbConnection.close();
+    }
+
+    @Test
+    void testStartAndStopTimer() throws Exception {
+        HttpResponse<String> started = send("POST", "/api/timer/start?type=bug&description=Fix%20%22login%22&start=09:15");
+        assertEquals(201, started.statusCode());
+        assertTrue(started.body().contains("\"activityType\":\"BUG\""));
+        assertTrue(started.body().contains("\"description\":\"Fix \\\"login\\\"\""));
+        assertTrue(started.body().contains("T09:15\""));
+
+        HttpResponse<String> active = send("GET", "/api/activities/active");
+        assertEquals(200, active.statusCode());
+        assertTrue(active.body().contains("\"status\":\"ACTIVE\""));
+
+        HttpResponse<String> stopped = send("POST", "/api/timer/stop");
+        assertEquals(200, stopped.statusCode());
+        assertTrue(stopped.body().contains("\"status\":\"COMPLETED\""));
+        assertEquals("[]", send("GET", "/api/activities/active").body());
+        assertEquals(404, send("POST", "/api/timer/stop").statusCode());
+    }
+
+    @Test
+    void testStartWithFormBodyUsesDefaultType() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/timer/start"))
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .header(ApiServer.CLIENT_HEADER, "test")
+            .POST(HttpRequest.BodyPublishers.ofString("description=Stand-up"))
+            .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(201, response.statusCode());
+        assertTrue(response.body().contains("\"activityType\":\"GENERAL\""));
+        assertTrue(response.body().contains("\"description\":\"Stand-up\""));
+    }
+
+    @Test
+    void testConfigurationEditsApplyWhileServing() throws Exception {
+        Path file = tempDir.resolve("serve.properties");
+        ConfigurationService configService = new ConfigurationService(file);
+        configService.watchForChanges();
+        try (ApiServer watching = new ApiServer(0, repository, new ActivityService(repository, configService),
+                configService::getDefaultActivityType, new MetricsRegistry())) {
+            watching.start();
+            Files.writeString(file, "default.activity.type=MEETING\n");
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(5)));
+
+            // The JDK polls on some platforms, so allow a generous timeout
+            long deadline = System.currentTimeMillis() + 15_000;
+            while (configService.getDefaultActivityType() != ActivityType.MEETING && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            HttpRequest request = HttpRequest.newBuilder(
+                    URI.create("http://127.0.0.1:" + watching.address().getPort() + "/api/timer/start"))
+                .header(ApiServer.CLIENT_HEADER, "test")
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+            HttpResponse<String> started = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(201, started.statusCode());
+            assertTrue(started.body().contains("\"activityType\":\"MEETING\""));
+        } finally {
+            configService.stopWatching();
+        }
+    }
+
+    @Test
+    void testRangeListingStreamsEveryPage() throws Exception {
+        // More than two pages, over two days, plus one activity outside the range
+        int count = ApiServer.PAGE_SIZE * 2 + 7;
+        LocalDateTime start = LocalDateTime.of(2025, 10, 23, 0, 0);
+        for (int i = 0; i < count; i++) {
+            save(start.plusMinutes(2L * i), "Activity " + i);
+        }
+        save(LocalDateTime.of(2025, 10, 26, 9, 0), "Outside");
+
+        HttpResponse<String> response = send("GET", "/api/activities?from=2025-10-23&to=2025-10-24");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("application/json; charset=utf-8", response.headers().firstValue("Content-Type").orElseThrow());
+        assertEquals(count, occurrences(response.body(), "\"id\":"));
+        assertTrue(response.body().startsWith("[{\"id\":"));
+        assertTrue(response.body().endsWith("}]"));
+        assertFalse(response.body().contains("Outside"));
+    }
+
+    @Test
+    void testGetAndDeleteActivity() throws Exception {
+        Activity activity = save(LocalDateTime.of(2025, 10, 23, 9, 0), "Review");
+
+        HttpResponse<String> found = send("GET", "/api/activities/" + activity.id());
+        assertEquals(200, found.statusCode());
+        assertTrue(found.body().contains("\"description\":\"Review\""));
+
+        assertEquals(204, send("DELETE", "/api/activities/" + activity.id()).statusCode());
+        assertTrue(repository.findById(activity.id()).isEmpty());
+
+        HttpResponse<String> missing = send("GET", "/api/activities/" + activity.id());
+        assertEquals(404, missing.statusCode());
+        assertEquals("{\"error\":\"Activity " + activity.id() + " not found\"}", missing.body());
+    }
+
+    @Test
+    void testInvalidRequestsAreRejected() throws Exception {
+        assertEquals(400, send("GET", "/api/activities/abc").statusCode());
+        assertEquals(400, send("GET", "/api/activities?from=23-10-2025").statusCode());
+        assertEquals(400, send("POST", "/api/timer/start?type=LUNCH").statusCode());
+        assertEquals(400, send("POST", "/api/timer/restart").statusCode());
+        assertEquals(405, send("GET", "/api/timer/stop").statusCode());
+    }
+
+    @Test
+    void testBrowserFormPostsAndCrossOriginRequestsAreRejected() throws Exception {
+        // What a page can send without a preflight: a form post without custom headers
+        HttpRequest form = HttpRequest.newBuilder(uri("/api/timer/start"))
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString("description=Forged"))
+            .build();
+        assertEquals(403, client.send(form, HttpResponse.BodyHandlers.ofString()).statusCode());
+        assertEquals(403, client.send(HttpRequest.newBuilder(uri("/api/activities/1")).DELETE().build(),
+            HttpResponse.BodyHandlers.ofString()).statusCode());
+
+        HttpRequest crossOrigin = HttpRequest.newBuilder(uri("/api/activities"))
+            .header("Origin", "https://example.com")
+            .build();
+        assertEquals(403, client.send(crossOrigin, HttpResponse.BodyHandlers.ofString()).statusCode());
+
+        assertTrue(repository.findAll().isEmpty());
+    }
+
+    @Test
+    void testRequestsForAnotherHostAreRejected() throws IOException {
+        save(LocalDateTime.of(2025, 10, 23, 9, 0), "Private");
+        int port = server.address().getPort();
+
+        // A rebound DNS name reaches the server, but with the attacker's host name
+        assertTrue(rawGet("attacker.example:" + port).startsWith("HTTP/1.1 403"));
+        assertTrue(rawGet("localhost:" + (port + 1)).startsWith("HTTP/1.1 403"));
+        assertTrue(rawGet("localhost:" + port).startsWith("HTTP/1.1 200"));
+    }
+
+    @Test
+    void testMetricsReportLatencyPerEndpoint() throws Exception {
+        send("GET", "/api/health");
+        send("GET", "/api/health");
+        send("GET", "/api/activities/active");
+
+        HttpResponse<String> response = send("GET", "/api/metrics");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"health\":{\"count\":2,"));
+        assertTrue(response.body().contains("\"activities\":{\"count\":1,"));
+        assertTrue(response.body().contains("\"p99Ms\":"));
+    }
+
+    private Activity save(LocalDateTime start, String description) {
+        return repository.save(Activity.builder()
+            .startTime(start)
+            .endTime(start.plusMinutes(1))
+            .activityType(ActivityType.DEVELOP)
+            .status(ActivityStatus.COMPLETED)
+            .description(description)
+            .build());
+    }
+
+    private HttpResponse<String> send(String method, String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri(path))
+            .header(ApiServer.CLIENT_HEADER, "test")
+            .method(method, HttpRequest.BodyPublishers.noBody())
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    // The HTTP client always sends the host it connects to, so a foreign Host needs a raw request
+    private String rawGet(String host) throws IOException {
+        try (Socket socket = new Socket(server.address().getAddress(), server.address().getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET /api/activities HTTP/1.1\r\nHost: " + host + "\r\nConnection: close\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            return new String(socket.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.address().getPort() + path);
+    }
+
+    private static int occurrences(String text, String fragment) {
+        Matcher matcher = Pattern.compile(Pattern.quote(fragment)).matcher(text);
+        int count = 0;
+        while (matcher.find()) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,148 @@
+package org.veenix.timer.service;
+
+import org.junit.jupiter.api.Test;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActivityIntervalIndexTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 10, 23, 0, 0);
+
+    @Test
+    void testFindOverlappingReturnsIntersectingActivities() {
+        ActivityIntervalIndex index = ActivityIntervalIndex.build(List.of(
+            completed(1L, 9, 0, 10, 0),
+            completed(2L, 10, 0, 11, 0),
+            completed(3L, 13, 0, 14, 0)
+        ));
+
+        List<Activity> result = index.findOverlapping(DAY.withHour(9).withMinute(30), DAY.withHour(10).withMinute(30), null);
+
+        assertEquals(List.of(1L, 2L), result.stream().map(Activity::id).toList());
+    }
+
+    @Test
+    void testAdjacentActivitiesDoNotOverlap() {
+        ActivityIntervalIndex index = ActivityIntervalIndex.build(List.of(
+            completed(1L, 9, 0, 10, 0),
+            completed(2L, 11, 0, 12, 0)
+        ));
+
+        assertTrue(index.findOverlapping(DAY.withHour(10), DAY.withHour(11), null).isEmpty());
+    }
+
+    @Test
+    void testFindOverlappingExcludesEditedActivity() {
+        ActivityIntervalIndex index = ActivityIntervalIndex.build(List.of(
+            completed(1L, 9, 0, 10, 0)
+        ));
+
+        assertTrue(index.findOverlapping(DAY.withHour(9), DAY.withHour(10), 1L).isEmpty());
+        assertEquals(1, index.findOverlapping(DAY.withHour(9), DAY.withHour(10), 2L).size());
+    }
+
+    @Test
+    void testActiveActivityRunsUntilNow() {
+        Activity active = Activity.builder()
+                .id(1L)
+                .startTime(DAY.withHour(9))
+                .activityType(ActivityType.DEVELOP)
+                .status(ActivityStatus.ACTIVE)
+                .description("Running")
+                .build();
+        ActivityIntervalIndex index = ActivityIntervalIndex.build(List.of(active), DAY.withHour(12));
+
+        assertEquals(1, index.findOverlapping(DAY.withHour(11), DAY.withHour(13), null).size());
+        assertTrue(index.findOverlapping(DAY.withHour(12), DAY.withHour(13), null).isEmpty());
+    }
+
+    @Test
+    void testFindOverlapsAcrossHistory() {
+        ActivityIntervalIndex index = ActivityIntervalIndex.build(List.of(
+            completed(1L, 9, 0, 12, 0),
+            completed(2L, 10, 0, 10, 30),
+            completed(3L, 11, 0, 13, 0),
+            completed(4L, 13, 0, 14, 0)
+        ));
+
+        List<ActivityIntervalIndex.Overlap> overlaps = index.findOverlaps();
+
+        assertEquals(2, overlaps.size());
+        assertEquals(1L, overlaps.get(0).first().id());
+        assertEquals(2L, overlaps.get(0).second().id());
+        assertEquals(Duration.ofMinutes(30), overlaps.get(0).duration());
+        assertEquals(1L, overlaps.get(1).first().id());
+        assertEquals(3L, overlaps.get(1).second().id());
+        assertEquals(Duration.ofMinutes(60), overlaps.get(1).duration());
+    }
+
+    @Test
+    void testFindGapsPerDay() {
+        ActivityIntervalIndex index = ActivityIntervalIndex.build(List.of(
+            completed(1L, 9, 0, 10, 0),
+            completed(2L, 10, 1, 11, 0),
+            completed(3L, 13, 0, 14, 0),
+            // Next day starts a new coverage window
+            Activity.builder()
+                .id(4L)
+                .startTime(DAY.plusDays(1).withHour(8))
+                .endTime(DAY.plusDays(1).withHour(9))
+                .activityType(ActivityType.MEETING)
+                .status(ActivityStatus.COMPLETED)
+                .description("Tomorrow")
+                .build()
+        ));
+
+        List<ActivityIntervalIndex.Gap> gaps = index.findGaps(Duration.ofMinutes(1));
+
+        assertEquals(1, gaps.size());
+        assertEquals(DAY.withHour(11), gaps.get(0).start());
+        assertEquals(DAY.withHour(13), gaps.get(0).end());
+    }
+
+    @Test
+    void testFindOverlappingMatchesBruteForce() {
+        Random random = new Random(42);
+        List<Activity> activities = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            LocalDateTime start = DAY.plusMinutes(random.nextInt(60 * 24 * 30));
+            activities.add(Activity.builder()
+                    .id(id)
+                    .startTime(start)
+                    .endTime(start.plusMinutes(1 + random.nextInt(240)))
+                    .activityType(ActivityType.DEVELOP)
+                    .status(ActivityStatus.COMPLETED)
+                    .build());
+        }
+        ActivityIntervalIndex index = ActivityIntervalIndex.build(activities);
+
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime start = DAY.plusMinutes(random.nextInt(60 * 24 * 30));
+            LocalDateTime end = start.plusMinutes(1 + random.nextInt(240));
+            long expected = activities.stream()
+                    .filter(a -> a.startTime().isBefore(end) && a.endTime().isAfter(start))
+                    .count();
+            assertEquals(expected, index.findOverlapping(start, end, null).size());
+        }
+    }
+
+    private Activity completed(Long id, int startHour, int startMinute, int endHour, int endMinute) {
+        return Activity.builder()
+                .id(id)
+                .startTime(DAY.withHour(startHour).withMinute(startMinute))
+                .endTime(DAY.withHour(endHour).withMinute(endMinute))
+                .activityType(ActivityType.DEVELOP)
+                .status(ActivityStatus.COMPLETED)
+                .description("Activity " + id)
+                .build();
+    }
+}
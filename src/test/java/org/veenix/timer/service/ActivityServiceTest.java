@@ -1,16 +1,13 @@
 package org.veenix.timer.service;
 
-import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.veenix.timer.model.Activity;
 import org.veenix.timer.model.ActivityStatus;
 import org.veenix.timer.model.ActivityType;
 import org.veenix.timer.persistence.ActivityRepository;
-import org.veenix.timer.persistence.ActivityRepositoryImpl;
-import org.veenix.timer.persistence.DatabaseConnection;
+import org.veenix.timer.persistence.InMemoryActivityRepository;
 
-import java.io.File;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -21,23 +18,14 @@ class ActivityServiceTest {
     private ActivityService activityService;
     private ActivityRepository activityRepository;
     private ConfigurationService configurationService;
-    private DatabaseConnection dbConnection;
-    private static final String TEST_DB = "test_activity_service.db";
 
     @BeforeEach
     void setUp() {
-        dbConnection = new DatabaseConnection("jdbc:sqlite:" + TEST_DB);
-        activityRepository = new ActivityRepositoryImpl(dbConnection);
+        activityRepository = new InMemoryActivityRepository();
         configurationService = new ConfigurationService();
         activityService = new ActivityService(activityRepository, configurationService);
     }
 
-    @AfterEach
-    void tearDown() {
-        dbConnection.close();
-        new File(TEST_DB).delete();
-    }
-
     @Test
     void testStartActivity() {
         Activity activity = activityService.startActivity(ActivityType.DEVELOP, "Test task");
@@ -120,7 +108,8 @@ class ActivityServiceTest {
         assertEquals(activity.id(), stoppedActivity.id());
         assertEquals(ActivityStatus.COMPLETED, stoppedActivity.status());
         assertNotNull(stoppedActivity.endTime());
-        assertTrue(stoppedActivity.endTime().isAfter(stoppedActivity.startTime()));
+        // Rounding truncates seconds; an activity stopped within its first minute ends when it started
+        assertFalse(stoppedActivity.endTime().isBefore(stoppedActivity.startTime()));
     }
 
     @Test
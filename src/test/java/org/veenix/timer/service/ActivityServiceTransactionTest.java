@@ -0,0 +1,161 @@
+package org.veenix.timer.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.veenix.timer.metrics.Counter;
+import org.veenix.timer.metrics.MetricsRegistry;
+import org.veenix.timer.metrics.Timer;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+import org.veenix.timer.persistence.ActivityRepository;
+import org.veenix.timer.persistence.ActivityRepositoryImpl;
+import org.veenix.timer.persistence.DatabaseConnection;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActivityServiceTransactionTest {
+
+    private static final String TEST_DB = "test_activity_service_tx.db";
+    private DatabaseConnection dbConnection;
+    private ActivityRepository activityRepository;
+    private FailureInjectingActivityRepository failingRepository;
+    private ActivityService activityService;
+
+    @BeforeEach
+    void setUp() {
+        dbConnection = new DatabaseConnection("jdbc:sqlite:" + TEST_DB);
+        activityRepository = new ActivityRepositoryImpl(dbConnection);
+        failingRepository = new FailureInjectingActivityRepository(activityRepository);
+        activityService = new ActivityService(failingRepository, new ConfigurationService());
+    }
+
+    @AfterEach
+    void tearDown() {
+        dbConnection.close();
+        new File(TEST_DB).delete();
+        new File(TEST_DB + "-wal").delete();
+        new File(TEST_DB + "-shm").delete();
+    }
+
+    @Test
+    void testStartActivityIsAtomic() {
+        activeActivity("Running");
+
+        assertAtomic(service -> service.startActivity(ActivityType.BUG, "New task", LocalDateTime.now()));
+    }
+
+    @Test
+    void testStopActivityIsAtomic() {
+        activeActivity("Running");
+
+        assertAtomic(ActivityService::stopActivity);
+    }
+
+    @Test
+    void testRestartActivityIsAtomic() {
+        Activity source = activityRepository.save(Activity.builder()
+            .startTime(LocalDateTime.now().minusHours(3))
+            .endTime(LocalDateTime.now().minusHours(2))
+            .activityType(ActivityType.MEETING)
+            .status(ActivityStatus.COMPLETED)
+            .description("Standup")
+            .build());
+        activeActivity("Running");
+
+        assertAtomic(service -> service.restartActivity(source.id()));
+    }
+
+    @Test
+    void testEachOperationCommitsOnce() {
+        Counter commits = dbConnection.getMetrics().counter("db.commit");
+        Activity source = activeActivity("Running");
+
+        long before = commits.count();
+        activityService.startActivity(ActivityType.BUG, "New description", LocalDateTime.now());
+        assertEquals(before + 1, commits.count(), "startActivity");
+
+        before = commits.count();
+        activityService.stopActivity();
+        assertEquals(before + 1, commits.count(), "stopActivity");
+
+        before = commits.count();
+        activityService.restartActivity(source.id());
+        assertEquals(before + 1, commits.count(), "restartActivity");
+    }
+
+    @Test
+    void testRestartIsNotRecordedAsAStop() {
+        Timer stops = MetricsRegistry.getInstance().timer("service.stopActivity");
+        Activity source = activeActivity("Running");
+
+        long before = stops.count();
+        activityService.restartActivity(source.id());
+
+        assertEquals(before, stops.count());
+        assertEquals(1, activityRepository.findByStatus(ActivityStatus.ACTIVE).size());
+    }
+
+    @Test
+    void testDescriptionCacheIsNotPoisonedByRollback() {
+        failingRepository.failAfterStep(2);
+        assertThrows(FailureInjectingActivityRepository.InjectedFailure.class,
+            () -> activityService.startActivity(ActivityType.BUG, "Rolled back description", LocalDateTime.now()));
+        failingRepository.failAfterStep(-1);
+
+        Activity started = activityService.startActivity(ActivityType.BUG, "Rolled back description", LocalDateTime.now());
+
+        assertEquals("Rolled back description", activityRepository.findById(started.id()).orElseThrow().description());
+    }
+
+    /**
+     * Injects a failure after every step of the operation in turn and checks that each failure leaves the
+     * data exactly as it was; then checks that the operation does change the data without a failure.
+     */
+    private void assertAtomic(Consumer<ActivityService> operation) {
+        List<Activity> before = activityRepository.findAll();
+
+        int stepCount = countSteps(operation);
+        assertTrue(stepCount > 1, "operation should take several steps");
+
+        for (int step = 1; step <= stepCount; step++) {
+            failingRepository.failAfterStep(step);
+            assertThrows(FailureInjectingActivityRepository.InjectedFailure.class, () -> operation.accept(activityService),
+                "step " + step);
+            assertEquals(before, activityRepository.findAll(), "partial changes left after step " + step);
+        }
+
+        failingRepository.failAfterStep(-1);
+        operation.accept(activityService);
+        assertNotEquals(before, activityRepository.findAll());
+    }
+
+    private int countSteps(Consumer<ActivityService> operation) {
+        // Run once inside a transaction that is always rolled back, only to learn the number of steps
+        failingRepository.failAfterStep(-1);
+        try {
+            activityRepository.inWriteTransaction("count", () -> {
+                operation.accept(activityService);
+                throw new FailureInjectingActivityRepository.InjectedFailure("count only");
+            });
+        } catch (FailureInjectingActivityRepository.InjectedFailure e) {
+            // Expected
+        }
+        return failingRepository.steps().size();
+    }
+
+    private Activity activeActivity(String description) {
+        return activityRepository.save(Activity.builder()
+            .startTime(LocalDateTime.now().minusHours(1))
+            .activityType(ActivityType.DEVELOP)
+            .status(ActivityStatus.ACTIVE)
+            .description(description)
+            .build());
+    }
+}
@@ -0,0 +1,139 @@
+package org.veenix.timer.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.veenix.timer.model.ActivityType;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigurationServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCreatesFileWithDefaults() {
+        Path file = tempDir.resolve("timer.properties");
+
+        ConfigurationService service = new ConfigurationService(file);
+
+        assertTrue(Files.exists(file));
+        assertEquals(Configuration.defaults(), service.getConfiguration());
+    }
+
+    @Test
+    void testSnapshotIsSharedAndNotReparsed() {
+        Path file = tempDir.resolve("timer.properties");
+
+        Configuration first = new ConfigurationService(file).getConfiguration();
+        Configuration second = new ConfigurationService(file).getConfiguration();
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void testReloadsWhenFileChanges() throws Exception {
+        Path file = tempDir.resolve("timer.properties");
+        new ConfigurationService(file);
+
+        Files.writeString(file, "rounding.minutes=15\ncsv.delimiter=;\n");
+        // Make sure the change is visible even on file systems with coarse timestamps
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(5)));
+
+        ConfigurationService service = new ConfigurationService(file);
+        assertEquals(15, service.getRoundingMinutes());
+        assertEquals(";", service.getCsvDelimiter());
+        // Missing entries fall back to defaults
+        assertEquals(60, service.getDefaultDurationMinutes());
+    }
+
+    @Test
+    void testInvalidValuesFallBack() throws Exception {
+        Path file = tempDir.resolve("timer.properties");
+        Files.writeString(file, "rounding.minutes=7\ndefault.start.time=9am\ndefault.activity.type=nope\n"
+            + "default.duration.minutes=-1\nslow.query.threshold.ms=abc\ndb.busy.timeout.ms=-5\n"
+            + "archive.after.days=-1\ndb.maintenance.threshold=x\nstorage.backend= \n"
+            + "replica.file=\n");
+
+        Configuration configuration = new ConfigurationService(file).getConfiguration();
+
+        assertEquals(0, configuration.roundingMinutes());
+        assertEquals("09:00", configuration.defaultStartTime());
+        assertEquals(ActivityType.DEVELOP, configuration.defaultActivityType());
+        assertEquals(60, configuration.defaultDurationMinutes());
+        assertEquals(500, configuration.slowQueryThresholdMillis());
+        assertEquals(5000, configuration.busyTimeoutMillis());
+        assertEquals(5, configuration.busyRetries());
+        assertEquals(365, configuration.archiveAfterDays());
+        assertEquals(1000, configuration.maintenanceThreshold());
+        assertEquals("sqlite", configuration.storageBackend());
+        assertEquals("timer-replica.db", configuration.replicaFile());
+    }
+
+    @Test
+    void testEditWritesBatchAtomically() throws Exception {
+        Path file = tempDir.resolve("timer.properties");
+        Files.writeString(file, "custom.key=kept\n");
+        ConfigurationService service = new ConfigurationService(file);
+
+        service.edit()
+            .roundingMinutes(30)
+            .defaultStartTime("08:30")
+            .defaultActivityType(ActivityType.MEETING)
+            .save();
+
+        Configuration configuration = service.getConfiguration();
+        assertEquals(30, configuration.roundingMinutes());
+        assertEquals("08:30", configuration.defaultStartTime());
+        assertEquals(ActivityType.MEETING, configuration.defaultActivityType());
+
+        String content = Files.readString(file);
+        assertTrue(content.contains("custom.key=kept"));
+        assertTrue(content.contains("rounding.minutes=30"));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(1, files.count(), "temporary file left behind");
+        }
+    }
+
+    @Test
+    void testEditValidatesEachSetting() {
+        ConfigurationService service = new ConfigurationService(tempDir.resolve("timer.properties"));
+
+        assertThrows(IllegalArgumentException.class, () -> service.edit().roundingMinutes(7));
+        assertThrows(IllegalArgumentException.class, () -> service.edit().defaultStartTime("25:00"));
+        assertThrows(IllegalArgumentException.class, () -> service.edit().defaultDurationMinutes(0));
+        assertThrows(IllegalArgumentException.class, () -> service.edit().slowQueryThresholdMillis(-1));
+        assertThrows(IllegalArgumentException.class, () -> service.edit().busyTimeoutMillis(-1));
+        assertThrows(IllegalArgumentException.class, () -> service.edit().busyRetries(-1));
+        assertThrows(IllegalArgumentException.class, () -> service.edit().archiveAfterDays(-1));
+        assertThrows(IllegalArgumentException.class, () -> service.edit().maintenanceThreshold(-1));
+        assertThrows(IllegalArgumentException.class, () -> service.edit().storageBackend(" "));
+        assertThrows(IllegalArgumentException.class, () -> service.edit().replicaFile(""));
+    }
+
+    @Test
+    void testWatcherReloadsOnChange() throws Exception {
+        Path file = tempDir.resolve("timer.properties");
+        ConfigurationService service = new ConfigurationService(file);
+        service.watchForChanges();
+        try {
+            Files.writeString(file, "default.duration.minutes=25\n");
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(5)));
+
+            // The JDK polls on some platforms, so allow a generous timeout
+            long deadline = System.currentTimeMillis() + 15_000;
+            while (service.getDefaultDurationMinutes() != 25 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals(25, service.getDefaultDurationMinutes());
+        } finally {
+            service.stopWatching();
+        }
+    }
+}
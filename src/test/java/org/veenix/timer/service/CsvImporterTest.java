@@ -0,0 +1,150 @@
+package org.veenix.timer.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+import org.veenix.timer.persistence.ActivityRepositoryImpl;
+import org.veenix.timer.persistence.DatabaseConnection;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvImporterTest {
+
+    private static final String HEADER = "id,start_time,end_time,activity_type,status,description\n";
+
+    @TempDir
+    Path tempDir;
+
+    private DatabaseConnection dbConnection;
+    private ActivityRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        dbConnection = new DatabaseConnection("jdbc:sqlite:" + tempDir.resolve("import.db"));
+        repository = new ActivityRepositoryImpl(dbConnection);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dbConnection.close();
+    }
+
+    @Test
+    void testImportsExportedRowsAcrossManySmallChunks() throws IOException {
+        // Descriptions with delimiters, quotes and line breaks make many chunk guesses land inside a quoted field
+        List<String> descriptions = new ArrayList<>();
+        StringBuilder csv = new StringBuilder(HEADER);
+        LocalDateTime start = LocalDateTime.of(2025, 10, 23, 8, 0);
+        for (int i = 0; i < 300; i++) {
+            String description = switch (i % 4) {
+                case 0 -> "Plain " + i;
+                case 1 -> "Comma, quote \"" + i + "\"";
+                case 2 -> "Line one " + i + "\nline two\nline three";
+                default -> "Ünïcode € " + i;
+            };
+            descriptions.add(description);
+            LocalDateTime begin = start.plusMinutes(30L * i);
+            csv.append(i + 1).append(',')
+                .append(begin.toString().replace('T', ' ')).append(":00,")
+                .append(begin.plusMinutes(25).toString().replace('T', ' ')).append(":00,")
+                .append("DEVELOP,COMPLETED,")
+                .append(escape(description)).append('\n');
+        }
+
+        CsvImporter.Result result = importer(3, 64).importFile(write(csv.toString()));
+
+        assertEquals(300, result.imported());
+        assertEquals(0, result.rejected(), () -> result.rejects().toString());
+        List<Activity> activities = repository.findAll();
+        assertEquals(descriptions, activities.stream().map(Activity::description).toList());
+        assertEquals(start.plusMinutes(30L * 299), activities.get(299).startTime());
+        assertEquals(start.plusMinutes(30L * 299 + 25), activities.get(299).endTime());
+    }
+
+    @Test
+    void testEmptyFieldsCrLfAndBlankLines() throws IOException {
+        String csv = "id;start_time;end_time;activity_type;status;description\r\n"
+            + "\r\n"
+            + "1;2025-10-23 09:00:00;;MEETING;ACTIVE;\r\n"
+            + "2;2025-10-23T10:15;2025-10-23T10:45:30.5;BUG;COMPLETED;\"Fix; again\"\r\n";
+
+        CsvImporter.Result result = new CsvImporter(repository, ";").importFile(write(csv));
+
+        assertEquals(2, result.imported());
+        List<Activity> activities = repository.findAll();
+        Activity active = activities.get(0);
+        assertNull(active.endTime());
+        assertNull(active.description());
+        assertEquals(ActivityStatus.ACTIVE, active.status());
+        Activity bug = activities.get(1);
+        assertEquals(LocalDateTime.of(2025, 10, 23, 10, 45, 30, 500_000_000), bug.endTime());
+        assertEquals(ActivityType.BUG, bug.activityType());
+        assertEquals("Fix; again", bug.description());
+    }
+
+    @Test
+    void testMalformedRowsAreRejectedAndCounted() throws IOException {
+        String csv = HEADER
+            + "1,2025-10-23 09:00:00,2025-10-23 10:00:00,DEVELOP,COMPLETED,Good\n"
+            + "2,2025-10-23 09:00:00,2025-10-23 10:00:00,LUNCH,COMPLETED,Unknown type\n"
+            + "3,23-10-2025 09:00,,DEVELOP,ACTIVE,Bad time\n"
+            + "4,2025-10-23 09:00:00,2025-10-23 08:00:00,DEVELOP,COMPLETED,Ends before it starts\n"
+            + "5,2025-10-23 09:00:00,DEVELOP,COMPLETED,Missing field\n"
+            + "6,2025-10-23 11:00:00,2025-10-23 12:00:00,SUPPORT,COMPLETED,\"Also good\"\n";
+
+        CsvImporter.Result result = importer(2, 64).importFile(write(csv));
+
+        assertEquals(2, result.imported());
+        assertEquals(4, result.rejected());
+        assertEquals(List.of("Good", "Also good"), repository.findAll().stream().map(Activity::description).toList());
+        assertTrue(result.rejects().get(0).contains("unknown activity type 'LUNCH'"), result.rejects().get(0));
+        assertTrue(result.rejects().get(1).contains("invalid time '23-10-2025 09:00'"), result.rejects().get(1));
+        assertTrue(result.rejects().get(2).contains("end time is before start time"), result.rejects().get(2));
+        assertTrue(result.rejects().get(3).contains("expected 6 fields but found 5"), result.rejects().get(3));
+        assertTrue(result.rejects().get(0).startsWith("byte " + csv.indexOf("2,2025")));
+    }
+
+    @Test
+    void testUnterminatedQuoteAtEndOfFileIsRejected() throws IOException {
+        String csv = "1,2025-10-23 09:00:00,,DEVELOP,ACTIVE,\"Never closed\n";
+
+        CsvImporter.Result result = new CsvImporter(repository, ",").importFile(write(csv));
+
+        assertEquals(0, result.imported());
+        assertEquals(1, result.rejected());
+        assertTrue(result.rejects().get(0).contains("unterminated quoted field"));
+    }
+
+    @Test
+    void testDelimiterMustBeUsable() {
+        assertThrows(IllegalArgumentException.class, () -> new CsvImporter(repository, ""));
+        assertThrows(IllegalArgumentException.class, () -> new CsvImporter(repository, "\""));
+    }
+
+    private CsvImporter importer(int threads, int chunkBytes) {
+        return new CsvImporter(repository, ",", threads, chunkBytes);
+    }
+
+    private Path write(String csv) throws IOException {
+        return Files.writeString(tempDir.resolve("import.csv"), csv);
+    }
+
+    // As ExportCommand.escapeCsvField
+    private static String escape(String field) {
+        if (field.contains(",") || field.contains("\"") || field.contains("\n") || field.contains("\r")) {
+            return "\"" + field.replace("\"", "\"\"") + "\"";
+        }
+        return field;
+    }
+}
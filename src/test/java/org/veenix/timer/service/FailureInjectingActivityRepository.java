@@ -0,0 +1,127 @@
+package org.veenix.timer.service;
+
+import org.veenix.timer.model.Activity;
+import org.veenix.timer.model.ActivityStatus;
+import org.veenix.timer.model.ActivityType;
+import org.veenix.timer.persistence.ActivityRepository;
+import org.veenix.timer.persistence.PageCursor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Test repository that delegates to a real one and throws {@link InjectedFailure} right after a chosen
+ * call has completed, to simulate a crash between two steps of a service operation.
+ */
+class FailureInjectingActivityRepository implements ActivityRepository {
+
+    static class InjectedFailure extends RuntimeException {
+        InjectedFailure(String message) {
+            super(message);
+        }
+    }
+
+    private final ActivityRepository delegate;
+    private final List<String> steps = new ArrayList<>();
+    private int failAfterStep = -1;
+
+    FailureInjectingActivityRepository(ActivityRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Fails after the given (1-based) repository call; a negative value disables the failure.
+     */
+    void failAfterStep(int step) {
+        this.failAfterStep = step;
+        steps.clear();
+    }
+
+    List<String> steps() {
+        return steps;
+    }
+
+    private <T> T step(String name, Supplier<T> call) {
+        T result = call.get();
+        steps.add(name);
+        if (steps.size() == failAfterStep) {
+            throw new InjectedFailure("Injected failure after step " + steps.size() + " (" + name + ")");
+        }
+        return result;
+    }
+
+    private void step(String name, Runnable call) {
+        step(name, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    @Override
+    public Activity save(Activity activity) {
+        return step("save", () -> delegate.save(activity));
+    }
+
+    @Override
+    public Activity update(Activity activity) {
+        return step("update", () -> delegate.update(activity));
+    }
+
+    @Override
+    public void delete(Long id) {
+        step("delete", () -> delegate.delete(id));
+    }
+
+    @Override
+    public Optional<Activity> findById(Long id) {
+        return step("findById", () -> delegate.findById(id));
+    }
+
+    @Override
+    public List<Activity> findAll() {
+        return step("findAll", delegate::findAll);
+    }
+
+    @Override
+    public List<Activity> findByStatus(ActivityStatus status) {
+        return step("findByStatus", () -> delegate.findByStatus(status));
+    }
+
+    @Override
+    public List<Activity> findByType(ActivityType type) {
+        return step("findByType", () -> delegate.findByType(type));
+    }
+
+    @Override
+    public List<Activity> findByStartTime(LocalDateTime startTime) {
+        return step("findByStartTime", () -> delegate.findByStartTime(startTime));
+    }
+
+    @Override
+    public List<Activity> findByDateRange(LocalDateTime from, LocalDateTime to) {
+        return step("findByDateRange", () -> delegate.findByDateRange(from, to));
+    }
+
+    @Override
+    public List<Activity> findPageAfter(LocalDateTime from, LocalDateTime to, PageCursor after, int limit) {
+        return step("findPageAfter", () -> delegate.findPageAfter(from, to, after, limit));
+    }
+
+    @Override
+    public List<Activity> findPageBefore(LocalDateTime from, LocalDateTime to, PageCursor before, int limit) {
+        return step("findPageBefore", () -> delegate.findPageBefore(from, to, before, limit));
+    }
+
+    @Override
+    public void updateStatusByStatus(ActivityStatus currentStatus, ActivityStatus newStatus, LocalDateTime endTime) {
+        step("updateStatusByStatus", () -> delegate.updateStatusByStatus(currentStatus, newStatus, endTime));
+    }
+
+    @Override
+    public <T> T inWriteTransaction(String operation, Supplier<T> work) {
+        return delegate.inWriteTransaction(operation, work);
+    }
+}